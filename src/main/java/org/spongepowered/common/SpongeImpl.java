@@ -267,6 +267,7 @@ public static void postShutdownEvents() {
         check(game);
         postState(GameState.GAME_STOPPING, SpongeEventFactory.createGameStoppingEvent(Sponge.getCauseStackManager().getCurrentCause()));
         postState(GameState.GAME_STOPPED, SpongeEventFactory.createGameStoppedEvent(Sponge.getCauseStackManager().getCurrentCause()));
+        getScheduler().shutdownAsyncScheduler();
     }
 
     // TODO this code is used a BUNCH of times
@@ -27,4 +27,21 @@
 public interface HopperOptimizationBridge {
 
     void hopperBridge$setCancelDirtyUpdate(boolean canMarkDirty);
+
+    /**
+     * Gets a counter that changes whenever this tile entity is marked dirty,
+     * its containing block changes or it is invalidated.
+     *
+     * @return The modification count
+     */
+    int hopperBridge$getModificationCount();
+
+    /**
+     * Gets a counter that only changes when the containing block of this tile
+     * entity changes or it is invalidated, such as when a neighboring chest
+     * is placed.
+     *
+     * @return The layout version
+     */
+    int hopperBridge$getLayoutVersion();
 }
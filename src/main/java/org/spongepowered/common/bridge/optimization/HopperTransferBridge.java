@@ -22,18 +22,13 @@
  * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
  * THE SOFTWARE.
  */
-package org.spongepowered.common.bridge.world.chunk.storage;
+package org.spongepowered.common.bridge.optimization;
 
-import net.minecraft.world.chunk.storage.RegionFile;
-import org.spongepowered.asm.mixin.Mixin;
-import org.spongepowered.asm.mixin.gen.Accessor;
+import net.minecraft.inventory.IInventory;
 
-import java.io.File;
-import java.io.RandomAccessFile;
-import java.util.List;
+import javax.annotation.Nullable;
 
-@Mixin(RegionFile.class)
-public interface RegionFileAccessor {
+public interface HopperTransferBridge {
 
-    @Accessor("offsets") int[] accessor$getOffsets();
+    @Nullable IInventory hopperBridge$getSourceInventory();
 }
@@ -131,6 +131,17 @@ public interface WorldServerBridge {
 
     boolean bridge$getDenyNeighborNotificationsUnloadedChunks();
 
+    /**
+     * Gets whether block changes and entity spawns in this world are
+     * tracked, which is the case when at least one plugin listens to the
+     * relevant events and the world is not configured to bypass cause
+     * tracking.
+     *
+     * @param tracksEvent Whether the relevant event has any listeners
+     * @return True if the changes should be captured
+     */
+    boolean bridge$tracksCauses(boolean tracksEvent);
+
     net.minecraft.world.Explosion bridge$triggerInternalExplosion(Explosion explosion, Function<? super net.minecraft.world.Explosion, ? extends PhaseContext<?>> contextCreator);
 
     void bridge$doChunkGC();
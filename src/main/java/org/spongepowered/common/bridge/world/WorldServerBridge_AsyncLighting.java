@@ -27,10 +27,13 @@
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.EnumSkyBlock;
 import net.minecraft.world.chunk.Chunk;
+import org.spongepowered.common.world.lighting.AsyncLightingEngine;
 
 import java.util.List;
 import java.util.concurrent.ExecutorService;
 
+import javax.annotation.Nullable;
+
 public interface WorldServerBridge_AsyncLighting {
 
     boolean asyncLightingBridge$updateLightAsync(EnumSkyBlock lightType, BlockPos pos, Chunk chunk);
@@ -38,4 +41,6 @@ public interface WorldServerBridge_AsyncLighting {
     boolean asyncLightingBridge$checkLightAsync(EnumSkyBlock lightType, BlockPos pos, Chunk chunk, List<Chunk> neighbors);
 
     ExecutorService asyncLightingBridge$getLightingExecutor();
+
+    @Nullable AsyncLightingEngine asyncLightingBridge$getLightingEngine();
 }
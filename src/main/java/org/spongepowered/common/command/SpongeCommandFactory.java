@@ -30,6 +30,7 @@
 import static org.spongepowered.api.command.args.GenericArguments.dimension;
 import static org.spongepowered.api.command.args.GenericArguments.firstParsing;
 import static org.spongepowered.api.command.args.GenericArguments.flags;
+import static org.spongepowered.api.command.args.GenericArguments.integer;
 import static org.spongepowered.api.command.args.GenericArguments.literal;
 import static org.spongepowered.api.command.args.GenericArguments.onlyOne;
 import static org.spongepowered.api.command.args.GenericArguments.optional;
@@ -70,6 +71,7 @@
 import org.spongepowered.api.command.args.GenericArguments;
 import org.spongepowered.api.command.spec.CommandExecutor;
 import org.spongepowered.api.command.spec.CommandSpec;
+import org.spongepowered.api.data.persistence.InvalidDataException;
 import org.spongepowered.api.entity.living.player.Player;
 import org.spongepowered.api.event.SpongeEventFactory;
 import org.spongepowered.api.plugin.PluginContainer;
@@ -83,6 +85,7 @@
 import org.spongepowered.api.util.SpongeApiTranslationHelper;
 import org.spongepowered.api.util.StartsWithPredicate;
 import org.spongepowered.api.util.Tristate;
+import org.spongepowered.api.world.BlockChangeFlags;
 import org.spongepowered.api.world.DimensionType;
 import org.spongepowered.api.world.World;
 import org.spongepowered.api.world.storage.WorldProperties;
@@ -94,6 +97,7 @@
 import org.spongepowered.common.bridge.server.MinecraftServerBridge;
 import org.spongepowered.common.bridge.world.DimensionTypeBridge;
 import org.spongepowered.common.bridge.world.WorldServerBridge;
+import org.spongepowered.common.bridge.world.WorldServerBridge_AsyncLighting;
 import org.spongepowered.common.bridge.world.WorldBridge;
 import org.spongepowered.common.bridge.world.WorldInfoBridge;
 import org.spongepowered.common.bridge.world.chunk.ChunkBridge;
@@ -104,14 +108,34 @@
 import org.spongepowered.common.config.type.GlobalConfig;
 import org.spongepowered.common.config.type.TrackerConfig;
 import org.spongepowered.common.config.type.WorldConfig;
+import org.spongepowered.common.data.ImmutableDataCachingUtil;
 import org.spongepowered.common.entity.EntityUtil;
 import org.spongepowered.common.event.SpongeEventManager;
+import org.spongepowered.common.event.tracking.PhaseTrackerStats;
 import org.spongepowered.common.mixin.core.world.WorldAccessor;
+import org.spongepowered.common.mixin.plugin.entityactivation.EntityActivationGrid;
+import org.spongepowered.common.mixin.plugin.entityactivation.EntityActivationRange;
+import org.spongepowered.common.mixin.plugin.entityactivation.TickBudget;
+import org.spongepowered.common.scheduler.SpongeScheduler;
 import org.spongepowered.common.util.SpongeHooks;
+import org.spongepowered.common.world.WorldManager;
+import org.spongepowered.common.world.lighting.AsyncLightingEngine;
+import org.spongepowered.common.world.schematic.SchematicStreamPaster;
+import org.spongepowered.common.world.storage.ChunkCodec;
+import org.spongepowered.common.world.storage.ChunkCodecs;
+import org.spongepowered.common.world.storage.ChunkSavePipeline;
+import org.spongepowered.common.world.storage.SpongeChunkDataStream;
+import org.spongepowered.common.world.storage.SpongeRegionFileCache;
+import org.spongepowered.common.world.storage.WorldStorageUtil;
 
 import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.time.Instant;
 import java.time.LocalDateTime;
@@ -125,6 +149,7 @@
 import java.util.Optional;
 import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -224,6 +249,10 @@ public static CommandSpec createSpongeCommand() {
         nonFlagChildren.register(createSpongeTimingsCommand(), "timings");
         nonFlagChildren.register(createSpongeWhichCommand(), "which");
         nonFlagChildren.register(createSpongeMetricsCommand(), "metrics");
+        nonFlagChildren.register(createSpongeConvertChunksCommand(), "convertchunks");
+        nonFlagChildren.register(createSpongePasteCommand(), "paste");
+        nonFlagChildren.register(createSpongeTrackerCommand(), "tracker");
+        nonFlagChildren.register(createSpongeDataCacheCommand(), "datacache");
         flagChildren.register(createSpongeChunksCommand(), "chunks");
         flagChildren.register(createSpongeTPSCommand(), "tps");
         trackerFlagChildren.register(createSpongeConfigCommand(), "config");
@@ -246,6 +275,10 @@ INDENT, title("plugins"), LONG_INDENT, "List currently installed plugins\n",
                 INDENT, title("which"), LONG_INDENT, "List plugins that own a specific command\n",
                 INDENT, title("tps"), LONG_INDENT, "Provides TPS (ticks per second) data for loaded worlds\n",
                 INDENT, title("metrics"), LONG_INDENT, "Gets or sets permission for metric plugins to operate\n",
+                INDENT, title("convertchunks"), LONG_INDENT, "Converts the chunks of an unloaded world to another compression\n",
+                INDENT, title("paste"), LONG_INDENT, "Pastes a schematic from the schematics folder at your position\n",
+                INDENT, title("tracker"), LONG_INDENT, "Collects and prints statistics about the cost of phase tracking\n",
+                INDENT, title("datacache"), LONG_INDENT, "Shows or resets the hit rates of the immutable data cache\n",
                 SpongeImplHooks.getAdditionalCommandDescriptions()))
             .arguments(firstParsing(nonFlagChildren,
                 flags().flag("-global", "g")
@@ -799,6 +832,116 @@ private static CommandCallable createSpongeTimingsCommand() {
             .build();
     }
 
+    private static CommandCallable createSpongeTrackerCommand() {
+        return CommandSpec.builder()
+            .permission("sponge.command.tracker")
+            .description(Text.of("Collects statistics about the cost of phase tracking, per phase state."))
+            .child(CommandSpec.builder()
+                .executor((src, args) -> {
+                    PhaseTrackerStats.setEnabled(true);
+                    src.sendMessage(Text.of("Enabled and reset tracker statistics"));
+                    return CommandResult.success();
+                })
+                .build(), "on")
+            .child(CommandSpec.builder()
+                .executor((src, args) -> {
+                    PhaseTrackerStats.setEnabled(false);
+                    src.sendMessage(Text.of("Disabled tracker statistics"));
+                    return CommandResult.success();
+                })
+                .build(), "off")
+            .child(CommandSpec.builder()
+                .executor((src, args) -> {
+                    PhaseTrackerStats.reset();
+                    src.sendMessage(Text.of("Tracker statistics reset"));
+                    return CommandResult.success();
+                })
+                .build(), "reset")
+            .child(CommandSpec.builder()
+                .arguments(optional(integer(Text.of("count"))))
+                .executor((src, args) -> {
+                    if (!PhaseTrackerStats.isEnabled()) {
+                        src.sendMessage(Text.of("Please enable tracker statistics by typing /sponge tracker on"));
+                        return CommandResult.empty();
+                    }
+                    final int count = args.<Integer>getOne("count").orElse(10);
+                    final List<PhaseTrackerStats.StateStats> stats = PhaseTrackerStats.getStats();
+                    src.sendMessage(Text.of("Tracker statistics of the last ", PhaseTrackerStats.getCollectionMillis() / 1000,
+                        "s, by time spent unwinding:"));
+                    for (final PhaseTrackerStats.StateStats state : stats.subList(0, Math.min(count, stats.size()))) {
+                        src.sendMessage(Text.of(TextColors.GOLD, state.getName(), TextColors.RESET, ": ",
+                            TextColors.LIGHT_PURPLE, state.getEntered(), TextColors.RESET, " entered, ",
+                            TextColors.LIGHT_PURPLE, state.getUnwound(), TextColors.RESET, " unwound in ",
+                            TextColors.RED, THREE_DECIMAL_DIGITS_FORMATTER.format(state.getUnwindMillis()), "ms", TextColors.RESET, " (max ",
+                            TextColors.RED, THREE_DECIMAL_DIGITS_FORMATTER.format(state.getMaxUnwindMillis()), "ms", TextColors.RESET, "), ",
+                            TextColors.LIGHT_PURPLE, state.getCapturedBlocks(), TextColors.RESET, " blocks, ",
+                            TextColors.LIGHT_PURPLE, state.getCapturedEntities(), TextColors.RESET, " entities, ",
+                            TextColors.RED, THREE_DECIMAL_DIGITS_FORMATTER.format(state.getBlockProcessMillis()), "ms", TextColors.RESET,
+                            " processing blocks"));
+                    }
+                    return CommandResult.success();
+                })
+                .build(), "stats")
+            .child(CommandSpec.builder()
+                .executor((src, args) -> {
+                    final File file = new File(new File(new File("."), "tracker-dumps"),
+                        "tracker-stats-" + DateTimeFormatter.ofPattern("yyyy-MM-dd_HH.mm.ss").format(LocalDateTime.now()) + ".json");
+                    file.getParentFile().mkdirs();
+                    try (final Writer writer = new FileWriter(file)) {
+                        PhaseTrackerStats.writeJson(writer);
+                    } catch (IOException e) {
+                        throw new CommandException(Text.of("Failed to write tracker statistics to ", file), e);
+                    }
+                    src.sendMessage(Text.of("Wrote tracker statistics to: ", file));
+                    return CommandResult.success();
+                })
+                .build(), "dump")
+            .build();
+    }
+
+    private static CommandCallable createSpongeDataCacheCommand() {
+        return CommandSpec.builder()
+            .permission("sponge.command.datacache")
+            .description(Text.of("Shows how well immutable data is served from the cache, per data class."))
+            .child(CommandSpec.builder()
+                .arguments(optional(integer(Text.of("count"))))
+                .executor((src, args) -> {
+                    final int count = args.<Integer>getOne("count").orElse(10);
+                    sendDataCacheStats(src, "Manipulators", ImmutableDataCachingUtil.getManipulatorStats(), count);
+                    sendDataCacheStats(src, "Values", ImmutableDataCachingUtil.getValueStats(), count);
+                    return CommandResult.success();
+                })
+                .build(), "stats")
+            .child(CommandSpec.builder()
+                .executor((src, args) -> {
+                    ImmutableDataCachingUtil.resetStats();
+                    src.sendMessage(Text.of("Data cache statistics reset"));
+                    return CommandResult.success();
+                })
+                .build(), "reset")
+            .build();
+    }
+
+    private static void sendDataCacheStats(final CommandSource src, final String title, final List<ImmutableDataCachingUtil.TypeStats> stats,
+        final int count) {
+        long hits = 0;
+        long lookups = 0;
+        for (final ImmutableDataCachingUtil.TypeStats type : stats) {
+            hits += type.getHits();
+            lookups += type.getLookups();
+        }
+        src.sendMessage(Text.of(title(title + ": "), TextColors.LIGHT_PURPLE, lookups, TextColors.RESET, " lookups, ",
+            TextColors.GREEN, THREE_DECIMAL_DIGITS_FORMATTER.format(lookups == 0 ? 0 : 100.0 * hits / lookups), "%", TextColors.RESET, " hits"));
+        for (final ImmutableDataCachingUtil.TypeStats type : stats.subList(0, Math.min(count, stats.size()))) {
+            src.sendMessage(Text.of(LIST_ITEM_TEXT, TextColors.GOLD, type.getName(), TextColors.RESET, ": ",
+                TextColors.LIGHT_PURPLE, type.getHits(), TextColors.RESET, " hits, ",
+                TextColors.LIGHT_PURPLE, type.getMisses(), TextColors.RESET, " misses (",
+                TextColors.GREEN, THREE_DECIMAL_DIGITS_FORMATTER.format(100.0 * type.getHitRate()), "%", TextColors.RESET, "), ",
+                TextColors.LIGHT_PURPLE, type.getEvictions(), TextColors.RESET, " evicted, ",
+                TextColors.LIGHT_PURPLE, type.getSize(), TextColors.RESET, " cached"));
+        }
+    }
+
     private static CommandSpec createSpongeWhichCommand() {
         return CommandSpec.builder()
             .permission("sponge.command.which")
@@ -828,6 +971,65 @@ private static CommandSpec createSpongeWhichCommand() {
             .build();
     }
 
+    private static CommandSpec createSpongeConvertChunksCommand() {
+        return CommandSpec.builder()
+            .description(Text.of("Converts the chunks of an unloaded world to another compression"))
+            .permission("sponge.command.convertchunks")
+            .arguments(world(Text.of("world")), string(Text.of("compression")))
+            .executor((src, args) -> {
+                final WorldProperties properties = args.<WorldProperties>getOne("world").get();
+                if (Sponge.getServer().getWorld(properties.getUniqueId()).isPresent()) {
+                    throw new CommandException(Text.of("World ", properties.getWorldName(), " has to be unloaded to convert its chunks"));
+                }
+                final String compression = args.<String>getOne("compression").get();
+                final ChunkCodec codec = ChunkCodecs.get(compression);
+                if (codec == null) {
+                    throw new CommandException(Text.of("Unknown chunk compression ", compression));
+                }
+                final Path worldDir = WorldManager.getCurrentSavesDirectory().get().resolve(properties.getWorldName());
+                WorldStorageUtil.closeRegionFiles(worldDir);
+                src.sendMessage(Text.of("Converting the chunks of world ", properties.getWorldName(), " to ", codec.getId()));
+                new SpongeChunkDataStream(worldDir).convert(codec, ForkJoinPool.commonPool()).whenComplete((converted, throwable) -> {
+                    if (throwable != null) {
+                        SpongeImpl.getLogger().error("Failed to convert the chunks of world " + properties.getWorldName(), throwable);
+                        createMessageTask(src, Text.of(TextColors.RED, "Failed to convert the chunks of world ", properties.getWorldName(),
+                            ", see the console for details"));
+                    } else {
+                        createMessageTask(src, Text.of("Converted ", converted, " chunks of world ", properties.getWorldName()));
+                    }
+                });
+                return CommandResult.success();
+            })
+            .build();
+    }
+
+    private static CommandSpec createSpongePasteCommand() {
+        return CommandSpec.builder()
+            .description(Text.of("Pastes a schematic from the schematics folder at your position"))
+            .permission("sponge.command.paste")
+            .arguments(string(Text.of("file")))
+            .executor((src, args) -> {
+                if (!(src instanceof Player)) {
+                    throw new CommandException(Text.of("Players must execute this command!"));
+                }
+                final Path schematics = SpongeImpl.getGameDir().resolve("schematics").normalize();
+                final String name = args.<String>getOne("file").get();
+                final Path file = schematics.resolve(name.endsWith(".schem") ? name : name + ".schem").normalize();
+                if (!file.startsWith(schematics) || !Files.isRegularFile(file)) {
+                    throw new CommandException(Text.of("Unknown schematic ", name));
+                }
+                try {
+                    SchematicStreamPaster.paste(file, ((Player) src).getLocation(), BlockChangeFlags.ALL);
+                } catch (IOException | InvalidDataException e) {
+                    SpongeImpl.getLogger().error("Failed to paste the schematic " + file, e);
+                    throw new CommandException(Text.of("Failed to paste the schematic ", name, ", see the console for details"), e);
+                }
+                src.sendMessage(Text.of("Pasted the schematic ", name));
+                return CommandResult.success();
+            })
+            .build();
+    }
+
     private static CommandSpec createSpongeTPSCommand() {
         return CommandSpec.builder()
             .permission("sponge.command.tps")
@@ -851,6 +1053,33 @@ private static CommandSpec createSpongeTPSCommand() {
                     THREE_DECIMAL_DIGITS_FORMATTER.format(Math.min(1000.0 / (serverMeanTickTime), 20)),
                     TextColors.RESET, ", Mean: ", TextColors.RED, THREE_DECIMAL_DIGITS_FORMATTER.
                         format(serverMeanTickTime), "ms"));
+                final SpongeScheduler scheduler = SpongeImpl.getScheduler();
+                src.sendMessage(Text.of("Async tasks: ", TextColors.LIGHT_PURPLE, scheduler.getAsyncQueueDepth(), TextColors.RESET,
+                    " queued, ", TextColors.LIGHT_PURPLE, scheduler.getCompletedAsyncTasks(), TextColors.RESET, " completed"));
+                for (Map.Entry<PluginContainer, Integer> entry : scheduler.getAsyncQueueDepthByPlugin().entrySet()) {
+                    src.sendMessage(Text.of("  ", entry.getKey().getId(), ": ", TextColors.LIGHT_PURPLE, entry.getValue(), TextColors.RESET,
+                        " queued"));
+                }
+                if (TickBudget.ENTITIES.getLastDeferred() > 0 || TickBudget.TILE_ENTITIES.getLastDeferred() > 0) {
+                    src.sendMessage(Text.of("Deferred over tick budget: ", TextColors.LIGHT_PURPLE, TickBudget.ENTITIES.getLastDeferred(),
+                        TextColors.RESET, " entities, ", TextColors.LIGHT_PURPLE, TickBudget.TILE_ENTITIES.getLastDeferred(), TextColors.RESET,
+                        " tileentities"));
+                }
+                src.sendMessage(Text.of("Chunk saves: ", TextColors.LIGHT_PURPLE, ChunkSavePipeline.getBacklog(), TextColors.RESET,
+                    " queued, ", TextColors.LIGHT_PURPLE, ChunkSavePipeline.getSavedChunks(), TextColors.RESET, " saved, ",
+                    TextColors.LIGHT_PURPLE, ChunkSavePipeline.getCoalescedChunks(), TextColors.RESET, " coalesced"));
+                if (SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations().useBatchedChunkSaving()) {
+                    src.sendMessage(Text.of("Chunk writes: ", TextColors.LIGHT_PURPLE, ChunkSavePipeline.getWrittenBatches(), TextColors.RESET,
+                        " batches, ", TextColors.LIGHT_PURPLE, ChunkSavePipeline.getWrittenBytes() / 1024, TextColors.RESET, " KiB, ",
+                        TextColors.LIGHT_PURPLE, THREE_DECIMAL_DIGITS_FORMATTER.format(ChunkSavePipeline.getWriteThroughput() / (1024 * 1024)),
+                        TextColors.RESET, " MiB/s"));
+                }
+                if (SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations().useNioRegionFiles()) {
+                    src.sendMessage(Text.of("Region files: ", TextColors.LIGHT_PURPLE, SpongeRegionFileCache.getOpenFiles(), TextColors.RESET,
+                        " open, ", TextColors.LIGHT_PURPLE, SpongeRegionFileCache.getHits(), TextColors.RESET, " hits, ",
+                        TextColors.LIGHT_PURPLE, SpongeRegionFileCache.getMisses(), TextColors.RESET, " misses, ",
+                        TextColors.LIGHT_PURPLE, SpongeRegionFileCache.getEvictions(), TextColors.RESET, " evictions"));
+                }
                 return CommandResult.success();
             })
             .build();
@@ -865,6 +1094,25 @@ private static void printWorldTickTime(final CommandSource src, final World worl
             ") TPS: ", TextColors.LIGHT_PURPLE,
             THREE_DECIMAL_DIGITS_FORMATTER.format(worldTps), TextColors.RESET,  ", Mean: ", TextColors.RED,
             THREE_DECIMAL_DIGITS_FORMATTER.format(worldMeanTickTime), "ms"));
+        final EntityActivationGrid activationGrid = EntityActivationRange.getActivationGrid((net.minecraft.world.World) world);
+        if (activationGrid != null) {
+            final Text.Builder builder = Text.builder("  Entity activation (activated/checked):");
+            for (final Map.Entry<Byte, String> type : EntityActivationRange.getActivationTypeMappings().entrySet()) {
+                builder.append(Text.of(" ", type.getValue(), " ", TextColors.LIGHT_PURPLE, activationGrid.getActivatedCount(type.getKey()),
+                    TextColors.RESET, "/", TextColors.LIGHT_PURPLE, activationGrid.getCheckedCount(type.getKey()), TextColors.RESET));
+            }
+            src.sendMessage(builder.build());
+        }
+        if (world instanceof WorldServerBridge_AsyncLighting) {
+            final AsyncLightingEngine lightingEngine = ((WorldServerBridge_AsyncLighting) world).asyncLightingBridge$getLightingEngine();
+            if (lightingEngine != null) {
+                src.sendMessage(Text.of("  Lighting: queued ", TextColors.LIGHT_PURPLE, lightingEngine.getQueuedUpdates(), TextColors.RESET,
+                    ", running ", TextColors.LIGHT_PURPLE, lightingEngine.getRunningUpdates(), TextColors.RESET,
+                    ", last batch ", TextColors.LIGHT_PURPLE, lightingEngine.getLastBatchUpdates(), TextColors.RESET, " in ", TextColors.RED,
+                    THREE_DECIMAL_DIGITS_FORMATTER.format(lightingEngine.getLastBatchMillis()), "ms", TextColors.RESET, " (max ", TextColors.RED,
+                    THREE_DECIMAL_DIGITS_FORMATTER.format(lightingEngine.getMaxBatchMillis()), "ms", TextColors.RESET, ")"));
+            }
+        }
     }
 
     private static Long mean(final long[] values) {
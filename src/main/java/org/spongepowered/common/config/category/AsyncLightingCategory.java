@@ -36,6 +36,12 @@ public class AsyncLightingCategory extends ConfigCategory {
     @Setting(value = "num-threads", comment = "The amount of threads to dedicate for asynchronous lighting updates. (Default: 2)")
     private int numAsyncThreads = 2;
 
+    @Setting(value = "batch-updates", comment = ""
+            + "If 'true', light updates are queued per chunk section and processed in batches once per tick,\n"
+            + "instead of submitting a task for every single light update. Sections changed by a batch are\n"
+            + "resent to the players watching them once the batch completed.")
+    private boolean batchUpdates = true;
+
     public boolean isEnabled() {
         return this.enabled;
     }
@@ -43,4 +49,8 @@ public boolean isEnabled() {
     public int getNumThreads() {
         return this.numAsyncThreads;
     }
+
+    public boolean useBatchedUpdates() {
+        return this.batchUpdates;
+    }
 }
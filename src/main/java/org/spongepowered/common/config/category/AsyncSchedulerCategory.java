@@ -0,0 +1,74 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.config.category;
+
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+
+@ConfigSerializable
+public class AsyncSchedulerCategory extends ConfigCategory {
+
+    @Setting(value = "parallelism", comment = ""
+            + "The amount of threads used to run asynchronous plugin tasks. Tasks blocking on IO\n"
+            + "hold on to their thread, so this is above the amount of processors by default.\n"
+            + "If set to 0 or less, twice the amount of available processors is used. (Default: 0)")
+    private int parallelism = 0;
+
+    @Setting(value = "max-internal-threads", comment = ""
+            + "The maximum amount of threads used to run Sponge's own asynchronous tasks, such as\n"
+            + "reading chunk data. These run separately from plugin tasks, so plugins can't hold\n"
+            + "them back. If set to 0 or less, the amount of available processors is used. (Default: 0)")
+    private int maxInternalThreads = 0;
+
+    @Setting(value = "max-concurrent-tasks-per-plugin", comment = ""
+            + "The maximum amount of asynchronous tasks a single plugin may run at the same time.\n"
+            + "Additional tasks are queued until one of the plugin's tasks completes, so a plugin\n"
+            + "flooding tasks can't occupy every thread. If set to 0 or less, a plugin may use\n"
+            + "every thread of the pool. (Default: 4)")
+    private int maxConcurrentTasksPerPlugin = 4;
+
+    @Setting(value = "virtual-threads", comment = ""
+            + "If 'true', asynchronous tasks are run on virtual threads when the Java runtime\n"
+            + "supports them, which is better suited for tasks blocking on IO such as SQL or HTTP\n"
+            + "requests. Falls back to the platform thread pool if unsupported. (Default: false)")
+    private boolean virtualThreads = false;
+
+    public int getParallelism() {
+        return this.parallelism <= 0 ? Runtime.getRuntime().availableProcessors() * 2 : this.parallelism;
+    }
+
+    public int getMaxInternalThreads() {
+        return this.maxInternalThreads <= 0 ? Runtime.getRuntime().availableProcessors() : this.maxInternalThreads;
+    }
+
+    public int getMaxConcurrentTasksPerPlugin() {
+        return this.maxConcurrentTasksPerPlugin <= 0 ? getParallelism() : this.maxConcurrentTasksPerPlugin;
+    }
+
+    public boolean useVirtualThreads() {
+        return this.virtualThreads;
+    }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.config.category;
+
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+
+@ConfigSerializable
+public class ChunkSaveCategory extends ConfigCategory {
+
+    @Setting(value = "batching-enabled", comment = ""
+            + "If 'true', queued chunk saves are written in batches. Repeated saves of the same chunk\n"
+            + "are coalesced into one write, chunks are compressed in parallel and the chunks of\n"
+            + "a region file are written together.")
+    private boolean batchingEnabled = false;
+
+    @Setting(value = "compression-threads", comment = ""
+            + "The amount of threads to dedicate to compressing chunks before they are written.\n"
+            + "If '1' or less, chunks are compressed on the file IO thread. (Default: 2)")
+    private int compressionThreads = 2;
+
+    @Setting(value = "batch-size", comment = "The maximum amount of queued chunks to write per batch. (Default: 256)")
+    private int batchSize = 256;
+
+    public boolean isBatchingEnabled() {
+        return this.batchingEnabled;
+    }
+
+    public int getCompressionThreads() {
+        return this.compressionThreads;
+    }
+
+    public int getBatchSize() {
+        return this.batchSize;
+    }
+}
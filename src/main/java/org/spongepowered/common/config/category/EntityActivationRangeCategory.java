@@ -43,6 +43,19 @@ public class EntityActivationRangeCategory extends ConfigCategory {
     @Setting(value = "mods", comment = "Per-mod overrides. Refer to the minecraft default mod for example.")
     private Map<String, EntityActivationModCategory> modList = new HashMap<>();
 
+    @Setting(value = "tick-budget", comment = ""
+            + "The time in milliseconds entities may take to tick per world each tick, or '0' to not limit it.\n"
+            + "Once exceeded, entities which are only active because a player is in range are deferred\n"
+            + "to later ticks. This trades simulation accuracy for a steady TPS on overloaded worlds.\n"
+            + "While enabled, inactive entities are also checked for immunities on staggered ticks.")
+    private int tickBudget = 0;
+
+    @Setting(value = "tick-buckets", comment = ""
+            + "The amount of buckets deferrable entities are spread across while 'tick-budget' is enabled.\n"
+            + "The entities in the bucket of the current tick are never deferred, so every entity\n"
+            + "still ticks at least once every this many ticks.")
+    private int tickBuckets = 4;
+
     public EntityActivationRangeCategory() {
         this.defaultRanges.put("ambient", 32);
         this.defaultRanges.put("aquatic", 32);
@@ -63,4 +76,12 @@ public Map<String, EntityActivationModCategory> getModList() {
         return this.modList;
     }
 
+    public int getTickBudget() {
+        return this.tickBudget;
+    }
+
+    public int getTickBuckets() {
+        return this.tickBuckets;
+    }
+
 }
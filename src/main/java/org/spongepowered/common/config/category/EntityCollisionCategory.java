@@ -44,6 +44,13 @@ public class EntityCollisionCategory extends ConfigCategory {
             + "Set to '0' to disable.")
     private int maxEntitiesWithinAABB = 8;
 
+    @Setting(value = "spatial-hash", comment = ""
+            + "If 'true', entities are additionally kept in a grid of 4x4x4 block cells by their bounding box.\n"
+            + "Entity lookups within small boxes, such as collision checks, only visit the entities of the\n"
+            + "overlapping cells instead of whole chunk sections. This helps when many entities share a chunk,\n"
+            + "such as in mob farms. The collision limits above still apply.")
+    private boolean spatialHash = false;
+
     @Setting(value = "mods", comment = "Per-mod overrides. Refer to the minecraft default mod for example.")
     private Map<String, CollisionModCategory> modList = new HashMap<>();
 
@@ -67,4 +74,8 @@ public void setMaxEntitiesWithinAABB(int maxEntities) {
         this.maxEntitiesWithinAABB = maxEntities;
     }
 
+    public boolean useSpatialHash() {
+        return this.spatialHash;
+    }
+
 }
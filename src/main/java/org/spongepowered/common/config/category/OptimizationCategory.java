@@ -57,6 +57,12 @@ public class OptimizationCategory extends ConfigCategory {
     @Setting(value = "async-lighting", comment = "Runs lighting updates asynchronously.")
     private AsyncLightingCategory asyncLightingCategory = new AsyncLightingCategory();
 
+    @Setting(value = "region-files", comment = "Handles how region files are accessed on disk.")
+    private RegionFileCategory regionFileCategory = new RegionFileCategory();
+
+    @Setting(value = "chunk-saving", comment = "Handles how queued chunks are written to region files.")
+    private ChunkSaveCategory chunkSaveCategory = new ChunkSaveCategory();
+
     @Setting(value = "eigen-redstone",
             comment = "Uses theosib's redstone algorithms to completely overhaul the way redstone works.")
     private EigenRedstoneCategory eigenRedstonCategory = new EigenRedstoneCategory();
@@ -100,7 +106,9 @@ public class OptimizationCategory extends ConfigCategory {
             + "Based on Aikar's optimizations of Hoppers, setting this to 'true'\n"
             + "will allow for hoppers to save performing server -> client updates when transferring items.\n"
             + "Because hoppers can transfer items multiple times per tick, these updates can get costly on the server,\n"
-            + "with little to no benefit to the client. Because of the nature of the change,\n"
+            + "with little to no benefit to the client. Idle hoppers also remember their source and\n"
+            + "target inventories and sleep until one of them changes, and hoppers collecting items\n"
+            + "share a single entity lookup per chunk each tick. Because of the nature of the change,\n"
             + "the default will be 'false' due to the inability to pre-emptively\n"
             + "foretell whether mod compatibility will fail with these changes or not.\n"
             + "Refer to: https://github.com/PaperMC/Paper/blob/8175ec916f31dcd130fe0884fe46bdc187d829aa/Spigot-Server-Patches/0269-Optimize-Hoppers.patch\n"
@@ -136,6 +144,24 @@ public class OptimizationCategory extends ConfigCategory {
     )
     private boolean disableRayTracingChunkLoads = false;
 
+    @Setting(value = "region-ordered-pre-generation", comment = ""
+            + "If 'true', chunk pre-generation walks the area region file by region file\n"
+            + "instead of spiralling out from the center. Existing chunks are detected from\n"
+            + "the region file headers, chunks are unloaded as soon as they are populated and\n"
+            + "the progress is saved after every region, so that an interrupted pre-generation\n"
+            + "of the same area resumes where it left off. This only changes the order and\n"
+            + "adds checkpoints, chunks are still generated on the main thread within the tick\n"
+            + "percentage of the pre-generation.")
+    private boolean regionOrderedPreGeneration = false;
+
+    @Setting(value = "section-cached-block-worker-reads", comment = ""
+            + "If 'true', block workers over large loaded areas of a world read the chunk sections directly,\n"
+            + "fetched once, instead of looking up the chunk for every block. While no blocks are set in the\n"
+            + "world in the meantime, the sections of the next 16 block slab are also decoded on several\n"
+            + "threads ahead of being read. The map, merge and reduce procedures of plugins still run in order\n"
+            + "on the main thread, and blocks are still set one by one.")
+    private boolean sectionCachedBlockWorkerReads = false;
+
     public OptimizationCategory() {
         try {
             // Enabled by default on SpongeVanilla, disabled by default on SpongeForge.
@@ -186,6 +212,22 @@ public boolean useAsyncLighting() {
         return this.asyncLightingCategory.isEnabled();
     }
 
+    public RegionFileCategory getRegionFileCategory() {
+        return this.regionFileCategory;
+    }
+
+    public boolean useNioRegionFiles() {
+        return this.regionFileCategory.isNioEnabled();
+    }
+
+    public ChunkSaveCategory getChunkSaveCategory() {
+        return this.chunkSaveCategory;
+    }
+
+    public boolean useBatchedChunkSaving() {
+        return this.chunkSaveCategory.isBatchingEnabled();
+    }
+
     public EigenRedstoneCategory getEigenRedstoneCategory() {
         return this.eigenRedstonCategory;
     }
@@ -226,8 +268,16 @@ public boolean disablePathFindingChunkLoads() {
         return this.disablePathFindingChunkLoads;
     }
 
+    public boolean useRegionOrderedPreGeneration() {
+        return this.regionOrderedPreGeneration;
+    }
+
     public boolean isDisableRayTracingChunkLoads() {
         return this.disableRayTracingChunkLoads;
     }
 
+    public boolean useSectionCachedBlockWorkerReads() {
+        return this.sectionCachedBlockWorkerReads;
+    }
+
 }
@@ -0,0 +1,52 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.config.category;
+
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+
+@ConfigSerializable
+public class RegionFileCategory extends ConfigCategory {
+
+    @Setting(value = "nio-enabled", comment = ""
+            + "If 'true', region files are accessed through positional file channel reads and writes\n"
+            + "with a lock per region file, instead of vanilla's synchronized random access files.\n"
+            + "This allows chunks of different regions, and reads of the same region, to be loaded\n"
+            + "concurrently with chunk saving.")
+    private boolean nioEnabled = false;
+
+    @Setting(value = "max-open-files", comment = ""
+            + "The maximum amount of region files kept open at once, the least recently used\n"
+            + "region file is closed when this is exceeded. (Default: 256)")
+    private int maxOpenFiles = 256;
+
+    public boolean isNioEnabled() {
+        return this.nioEnabled;
+    }
+
+    public int getMaxOpenFiles() {
+        return this.maxOpenFiles;
+    }
+}
@@ -43,6 +43,15 @@ public class TileEntityActivationCategory extends ConfigCategory {
     private int defaultTickRate = 1;
     @Setting(value = "mods", comment = "Per-mod overrides. Refer to the minecraft default mod for example.")
     private Map<String, TileEntityActivationModCategory> modList = new HashMap<>();
+    @Setting(value = "tick-budget", comment = ""
+            + "The time in milliseconds tileentities may take to tick per world each tick, or '0' to not limit it.\n"
+            + "Once exceeded, tileentities which are only active because a player is in range are deferred\n"
+            + "to later ticks. While enabled, tileentities with a tick rate above 1 are also spread across ticks.")
+    private int tickBudget = 0;
+    @Setting(value = "tick-buckets", comment = ""
+            + "The amount of buckets deferrable tileentities are spread across while 'tick-budget' is enabled.\n"
+            + "The tileentities in the bucket of the current tick are never deferred.")
+    private int tickBuckets = 4;
 
     public TileEntityActivationCategory() {
     }
@@ -63,4 +72,12 @@ public Map<String, TileEntityActivationModCategory> getModList() {
         return this.modList;
     }
 
+    public int getTickBudget() {
+        return this.tickBudget;
+    }
+
+    public int getTickBuckets() {
+        return this.tickBuckets;
+    }
+
 }
@@ -81,6 +81,14 @@ public class WorldCategory extends ConfigCategory {
             + "if you encounter any issues then we recommend disabling it.")
     private boolean denyNeighborNotificationUnloadedChunks = false;
 
+    @Setting(value = "bypass-cause-tracking", comment = ""
+            + "If 'true', block changes, block entity changes and entity spawns in this world will not be\n"
+            + "captured by the cause tracker, even if plugins listen to ChangeBlockEvent or SpawnEntityEvent.\n"
+            + "Worlds without any listeners already skip captures automatically, this is intended for worlds\n"
+            + "such as minigame arenas where no plugin needs to observe or cancel these changes.\n"
+            + "Warning: Plugins will not receive those events for this world while enabled.")
+    private boolean bypassCauseTracking = false;
+
     @Setting(value = "chunk-gc-tick-interval", comment = ""
             + "The tick interval used to cleanup all inactive chunks that have leaked in a world.\n"
             + "Set to 0 to disable which restores vanilla handling. (Default: 600)")
@@ -122,6 +130,16 @@ public class WorldCategory extends ConfigCategory {
             comment = "If 'true', natural formation of ice and snow in supported biomes will be allowed.")
     private boolean weatherIceAndSnow = true;
 
+    @Setting(value = "chunk-compression", comment = ""
+            + "The compression used when writing chunks of this world to region files.\n"
+            + "Chunks are always read with the compression they were written with, so this can be\n"
+            + "changed at any time, but only 'deflate' chunks can be read by vanilla.\n"
+            + "Supported: 'deflate', 'gzip', 'lz4' and 'deflate-dictionary'. (Default: deflate)\n"
+            + "'lz4' is considerably faster to compress and decompress but uses more disk space,\n"
+            + "'deflate-dictionary' compresses small chunks better using a dictionary trained\n"
+            + "by converting the world with '/sponge convertchunks'.")
+    private String chunkCompression = "deflate";
+
     public static final int USE_SERVER_VIEW_DISTANCE = -1;
 
     @Setting(value = "view-distance", comment = ""
@@ -216,6 +234,10 @@ public boolean getDenyNeighborNotificationUnloadedChunks() {
         return this.denyNeighborNotificationUnloadedChunks;
     }
 
+    public boolean getBypassCauseTracking() {
+        return this.bypassCauseTracking;
+    }
+
     public int getTickInterval() {
         return this.chunkGCTickInterval;
     }
@@ -240,6 +262,10 @@ public boolean getWeatherIceAndSnow() {
         return this.weatherIceAndSnow;
     }
 
+    public String getChunkCompression() {
+        return this.chunkCompression;
+    }
+
     public int getViewDistance() {
         return this.viewDistance;
     }
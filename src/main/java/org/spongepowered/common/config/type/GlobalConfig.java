@@ -30,6 +30,7 @@
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Maps;
 import ninja.leaping.configurate.objectmapping.Setting;
+import org.spongepowered.common.config.category.AsyncSchedulerCategory;
 import org.spongepowered.common.config.category.BrokenModCategory;
 import org.spongepowered.common.config.category.BungeeCordCategory;
 import org.spongepowered.common.config.category.CommandsCategory;
@@ -110,6 +111,11 @@ public class GlobalConfig extends GeneralConfigBase {
     @Setting(value = "metrics", comment = "Configuration options related to metric collection.")
     private MetricsCategory metricsCategory = new MetricsCategory();
 
+    @Setting(value = "async-scheduler", comment = ""
+            + "Configuration options related to the thread pool running asynchronous plugin tasks.\n"
+            + "Any changes here require a server restart.")
+    private AsyncSchedulerCategory asyncScheduler = new AsyncSchedulerCategory();
+
     public GlobalConfig() {
         super();
     }
@@ -186,4 +192,8 @@ public MetricsCategory getMetricsCategory() {
         return this.metricsCategory;
     }
 
+    public AsyncSchedulerCategory getAsyncScheduler() {
+        return this.asyncScheduler;
+    }
+
 }
@@ -26,9 +26,6 @@
 
 import static org.spongepowered.common.util.ReflectionUtil.createUnsafeInstance;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
-import org.spongepowered.api.CatalogType;
 import org.spongepowered.api.data.key.Key;
 import org.spongepowered.api.data.manipulator.ImmutableDataManipulator;
 import org.spongepowered.api.data.value.BaseValue;
@@ -36,31 +33,35 @@
 import org.spongepowered.common.SpongeImpl;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 public final class ImmutableDataCachingUtil {
 
     private ImmutableDataCachingUtil() {}
 
     public static final int CACHE_LIMIT_FOR_INDIVIDUAL_TYPE = 100;
-    public static final int MANIPULATOR_CACHE_LIMIT = 100000;
-    public static final int VALUE_CACHE_LIMIT = 100000;
-
-    private static final Cache<String, ImmutableDataManipulator<?, ?>> manipulatorCache = CacheBuilder.newBuilder()
-        .maximumSize(MANIPULATOR_CACHE_LIMIT)
-        .concurrencyLevel(4)
-        .build();
+    /**
+     * The number of manipulators interned per manipulator class and
+     * generation, see {@link ImmutableDataInternTable}.
+     */
+    public static final int MANIPULATOR_CACHE_LIMIT = 1024;
+    /**
+     * The number of values interned per value class and generation.
+     */
+    public static final int VALUE_CACHE_LIMIT = 16384;
 
-    private static final Cache<String, ImmutableValue<?>> valueCache = CacheBuilder.newBuilder()
-        .concurrencyLevel(4)
-        .maximumSize(VALUE_CACHE_LIMIT)
-        .build();
+    private static final ConcurrentHashMap<Class<?>, ImmutableDataInternTable<ImmutableDataManipulator<?, ?>>> manipulatorTables =
+        new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Class<?>, ImmutableDataInternTable<ImmutableValue<?>>> valueTables = new ConcurrentHashMap<>();
 
     /**
-     * Retrieves a basic manipulator from {@link Cache}. If the {@link Cache}
-     * does not have the desired {@link ImmutableDataManipulator} with relative
+     * Retrieves a basic manipulator from the cache. If the cache does not
+     * have the desired {@link ImmutableDataManipulator} with relative
      * values, a new one is created and submitted to the cache for future
      * retrieval.
      *
@@ -75,55 +76,136 @@ private ImmutableDataCachingUtil() {}
      */
     @SuppressWarnings("unchecked")
     public static <T extends ImmutableDataManipulator<?, ?>> T getManipulator(final Class<T> immutableClass, final Object... args) {
-        final String key = getKey(immutableClass, args);
-        // We can't really use the generic typing here because it's complicated...
+        final ImmutableDataInternTable<ImmutableDataManipulator<?, ?>> table = getTable(ImmutableDataCachingUtil.manipulatorTables, immutableClass,
+            MANIPULATOR_CACHE_LIMIT);
+        final int hash = ImmutableDataInternTable.hash(args);
+        final ImmutableDataManipulator<?, ?> cached = table.get(args, hash);
+        if (cached != null) {
+            return (T) cached;
+        }
+        final T manipulator;
         try {
-            // Let's get the key
-            return (T) ImmutableDataCachingUtil.manipulatorCache.get(key, (Callable<ImmutableDataManipulator<?, ?>>) () -> {
-                    try {
-                        return createUnsafeInstance(immutableClass, args);
-                    } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
-                        SpongeImpl.getLogger().error("Could not construct an ImmutableDataManipulator: " + immutableClass.getCanonicalName() + " with the args: "
-                                                     + Arrays.toString(args), e);
-                    }
-                    throw new UnsupportedOperationException("Could not construct the ImmutableDataManipulator: " + immutableClass.getName() + " with the args: "
-                                                            + Arrays.toString(args));
-            });
-        } catch (Throwable e) {
-            throw new UnsupportedOperationException("Could not construct the ImmutableDataManipulator: " + immutableClass.getName(), e);
+            manipulator = createUnsafeInstance(immutableClass, args);
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            SpongeImpl.getLogger().error("Could not construct an ImmutableDataManipulator: " + immutableClass.getCanonicalName() + " with the args: "
+                                         + Arrays.toString(args), e);
+            throw new UnsupportedOperationException("Could not construct the ImmutableDataManipulator: " + immutableClass.getName() + " with the args: "
+                                                    + Arrays.toString(args), e);
         }
+        return (T) table.put(args.clone(), hash, manipulator);
     }
 
     @SuppressWarnings("unchecked")
     public static <E, V extends ImmutableValue<?>, T extends ImmutableValue<E>> T getValue(final Class<V> valueClass,
             final Key<? extends BaseValue<E>> usedKey, final E defaultArg, final E arg, final Object... extraArgs) {
-        final String key = getKey(valueClass, usedKey.getQuery().asString('.'), arg.getClass(), arg);
+        // Like before, values are only told apart by their key and actual value
+        final ImmutableDataInternTable<ImmutableValue<?>> table = getTable(ImmutableDataCachingUtil.valueTables, valueClass, VALUE_CACHE_LIMIT);
+        final int hash = ImmutableDataInternTable.hash(usedKey, arg);
+        final ImmutableValue<?> cached = table.get(usedKey, arg, hash);
+        if (cached != null) {
+            return (T) cached;
+        }
+        final V value;
         try {
-            return (T) ImmutableDataCachingUtil.valueCache.get(key, (Callable<ImmutableValue<?>>) () -> {
-                    try {
-                        if (extraArgs == null || extraArgs.length == 0) {
-                            return createUnsafeInstance(valueClass, usedKey, defaultArg, arg);
-                        }
-                        return createUnsafeInstance(valueClass, usedKey, defaultArg, arg, extraArgs);
-                    } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
-                        SpongeImpl.getLogger().error("Could not construct an ImmutableValue: " + valueClass.getCanonicalName(), e);
-                    }
-                    throw new UnsupportedOperationException("Could not construct the ImmutableValue: " + valueClass.getName());
-            });
-        } catch (ExecutionException e) {
+            if (extraArgs == null || extraArgs.length == 0) {
+                value = createUnsafeInstance(valueClass, usedKey, defaultArg, arg);
+            } else {
+                value = createUnsafeInstance(valueClass, usedKey, defaultArg, arg, extraArgs);
+            }
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+            SpongeImpl.getLogger().error("Could not construct an ImmutableValue: " + valueClass.getCanonicalName(), e);
             throw new UnsupportedOperationException("Could not construct the ImmutableValue: " + valueClass.getName(), e);
         }
+        return (T) table.put(new Object[] {usedKey, arg}, hash, value);
     }
 
-    private static String getKey(final Class<?> immutableClass, final Object... args) {
-        final StringBuilder builder = new StringBuilder(immutableClass.getCanonicalName() + ":");
-        for (Object object : args) {
-            if (object instanceof CatalogType) {
-                builder.append("{").append(((CatalogType) object).getId()).append("}");
-            } else {
-                builder.append("{").append(object.toString()).append("}");
-            }
+    private static <V> ImmutableDataInternTable<V> getTable(final ConcurrentHashMap<Class<?>, ImmutableDataInternTable<V>> tables,
+            final Class<?> type, final int limit) {
+        // A plain get first, computeIfAbsent locks the bin even if the table exists
+        final ImmutableDataInternTable<V> table = tables.get(type);
+        if (table != null) {
+            return table;
+        }
+        return tables.computeIfAbsent(type, key -> new ImmutableDataInternTable<>(key, limit));
+    }
+
+    /**
+     * Gets the statistics of the manipulator cache, per manipulator class
+     * with the most looked up first.
+     *
+     * @return The statistics
+     */
+    public static List<TypeStats> getManipulatorStats() {
+        return getStats(ImmutableDataCachingUtil.manipulatorTables.values());
+    }
+
+    /**
+     * Gets the statistics of the value cache, per value class with the most
+     * looked up first.
+     *
+     * @return The statistics
+     */
+    public static List<TypeStats> getValueStats() {
+        return getStats(ImmutableDataCachingUtil.valueTables.values());
+    }
+
+    private static List<TypeStats> getStats(final Collection<? extends ImmutableDataInternTable<?>> tables) {
+        final List<TypeStats> stats = new ArrayList<>(tables.size());
+        for (final ImmutableDataInternTable<?> table : tables) {
+            stats.add(table.getStats());
+        }
+        stats.sort(Comparator.comparingLong(TypeStats::getLookups).reversed());
+        return stats;
+    }
+
+    public static void resetStats() {
+        ImmutableDataCachingUtil.manipulatorTables.values().forEach(ImmutableDataInternTable::resetStats);
+        ImmutableDataCachingUtil.valueTables.values().forEach(ImmutableDataInternTable::resetStats);
+    }
+
+    public static final class TypeStats {
+
+        private final String name;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final int size;
+
+        TypeStats(final String name, final long hits, final long misses, final long evictions, final int size) {
+            this.name = name;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.size = size;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public long getHits() {
+            return this.hits;
+        }
+
+        public long getMisses() {
+            return this.misses;
+        }
+
+        public long getLookups() {
+            return this.hits + this.misses;
+        }
+
+        public double getHitRate() {
+            final long lookups = this.getLookups();
+            return lookups == 0 ? 0 : (double) this.hits / lookups;
+        }
+
+        public long getEvictions() {
+            return this.evictions;
+        }
+
+        public int getSize() {
+            return this.size;
         }
-        return builder.toString();
     }
 }
@@ -0,0 +1,231 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.data;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nullable;
+
+/**
+ * Interns the immutable data created for one class, keyed on the arguments
+ * it was created with. Arguments match when they are the same instance or
+ * equal instances of the same class, so boxed primitives match by value and
+ * nothing is turned into a string.
+ *
+ * <p>Entries live in two generations. New entries go into the young one and
+ * once it holds {@link #limit} entries the old generation is dropped and the
+ * young one takes its place, a hit in the old generation moves the entry back
+ * into the young one. This keeps anything used since the last turnover and
+ * bounds the table to twice its limit.</p>
+ *
+ * <p>Lookups take no lock, and hits in the young generation allocate
+ * nothing. Only inserts and turnovers lock the table.</p>
+ *
+ * @param <V> The type of interned data
+ */
+final class ImmutableDataInternTable<V> {
+
+    private final Class<?> type;
+    private final int limit;
+    private volatile Generation<V> young;
+    private volatile Generation<V> old;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    ImmutableDataInternTable(final Class<?> type, final int limit) {
+        this.type = type;
+        this.limit = limit;
+        this.young = new Generation<>(limit);
+        this.old = new Generation<>(limit);
+    }
+
+    static int hash(final Object[] args) {
+        int hash = 1;
+        for (final Object arg : args) {
+            hash = 31 * hash + (arg == null ? 0 : arg.hashCode());
+        }
+        return hash;
+    }
+
+    static int hash(final Object first, final Object second) {
+        return 31 * (31 + first.hashCode()) + second.hashCode();
+    }
+
+    static boolean matches(@Nullable final Object a, @Nullable final Object b) {
+        return a == b || a != null && b != null && a.getClass() == b.getClass() && a.equals(b);
+    }
+
+    @Nullable
+    V get(final Object[] args, final int hash) {
+        Entry<V> entry = this.young.find(args, hash);
+        if (entry == null) {
+            entry = this.old.find(args, hash);
+            if (entry == null) {
+                this.misses.increment();
+                return null;
+            }
+            this.promote(entry);
+        }
+        this.hits.increment();
+        return entry.value;
+    }
+
+    @Nullable
+    V get(final Object first, final Object second, final int hash) {
+        Entry<V> entry = this.young.find(first, second, hash);
+        if (entry == null) {
+            entry = this.old.find(first, second, hash);
+            if (entry == null) {
+                this.misses.increment();
+                return null;
+            }
+            this.promote(entry);
+        }
+        this.hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Interns a newly created value. If another thread interned a value for
+     * the same arguments in the meantime, that one is returned instead.
+     *
+     * @param args The arguments, owned by the table from now on
+     * @param hash The hash of the arguments
+     * @param value The value
+     * @return The interned value
+     */
+    V put(final Object[] args, final int hash, final V value) {
+        synchronized (this) {
+            final Entry<V> existing = this.young.find(args, hash);
+            if (existing != null) {
+                return existing.value;
+            }
+            this.insert(args, hash, value);
+            return value;
+        }
+    }
+
+    private void promote(final Entry<V> entry) {
+        synchronized (this) {
+            if (this.young.find(entry.args, entry.hash) == null) {
+                this.insert(entry.args, entry.hash, entry.value);
+            }
+        }
+    }
+
+    private void insert(final Object[] args, final int hash, final V value) {
+        if (this.young.size >= this.limit) {
+            this.evictions.add(this.old.size);
+            this.old = this.young;
+            this.young = new Generation<>(this.limit);
+        }
+        this.young.add(args, hash, value);
+    }
+
+    void resetStats() {
+        this.hits.reset();
+        this.misses.reset();
+        this.evictions.reset();
+    }
+
+    ImmutableDataCachingUtil.TypeStats getStats() {
+        return new ImmutableDataCachingUtil.TypeStats(this.type.getName(), this.hits.sum(), this.misses.sum(), this.evictions.sum(),
+            this.young.size + this.old.size);
+    }
+
+    private static final class Generation<V> {
+
+        private final AtomicReferenceArray<Entry<V>> buckets;
+        private final int mask;
+        // Only written while holding the lock of the table
+        private volatile int size;
+
+        Generation(final int limit) {
+            final int capacity = Integer.highestOneBit(Math.max(limit, 2) - 1) << 1;
+            this.buckets = new AtomicReferenceArray<>(capacity);
+            this.mask = capacity - 1;
+        }
+
+        private int index(final int hash) {
+            return (hash ^ (hash >>> 16)) & this.mask;
+        }
+
+        @Nullable
+        Entry<V> find(final Object[] args, final int hash) {
+            for (Entry<V> entry = this.buckets.get(this.index(hash)); entry != null; entry = entry.next) {
+                if (entry.hash == hash && entry.matches(args)) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+
+        @Nullable
+        Entry<V> find(final Object first, final Object second, final int hash) {
+            for (Entry<V> entry = this.buckets.get(this.index(hash)); entry != null; entry = entry.next) {
+                if (entry.hash == hash && entry.args.length == 2 && matches(entry.args[0], first) && matches(entry.args[1], second)) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+
+        void add(final Object[] args, final int hash, final V value) {
+            final int index = this.index(hash);
+            // Chains are never modified, readers either see the old head or the new one
+            this.buckets.set(index, new Entry<>(args, hash, value, this.buckets.get(index)));
+            this.size++;
+        }
+    }
+
+    private static final class Entry<V> {
+
+        final Object[] args;
+        final int hash;
+        final V value;
+        @Nullable final Entry<V> next;
+
+        Entry(final Object[] args, final int hash, final V value, @Nullable final Entry<V> next) {
+            this.args = args;
+            this.hash = hash;
+            this.value = value;
+            this.next = next;
+        }
+
+        boolean matches(final Object[] args) {
+            if (this.args.length != args.length) {
+                return false;
+            }
+            for (int i = 0; i < args.length; i++) {
+                if (!ImmutableDataInternTable.matches(this.args[i], args[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -67,14 +67,19 @@
  */
 public class MemoryDataView implements DataView {
 
-    protected final Map<String, Object> map = Maps.newLinkedHashMap();
+    protected final Map<String, Object> map;
     private final DataContainer container;
     private final DataView parent;
     private final DataQuery path;
     private final DataView.SafetyMode safety;
 
     MemoryDataView(DataView.SafetyMode safety) {
+        this(safety, Maps.newLinkedHashMap());
+    }
+
+    MemoryDataView(DataView.SafetyMode safety, Map<String, Object> map) {
         checkState(this instanceof DataContainer, "Cannot construct a root MemoryDataView without a container!");
+        this.map = map;
         this.path = of();
         this.parent = this;
         this.container = (DataContainer) this;
@@ -82,7 +87,21 @@ public class MemoryDataView implements DataView {
     }
 
     private MemoryDataView(DataView parent, DataQuery path, DataView.SafetyMode safety) {
+        this(parent, path, safety, Maps.newLinkedHashMap());
+    }
+
+    /**
+     * Creates a child view whose values are held by the given map, which
+     * lets subclasses back a view with something that fills it lazily.
+     *
+     * @param parent The parent view
+     * @param path The path of this view relative to its parent
+     * @param safety The safety mode
+     * @param map The map holding the values of this view
+     */
+    protected MemoryDataView(DataView parent, DataQuery path, DataView.SafetyMode safety, Map<String, Object> map) {
         checkArgument(path.getParts().size() >= 1, "Path must have at least one part");
+        this.map = map;
         this.parent = parent;
         this.container = parent.getContainer();
         this.path = parent.getCurrentPath().then(path);
@@ -259,6 +278,15 @@ public DataView set(DataQuery path, Object value) {
         }
         if (value instanceof DataView) {
             checkArgument(value != this, "Cannot set a DataView to itself.");
+            // Views that can never change underneath us are shared instead of copied, arrays
+            // are still cloned on the way out for ALL_DATA_CLONED.
+            if (value instanceof MemoryDataView && this.safety != SafetyMode.CLONED_ON_SET && !this.map.containsKey(key)) {
+                final MemoryDataView shared = ((MemoryDataView) value).shareAt(this, of(key), this.safety);
+                if (shared != null) {
+                    this.map.put(key, shared);
+                    return this;
+                }
+            }
             // always have to copy a data view to avoid overwriting existing
             // views and to set the interior path correctly.
             copyDataView(path, (DataView) value);
@@ -312,6 +340,21 @@ public <E> DataView set(Key<? extends BaseValue<E>> key, E value) {
         return set(checkNotNull(key, "Key was null!").getQuery(), value);
     }
 
+    /**
+     * Gets a view holding the same values as this one to be placed at the
+     * given path, without copying them. Only views whose values cannot be
+     * changed by anything else may share them.
+     *
+     * @param parent The view the shared view is placed in
+     * @param path The path of the shared view relative to its parent
+     * @param safety The safety mode of the shared view
+     * @return The shared view, or null if this view has to be copied
+     */
+    @Nullable
+    protected MemoryDataView shareAt(DataView parent, DataQuery path, SafetyMode safety) {
+        return null;
+    }
+
     @SuppressWarnings({"unchecked", "rawtypes"})
     private void setCollection(String key, Collection<?> value) {
         ImmutableList.Builder<Object> builder = ImmutableList.builder();
@@ -843,7 +886,7 @@ public boolean equals(@Nullable Object obj) {
         if (this == obj) {
             return true;
         }
-        if (obj == null || getClass() != obj.getClass()) {
+        if (!(obj instanceof MemoryDataView) || (this instanceof DataContainer) != (obj instanceof DataContainer)) {
             return false;
         }
         final MemoryDataView other = (MemoryDataView) obj;
@@ -171,7 +171,7 @@ public Schematic translate(DataView view) throws InvalidDataException {
 
                 NBTTagCompound tileNbt = NbtTranslator.getInstance().translate(tile);
                 tileNbt = VANILLA_FIXER.process(FixTypes.BLOCK_ENTITY, tileNbt, 0);
-                upgraded = NbtTranslator.getInstance().translate(tileNbt);
+                upgraded = NbtTranslator.getInstance().wrap(tileNbt);
 
                 if (type!= null && SpongeImplHooks.hasBlockTileEntity(((Block) state.getType()), (IBlockState) state)) {
                     TileEntityArchetype archetype = new SpongeTileEntityArchetypeBuilder()
@@ -197,7 +197,7 @@ public Schematic translate(DataView view) throws InvalidDataException {
 
                     NBTTagCompound entityNbt = NbtTranslator.getInstance().translate(entity);
                     entityNbt = VANILLA_FIXER.process(FixTypes.ENTITY, entityNbt, 0);
-                    upgraded = NbtTranslator.getInstance().translate(entityNbt);
+                    upgraded = NbtTranslator.getInstance().wrap(entityNbt);
                     upgraded.set(Queries.POSITION, new Vector3i(x - offsetX, y - offsetY, z - offsetZ));
                     final EntityArchetype build = new SpongeEntityArchetypeBuilder().type(type).entityData(upgraded).build();
                     entities.add(build);
@@ -0,0 +1,265 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.data.persistence;
+
+import static org.spongepowered.api.data.DataQuery.of;
+
+import com.google.common.collect.ImmutableList;
+import net.minecraft.nbt.NBTBase;
+import net.minecraft.nbt.NBTTagByte;
+import net.minecraft.nbt.NBTTagByteArray;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagDouble;
+import net.minecraft.nbt.NBTTagFloat;
+import net.minecraft.nbt.NBTTagInt;
+import net.minecraft.nbt.NBTTagIntArray;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTTagLong;
+import net.minecraft.nbt.NBTTagShort;
+import net.minecraft.nbt.NBTTagString;
+import org.spongepowered.api.data.DataView;
+import org.spongepowered.common.data.MemoryDataView;
+import org.spongepowered.common.mixin.core.nbt.NBTTagLongArrayAccessor;
+import org.spongepowered.common.util.Constants;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * The values of a {@link DataView} read on demand from an
+ * {@link NBTTagCompound}. Every tag is translated the first time it is looked
+ * up, nested compounds become views backed by this map in turn. The first
+ * write translates the remaining tags and from then on the map only holds its
+ * own copies, the compound is never modified.
+ *
+ * <p>Since lookups fill a cache, even reads must not happen concurrently.</p>
+ */
+final class NbtCompoundMap extends AbstractMap<String, Object> {
+
+    private final NBTTagCompound compound;
+    private final Map<String, Object> values = new LinkedHashMap<>();
+    @Nullable private MemoryDataView owner;
+    private boolean detached;
+
+    NbtCompoundMap(final NBTTagCompound compound) {
+        this.compound = compound;
+    }
+
+    void bind(final MemoryDataView owner) {
+        this.owner = owner;
+    }
+
+    NBTTagCompound getCompound() {
+        return this.compound;
+    }
+
+    /**
+     * Gets whether the values of this map, including those of every nested
+     * view looked up so far, are still exactly those of the compound.
+     *
+     * @return True if nothing was written
+     */
+    boolean isPristine() {
+        if (this.detached) {
+            return false;
+        }
+        for (final Object value : this.values.values()) {
+            if (!isPristine(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isPristine(final Object value) {
+        if (value instanceof DataView) {
+            return getPristineCompound((DataView) value) != null;
+        }
+        if (value instanceof List) {
+            for (final Object element : (List<?>) value) {
+                if (!isPristine(element)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the compound backing the given view if the view is backed by one
+     * and was not written to.
+     *
+     * @param view The view
+     * @return The backing compound, or null if the view has to be translated
+     */
+    @Nullable
+    static NBTTagCompound getPristineCompound(final DataView view) {
+        if (!(view instanceof NbtBackedView)) {
+            return null;
+        }
+        final NbtCompoundMap map = ((NbtBackedView) view).getNbtMap();
+        return map.isPristine() ? map.compound : null;
+    }
+
+    @Override
+    @Nullable
+    public Object get(final Object key) {
+        final Object value = this.values.get(key);
+        if (value != null || this.detached || !(key instanceof String)) {
+            return value;
+        }
+        final Object read = this.read((String) key);
+        if (read != null) {
+            this.values.put((String) key, read);
+        }
+        return read;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return this.get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return this.detached ? this.values.size() : this.compound.getKeySet().size();
+    }
+
+    @Override
+    public Object put(final String key, final Object value) {
+        this.detach();
+        return this.values.put(key, value);
+    }
+
+    @Override
+    public Object remove(final Object key) {
+        this.detach();
+        return this.values.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        this.detach();
+        this.values.clear();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (this.detached) {
+            return this.values.entrySet();
+        }
+        this.readAll();
+        return Collections.unmodifiableMap(this.values).entrySet();
+    }
+
+    private void detach() {
+        if (!this.detached) {
+            this.readAll();
+            this.detached = true;
+        }
+    }
+
+    private void readAll() {
+        if (this.values.size() == this.compound.getKeySet().size()) {
+            return;
+        }
+        for (final String nbtKey : this.compound.getKeySet()) {
+            final NBTBase tag = this.compound.getTag(nbtKey);
+            if (tag.getId() == Constants.NBT.TAG_BYTE && nbtKey.contains(NbtTranslator.BOOLEAN_IDENTIFIER)) {
+                this.values.putIfAbsent(nbtKey.replace(NbtTranslator.BOOLEAN_IDENTIFIER, ""), ((NBTTagByte) tag).getByte() != 0);
+            } else if (!this.values.containsKey(nbtKey)) {
+                this.values.put(nbtKey, this.fromTag(nbtKey, tag));
+            }
+        }
+    }
+
+    @Nullable
+    private Object read(final String key) {
+        NBTBase tag = this.compound.getTag(key);
+        if (tag != null) {
+            // Booleans are only visible without their identifier
+            if (tag.getId() == Constants.NBT.TAG_BYTE && key.contains(NbtTranslator.BOOLEAN_IDENTIFIER)) {
+                return null;
+            }
+            return this.fromTag(key, tag);
+        }
+        tag = this.compound.getTag(key + NbtTranslator.BOOLEAN_IDENTIFIER);
+        if (tag != null && tag.getId() == Constants.NBT.TAG_BYTE) {
+            return ((NBTTagByte) tag).getByte() != 0;
+        }
+        return null;
+    }
+
+    private Object fromTag(final String key, final NBTBase tag) {
+        if (tag.getId() == Constants.NBT.TAG_COMPOUND) {
+            return new NbtDataView(this.owner, of(key), this.owner.getSafetyMode(), (NBTTagCompound) tag);
+        }
+        return this.fromElement(tag);
+    }
+
+    private Object fromElement(final NBTBase tag) {
+        switch (tag.getId()) {
+            case Constants.NBT.TAG_BYTE:
+                return ((NBTTagByte) tag).getByte();
+            case Constants.NBT.TAG_SHORT:
+                return ((NBTTagShort) tag).getShort();
+            case Constants.NBT.TAG_INT:
+                return ((NBTTagInt) tag).getInt();
+            case Constants.NBT.TAG_LONG:
+                return ((NBTTagLong) tag).getLong();
+            case Constants.NBT.TAG_FLOAT:
+                return ((NBTTagFloat) tag).getFloat();
+            case Constants.NBT.TAG_DOUBLE:
+                return ((NBTTagDouble) tag).getDouble();
+            case Constants.NBT.TAG_BYTE_ARRAY:
+                return ((NBTTagByteArray) tag).getByteArray();
+            case Constants.NBT.TAG_STRING:
+                return ((NBTTagString) tag).getString();
+            case Constants.NBT.TAG_LIST: {
+                // Lists are handed out immutable so that writes can only happen through views we track
+                final NBTTagList list = (NBTTagList) tag;
+                final ImmutableList.Builder<Object> builder = ImmutableList.builder();
+                for (int i = 0; i < list.tagCount(); i++) {
+                    builder.add(this.fromElement(list.get(i)));
+                }
+                return builder.build();
+            }
+            case Constants.NBT.TAG_COMPOUND:
+                return new NbtDataContainer((NBTTagCompound) tag, this.owner.getSafetyMode());
+            case Constants.NBT.TAG_INT_ARRAY:
+                return ((NBTTagIntArray) tag).getIntArray();
+            case Constants.NBT.TAG_LONG_ARRAY:
+                return ((NBTTagLongArrayAccessor) tag).accessor$getLongArray();
+            default:
+                throw new IllegalArgumentException("Unknown NBT type " + tag.getId());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.data.persistence;
+
+import net.minecraft.nbt.NBTTagCompound;
+import org.spongepowered.api.data.DataContainer;
+import org.spongepowered.api.data.DataQuery;
+import org.spongepowered.api.data.DataView;
+import org.spongepowered.common.data.MemoryDataView;
+
+import javax.annotation.Nullable;
+
+/**
+ * A nested {@link DataView} that wraps an {@link NBTTagCompound} without
+ * translating it up front, see {@link NbtCompoundMap}.
+ */
+final class NbtDataView extends MemoryDataView implements NbtBackedView {
+
+    NbtDataView(final DataView parent, final DataQuery path, final SafetyMode safety, final NBTTagCompound compound) {
+        super(parent, path, safety, new NbtCompoundMap(compound));
+        this.getNbtMap().bind(this);
+    }
+
+    @Override
+    public NbtCompoundMap getNbtMap() {
+        return (NbtCompoundMap) this.map;
+    }
+
+    @Nullable
+    @Override
+    protected MemoryDataView shareAt(final DataView parent, final DataQuery path, final SafetyMode safety) {
+        final NbtCompoundMap map = this.getNbtMap();
+        return map.isPristine() ? new NbtDataView(parent, path, safety, map.getCompound()) : null;
+    }
+
+    @Override
+    public DataContainer copy() {
+        return this.copy(this.getSafetyMode());
+    }
+
+    @Override
+    public DataContainer copy(final SafetyMode safety) {
+        final NbtCompoundMap map = this.getNbtMap();
+        return map.isPristine() ? new NbtDataContainer(map.getCompound(), safety) : super.copy(safety);
+    }
+}
@@ -70,6 +70,10 @@ private NbtTranslator() { } // #NOPE
 
     private static NBTTagCompound containerToCompound(final DataView container) {
         checkNotNull(container);
+        final NBTTagCompound pristine = NbtCompoundMap.getPristineCompound(container);
+        if (pristine != null) {
+            return pristine.copy();
+        }
         NBTTagCompound compound = new NBTTagCompound();
         containerToCompound(container, compound);
         return compound;
@@ -80,12 +84,20 @@ private static void containerToCompound(final DataView container, final NBTTagCo
         // from the instance of checks.
         checkNotNull(container);
         checkNotNull(compound);
-        for (Map.Entry<DataQuery, Object> entry : container.getValues(false).entrySet()) {
-            Object value = entry.getValue();
-            String key = entry.getKey().asString('.');
+        final NBTTagCompound pristine = NbtCompoundMap.getPristineCompound(container);
+        if (pristine != null) {
+            for (String key : pristine.getKeySet()) {
+                compound.setTag(key, pristine.getTag(key).copy());
+            }
+            return;
+        }
+        for (DataQuery query : container.getKeys(false)) {
+            // Unlike getValues, get keeps nested views intact so untouched ones can be copied as NBT
+            Object value = container.get(query).get();
+            String key = query.asString('.');
             if (value instanceof DataView) {
                 NBTTagCompound inner = new NBTTagCompound();
-                containerToCompound(container.getView(entry.getKey()).get(), inner);
+                containerToCompound((DataView) value, inner);
                 compound.setTag(key, inner);
             } else if (value instanceof Boolean) {
                 compound.setTag(key + BOOLEAN_IDENTIFIER, new NBTTagByte(((Boolean) value) ? (byte) 1 : 0));
@@ -303,6 +315,24 @@ public DataContainer translateFrom(NBTTagCompound node) {
         return NbtTranslator.getViewFromCompound(node);
     }
 
+    /**
+     * Wraps the compound in a {@link DataContainer} that translates tags only
+     * once they are looked up and copies them only once it is written to.
+     * Translating the container, or an untouched view of it, back to NBT
+     * copies the compound directly. Meant for callers that mostly read.
+     *
+     * <p>The compound is never modified through the container, but it must
+     * not be modified by anything else either while the container or any
+     * container it was set into is in use.</p>
+     *
+     * @param node The compound to wrap
+     * @return The container
+     */
+    public DataContainer wrap(NBTTagCompound node) {
+        checkNotNull(node);
+        return new NbtDataContainer(node, DataView.SafetyMode.NO_DATA_CLONED);
+    }
+
     @Override
     public TypeToken<NBTTagCompound> getToken() {
         return TOKEN;
@@ -65,6 +65,8 @@
 import org.spongepowered.common.world.schematic.BimapPalette;
 import org.spongepowered.common.world.schematic.BlockPaletteWrapper;
 import org.spongepowered.common.world.schematic.GlobalPalette;
+import org.spongepowered.common.world.schematic.LocalBlockPalette;
+import org.spongepowered.common.world.schematic.SpongeArchetypeVolume;
 import org.spongepowered.common.world.schematic.SpongeSchematicBuilder;
 
 import java.io.ByteArrayOutputStream;
@@ -185,14 +187,14 @@ public Schematic translate(DataView unprocessed) throws InvalidDataException {
         if (paletteData.isPresent()) {
             // If we had a default palette_max we don't want to allocate all
             // that space for nothing so we use a sensible default instead
-            final BimapPalette<BlockState> bimap = new BimapPalette<>(PaletteTypes.LOCAL_BLOCKS, palette_max != 0xFFFF ? palette_max : 64);
+            final LocalBlockPalette localPalette = new LocalBlockPalette(palette_max != 0xFFFF ? palette_max + 1 : 64);
             // TODO - 1.13 remove the wrapper.
-            palette = new BlockPaletteWrapper(bimap, org.spongepowered.api.world.schematic.BlockPaletteTypes.LOCAL);
+            palette = new BlockPaletteWrapper(localPalette, org.spongepowered.api.world.schematic.BlockPaletteTypes.LOCAL);
             final DataView paletteMap = paletteData.get();
             final Set<DataQuery> paletteKeys = paletteMap.getKeys(false);
             for (final DataQuery key : paletteKeys) {
                 final BlockState state = Sponge.getRegistry().getType(BlockState.class, key.getParts().get(0)).orElseGet(BlockTypes.BEDROCK::getDefaultState);
-                bimap.assign(state, paletteMap.getInt(key).get());
+                localPalette.assign(state, paletteMap.getInt(key).get());
             }
         } else {
             palette = GlobalPalette.getBlockPalette();
@@ -217,38 +219,10 @@ public Schematic translate(DataView unprocessed) throws InvalidDataException {
         final SpongeSchematicBuilder builder = new SpongeSchematicBuilder();
         builder.blockPalette(palette);
 
-        final MutableBlockVolume buffer =
-                new ArrayMutableBlockBuffer(palette, new Vector3i(-offset[0], -offset[1], -offset[2]), new Vector3i(width, height, length));
-
         final byte[] blockdata = (byte[]) updatedView.get(Constants.Sponge.Schematic.BLOCK_DATA).orElseThrow(() -> new InvalidDataException("Missing BlockData for Schematic"));
-        int index = 0;
-        int i = 0;
-        int value = 0;
-        int varint_length = 0;
-        while (i < blockdata.length) {
-            value = 0;
-            varint_length = 0;
-
-            while (true) {
-                value |= (blockdata[i] & 127) << (varint_length++ * 7);
-                if (varint_length > 5) {
-                    throw new RuntimeException("VarInt too big (probably corrupted data)");
-                }
-                if ((blockdata[i] & 128) != 128) {
-                    i++;
-                    break;
-                }
-                i++;
-            }
-            // index = (y * length + z) * width + x
-            final int y = index / (width * length);
-            final int z = (index % (width * length)) / width;
-            final int x = (index % (width * length)) % width;
-            final BlockState state = palette.get(value).get();
-            buffer.setBlock(x - offset[0], y - offset[1], z - offset[2], state);
-
-            index++;
-        }
+        // The palette ids are decoded straight into the packed storage of the buffer
+        final MutableBlockVolume buffer = ArrayMutableBlockBuffer.fromVarIntData(palette, new Vector3i(-offset[0], -offset[1], -offset[2]),
+            new Vector3i(width, height, length), blockdata);
         builder.blocks(buffer);
 
         updatedView.get(Constants.Sponge.Schematic.BIOME_DATA).ifPresent(biomesObj -> {
@@ -298,7 +272,7 @@ public Schematic translate(DataView unprocessed) throws InvalidDataException {
                                 if (needsFixers) {
                                     NBTTagCompound tileNbt = NbtTranslator.getInstance().translate(tile);
                                     tileNbt = VANILLA_FIXER.process(FixTypes.BLOCK_ENTITY, tileNbt, version);
-                                    upgraded = NbtTranslator.getInstance().translate(tileNbt);
+                                    upgraded = NbtTranslator.getInstance().wrap(tileNbt);
                                 } else {
                                     upgraded = tile;
                                 }
@@ -332,7 +306,7 @@ public Schematic translate(DataView unprocessed) throws InvalidDataException {
                         if (needsFixers) {
                             NBTTagCompound entityNbt = NbtTranslator.getInstance().translate(view);
                             entityNbt = VANILLA_FIXER.process(FixTypes.ENTITY, entityNbt, version);
-                            upgraded = NbtTranslator.getInstance().translate(entityNbt);
+                            upgraded = NbtTranslator.getInstance().wrap(entityNbt);
                         } else {
                             upgraded = view;
                         }
@@ -391,22 +365,28 @@ public DataView addTo(final Schematic schematic, final DataView data) {
         data.set(Constants.Sponge.Schematic.OFFSET, offset);
 
         final Palette<BlockState> palette = schematic.getPalette();
-        try (final ByteArrayOutputStream buffer = new ByteArrayOutputStream(width * height * length)) {
-            for (int y = 0; y < height; y++) {
-                final int y0 = yMin + y;
-                for (int z = 0; z < length; z++) {
-                    final int z0 = zMin + z;
-                    for (int x = 0; x < width; x++) {
-                        final int x0 = xMin + x;
-                        final BlockState state = schematic.getBlock(x0, y0, z0);
-                        writeIdToBuffer(buffer, palette.getOrAssign(state));
+        final MutableBlockVolume backing = schematic instanceof SpongeArchetypeVolume ? ((SpongeArchetypeVolume) schematic).getBacking() : null;
+        if (backing instanceof ArrayMutableBlockBuffer && ((ArrayMutableBlockBuffer) backing).getPalette() == palette) {
+            // The buffer already holds ids of the palette being written
+            data.set(Constants.Sponge.Schematic.BLOCK_DATA, ((ArrayMutableBlockBuffer) backing).toVarIntData());
+        } else {
+            try (final ByteArrayOutputStream buffer = new ByteArrayOutputStream(width * height * length)) {
+                for (int y = 0; y < height; y++) {
+                    final int y0 = yMin + y;
+                    for (int z = 0; z < length; z++) {
+                        final int z0 = zMin + z;
+                        for (int x = 0; x < width; x++) {
+                            final int x0 = xMin + x;
+                            final BlockState state = schematic.getBlock(x0, y0, z0);
+                            writeIdToBuffer(buffer, palette.getOrAssign(state));
+                        }
                     }
                 }
-            }
 
-            data.set(Constants.Sponge.Schematic.BLOCK_DATA, buffer.toByteArray());
-        } catch (IOException e) {
-            // should never reach here
+                data.set(Constants.Sponge.Schematic.BLOCK_DATA, buffer.toByteArray());
+            } catch (IOException e) {
+                // should never reach here
+            }
         }
 
         final Palette<BiomeType> biomePalette = schematic.getBiomePalette();
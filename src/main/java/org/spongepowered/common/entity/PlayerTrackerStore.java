@@ -0,0 +1,369 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.entity;
+
+import it.unimi.dsi.fastutil.ints.Int2LongMap;
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.util.math.BlockPos;
+import org.spongepowered.common.util.Constants;
+
+import java.util.Arrays;
+
+import javax.annotation.Nullable;
+
+/**
+ * Stores the owner and notifier of the tracked blocks of a chunk.
+ *
+ * <p>Every distinct combination of owner and notifier index is put in a
+ * palette local to the chunk. Each chunk section with tracked blocks has a
+ * dense array with the palette index of every block, where 0 means the block
+ * isn't tracked. Positions outside of the sections, or positions that don't
+ * fit into a full palette, are kept in a primitive map instead.</p>
+ */
+public final class PlayerTrackerStore {
+
+    /**
+     * The value returned for positions that are not tracked.
+     */
+    public static final long NONE = pack(-1, -1);
+
+    private static final int SECTION_COUNT = 16;
+    private static final int SECTION_SIZE = 4096;
+    private static final int MAX_PALETTE_SIZE = 65536;
+
+    @Nullable private short[][] sections;
+    @Nullable private int[] sectionCounts;
+    // Index 0 of the palette is reserved for untracked blocks
+    private long[] palette = {NONE};
+    private int paletteSize = 1;
+    @Nullable private Long2IntOpenHashMap paletteIndices;
+    @Nullable private Int2LongOpenHashMap positions;
+
+    public static long pack(final int ownerIndex, final int notifierIndex) {
+        return (long) ownerIndex << 32 | notifierIndex & 0xFFFFFFFFL;
+    }
+
+    public static int getOwnerIndex(final long tracked) {
+        return (int) (tracked >> 32);
+    }
+
+    public static int getNotifierIndex(final long tracked) {
+        return (int) tracked;
+    }
+
+    private static boolean isInSections(final int y) {
+        return y >= 0 && y < SECTION_COUNT * 16;
+    }
+
+    private static int getSectionIndex(final int x, final int y, final int z) {
+        return (y & 15) << 8 | (z & 15) << 4 | x & 15;
+    }
+
+    public boolean isEmpty() {
+        if (this.positions != null && !this.positions.isEmpty()) {
+            return false;
+        }
+        if (this.sectionCounts != null) {
+            for (final int count : this.sectionCounts) {
+                if (count > 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the packed owner and notifier index of the given position.
+     *
+     * @param pos The position
+     * @return The packed indices, or {@link #NONE} if not tracked
+     */
+    public long get(final BlockPos pos) {
+        if (this.positions != null) {
+            final long tracked = this.positions.get(Constants.Sponge.blockPosToInt(pos));
+            if (tracked != NONE) {
+                return tracked;
+            }
+        }
+        if (this.sections == null || !isInSections(pos.getY())) {
+            return NONE;
+        }
+        final short[] section = this.sections[pos.getY() >> 4];
+        if (section == null) {
+            return NONE;
+        }
+        return this.palette[section[getSectionIndex(pos.getX(), pos.getY(), pos.getZ())] & 0xFFFF];
+    }
+
+    /**
+     * Sets the owner and notifier index of the given position, the position
+     * is no longer tracked if both indices are -1.
+     *
+     * @param pos The position
+     * @param ownerIndex The owner index
+     * @param notifierIndex The notifier index
+     */
+    public void set(final BlockPos pos, final int ownerIndex, final int notifierIndex) {
+        final long tracked = pack(ownerIndex, notifierIndex);
+        if (!isInSections(pos.getY())) {
+            this.setPosition(Constants.Sponge.blockPosToInt(pos), tracked);
+            return;
+        }
+        if (this.positions != null) {
+            this.positions.remove(Constants.Sponge.blockPosToInt(pos));
+        }
+        final int paletteIndex = tracked == NONE ? 0 : this.getOrCreatePaletteIndex(tracked);
+        if (paletteIndex < 0) {
+            this.setSectionEntry(pos.getY() >> 4, getSectionIndex(pos.getX(), pos.getY(), pos.getZ()), 0);
+            this.setPosition(Constants.Sponge.blockPosToInt(pos), tracked);
+        } else {
+            this.setSectionEntry(pos.getY() >> 4, getSectionIndex(pos.getX(), pos.getY(), pos.getZ()), paletteIndex);
+        }
+    }
+
+    public void remove(final BlockPos pos) {
+        this.set(pos, -1, -1);
+    }
+
+    private void setPosition(final int key, final long tracked) {
+        if (tracked == NONE) {
+            if (this.positions != null) {
+                this.positions.remove(key);
+            }
+            return;
+        }
+        if (this.positions == null) {
+            this.positions = new Int2LongOpenHashMap();
+            this.positions.defaultReturnValue(NONE);
+        }
+        this.positions.put(key, tracked);
+    }
+
+    private void setSectionEntry(final int sectionY, final int index, final int paletteIndex) {
+        if (this.sections == null) {
+            if (paletteIndex == 0) {
+                return;
+            }
+            this.sections = new short[SECTION_COUNT][];
+            this.sectionCounts = new int[SECTION_COUNT];
+        }
+        short[] section = this.sections[sectionY];
+        if (section == null) {
+            if (paletteIndex == 0) {
+                return;
+            }
+            section = this.sections[sectionY] = new short[SECTION_SIZE];
+        }
+        final int previous = section[index] & 0xFFFF;
+        section[index] = (short) paletteIndex;
+        if (previous == 0 && paletteIndex != 0) {
+            this.sectionCounts[sectionY]++;
+        } else if (previous != 0 && paletteIndex == 0 && --this.sectionCounts[sectionY] == 0) {
+            this.sections[sectionY] = null;
+        }
+    }
+
+    private int getOrCreatePaletteIndex(final long tracked) {
+        if (this.paletteIndices == null) {
+            this.paletteIndices = new Long2IntOpenHashMap();
+            this.paletteIndices.defaultReturnValue(-1);
+        }
+        final int index = this.paletteIndices.get(tracked);
+        if (index != -1) {
+            return index;
+        }
+        if (this.paletteSize == MAX_PALETTE_SIZE) {
+            this.compactPalette();
+            if (this.paletteSize == MAX_PALETTE_SIZE) {
+                return -1;
+            }
+        }
+        if (this.paletteSize == this.palette.length) {
+            this.palette = Arrays.copyOf(this.palette, Math.min(this.palette.length * 2, MAX_PALETTE_SIZE));
+        }
+        this.palette[this.paletteSize] = tracked;
+        this.paletteIndices.put(tracked, this.paletteSize);
+        return this.paletteSize++;
+    }
+
+    /**
+     * Removes the palette entries which are no longer used by any block.
+     */
+    private void compactPalette() {
+        final int[] remapped = new int[this.paletteSize];
+        final long[] palette = new long[this.paletteSize];
+        palette[0] = NONE;
+        int size = 1;
+        if (this.sections != null) {
+            for (final short[] section : this.sections) {
+                if (section == null) {
+                    continue;
+                }
+                for (int i = 0; i < SECTION_SIZE; i++) {
+                    final int index = section[i] & 0xFFFF;
+                    if (index == 0) {
+                        continue;
+                    }
+                    if (remapped[index] == 0) {
+                        palette[size] = this.palette[index];
+                        remapped[index] = size++;
+                    }
+                    section[i] = (short) remapped[index];
+                }
+            }
+        }
+        this.palette = Arrays.copyOf(palette, size);
+        this.paletteSize = size;
+        if (this.paletteIndices != null) {
+            this.paletteIndices.clear();
+            for (int i = 1; i < size; i++) {
+                this.paletteIndices.put(this.palette[i], i);
+            }
+        }
+    }
+
+    /**
+     * Writes the tracked positions as int arrays to the given compound.
+     *
+     * @param compound The compound to write to
+     */
+    public void writeTo(final NBTTagCompound compound) {
+        this.compactPalette();
+        final int[] palette = new int[(this.paletteSize - 1) * 2];
+        for (int i = 1; i < this.paletteSize; i++) {
+            palette[(i - 1) * 2] = getOwnerIndex(this.palette[i]);
+            palette[(i - 1) * 2 + 1] = getNotifierIndex(this.palette[i]);
+        }
+        compound.setIntArray(Constants.Sponge.SPONGE_TRACKER_PALETTE, palette);
+
+        final NBTTagList sections = new NBTTagList();
+        if (this.sections != null) {
+            for (int sectionY = 0; sectionY < SECTION_COUNT; sectionY++) {
+                final short[] section = this.sections[sectionY];
+                if (section == null) {
+                    continue;
+                }
+                // Two palette indices are packed into each int
+                final int[] indices = new int[SECTION_SIZE / 2];
+                for (int i = 0; i < indices.length; i++) {
+                    indices[i] = section[i * 2] & 0xFFFF | (section[i * 2 + 1] & 0xFFFF) << 16;
+                }
+                final NBTTagCompound sectionCompound = new NBTTagCompound();
+                sectionCompound.setByte(Constants.Sponge.SPONGE_TRACKER_SECTION_Y, (byte) sectionY);
+                sectionCompound.setIntArray(Constants.Sponge.SPONGE_TRACKER_SECTION_INDICES, indices);
+                sections.appendTag(sectionCompound);
+            }
+        }
+        compound.setTag(Constants.Sponge.SPONGE_TRACKER_SECTIONS, sections);
+
+        if (this.positions != null && !this.positions.isEmpty()) {
+            final int[] positions = new int[this.positions.size() * 3];
+            int i = 0;
+            for (final Int2LongMap.Entry entry : this.positions.int2LongEntrySet()) {
+                positions[i++] = entry.getIntKey();
+                positions[i++] = getOwnerIndex(entry.getLongValue());
+                positions[i++] = getNotifierIndex(entry.getLongValue());
+            }
+            compound.setIntArray(Constants.Sponge.SPONGE_TRACKER_POSITIONS, positions);
+        }
+    }
+
+    /**
+     * Reads the tracked positions written by {@link #writeTo(NBTTagCompound)}.
+     *
+     * @param compound The compound to read from
+     */
+    public void readFrom(final NBTTagCompound compound) {
+        final int[] palette = compound.getIntArray(Constants.Sponge.SPONGE_TRACKER_PALETTE);
+        final int[] remapped = new int[palette.length / 2 + 1];
+        for (int i = 0; i + 1 < palette.length; i += 2) {
+            final long tracked = pack(palette[i], palette[i + 1]);
+            remapped[i / 2 + 1] = tracked == NONE ? 0 : Math.max(0, this.getOrCreatePaletteIndex(tracked));
+        }
+
+        final NBTTagList sections = compound.getTagList(Constants.Sponge.SPONGE_TRACKER_SECTIONS, Constants.NBT.TAG_COMPOUND);
+        for (int i = 0; i < sections.tagCount(); i++) {
+            final NBTTagCompound sectionCompound = sections.getCompoundTagAt(i);
+            final int sectionY = sectionCompound.getByte(Constants.Sponge.SPONGE_TRACKER_SECTION_Y);
+            final int[] indices = sectionCompound.getIntArray(Constants.Sponge.SPONGE_TRACKER_SECTION_INDICES);
+            if (sectionY < 0 || sectionY >= SECTION_COUNT || indices.length != SECTION_SIZE / 2) {
+                continue;
+            }
+            for (int j = 0; j < SECTION_SIZE; j++) {
+                final int index = indices[j >> 1] >>> ((j & 1) << 4) & 0xFFFF;
+                if (index != 0 && index < remapped.length) {
+                    this.setSectionEntry(sectionY, j, remapped[index]);
+                }
+            }
+        }
+
+        if (compound.hasKey(Constants.Sponge.SPONGE_TRACKER_POSITIONS, Constants.NBT.TAG_INT_ARRAY)) {
+            final int[] positions = compound.getIntArray(Constants.Sponge.SPONGE_TRACKER_POSITIONS);
+            for (int i = 0; i + 2 < positions.length; i += 3) {
+                this.setPosition(positions[i], pack(positions[i + 1], positions[i + 2]));
+            }
+        }
+    }
+
+    /**
+     * Reads the tracked positions from the list of compounds which was used
+     * before the positions were stored as int arrays.
+     *
+     * @param positions The list of position compounds
+     */
+    public void readLegacy(final NBTTagList positions) {
+        for (int i = 0; i < positions.tagCount(); i++) {
+            final NBTTagCompound valueNbt = positions.getCompoundTagAt(i);
+            int ownerIndex = -1;
+            int notifierIndex = -1;
+            if (valueNbt.hasKey("owner")) {
+                ownerIndex = valueNbt.getInteger("owner");
+            } else if (valueNbt.hasKey("uuid")) { // Migrate old data, remove in future
+                ownerIndex = valueNbt.getInteger("uuid");
+            }
+            if (valueNbt.hasKey("notifier")) {
+                notifierIndex = valueNbt.getInteger("notifier");
+            }
+            final long tracked = pack(ownerIndex, notifierIndex);
+            if (tracked == NONE) {
+                continue;
+            }
+            if (valueNbt.hasKey("pos")) {
+                // x is stored in bits 0 to 3, y in bits 4 to 11 and z in bits 12 to 15
+                final short pos = valueNbt.getShort("pos");
+                final int paletteIndex = this.getOrCreatePaletteIndex(tracked);
+                if (paletteIndex > 0) {
+                    this.setSectionEntry((pos >> 8) & 15, getSectionIndex(pos, pos >> 4, pos >> 12), paletteIndex);
+                }
+            } else {
+                this.setPosition(valueNbt.getInteger("ipos"), tracked);
+            }
+        }
+    }
+}
@@ -196,7 +196,7 @@ public DataContainer toContainer() {
             container.set(Constants.Entity.UUID, this.entityUuid.toString());
         }
         if (this.compound != null) {
-            container.set(Constants.Sponge.UNSAFE_NBT, NbtTranslator.getInstance().translateFrom(this.compound));
+            container.set(Constants.Sponge.UNSAFE_NBT, NbtTranslator.getInstance().wrap(this.compound));
         }
 
         return container;
@@ -453,7 +453,7 @@ public EntityArchetype createArchetype() {
         EntityArchetype.Builder builder = new SpongeEntityArchetypeBuilder();
         builder.type(this.entityType);
         if (this.compound != null) {
-            builder.entityData(NbtTranslator.getInstance().translate(this.compound));
+            builder.entityData(NbtTranslator.getInstance().wrap(this.compound));
         }
         return builder.build();
     }
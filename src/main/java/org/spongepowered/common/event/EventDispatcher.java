@@ -0,0 +1,77 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.event;
+
+import org.spongepowered.api.event.Event;
+
+import javax.annotation.Nullable;
+
+/**
+ * Posts an event to the listeners of a baked {@link RegisteredListener.Cache}.
+ *
+ * <p>Implementations are generated by the {@link EventDispatcherFactory}, the
+ * generated {@link #post(Event, boolean)} calls every listener in order as
+ * straight-line code from its own call site, so posting only goes through a
+ * single virtual call and the JIT can inline the listeners and their filters
+ * into it. The cause frame, phase context and timings around every listener
+ * are handled by the final methods of this class, sharing one
+ * {@link ListenerInvocation} for all the listeners of a post.</p>
+ */
+public abstract class EventDispatcher {
+
+    private final SpongeEventManager eventManager;
+    private final RegisteredListener<?>[] listeners;
+
+    protected EventDispatcher(SpongeEventManager eventManager, RegisteredListener<?>[] listeners) {
+        this.eventManager = eventManager;
+        this.listeners = listeners;
+    }
+
+    /**
+     * Calls all the listeners with the given event.
+     *
+     * @param event The event
+     * @param sync Whether the event is posted on the main thread
+     */
+    public abstract void post(Event event, boolean sync);
+
+    @Nullable
+    protected final ListenerInvocation createInvocation(boolean sync) {
+        return sync ? new ListenerInvocation() : null;
+    }
+
+    protected final void begin(int index, Event event, @Nullable ListenerInvocation invocation) {
+        this.eventManager.beginListener(this.listeners[index], event, invocation);
+    }
+
+    protected final void error(int index, Event event, Throwable throwable, @Nullable ListenerInvocation invocation) {
+        this.eventManager.handleListenerError(this.listeners[index], event, throwable, invocation);
+    }
+
+    protected final void end(@Nullable ListenerInvocation invocation) {
+        this.eventManager.endListener(invocation);
+    }
+
+}
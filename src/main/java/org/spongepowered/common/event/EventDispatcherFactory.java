@@ -0,0 +1,256 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.event;
+
+import static org.objectweb.asm.Opcodes.AALOAD;
+import static org.objectweb.asm.Opcodes.ACC_FINAL;
+import static org.objectweb.asm.Opcodes.ACC_PRIVATE;
+import static org.objectweb.asm.Opcodes.ACC_PUBLIC;
+import static org.objectweb.asm.Opcodes.ACC_SUPER;
+import static org.objectweb.asm.Opcodes.ALOAD;
+import static org.objectweb.asm.Opcodes.ASTORE;
+import static org.objectweb.asm.Opcodes.GETFIELD;
+import static org.objectweb.asm.Opcodes.GOTO;
+import static org.objectweb.asm.Opcodes.ILOAD;
+import static org.objectweb.asm.Opcodes.INVOKEINTERFACE;
+import static org.objectweb.asm.Opcodes.INVOKESPECIAL;
+import static org.objectweb.asm.Opcodes.INVOKEVIRTUAL;
+import static org.objectweb.asm.Opcodes.PUTFIELD;
+import static org.objectweb.asm.Opcodes.RETURN;
+import static org.objectweb.asm.Opcodes.V1_6;
+
+import com.google.common.collect.MapMaker;
+import com.google.common.reflect.TypeToken;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+import org.spongepowered.api.event.Event;
+import org.spongepowered.api.event.EventListener;
+import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.event.gen.DefineableClassLoader;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Nullable;
+
+/**
+ * Generates the {@link EventDispatcher} classes of the baked event types.
+ *
+ * <p>Classes are cached by the event type and the amount of its listeners,
+ * so baking the handlers of an event type again, e.g. when a listener was
+ * registered, reuses the class and only creates a new instance of it. Every
+ * event type still gets classes of its own, sharing them between event types
+ * would make the listener call sites polymorphic again. The cache holds the
+ * listened event classes weakly, so it doesn't keep the event classes of
+ * plugins loaded.</p>
+ */
+final class EventDispatcherFactory {
+
+    static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("sponge.generateEventDispatchers", "true").toLowerCase());
+
+    private static final String TARGET_PACKAGE = "org.spongepowered.common.event.dispatcher.";
+    private static final String BASE_DISPATCHER = Type.getInternalName(EventDispatcher.class);
+    private static final String LISTENER_NAME = Type.getInternalName(EventListener.class);
+    private static final String LISTENER_DESCRIPTOR = Type.getDescriptor(EventListener.class);
+    private static final String EVENT_DESCRIPTOR = Type.getDescriptor(Event.class);
+    private static final String INVOCATION_DESCRIPTOR = Type.getDescriptor(ListenerInvocation.class);
+    private static final String BASE_CONSTRUCTOR_DESCRIPTOR = '(' + Type.getDescriptor(SpongeEventManager.class)
+            + Type.getDescriptor(RegisteredListener[].class) + ")V";
+    private static final String CONSTRUCTOR_DESCRIPTOR = '(' + Type.getDescriptor(SpongeEventManager.class)
+            + Type.getDescriptor(RegisteredListener[].class) + Type.getDescriptor(EventListener[].class) + ")V";
+    private static final String POST_METHOD_DESCRIPTOR = '(' + EVENT_DESCRIPTOR + "Z)V";
+    private static final String HANDLE_METHOD_DESCRIPTOR = '(' + EVENT_DESCRIPTOR + ")V";
+    private static final String CREATE_INVOCATION_METHOD_DESCRIPTOR = "(Z)" + INVOCATION_DESCRIPTOR;
+    private static final String BEGIN_METHOD_DESCRIPTOR = "(I" + EVENT_DESCRIPTOR + INVOCATION_DESCRIPTOR + ")V";
+    private static final String ERROR_METHOD_DESCRIPTOR = "(I" + EVENT_DESCRIPTOR + "Ljava/lang/Throwable;" + INVOCATION_DESCRIPTOR + ")V";
+    private static final String END_METHOD_DESCRIPTOR = '(' + INVOCATION_DESCRIPTOR + ")V";
+
+    private static final DefineableClassLoader classLoader = new DefineableClassLoader(EventDispatcherFactory.class.getClassLoader());
+    // Weak keys are compared by identity, which is fine for classes
+    private static final Map<Class<?>, Map<Shape, Class<? extends EventDispatcher>>> classes = new MapMaker().weakKeys().makeMap();
+    private static final AtomicInteger id = new AtomicInteger();
+
+    private EventDispatcherFactory() {
+    }
+
+    /**
+     * Creates a dispatcher for the given, already sorted, listeners.
+     *
+     * @param eventManager The event manager
+     * @param eventType The baked event type
+     * @param listeners The listeners in the order they should be called
+     * @return The dispatcher, or null if none could be generated
+     */
+    @Nullable
+    static EventDispatcher create(SpongeEventManager eventManager, EventType<?> eventType, List<RegisteredListener<?>> listeners) {
+        if (!ENABLED || listeners.isEmpty()) {
+            return null;
+        }
+        final RegisteredListener<?>[] registeredListeners = listeners.toArray(new RegisteredListener<?>[0]);
+        final EventListener<?>[] handlers = new EventListener<?>[registeredListeners.length];
+        for (int i = 0; i < handlers.length; i++) {
+            handlers[i] = registeredListeners[i].getListener();
+        }
+        try {
+            final Class<? extends EventDispatcher> dispatcherClass = classes.computeIfAbsent(eventType.getType(), type -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(new Shape(eventType.getGenericType(), handlers.length), shape -> {
+                        final String name = TARGET_PACKAGE + eventType.getType().getSimpleName() + "Dispatcher_" + id.incrementAndGet();
+                        synchronized (classLoader) {
+                            return classLoader.defineClass(name, generateClass(name, shape.listenerCount));
+                        }
+                    });
+            return dispatcherClass.getConstructor(SpongeEventManager.class, RegisteredListener[].class, EventListener[].class)
+                    .newInstance(eventManager, registeredListeners, handlers);
+        } catch (Exception | LinkageError e) {
+            SpongeImpl.getLogger().error("Failed to generate the event dispatcher for {}, falling back to the listener list.", eventType, e);
+            return null;
+        }
+    }
+
+    private static byte[] generateClass(String name, int listenerCount) {
+        name = name.replace('.', '/');
+
+        final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        MethodVisitor mv;
+
+        cw.visit(V1_6, ACC_PUBLIC + ACC_FINAL + ACC_SUPER, name, null, BASE_DISPATCHER, null);
+        for (int i = 0; i < listenerCount; i++) {
+            cw.visitField(ACC_PRIVATE + ACC_FINAL, "listener" + i, LISTENER_DESCRIPTOR, null, null).visitEnd();
+        }
+        {
+            mv = cw.visitMethod(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, null, null);
+            mv.visitCode();
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitVarInsn(ALOAD, 2);
+            mv.visitMethodInsn(INVOKESPECIAL, BASE_DISPATCHER, "<init>", BASE_CONSTRUCTOR_DESCRIPTOR, false);
+            for (int i = 0; i < listenerCount; i++) {
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitVarInsn(ALOAD, 3);
+                mv.visitLdcInsn(i);
+                mv.visitInsn(AALOAD);
+                mv.visitFieldInsn(PUTFIELD, name, "listener" + i, LISTENER_DESCRIPTOR);
+            }
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+        {
+            // Every listener is called from a separate call site, which keeps each of them monomorphic:
+            //
+            // invocation = createInvocation(sync);
+            // try {
+            //     begin(i, event, invocation);
+            //     listener<i>.handle(event);
+            // } catch (Throwable t) {
+            //     error(i, event, t, invocation);
+            //     continue;
+            // }
+            // end(invocation);
+            mv = cw.visitMethod(ACC_PUBLIC, "post", POST_METHOD_DESCRIPTOR, null, null);
+            mv.visitCode();
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitVarInsn(ILOAD, 2);
+            mv.visitMethodInsn(INVOKEVIRTUAL, BASE_DISPATCHER, "createInvocation", CREATE_INVOCATION_METHOD_DESCRIPTOR, false);
+            mv.visitVarInsn(ASTORE, 3);
+            for (int i = 0; i < listenerCount; i++) {
+                final Label start = new Label();
+                final Label end = new Label();
+                final Label handler = new Label();
+                final Label after = new Label();
+                mv.visitTryCatchBlock(start, end, handler, "java/lang/Throwable");
+                mv.visitLabel(start);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitLdcInsn(i);
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitVarInsn(ALOAD, 3);
+                mv.visitMethodInsn(INVOKEVIRTUAL, BASE_DISPATCHER, "begin", BEGIN_METHOD_DESCRIPTOR, false);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitFieldInsn(GETFIELD, name, "listener" + i, LISTENER_DESCRIPTOR);
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitMethodInsn(INVOKEINTERFACE, LISTENER_NAME, "handle", HANDLE_METHOD_DESCRIPTOR, true);
+                mv.visitLabel(end);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitVarInsn(ALOAD, 3);
+                mv.visitMethodInsn(INVOKEVIRTUAL, BASE_DISPATCHER, "end", END_METHOD_DESCRIPTOR, false);
+                mv.visitJumpInsn(GOTO, after);
+                mv.visitLabel(handler);
+                mv.visitVarInsn(ASTORE, 4);
+                mv.visitVarInsn(ALOAD, 0);
+                mv.visitLdcInsn(i);
+                mv.visitVarInsn(ALOAD, 1);
+                mv.visitVarInsn(ALOAD, 4);
+                mv.visitVarInsn(ALOAD, 3);
+                mv.visitMethodInsn(INVOKEVIRTUAL, BASE_DISPATCHER, "error", ERROR_METHOD_DESCRIPTOR, false);
+                mv.visitLabel(after);
+            }
+            mv.visitInsn(RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+        }
+        cw.visitEnd();
+
+        return cw.toByteArray();
+    }
+
+    /**
+     * The generic type and listener count of a dispatcher class, within the
+     * classes of an event class.
+     */
+    private static final class Shape {
+
+        // Only the name, the type token would keep the weakly held event class loaded
+        @Nullable final String genericType;
+        final int listenerCount;
+
+        Shape(@Nullable TypeToken<?> genericType, int listenerCount) {
+            this.genericType = genericType == null ? null : genericType.toString();
+            this.listenerCount = listenerCount;
+        }
+
+        @Override
+        public boolean equals(@Nullable Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Shape)) {
+                return false;
+            }
+            final Shape that = (Shape) o;
+            return this.listenerCount == that.listenerCount && Objects.equals(this.genericType, that.genericType);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.genericType, this.listenerCount);
+        }
+    }
+
+}
@@ -37,20 +37,67 @@
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
+
 public class ListenerChecker {
 
     private static final boolean ALL_TRUE = Boolean.parseBoolean(System.getProperty("sponge.shouldFireAll", "").toLowerCase());
     private static final boolean DEBUG = Boolean.parseBoolean(System.getProperty("sponge.debugShouldFire", "").toLowerCase());
 
+    /**
+     * The checker of the most recently created event manager, which backs
+     * {@link ShouldFire#shouldFire(Class)} like it sets the fields of
+     * {@link ShouldFire}.
+     */
+    @Nullable private static volatile ListenerChecker current;
+
+    /**
+     * Gets whether any listener may receive an event of the given type. This
+     * follows the same rules as the fields of {@link ShouldFire}, but is
+     * available for every event type instead of only the hand written ones.
+     *
+     * @param eventType The event type
+     * @return Whether the event should be fired
+     */
+    static boolean hasListener(Class<?> eventType) {
+        final ListenerChecker checker = current;
+        return checker == null ? ALL_TRUE : checker.flags.get(eventType).value;
+    }
+
+    /**
+     * The number of registered listeners per listened event type, used to
+     * compute the initial state of {@link #flags}.
+     */
+    private final Map<Class<?>, Integer> listenedTypes = new HashMap<>();
+    private final List<EventFlag> createdFlags = new ArrayList<>();
+    private final ClassValue<EventFlag> flags = new ClassValue<EventFlag>() {
+        @Override
+        protected EventFlag computeValue(Class<?> type) {
+            synchronized (ListenerChecker.this.listenedTypes) {
+                final EventFlag flag = new EventFlag(type);
+                for (Map.Entry<Class<?>, Integer> entry : ListenerChecker.this.listenedTypes.entrySet()) {
+                    if (flag.matches(entry.getKey())) {
+                        flag.listenerCount += entry.getValue();
+                    }
+                }
+                flag.value = ALL_TRUE || flag.listenerCount > 0;
+                ListenerChecker.this.createdFlags.add(flag);
+                return flag;
+            }
+        }
+    };
+
     private final Class<?> clazz;
     private Map<String, FieldData> fields = new HashMap<>();
     private Map<Class<?>, FieldData> fieldClassMap = new IdentityHashMap<>();
@@ -93,6 +140,7 @@ public ListenerChecker(Class<?> clazz) {
                 throw new IllegalStateException(String.format("ShouldFire filed %s must be public and static!", field));
             }
         }
+        current = this;
     }
 
     private Class<?> getClassForField(Field field) {
@@ -118,6 +166,8 @@ public <T> void updateFields(Class<? super T> eventClass, boolean registering) {
             return;
         }
 
+        updateFlags(eventClass, registering);
+
         // Walk up the tree. The event class and all its supertypes have their
         // flags touched, because there is a possibility of them being fired.
 
@@ -169,6 +219,48 @@ public <T> void updateFields(Class<? super T> eventClass, boolean registering) {
         }
     }
 
+    private void updateFlags(Class<?> eventClass, boolean registering) {
+        synchronized (this.listenedTypes) {
+            this.listenedTypes.compute(eventClass, (type, count) -> {
+                final int newCount = (count == null ? 0 : count) + (registering ? 1 : -1);
+                return newCount <= 0 ? null : newCount;
+            });
+            for (EventFlag flag : this.createdFlags) {
+                if (flag.matches(eventClass)) {
+                    flag.update(registering);
+                }
+            }
+        }
+    }
+
+    private static final class EventFlag {
+
+        final Class<?> type;
+        int listenerCount = 0;
+        volatile boolean value;
+
+        EventFlag(Class<?> type) {
+            this.type = type;
+        }
+
+        /**
+         * Same rule as {@link #updateFields}, the flag is affected by listeners
+         * of its own type, of any of its supertypes and of any of its subtypes.
+         */
+        boolean matches(Class<?> listenedType) {
+            return listenedType.isAssignableFrom(this.type) || this.type.isAssignableFrom(listenedType);
+        }
+
+        void update(boolean increment) {
+            if (increment) {
+                this.listenerCount++;
+            } else {
+                this.listenerCount--;
+            }
+            this.value = this.listenerCount > 0;
+        }
+    }
+
     private static class FieldData {
         Field field;
         int listenerCount = 0;
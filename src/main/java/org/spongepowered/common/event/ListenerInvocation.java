@@ -0,0 +1,65 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.event;
+
+import co.aikar.timings.Timing;
+import org.spongepowered.api.event.CauseStackManager;
+import org.spongepowered.common.event.tracking.PhaseContext;
+
+import javax.annotation.Nullable;
+
+/**
+ * The cause frame, phase context and timings opened around the call of a
+ * listener on the main thread. A single instance is reused for all the
+ * listeners called by one post, it is emptied again once closed.
+ */
+final class ListenerInvocation {
+
+    @Nullable CauseStackManager.StackFrame frame;
+    @Nullable PhaseContext<?> context;
+    @Nullable Timing timings;
+
+    /**
+     * Closes everything that was opened, in the reverse order.
+     */
+    void close() {
+        final Timing timings = this.timings;
+        final PhaseContext<?> context = this.context;
+        final CauseStackManager.StackFrame frame = this.frame;
+        this.timings = null;
+        this.context = null;
+        this.frame = null;
+        if (timings != null) {
+            timings.close();
+        }
+        if (context != null) {
+            context.close();
+        }
+        if (frame != null) {
+            frame.close();
+        }
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.event;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * An immutable snapshot of all the {@link RegisteredListener}s known to the
+ * {@link SpongeEventManager}, grouped by their raw event type.
+ *
+ * <p>Writers never modify a table in place, they instead derive a new table
+ * which shares all the untouched listener lists with its predecessor. This
+ * allows the baking of handler caches to read the table without acquiring
+ * any lock.</p>
+ */
+final class ListenerTable {
+
+    static final ListenerTable EMPTY = new ListenerTable(ImmutableMap.of(), 0);
+
+    private final ImmutableMap<Class<?>, ImmutableList<RegisteredListener<?>>> listenersByEvent;
+    private final int version;
+
+    private ListenerTable(ImmutableMap<Class<?>, ImmutableList<RegisteredListener<?>>> listenersByEvent, int version) {
+        this.listenersByEvent = listenersByEvent;
+        this.version = version;
+    }
+
+    /**
+     * Gets the version of this table, which is incremented every time a
+     * table is derived with a structural change.
+     *
+     * @return The version
+     */
+    int getVersion() {
+        return this.version;
+    }
+
+    List<RegisteredListener<?>> get(Class<?> eventType) {
+        final ImmutableList<RegisteredListener<?>> listeners = this.listenersByEvent.get(eventType);
+        return listeners == null ? ImmutableList.of() : listeners;
+    }
+
+    Collection<ImmutableList<RegisteredListener<?>>> values() {
+        return this.listenersByEvent.values();
+    }
+
+    /**
+     * Creates a new table containing the given listeners in addition to
+     * the listeners of this table. Listeners already in this table or listed
+     * twice are only added once, every listener that was actually added is
+     * collected into {@code added}.
+     *
+     * @param listeners The listeners to add
+     * @param added The list collecting the added listeners
+     * @return The new table, or this table if nothing changed
+     */
+    ListenerTable with(List<RegisteredListener<?>> listeners, List<RegisteredListener<?>> added) {
+        final Map<Class<?>, Set<RegisteredListener<?>>> present = new HashMap<>();
+        final Map<Class<?>, ImmutableList.Builder<RegisteredListener<?>>> additions = new HashMap<>();
+        for (RegisteredListener<?> listener : listeners) {
+            final Class<?> raw = listener.getEventType().getType();
+            // Listeners have no equality besides identity
+            if (!present.computeIfAbsent(raw, type -> new ReferenceOpenHashSet<>(get(type))).add(listener)) {
+                continue;
+            }
+            additions.computeIfAbsent(raw, type -> ImmutableList.<RegisteredListener<?>>builder().addAll(get(type))).add(listener);
+            added.add(listener);
+        }
+        if (additions.isEmpty()) {
+            return this;
+        }
+        final Map<Class<?>, ImmutableList<RegisteredListener<?>>> newListeners = new HashMap<>(this.listenersByEvent);
+        for (Map.Entry<Class<?>, ImmutableList.Builder<RegisteredListener<?>>> entry : additions.entrySet()) {
+            newListeners.put(entry.getKey(), entry.getValue().build());
+        }
+        return new ListenerTable(ImmutableMap.copyOf(newListeners), this.version + 1);
+    }
+
+    /**
+     * Creates a new table without the listeners matching the given
+     * predicate. Every removed listener is collected into {@code removed}.
+     *
+     * @param filter The predicate selecting the listeners to remove
+     * @param removed The list collecting the removed listeners
+     * @return The new table, or this table if nothing changed
+     */
+    ListenerTable without(Predicate<RegisteredListener<?>> filter, List<RegisteredListener<?>> removed) {
+        final Map<Class<?>, ImmutableList<RegisteredListener<?>>> newListeners = new HashMap<>(this.listenersByEvent);
+        boolean changed = false;
+        for (Map.Entry<Class<?>, ImmutableList<RegisteredListener<?>>> entry : this.listenersByEvent.entrySet()) {
+            ImmutableList.Builder<RegisteredListener<?>> builder = null;
+            for (RegisteredListener<?> listener : entry.getValue()) {
+                if (filter.test(listener)) {
+                    removed.add(listener);
+                    if (builder == null) {
+                        builder = ImmutableList.builder();
+                        // Copy the listeners we already walked past
+                        for (RegisteredListener<?> previous : entry.getValue()) {
+                            if (previous == listener) {
+                                break;
+                            }
+                            builder.add(previous);
+                        }
+                    }
+                } else if (builder != null) {
+                    builder.add(listener);
+                }
+            }
+            if (builder != null) {
+                changed = true;
+                final ImmutableList<RegisteredListener<?>> remaining = builder.build();
+                if (remaining.isEmpty()) {
+                    newListeners.remove(entry.getKey());
+                } else {
+                    newListeners.put(entry.getKey(), remaining);
+                }
+            }
+        }
+        if (!changed) {
+            return this;
+        }
+        return new ListenerTable(ImmutableMap.copyOf(newListeners), this.version + 1);
+    }
+
+}
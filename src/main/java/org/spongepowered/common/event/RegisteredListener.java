@@ -40,6 +40,8 @@
 import java.util.EnumMap;
 import java.util.List;
 
+import javax.annotation.Nullable;
+
 public final class RegisteredListener<T extends Event> implements SpongeEventListener<T>, Comparable<RegisteredListener<?>> {
 
     private final PluginContainer plugin;
@@ -83,6 +85,10 @@ public Timing getTimingsHandler() {
         return this.listenerTimer;
     }
 
+    EventListener<? super T> getListener() {
+        return this.listener;
+    }
+
     @Override
     public Object getHandle() {
         if (this.listener instanceof SpongeEventListener) {
@@ -106,9 +112,15 @@ public static final class Cache {
 
         private final List<RegisteredListener<?>> listeners;
         private final EnumMap<Order, List<RegisteredListener<?>>> listenersByOrder;
+        @Nullable private final EventDispatcher dispatcher;
 
         Cache(List<RegisteredListener<?>> listeners) {
+            this(listeners, null);
+        }
+
+        Cache(List<RegisteredListener<?>> listeners, @Nullable EventDispatcher dispatcher) {
             this.listeners = listeners;
+            this.dispatcher = dispatcher;
 
             this.listenersByOrder = new EnumMap<>(Order.class);
             for (RegisteredListener<?> handler : listeners) {
@@ -121,6 +133,17 @@ public List<RegisteredListener<?>> getListeners() {
             return this.listeners;
         }
 
+        /**
+         * Gets the generated dispatcher which calls the listeners of this
+         * cache by their index in {@link #getListeners()}, if available.
+         *
+         * @return The dispatcher, or null if the listeners have to be called directly
+         */
+        @Nullable
+        public EventDispatcher getDispatcher() {
+            return this.dispatcher;
+        }
+
         public List<RegisteredListener<?>> getListenersByOrder(Order order) {
             final List<RegisteredListener<?>> list = this.listenersByOrder.get(checkNotNull(order, "order"));
             if (list == null) {
@@ -24,6 +24,8 @@
  */
 package org.spongepowered.common.event;
 
+import org.spongepowered.api.event.Event;
+
 public class ShouldFire {
 
     public static boolean PLAYER_CHANGE_CLIENT_SETTINGS_EVENT = false;
@@ -110,6 +112,8 @@ public class ShouldFire {
     public static boolean SAVE_CHUNK_EVENT_PRE = false;
     public static boolean SAVE_CHUNK_EVENT_POST = false;
     public static boolean COLLIDE_ENTITY_EVENT = false;
+    public static boolean COLLIDE_ENTITY_EVENT_IMPACT = false;
+    public static boolean DAMAGE_ENTITY_EVENT = false;
     public static boolean SEND_COMMAND_EVENT = false;
 
     public static boolean BREED_ENTITY_EVENT_READY_TO_MATE = false;
@@ -124,4 +128,16 @@ public class ShouldFire {
 
     public static boolean KICK_PLAYER_EVENT = false;
 
+    /**
+     * Gets whether any listener may receive an event of the given type,
+     * following the same rules as the flags above. Unlike the flags, this is
+     * available for every event type, prefer a flag on very hot paths.
+     *
+     * @param eventType The event type
+     * @return Whether the event should be fired
+     */
+    public static boolean shouldFire(Class<? extends Event> eventType) {
+        return ListenerChecker.hasListener(eventType);
+    }
+
 }
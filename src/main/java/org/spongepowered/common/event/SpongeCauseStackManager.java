@@ -45,6 +45,7 @@
 
 import java.util.ArrayDeque;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -256,6 +257,10 @@ public StackFrame pushCauseFrame() {
             frame.old_min_depth = min_depth;
             frame.lastCauseSize = this.duplicateCauses[size];
         }
+        // Remember the current cause and context, they are still valid once
+        // this frame is popped since popping restores the current state.
+        frame.parentCause = this.cached_cause;
+        frame.parentContext = this.cached_ctx;
 
         this.frames.push(frame);
         this.min_depth = size;
@@ -331,12 +336,14 @@ public void popCauseFrame(final StackFrame oldFrame) {
         this.frames.pop();
 
         // Remove new values
-        for (Map.Entry<EventContextKey<?>, Object> entry : frame.getOriginalContextDelta().entrySet()) {
+        for (int i = 0; i < frame.storedContextSize; i++) {
             this.cached_ctx = null;
-            if (entry.getValue() == null) { // wasn't present before, remove
-                this.ctx.remove(entry.getKey());
+            final EventContextKey<?> key = frame.storedContextKeys[i];
+            final Object value = frame.storedContextValues[i];
+            if (value == null) { // wasn't present before, remove
+                this.ctx.remove(key);
             } else { // was there, replace
-                this.ctx.put(entry.getKey(), entry.getValue());
+                this.ctx.put(key, value);
             }
         }
 
@@ -363,6 +370,15 @@ public void popCauseFrame(final StackFrame oldFrame) {
             // Then set the last cause index to whatever the size of the entry was at the time.
             this.duplicateCauses[size] = frame.lastCauseSize;
         }
+        // The causes and context are now the same as when the frame was pushed,
+        // so reuse the objects that were cached at that time instead of
+        // building new ones on the next request.
+        if (frame.parentCause != null && frame.parentContext != null && !this.pendingProviders.get()) {
+            this.cached_cause = frame.parentCause;
+            this.cached_ctx = frame.parentContext;
+        } else if (this.cached_ctx == null && frame.parentContext != null && !this.pendingProviders.get()) {
+            this.cached_ctx = frame.parentContext;
+        }
 
         // finally, return the frame to the pool
         if (this.framePool.size() < MAX_POOL_SIZE) {
@@ -439,10 +455,18 @@ public void popFrameMutator(final PhaseContext<?> context) {
 
     public static class CauseStackFrameImpl implements StackFrame {
 
-        private final Map<EventContextKey<?>, Object> stored_ctx_values = new HashMap<>();
+        private static final int INITIAL_STORED_CONTEXT_SIZE = 4;
+
+        @Nullable private Map<EventContextKey<?>, Object> stored_ctx_values;
         int old_min_depth;
         int lastCauseSize;
-        private final Map<EventContextKey<?>, Object> storedContext = new HashMap<>();
+        // The original context values replaced while this frame was on top of
+        // the stack, stored in arrays so pooled frames don't allocate when reused.
+        EventContextKey<?>[] storedContextKeys = new EventContextKey<?>[INITIAL_STORED_CONTEXT_SIZE];
+        Object[] storedContextValues = new Object[INITIAL_STORED_CONTEXT_SIZE];
+        int storedContextSize;
+        @Nullable Cause parentCause;
+        @Nullable EventContext parentContext;
 
         @Nullable Exception stack_debug = null;
 
@@ -450,8 +474,14 @@ public static class CauseStackFrameImpl implements StackFrame {
         CauseStackFrameImpl() {}
 
         public void clear() {
-            this.stored_ctx_values.clear();
-            this.storedContext.clear();
+            if (this.stored_ctx_values != null) {
+                this.stored_ctx_values.clear();
+            }
+            Arrays.fill(this.storedContextKeys, 0, this.storedContextSize, null);
+            Arrays.fill(this.storedContextValues, 0, this.storedContextSize, null);
+            this.storedContextSize = 0;
+            this.parentCause = null;
+            this.parentContext = null;
             this.lastCauseSize = -1;
             this.old_min_depth = -1;
             this.stack_debug = null;
@@ -469,26 +499,34 @@ public boolean isStored(final EventContextKey<?> key) {
         }
 
         public Set<Map.Entry<EventContextKey<?>, Object>> getStoredValues() {
-            return this.stored_ctx_values.entrySet();
+            return this.stored_ctx_values == null ? Collections.emptySet() : this.stored_ctx_values.entrySet();
         }
 
         public boolean hasStoredValues() {
-            return !this.stored_ctx_values.isEmpty();
+            return this.stored_ctx_values != null && !this.stored_ctx_values.isEmpty();
         }
 
         public void store(EventContextKey<?> key, Object existing) {
+            if (this.stored_ctx_values == null) {
+                this.stored_ctx_values = new HashMap<>();
+            }
             this.stored_ctx_values.put(key, existing);
         }
 
         // Note that a null object indicates that the context should be removed
         void storeOriginalContext(EventContextKey<?> key, @Nullable Object object) {
-            if (!this.storedContext.containsKey(key)) {
-                this.storedContext.put(key, object);
+            for (int i = 0; i < this.storedContextSize; i++) {
+                if (this.storedContextKeys[i].equals(key)) {
+                    return;
+                }
             }
-        }
-
-        Map<EventContextKey<?>, Object> getOriginalContextDelta() {
-            return this.storedContext;
+            if (this.storedContextSize == this.storedContextKeys.length) {
+                this.storedContextKeys = Arrays.copyOf(this.storedContextKeys, this.storedContextSize * 2);
+                this.storedContextValues = Arrays.copyOf(this.storedContextValues, this.storedContextSize * 2);
+            }
+            this.storedContextKeys[this.storedContextSize] = key;
+            this.storedContextValues[this.storedContextSize] = object;
+            this.storedContextSize++;
         }
 
         @Override
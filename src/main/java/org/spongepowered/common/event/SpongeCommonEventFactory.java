@@ -507,6 +507,9 @@ private static void applyTransactions(final ChangeInventoryEvent.Pickup event) {
     @Nullable
     public static CollideEntityEvent callCollideEntityEvent(final net.minecraft.world.World world, @Nullable final net.minecraft.entity.Entity sourceEntity,
             final List<net.minecraft.entity.Entity> entities) {
+        if (!ShouldFire.COLLIDE_ENTITY_EVENT) {
+            return null;
+        }
 
         final PhaseTracker phaseTracker = PhaseTracker.getInstance();
         final PhaseContext<?> currentContext = phaseTracker.getCurrentContext();
@@ -1082,34 +1085,37 @@ public static boolean handleCollideBlockEvent(final Block block, final net.minec
             return false;
         }
 
-        try (final CauseStackManager.StackFrame frame = Sponge.getCauseStackManager().pushCauseFrame()) {
-            frame.pushCause( entity);
-
-            if (entity instanceof OwnershipTrackedBridge) {
-                final OwnershipTrackedBridge spongeEntity = (OwnershipTrackedBridge) entity;
-                spongeEntity.tracked$getOwnerReference().ifPresent(user -> frame.addContext(EventContextKeys.OWNER, user));
-            }
-
-            // TODO: Add target side support
-            final CollideBlockEvent event = SpongeEventFactory.createCollideBlockEvent(frame.getCurrentCause(), (BlockState) state,
-                    new Location<>((World) world, VecHelper.toVector3d(pos)), direction);
-            final boolean cancelled = SpongeImpl.postEvent(event);
-            if (!cancelled) {
-                final EntityBridge spongeEntity = (EntityBridge) entity;
-                if (!pos.equals(spongeEntity.bridge$getLastCollidedBlockPos())) {
-                    final PhaseContext<?> context = PhaseTracker.getInstance().getCurrentContext();
-                    context.applyNotifierIfAvailable(notifier -> {
-                        ChunkBridge spongeChunk = ((ActiveChunkReferantBridge) entity).bridge$getActiveChunk();
-                        if (spongeChunk == null) {
-                            spongeChunk = (ChunkBridge) world.getChunk(pos);
-                        }
-                        spongeChunk.bridge$addTrackedBlockPosition(block, pos, notifier, PlayerTracker.Type.NOTIFIER);
+        // Entities collide with blocks every tick, so the frame and event are only built when someone listens
+        if (ShouldFire.shouldFire(CollideBlockEvent.class)) {
+            try (final CauseStackManager.StackFrame frame = Sponge.getCauseStackManager().pushCauseFrame()) {
+                frame.pushCause( entity);
+
+                if (entity instanceof OwnershipTrackedBridge) {
+                    final OwnershipTrackedBridge spongeEntity = (OwnershipTrackedBridge) entity;
+                    spongeEntity.tracked$getOwnerReference().ifPresent(user -> frame.addContext(EventContextKeys.OWNER, user));
+                }
 
-                    });
+                // TODO: Add target side support
+                final CollideBlockEvent event = SpongeEventFactory.createCollideBlockEvent(frame.getCurrentCause(), (BlockState) state,
+                        new Location<>((World) world, VecHelper.toVector3d(pos)), direction);
+                if (SpongeImpl.postEvent(event)) {
+                    return true;
                 }
             }
-            return cancelled;
         }
+        final EntityBridge spongeEntity = (EntityBridge) entity;
+        if (!pos.equals(spongeEntity.bridge$getLastCollidedBlockPos())) {
+            final PhaseContext<?> context = PhaseTracker.getInstance().getCurrentContext();
+            context.applyNotifierIfAvailable(notifier -> {
+                ChunkBridge spongeChunk = ((ActiveChunkReferantBridge) entity).bridge$getActiveChunk();
+                if (spongeChunk == null) {
+                    spongeChunk = (ChunkBridge) world.getChunk(pos);
+                }
+                spongeChunk.bridge$addTrackedBlockPosition(block, pos, notifier, PlayerTracker.Type.NOTIFIER);
+
+            });
+        }
+        return false;
     }
 
     public static boolean handleCollideImpactEvent(final net.minecraft.entity.Entity projectile, @Nullable final ProjectileSource projectileSource,
@@ -1132,23 +1138,26 @@ public static boolean handleCollideImpactEvent(final net.minecraft.entity.Entity
                     return false;
                 }
 
-                final BlockSnapshot targetBlock = ((World) projectile.world).createSnapshot(VecHelper.toVector3i(movingObjectPosition.getBlockPos()));
-                Direction side = Direction.NONE;
-                if (movingObjectPosition.sideHit != null) {
-                    side = DirectionFacingProvider.getInstance().getKey(movingObjectPosition.sideHit).get();
-                }
+                final IBlockState targetState = projectile.world.getBlockState(blockPos);
+                if (ShouldFire.shouldFire(CollideBlockEvent.Impact.class)) {
+                    final BlockSnapshot targetBlock = ((World) projectile.world).createSnapshot(VecHelper.toVector3i(blockPos));
+                    Direction side = Direction.NONE;
+                    if (movingObjectPosition.sideHit != null) {
+                        side = DirectionFacingProvider.getInstance().getKey(movingObjectPosition.sideHit).get();
+                    }
 
-                final CollideBlockEvent.Impact event = SpongeEventFactory.createCollideBlockEventImpact(frame.getCurrentCause(),
-                        impactPoint, targetBlock.getState(),
-                        targetBlock.getLocation().get(), side);
-                cancelled = SpongeImpl.postEvent(event);
+                    final CollideBlockEvent.Impact event = SpongeEventFactory.createCollideBlockEventImpact(frame.getCurrentCause(),
+                            impactPoint, targetBlock.getState(),
+                            targetBlock.getLocation().get(), side);
+                    cancelled = SpongeImpl.postEvent(event);
+                }
                 // Track impact block if event is not cancelled
                 if (!cancelled && owner.isPresent()) {
                     final BlockPos targetPos = VecHelper.toBlockPos(impactPoint.getBlockPosition());
                     final ChunkBridge spongeChunk = (ChunkBridge) projectile.world.getChunk(targetPos);
-                    spongeChunk.bridge$addTrackedBlockPosition((Block) targetBlock.getState().getType(), targetPos, owner.get(), PlayerTracker.Type.NOTIFIER);
+                    spongeChunk.bridge$addTrackedBlockPosition(targetState.getBlock(), targetPos, owner.get(), PlayerTracker.Type.NOTIFIER);
                 }
-            } else if (movingObjectPosition.entityHit != null) { // entity
+            } else if (movingObjectPosition.entityHit != null && ShouldFire.COLLIDE_ENTITY_EVENT_IMPACT) { // entity
                 final ArrayList<Entity> entityList = new ArrayList<>();
                 entityList.add((Entity) movingObjectPosition.entityHit);
                 final CollideEntityEvent.Impact event = SpongeEventFactory.createCollideEntityEventImpact(frame.getCurrentCause(), entityList, impactPoint);
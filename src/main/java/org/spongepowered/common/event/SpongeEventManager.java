@@ -27,22 +27,18 @@
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import co.aikar.timings.Timing;
 import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import org.spongepowered.common.event.tracking.phase.plugin.EventListenerPhaseContext;
 import org.spongepowered.common.relocate.co.aikar.timings.TimingsManager;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import com.google.common.reflect.TypeToken;
 import org.apache.logging.log4j.Logger;
 import org.spongepowered.api.Sponge;
 import org.spongepowered.api.event.Cancellable;
-import org.spongepowered.api.event.CauseStackManager;
 import org.spongepowered.api.event.Event;
 import org.spongepowered.api.event.EventListener;
 import org.spongepowered.api.event.EventManager;
@@ -57,7 +53,6 @@
 import org.spongepowered.common.SpongeImpl;
 import org.spongepowered.common.event.filter.FilterFactory;
 import org.spongepowered.common.event.gen.DefineableClassLoader;
-import org.spongepowered.common.event.tracking.PhaseContext;
 import org.spongepowered.common.event.tracking.PhaseTracker;
 import org.spongepowered.common.event.tracking.phase.plugin.PluginPhase;
 import org.spongepowered.common.bridge.inventory.ContainerBridge;
@@ -70,11 +65,10 @@
 import java.lang.reflect.Modifier;
 import java.lang.reflect.TypeVariable;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.IdentityHashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -95,16 +89,25 @@ public class SpongeEventManager implements EventManager {
     private final Object lock = new Object();
     protected final Logger logger;
     private final PluginManager pluginManager;
-    private final Multimap<Class<?>, RegisteredListener<?>> handlersByEvent = HashMultimap.create();
+    /**
+     * The current listener table. Writers replace it with a new snapshot while
+     * holding {@link #lock}, readers may access it at any time without locking.
+     */
+    private volatile ListenerTable handlersByEvent = ListenerTable.EMPTY;
     private final Map<ClassLoader, AnnotatedEventListener.Factory> classLoaders = new IdentityHashMap<>();
     private final Set<Object> registeredListeners = new ReferenceOpenHashSet<>();
+    /**
+     * Every event type a bake was ever started for. Unlike the key set of
+     * {@link #handlersCache} this includes the bakes still in progress.
+     */
+    private final Set<EventType<?>> bakedTypes = ConcurrentHashMap.newKeySet();
 
     public final ListenerChecker checker = new ListenerChecker(ShouldFire.class);
 
     /**
      * A cache of all the handlers for an event type for quick event posting.
-     * <p>The cache is currently entirely invalidated if handlers are added or
-     * removed.</p>
+     * <p>When handlers are added or removed, only the event types which are
+     * subtypes of the affected listener types are invalidated and rebaked.</p>
      */
     protected final LoadingCache<EventType<?>, RegisteredListener.Cache> handlersCache =
             Caffeine.newBuilder().initialCapacity(150).build(this::bakeHandlers);
@@ -139,32 +142,58 @@ public SpongeEventManager(Logger logger, PluginManager pluginManager) {
     }
 
     <T extends Event> RegisteredListener.Cache bakeHandlers(EventType<T> eventType) {
+        // Must be visible before the table is read, see invalidateHandlers
+        this.bakedTypes.add(eventType);
         final List<RegisteredListener<?>> handlers = new ArrayList<>();
         final Set<Class<? super T>> types = TypeToken.of(eventType.getType()).getTypes().rawTypes();
-
-        synchronized (this.lock) {
-            for (Class<? super T> type : types) {
-                if (Event.class.isAssignableFrom(type)) {
-                    final Collection<RegisteredListener<?>> listeners = this.handlersByEvent.get(type);
-                    if (GenericEvent.class.isAssignableFrom(type)) {
-                        final TypeToken<?> genericType = eventType.getGenericType();
-                        checkNotNull(genericType);
-                        for (RegisteredListener<?> listener : listeners) {
-                            final TypeToken<?> genericType1 = listener.getEventType().getGenericType();
-                            checkNotNull(genericType1);
-                            if (TypeTokenHelper.isAssignable(genericType, genericType1)) {
-                                handlers.add(listener);
-                            }
+        final ListenerTable table = this.handlersByEvent;
+
+        for (Class<? super T> type : types) {
+            if (Event.class.isAssignableFrom(type)) {
+                final List<RegisteredListener<?>> listeners = table.get(type);
+                if (GenericEvent.class.isAssignableFrom(type)) {
+                    final TypeToken<?> genericType = eventType.getGenericType();
+                    checkNotNull(genericType);
+                    for (RegisteredListener<?> listener : listeners) {
+                        final TypeToken<?> genericType1 = listener.getEventType().getGenericType();
+                        checkNotNull(genericType1);
+                        if (TypeTokenHelper.isAssignable(genericType, genericType1)) {
+                            handlers.add(listener);
                         }
-                    } else {
-                        handlers.addAll(listeners);
                     }
+                } else {
+                    handlers.addAll(listeners);
                 }
             }
         }
 
         Collections.sort(handlers);
-        return new RegisteredListener.Cache(handlers);
+        return new RegisteredListener.Cache(handlers, EventDispatcherFactory.create(this, eventType, handlers));
+    }
+
+    /**
+     * Invalidates the baked handlers of every cached event type which may be
+     * affected by a change to the listeners of the given types.
+     *
+     * <p>This must be called after the new listener table has been published.
+     * A bake which read the previous table added its type to
+     * {@link #bakedTypes} before that read, so the type is seen here. Removing
+     * it from the cache waits for a bake still in progress to be stored, so
+     * its outdated handlers are always dropped.</p>
+     *
+     * @param changedTypes The raw event types whose listeners changed
+     */
+    private void invalidateHandlers(Set<Class<?>> changedTypes) {
+        final List<EventType<?>> affected = new ArrayList<>();
+        for (EventType<?> eventType : this.bakedTypes) {
+            for (Class<?> changedType : changedTypes) {
+                if (changedType.isAssignableFrom(eventType.getType())) {
+                    affected.add(eventType);
+                    break;
+                }
+            }
+        }
+        this.handlersCache.invalidateAll(affected);
     }
 
     @Nullable
@@ -201,22 +230,26 @@ private void register(RegisteredListener<? extends Event> handler) {
         register(Collections.singletonList(handler));
     }
 
+    @SuppressWarnings({"unchecked", "rawtypes"})
     private void register(List<RegisteredListener<? extends Event>> handlers) {
-        boolean changed = false;
+        final Set<Class<?>> changedTypes = new HashSet<>();
 
         synchronized (this.lock) {
-            for (RegisteredListener<?> handler : handlers) {
+            final List<RegisteredListener<?>> added = new ArrayList<>();
+            final ListenerTable table = this.handlersByEvent;
+            final ListenerTable newTable = table.with((List) handlers, added);
+            if (newTable == table) {
+                return;
+            }
+            this.handlersByEvent = newTable;
+            for (RegisteredListener<?> handler : added) {
                 final Class<?> raw = handler.getEventType().getType();
-                if (this.handlersByEvent.put(raw, handler)) {
-                    changed = true;
-                    this.checker.registerListenerFor(raw);
-                }
+                changedTypes.add(raw);
+                this.checker.registerListenerFor(raw);
             }
         }
 
-        if (changed) {
-            this.handlersCache.invalidateAll();
-        }
+        invalidateHandlers(changedTypes);
     }
 
     @SuppressWarnings("unchecked")
@@ -224,11 +257,13 @@ private void registerListener(PluginContainer plugin, Object listenerObject) {
         checkNotNull(plugin, "plugin");
         checkNotNull(listenerObject, "listener");
 
-        if (this.registeredListeners.contains(listenerObject)) {
-            this.logger.warn("Plugin {} attempted to register an already registered listener ({})", plugin.getId(),
-                    listenerObject.getClass().getName());
-            Thread.dumpStack();
-            return;
+        synchronized (this.lock) {
+            if (this.registeredListeners.contains(listenerObject)) {
+                this.logger.warn("Plugin {} attempted to register an already registered listener ({})", plugin.getId(),
+                        listenerObject.getClass().getName());
+                Thread.dumpStack();
+                return;
+            }
         }
 
         List<RegisteredListener<? extends Event>> handlers = Lists.newArrayList();
@@ -285,7 +320,9 @@ private void registerListener(PluginContainer plugin, Object listenerObject) {
                     method.getKey().getDeclaringClass().getName(), method.getValue());
         }
 
-        this.registeredListeners.add(listenerObject);
+        synchronized (this.lock) {
+            this.registeredListeners.add(listenerObject);
+        }
         register(handlers);
     }
 
@@ -348,25 +385,25 @@ public <T extends Event> void registerListener(Object plugin, TypeToken<T> event
     }
 
     private void unregister(Predicate<RegisteredListener<?>> unregister) {
-        boolean changed = false;
+        final Set<Class<?>> changedTypes = new HashSet<>();
 
         synchronized (this.lock) {
-            Iterator<RegisteredListener<?>> itr = this.handlersByEvent.values().iterator();
-            while (itr.hasNext()) {
-                RegisteredListener<?> handler = itr.next();
-                if (unregister.test(handler)) {
-                    itr.remove();
-                    changed = true;
-                    // TODO: This doesn't seem right, even as it was before
-                    this.checker.unregisterListenerFor(handler.getEventType().getType());
-                    this.registeredListeners.remove(handler.getHandle());
-                }
+            final List<RegisteredListener<?>> removed = new ArrayList<>();
+            final ListenerTable table = this.handlersByEvent;
+            final ListenerTable newTable = table.without(unregister, removed);
+            if (newTable == table) {
+                return;
+            }
+            this.handlersByEvent = newTable;
+            for (RegisteredListener<?> handler : removed) {
+                changedTypes.add(handler.getEventType().getType());
+                // TODO: This doesn't seem right, even as it was before
+                this.checker.unregisterListenerFor(handler.getEventType().getType());
+                this.registeredListeners.remove(handler.getHandle());
             }
         }
 
-        if (changed) {
-            this.handlersCache.invalidateAll();
-        }
+        invalidateHandlers(changedTypes);
     }
 
     @Override
@@ -399,51 +436,101 @@ protected RegisteredListener.Cache getHandlerCache(Event event) {
         return this.handlersCache.get(eventType);
     }
 
-    @SuppressWarnings("unchecked")
-    private boolean post(Event event, List<RegisteredListener<?>> handlers) {
-        if (!Sponge.getServer().isMainThread()) {
-            // If this event is being posted asynchronously then we don't want
-            // to do any timing or cause stack changes
-            for (@SuppressWarnings("rawtypes") RegisteredListener handler : handlers) {
+    private boolean post(Event event, RegisteredListener.Cache cache) {
+        return post(event, cache.getListeners(), cache.getDispatcher());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private boolean post(Event event, List<RegisteredListener<?>> handlers, @Nullable EventDispatcher dispatcher) {
+        // If this event is being posted asynchronously then we don't want
+        // to do any timing or cause stack changes
+        final boolean sync = Sponge.getServer().isMainThread();
+        if (sync) {
+            TimingsManager.PLUGIN_EVENT_HANDLER.startTimingIfSync();
+        }
+        if (dispatcher != null) {
+            dispatcher.post(event, sync);
+        } else {
+            final ListenerInvocation invocation = sync ? new ListenerInvocation() : null;
+            for (RegisteredListener handler : handlers) {
                 try {
-                    if (event instanceof AbstractEvent) {
-                        ((AbstractEvent) event).currentOrder = handler.getOrder();
-                    }
+                    beginListener(handler, event, invocation);
                     handler.handle(event);
                 } catch (Throwable e) {
-                    SpongeImpl.getLogger().error("Could not pass {} to {}", event.getClass().getSimpleName(), handler.getPlugin(), e);
+                    handleListenerError(handler, event, e, invocation);
+                    continue;
                 }
+                endListener(invocation);
             }
-            if (event instanceof AbstractEvent) {
-                ((AbstractEvent) event).currentOrder = null;
-            }
-            return event instanceof Cancellable && ((Cancellable) event).isCancelled();
         }
-        TimingsManager.PLUGIN_EVENT_HANDLER.startTimingIfSync();
-        for (@SuppressWarnings("rawtypes") RegisteredListener handler : handlers) {
-            try (CauseStackManager.StackFrame frame = Sponge.getCauseStackManager().pushCauseFrame();
-                 final PhaseContext<?> context = createPluginContext(handler);
-                 final Timing timings = handler.getTimingsHandler()) {
-                frame.pushCause(handler.getPlugin());
-                if (context != null) {
-                    context.buildAndSwitch();
-                }
-                timings.startTimingIfSync();
-                if (event instanceof AbstractEvent) {
-                    ((AbstractEvent) event).currentOrder = handler.getOrder();
+        if (event instanceof AbstractEvent) {
+            ((AbstractEvent) event).currentOrder = null;
+        }
+        return event instanceof Cancellable && ((Cancellable) event).isCancelled();
+    }
+
+    /**
+     * Prepares the call of a listener. On the main thread this opens a cause
+     * frame with the plugin of the listener, the listener phase context and
+     * the timings of the listener into the invocation of the post, which have
+     * to be closed again with {@link #endListener(ListenerInvocation)}.
+     *
+     * @param handler The listener about to be called
+     * @param event The event
+     * @param invocation The invocation of the post, or null if the event is
+     *     not posted on the main thread
+     */
+    void beginListener(RegisteredListener<?> handler, Event event, @Nullable ListenerInvocation invocation) {
+        if (invocation != null) {
+            try {
+                invocation.frame = Sponge.getCauseStackManager().pushCauseFrame();
+                invocation.frame.pushCause(handler.getPlugin());
+                invocation.context = createPluginContext(handler);
+                if (invocation.context != null) {
+                    invocation.context.buildAndSwitch();
                 }
-                handler.handle(event);
+                invocation.timings = handler.getTimingsHandler();
+                invocation.timings.startTimingIfSync();
             } catch (Throwable e) {
-                // TODO - add some better handling, especially since we have the stakc frame and phase context to boot
-                final PrettyPrinter printer = new PrettyPrinter(60).add("Error with event listener handling").centre().hr();
-                printer.add("A listener threw an exception while being handled, this is usually not a sponge bug.");
-                this.logger.error("Could not pass {} to {}", event.getClass().getSimpleName(), handler.getPlugin(), e);
+                invocation.close();
+                throw e;
             }
         }
         if (event instanceof AbstractEvent) {
-            ((AbstractEvent) event).currentOrder = null;
+            ((AbstractEvent) event).currentOrder = handler.getOrder();
+        }
+    }
+
+    void endListener(@Nullable ListenerInvocation invocation) {
+        if (invocation != null) {
+            try {
+                invocation.close();
+            } catch (Throwable e) {
+                this.logger.error("Could not close the listener context", e);
+            }
+        }
+    }
+
+    /**
+     * Closes what was opened for the failed listener, before logging the
+     * error outside of its cause frame and phase context.
+     *
+     * @param handler The listener that threw
+     * @param event The event
+     * @param e The thrown error
+     * @param invocation The invocation of the post, or null if the event is
+     *     not posted on the main thread
+     */
+    void handleListenerError(RegisteredListener<?> handler, Event event, Throwable e, @Nullable ListenerInvocation invocation) {
+        endListener(invocation);
+        if (invocation != null) {
+            // TODO - add some better handling, especially since we have the stakc frame and phase context to boot
+            final PrettyPrinter printer = new PrettyPrinter(60).add("Error with event listener handling").centre().hr();
+            printer.add("A listener threw an exception while being handled, this is usually not a sponge bug.");
+            this.logger.error("Could not pass {} to {}", event.getClass().getSimpleName(), handler.getPlugin(), e);
+        } else {
+            SpongeImpl.getLogger().error("Could not pass {} to {}", event.getClass().getSimpleName(), handler.getPlugin(), e);
         }
-        return event instanceof Cancellable && ((Cancellable) event).isCancelled();
     }
 
     @Nullable
@@ -477,12 +564,12 @@ public boolean postServer(Event event) {
     }
 
     public boolean post(Event event, boolean allowClientThread) {
-        return post(event, getHandlerCache(event).getListeners());
+        return post(event, getHandlerCache(event));
     }
 
     public boolean post(Event event, PluginContainer plugin) {
         return post(event, getHandlerCache(event).getListeners().stream()
                 .filter(l -> l.getPlugin().equals(plugin))
-                .collect(Collectors.toList()));
+                .collect(Collectors.toList()), null);
     }
 }
@@ -817,6 +817,20 @@ default boolean getShouldCancelAllTransactions(final C context, final List<Chang
      * or added, likewise, this will avoid duplicating transactions later after the fact, in the event that multiple changes are taking
      * place, including but not withstanding, tile entity replacements after the fact.
      */
+    /**
+     * Gets whether block changes are captured in bulk without any specific
+     * block processing, in which case {@link ChunkMixin} captures the changes
+     * of blocks without a tile entity without building a snapshot up front.
+     * This has to match the plain bulk capture of
+     * {@link #captureBlockChange(PhaseContext, BlockPos, SpongeBlockSnapshot, IBlockState, BlockChangeFlag, TileEntity)}.
+     *
+     * @param phaseContext The phase context
+     * @return True if the changes are captured in bulk without specific processing
+     */
+    default boolean capturesBlockChangesLazily(final C phaseContext) {
+        return this.doesBulkBlockCapture(phaseContext) && !this.hasSpecificBlockProcess(phaseContext);
+    }
+
     @Nullable
     default BlockTransaction.ChangeBlock captureBlockChange(final C phaseContext, final BlockPos pos, final SpongeBlockSnapshot originalBlockSnapshot,
         final IBlockState newState, final BlockChangeFlag flags, @Nullable final TileEntity tileEntity) {
@@ -869,7 +883,7 @@ default void postProcessSpecificBlockChange(final C currentContext, final BlockT
     }
 
     default BlockChange associateBlockChangeWithSnapshot(final C phaseContext, final IBlockState newState, final Block newBlock,
-        final IBlockState currentState, final SpongeBlockSnapshot snapshot,
+        final IBlockState currentState, @Nullable final SpongeBlockSnapshot snapshot,
         final Block originalBlock) {
         if (newBlock == Blocks.AIR) {
             return BlockChange.BREAK;
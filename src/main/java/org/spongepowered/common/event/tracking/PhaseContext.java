@@ -756,6 +756,18 @@ public List<SpongeBlockSnapshot> getCapturedBlockChanges() {
         return this.blocksSupplier.get();
     }
 
+    int getCapturedBlockCount() {
+        return this.blocksSupplier == null ? 0 : this.blocksSupplier.size();
+    }
+
+    int getCapturedEntityCount() {
+        final int entities = this.capturedEntitiesSupplier == null || this.capturedEntitiesSupplier.isEmpty()
+            ? 0 : this.capturedEntitiesSupplier.get().size();
+        final int items = this.capturedItemsSupplier == null || this.capturedItemsSupplier.isEmpty()
+            ? 0 : this.capturedItemsSupplier.get().size();
+        return entities + items;
+    }
+
     public SpongeBlockSnapshot getSingleSnapshot() {
         return checkNotNull(this.singleSnapshot, "Single Snapshot is null!");
     }
@@ -263,6 +263,9 @@ void switchToPhase(final IPhaseState<?> state, final PhaseContext<?> phaseContex
             SpongeImpl.getCauseStackManager().registerPhaseContextProvider(phaseContext);
         }
         this.stack.push(state, phaseContext);
+        if (PhaseTrackerStats.isEnabled()) {
+            PhaseTrackerStats.onEnter(state);
+        }
     }
 
     @SuppressWarnings({"rawtypes", "unused", "try"})
@@ -305,6 +308,10 @@ void completePhase(final IPhaseState<?> prevState) {
         }
 
         final boolean hasCaptures = currentContext.hasCaptures();
+        final boolean collectStats = hasCaptures && PhaseTrackerStats.isEnabled();
+        final int capturedBlocks = collectStats ? currentContext.getCapturedBlockCount() : 0;
+        final int capturedEntities = collectStats ? currentContext.getCapturedEntityCount() : 0;
+        final long unwindStart = collectStats ? System.nanoTime() : 0L;
         try (final UnwindingPhaseContext unwinding = UnwindingPhaseContext.unwind(state, currentContext, hasCaptures) ) {
             // With UnwindingPhaseContext#unwind checking for post, if it is null, the try
             // will not attempt to close the phase context. If it is required,
@@ -323,6 +330,9 @@ void completePhase(final IPhaseState<?> prevState) {
             this.printMessageWithCaughtException("Exception Post Dispatching Phase", "Something happened when trying to post dispatch state", state,
                 currentContext, e);
         }
+        if (collectStats) {
+            PhaseTrackerStats.onUnwind(state, capturedBlocks, capturedEntities, System.nanoTime() - unwindStart);
+        }
         this.checkPhaseContextProcessed(state, currentContext);
         // If pop is called, the Deque will already throw an exception if there is no element
         // so it's an error properly handled.
@@ -769,7 +779,7 @@ public void notifyBlockOfStateChange(final WorldServerBridge mixinWorld, final I
             // If the phase state does not want to allow neighbor notifications to leak while processing,
             // it needs to be able to do so. It will replay the notifications in the order in which they were received,
             // such that the notification will be sent out in the same order as the block changes that may have taken place.
-            if ((ShouldFire.CHANGE_BLOCK_EVENT || ShouldFire.NOTIFY_NEIGHBOR_BLOCK_EVENT) && state.doesCaptureNeighborNotifications(peek)) {
+            if (mixinWorld.bridge$tracksCauses(ShouldFire.CHANGE_BLOCK_EVENT || ShouldFire.NOTIFY_NEIGHBOR_BLOCK_EVENT) && state.doesCaptureNeighborNotifications(peek)) {
                 peek.getCapturedBlockSupplier().captureNeighborNotification(mixinWorld, notifyState, notifyPos, sourceBlock, sourcePos);
                 return;
             }
@@ -909,7 +919,10 @@ public boolean setBlockState(final WorldServerBridge mixinWorld, final BlockPos
         //  by short circuiting here, we avoid additional block processing that would otherwise
         //  have potential side effects (and ChunkMixin#bridge$setBlockState does a wonderful job at avoiding
         //  unnecessary logic in those cases).
-        if (((IPhaseState) phaseState).doesBulkBlockCapture(context) && ShouldFire.CHANGE_BLOCK_EVENT) {
+        // Worlds configured to bypass cause tracking fall through to vanilla mechanics, the same as when
+        // there are no listeners at all.
+        final boolean tracksChanges = mixinWorld.bridge$tracksCauses(ShouldFire.CHANGE_BLOCK_EVENT);
+        if (tracksChanges && ((IPhaseState) phaseState).doesBulkBlockCapture(context)) {
             // Basically at this point, there's nothing left for us to do since
             // ChunkMixin will capture the block change, and submit it to be
             // "captured". It's only when there's immediate block event
@@ -917,7 +930,7 @@ public boolean setBlockState(final WorldServerBridge mixinWorld, final BlockPos
             // that transaction.
             return true;
         }
-        if (((IPhaseState) phaseState).doesBlockEventTracking(context) && ShouldFire.CHANGE_BLOCK_EVENT) {
+        if (tracksChanges && ((IPhaseState) phaseState).doesBlockEventTracking(context)) {
             try {
                 // Fall back to performing a singular block capture and throwing an event with all the
                 // repercussions, such as neighbor notifications and whatnot. Entity spawns should also be
@@ -1088,8 +1101,9 @@ public boolean spawnEntity(final WorldServer world, final net.minecraft.entity.E
         // will not actively capture entity spawns, but will still throw events for them. Some phases
         // capture all entities until the phase is marked for completion.
         if (!isForced) {
-            if (ShouldFire.SPAWN_ENTITY_EVENT || entity instanceof Projectile
-                || (ShouldFire.CHANGE_BLOCK_EVENT
+            final WorldServerBridge mixinWorld = (WorldServerBridge) world;
+            if (mixinWorld.bridge$tracksCauses(ShouldFire.SPAWN_ENTITY_EVENT) || entity instanceof Projectile
+                || (mixinWorld.bridge$tracksCauses(ShouldFire.CHANGE_BLOCK_EVENT)
                     // This bottom part of the if is due to needing to be able to capture block entity spawns
                     // while block events are being listened to
                     && ((IPhaseState) phaseState).doesBulkBlockCapture(context)
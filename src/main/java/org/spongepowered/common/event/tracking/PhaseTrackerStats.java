@@ -0,0 +1,211 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.event.tracking;
+
+import com.google.gson.stream.JsonWriter;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional statistics about the cost of tracking, per {@link IPhaseState}.
+ * While disabled, the only cost to the {@link PhaseTracker} is checking
+ * {@link #isEnabled()}.
+ *
+ * <p>Only accessed from the server thread, like the {@link PhaseTracker}
+ * itself, except for {@link #setEnabled(boolean)}.</p>
+ */
+public final class PhaseTrackerStats {
+
+    private static volatile boolean enabled = false;
+    private static final Reference2ObjectOpenHashMap<IPhaseState<?>, StateStats> stats = new Reference2ObjectOpenHashMap<>();
+    private static long startTime = System.currentTimeMillis();
+
+    private PhaseTrackerStats() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(final boolean enabled) {
+        if (enabled && !PhaseTrackerStats.enabled) {
+            reset();
+        }
+        PhaseTrackerStats.enabled = enabled;
+    }
+
+    public static void reset() {
+        stats.clear();
+        startTime = System.currentTimeMillis();
+    }
+
+    private static StateStats get(final IPhaseState<?> state) {
+        StateStats stateStats = stats.get(state);
+        if (stateStats == null) {
+            stateStats = new StateStats(state);
+            stats.put(state, stateStats);
+        }
+        return stateStats;
+    }
+
+    static void onEnter(final IPhaseState<?> state) {
+        get(state).entered++;
+    }
+
+    static void onUnwind(final IPhaseState<?> state, final int capturedBlocks, final int capturedEntities, final long nanos) {
+        final StateStats stateStats = get(state);
+        stateStats.unwound++;
+        stateStats.capturedBlocks += capturedBlocks;
+        stateStats.capturedEntities += capturedEntities;
+        stateStats.unwindNanos += nanos;
+        stateStats.maxUnwindNanos = Math.max(stateStats.maxUnwindNanos, nanos);
+    }
+
+    static void onProcessBlockCaptures(final IPhaseState<?> state, final long nanos) {
+        final StateStats stateStats = get(state);
+        stateStats.blockProcesses++;
+        stateStats.blockProcessNanos += nanos;
+    }
+
+    /**
+     * Gets a copy of the statistics, most expensive to unwind first.
+     *
+     * @return The statistics
+     */
+    public static List<StateStats> getStats() {
+        final List<StateStats> list = new ArrayList<>(stats.size());
+        for (final StateStats stateStats : stats.values()) {
+            list.add(stateStats.copy());
+        }
+        list.sort(Comparator.comparingLong((StateStats s) -> s.unwindNanos).reversed());
+        return list;
+    }
+
+    public static long getCollectionMillis() {
+        return System.currentTimeMillis() - startTime;
+    }
+
+    public static void writeJson(final Writer out) throws IOException {
+        try (final JsonWriter writer = new JsonWriter(out)) {
+            writer.setIndent("  ");
+            writer.beginObject();
+            writer.name("enabled").value(enabled);
+            writer.name("collectionMillis").value(getCollectionMillis());
+            writer.name("states").beginArray();
+            for (final StateStats stateStats : getStats()) {
+                writer.beginObject();
+                writer.name("state").value(stateStats.name);
+                writer.name("entered").value(stateStats.entered);
+                writer.name("unwound").value(stateStats.unwound);
+                writer.name("unwindNanos").value(stateStats.unwindNanos);
+                writer.name("maxUnwindNanos").value(stateStats.maxUnwindNanos);
+                writer.name("capturedBlocks").value(stateStats.capturedBlocks);
+                writer.name("capturedEntities").value(stateStats.capturedEntities);
+                writer.name("blockProcesses").value(stateStats.blockProcesses);
+                writer.name("blockProcessNanos").value(stateStats.blockProcessNanos);
+                writer.endObject();
+            }
+            writer.endArray();
+            writer.endObject();
+        }
+    }
+
+    public static final class StateStats {
+
+        private final String name;
+        long entered;
+        long unwound;
+        long unwindNanos;
+        long maxUnwindNanos;
+        long capturedBlocks;
+        long capturedEntities;
+        long blockProcesses;
+        long blockProcessNanos;
+
+        StateStats(final IPhaseState<?> state) {
+            this(state.toString());
+        }
+
+        private StateStats(final String name) {
+            this.name = name;
+        }
+
+        StateStats copy() {
+            final StateStats copy = new StateStats(this.name);
+            copy.entered = this.entered;
+            copy.unwound = this.unwound;
+            copy.unwindNanos = this.unwindNanos;
+            copy.maxUnwindNanos = this.maxUnwindNanos;
+            copy.capturedBlocks = this.capturedBlocks;
+            copy.capturedEntities = this.capturedEntities;
+            copy.blockProcesses = this.blockProcesses;
+            copy.blockProcessNanos = this.blockProcessNanos;
+            return copy;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public long getEntered() {
+            return this.entered;
+        }
+
+        public long getUnwound() {
+            return this.unwound;
+        }
+
+        public double getUnwindMillis() {
+            return this.unwindNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        public double getMaxUnwindMillis() {
+            return this.maxUnwindNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        public long getCapturedBlocks() {
+            return this.capturedBlocks;
+        }
+
+        public long getCapturedEntities() {
+            return this.capturedEntities;
+        }
+
+        public long getBlockProcesses() {
+            return this.blockProcesses;
+        }
+
+        public double getBlockProcessMillis() {
+            return this.blockProcessNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+
+}
@@ -403,8 +403,21 @@ public static boolean processBlockCaptures(final PhaseContext<?> context) {
      * @param supplier
      * @return True if no events or transactions were cancelled
      */
-    @SuppressWarnings({"unchecked"})
     static boolean processBlockCaptures(final PhaseContext<?> context, final int currentDepth, final MultiBlockCaptureSupplier supplier) {
+        if (currentDepth != 0 || !PhaseTrackerStats.isEnabled()) {
+            return processBlockCapturesAtDepth(context, currentDepth, supplier);
+        }
+        final long start = System.nanoTime();
+        try {
+            return processBlockCapturesAtDepth(context, currentDepth, supplier);
+        } finally {
+            PhaseTrackerStats.onProcessBlockCaptures(context.state, System.nanoTime() - start);
+        }
+    }
+
+    @SuppressWarnings({"unchecked"})
+    private static boolean processBlockCapturesAtDepth(final PhaseContext<?> context, final int currentDepth,
+        final MultiBlockCaptureSupplier supplier) {
         // Fail fast and check if it's empty.
         if (!supplier.hasBlocksCaptured()) {
             if (((IPhaseState) context.state).hasSpecificBlockProcess(context) && supplier.hasTransactions()) {
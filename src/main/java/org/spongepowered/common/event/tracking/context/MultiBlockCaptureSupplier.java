@@ -31,7 +31,6 @@
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
-import com.google.common.collect.Multimaps;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockEventData;
 import net.minecraft.block.state.IBlockState;
@@ -57,16 +56,13 @@
 import org.spongepowered.common.world.BlockChange;
 import org.spongepowered.common.world.SpongeBlockChangeFlag;
 
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
+import java.util.UUID;
 import java.util.function.BiConsumer;
 
 import javax.annotation.Nullable;
@@ -76,11 +72,10 @@ public final class MultiBlockCaptureSupplier implements ICaptureSupplier {
 
     public static final boolean PRINT_TRANSACTIONS = Boolean.parseBoolean(System.getProperty("sponge.debugBlockTransactions", "false"));
 
-    @Nullable private LinkedListMultimap<BlockPos, SpongeBlockSnapshot> multimap;
+    @Nullable private PackedBlockChangeMultimap changes;
+    private boolean multipleChanges; // Whether a position has been changed more than once
     @Nullable private ListMultimap<BlockPos, BlockEventData> scheduledEvents;
-    @Nullable private List<SpongeBlockSnapshot> snapshots;
     @Nullable private LinkedHashMap<WorldServer, SpongeProxyBlockAccess.Proxy> processingWorlds;
-    @Nullable private Set<BlockPos> usedBlocks;
     private int transactionIndex = -1; // These are used to keep track of which snapshot is being referred to as "most recent change"
     private int snapshotIndex = -1;    // so that we can appropriately cancel or discard or apply specific event transactions
     // We made BlockTransaction a Node and this is a pseudo LinkedList due to the nature of needing
@@ -104,7 +99,7 @@ public MultiBlockCaptureSupplier() {
      * flag of changes does not result in a valid {@link BlockChange}, and therefor an invalid
      * {@link ChangeBlockEvent} is generated, potentially leading to duplication bugs with
      * protection plugins. As a result, the consuming {@link BlockSnapshot} is placed into
-     * a {@link ListMultimap} keyed by the {@link BlockPos}, and if there are multiple snapshots
+     * a {@link PackedBlockChangeMultimap} keyed by the {@link BlockPos}, and if there are multiple snapshots
      * per {@link BlockPos}, has multiple changes will be {@code true}, and this method
      * will return {@code true}.
      *
@@ -115,69 +110,52 @@ public MultiBlockCaptureSupplier() {
     public boolean put(final BlockSnapshot snapshot, final IBlockState newState) {
         // Start by figuring out the backing snapshot. In all likelyhood, we could just cast, but we want to be safe
         final SpongeBlockSnapshot backingSnapshot = getBackingSnapshot(snapshot);
-        // Get the key of the block position, we know this is a pure block pos and not a mutable one too.
-        final BlockPos blockPos = backingSnapshot.getBlockPos();
-        if (this.usedBlocks == null) { // Means we have a first usage. All three fields are null
-            // At this point, we know we have not captured anything and
-            // can just populate the normal list.
-            this.usedBlocks = new HashSet<>();
-
-            this.usedBlocks.add(blockPos);
-            this.addSnapshot(backingSnapshot);
-            return true;
-        }
-        // This isn't our first rodeo...
-        final boolean added = this.usedBlocks.add(blockPos); // add it to the set of positions already used and use the boolean
-        if (this.multimap != null) {
-            // Means we've already got multiple changes per position once before.
-            // Likewise, the used blocks, snapshots and multimap will NOT be null.
-            // more fasts, we know we have multiple block positions.
-            // And we can find out if this is the first time we
-            if (added) {
-                // If the position hasn't been captured yet, that means we need to add it as an original
-                // snapshot being changed, for the list usage.
-                this.addSnapshot(backingSnapshot);
-            }
-            // we don't have to
-            this.multimap.put(blockPos, backingSnapshot);
+        // Get the packed key of the block position, we know this is a pure block pos and not a mutable one too.
+        final long blockPos = backingSnapshot.getBlockPos().toLong();
+        return this.captured(this.getChanges().put(blockPos, backingSnapshot), newState, blockPos);
+    }
 
-            // If the position is duplicated, we need to update the original snapshot of the now incoming block change
-            // in relation to the original state (so if a block was set to air, then afterwards set to piston head, it should go from break to modify)
-            if (!added) {
-                associateBlockChangeForPosition(newState, blockPos);
-            }
-            return added;
-        }
-        // We have not yet checked if this incoming snapshot is a duplicate position
-        if (!added) {
-            // Ok, means we have a multi change on a same position, now to use the multimap
-            // for the first time.
-            this.multimap = LinkedListMultimap.create(); // LinkedListMultimap is insertion order respective, so the backed lists per
-            // Now to populate it from the previously used list of snapshots...
-            for (final SpongeBlockSnapshot existing : this.snapshots) { // Ignore snapshots potentially being null, it will never be null at this point.
-                this.multimap.put(existing.getBlockPos(), existing);
-            }
-            // And place the snapshot into the multimap.
-            this.multimap.put(blockPos, backingSnapshot);
-            // Now we can re-evaluate the modified block position
-            // If the position is duplicated, we need to update the original snapshot of the now incoming block change
-            // in relation to the original state (so if a block was set to air, then afterwards set to piston head, it should go from break to modify)
-            associateBlockChangeForPosition(newState, blockPos);
-            return false;
+    /**
+     * Captures a block change without building its {@link SpongeBlockSnapshot}, which is
+     * only built once the captured changes are read through {@link #get()} or
+     * {@link #createTransaction(SpongeBlockSnapshot)}. Explosions and pastes capture tens
+     * of thousands of changes in one phase, which would otherwise each allocate a snapshot
+     * right away. Changes of blocks with a tile entity need to take the tile entity data
+     * before the block is changed and are captured through {@link #put(BlockSnapshot, IBlockState)}.
+     *
+     * @param world The world the block is changed in
+     * @param pos The position being changed
+     * @param originalState The state being replaced
+     * @param newState The new state
+     * @param flag The change flag
+     * @param blockChange The block change associated with the change
+     * @param creator The creator of the block, if tracked
+     * @param notifier The notifier of the block, if tracked
+     * @return True if the block position has previously not been modified or captured yet
+     */
+    public boolean put(final WorldServer world, final BlockPos pos, final IBlockState originalState, final IBlockState newState,
+        final SpongeBlockChangeFlag flag, final BlockChange blockChange, @Nullable final UUID creator, @Nullable final UUID notifier) {
+        final long blockPos = pos.toLong();
+        return this.captured(this.getChanges().put(world, blockPos, originalState, flag, blockChange, creator, notifier), newState, blockPos);
+    }
+
+    private PackedBlockChangeMultimap getChanges() {
+        if (this.changes == null) {
+            this.changes = new PackedBlockChangeMultimap();
         }
-        // At this point, we haven't captured the block position yet.
-        // and we can check if the list is null.
-        this.addSnapshot(backingSnapshot);
-        // And this is the only time that we return true, if we have not caught multiple transactions per position before.
-        return true;
+        return this.changes;
     }
 
-    private void addSnapshot(final SpongeBlockSnapshot backingSnapshot) {
-        if (this.snapshots == null) {
-            this.snapshots = new ArrayList<>();
+    private boolean captured(final boolean added, final IBlockState newState, final long blockPos) {
+        if (added) {
+            this.snapshotIndex++;
+            return true;
         }
-        this.snapshots.add(backingSnapshot);
-        this.snapshotIndex++;
+        this.multipleChanges = true;
+        // If the position is duplicated, we need to update the original snapshot of the now incoming block change
+        // in relation to the original state (so if a block was set to air, then afterwards set to piston head, it should go from break to modify)
+        associateBlockChangeForPosition(newState, blockPos);
+        return false;
     }
 
     /**
@@ -185,20 +163,16 @@ private void addSnapshot(final SpongeBlockSnapshot backingSnapshot) {
      * already guaranteed original {@link SpongeBlockSnapshot} for proper event
      * creation when multiple block changes exist for the provided {@link BlockPos}.
      *
-     * <p>Note: This method <strong>requires</strong> that {@link #multimap} is not
-     * {@code null}, otherwise it will cause an NPE.</p>
-     *
      * @param newState The incoming block change to compare to change
-     * @param blockPos The block position to get the backing list from the multimap
+     * @param blockPos The packed block position to get the original change from the multimap
      */
     @SuppressWarnings("unchecked")
-    private void associateBlockChangeForPosition(final IBlockState newState, final BlockPos blockPos) {
-        final List<SpongeBlockSnapshot> list = this.multimap.get(blockPos);
-        if (list != null && !list.isEmpty()) {
-            final SpongeBlockSnapshot originalSnapshot = list.get(0);
+    private void associateBlockChangeForPosition(final IBlockState newState, final long blockPos) {
+        final IBlockState currentState = this.changes.getOriginalState(blockPos);
+        if (currentState != null) {
             final PhaseContext<?> peek = PhaseTracker.getInstance().getCurrentContext();
-            final IBlockState currentState = (IBlockState) originalSnapshot.getState();
-            originalSnapshot.blockChange = ((IPhaseState) peek.state).associateBlockChangeWithSnapshot(peek, newState, newState.getBlock(), currentState, originalSnapshot, currentState.getBlock());
+            this.changes.setBlockChange(blockPos, ((IPhaseState) peek.state).associateBlockChangeWithSnapshot(peek, newState, newState.getBlock(),
+                currentState, this.changes.getBuiltSnapshot(blockPos), currentState.getBlock()));
         }
     }
 
@@ -230,10 +204,22 @@ private void associateBlockChangeForPosition(final IBlockState newState, final B
      *     utilized to process physics, but are not exposed to the event.</li>
      * </ul>
      *
+     * <p>The snapshots of changes captured without one are built here, so the
+     * list is a copy which is not updated by later captures.</p>
+     *
      * @return An unmodifiable list of first block originals being changed
      */
     public final List<SpongeBlockSnapshot> get() {
-        return this.snapshots == null ? Collections.emptyList() : Collections.unmodifiableList(this.snapshots);
+        return this.changes == null ? Collections.emptyList() : Collections.unmodifiableList(this.changes.getFirsts());
+    }
+
+    /**
+     * Gets the amount of captured positions, without building their snapshots.
+     *
+     * @return The amount of captured positions
+     */
+    public int size() {
+        return this.changes == null ? 0 : this.changes.size();
     }
 
     public final void prune(final BlockSnapshot snapshot) {
@@ -242,63 +228,35 @@ public final void prune(final BlockSnapshot snapshot) {
         }
         // Start by figuring out the backing snapshot. In all likelyhood, we could just cast, but we want to be safe
         final SpongeBlockSnapshot backingSnapshot = getBackingSnapshot(snapshot);
-        // Get the key of the block position, we know this is a pure block pos and not a mutable one too.
-        final BlockPos blockPos = backingSnapshot.getBlockPos();
-        // Check if we have a multi-pos
-        if (this.multimap != null) {
-            pruneFromMulti(backingSnapshot, blockPos);
-            return;
-        }
-        pruneSingle(backingSnapshot, blockPos);
-        if (this.head != null) {
-            pruneTransaction(getBackingSnapshot(snapshot));
-        }
-    }
-
-    private void pruneSingle(final SpongeBlockSnapshot backingSnapshot, final BlockPos blockPos) {
-        if (this.usedBlocks == null) {
+        // Get the packed key of the block position, we know this is a pure block pos and not a mutable one too.
+        final long blockPos = backingSnapshot.getBlockPos().toLong();
+        if (this.changes == null) {
             // means we didn't actually capture???
             throw new IllegalStateException("Expected to remove a single block change that was supposed to be captured....");
         }
-        if (this.snapshots == null) {
-            // also means we didn't capture.... wtf is going on at this point?
-            throw new IllegalStateException("Expected to remove a single block change that was supposed to be captured....");
+        // If the position now has no changes left, we need to prune the position from the multimap
+        if (this.changes.removeFirstWithState(blockPos, (IBlockState) backingSnapshot.getState())) {
+            this.changes.removeAll(blockPos);
+        }
+        if (!this.multipleChanges && this.head != null) {
+            pruneTransaction(backingSnapshot);
         }
-        this.usedBlocks.remove(blockPos);
-        this.snapshots.remove(backingSnapshot); // Should be the same snapshot used
     }
 
-    private void pruneFromMulti(final SpongeBlockSnapshot backingSnapshot, final BlockPos blockPos) {
-        final List<SpongeBlockSnapshot> snapshots = this.multimap.get(blockPos);
-        if (snapshots != null) {
-            for (final Iterator<SpongeBlockSnapshot> iterator = snapshots.iterator(); iterator.hasNext(); ) {
-                final SpongeBlockSnapshot next = iterator.next();
-                if (next.getState().equals(backingSnapshot.getState())) {
-                    iterator.remove();
-                    break;
-                }
-            }
-            // If the list view is now empty, we need to prune the position from the multimap
-            if (snapshots.isEmpty()) {
-                this.multimap.removeAll(blockPos);
-                // And then prune the snapshot from the list of firsts
-                for (final Iterator<SpongeBlockSnapshot> firsts = this.snapshots.iterator(); firsts.hasNext(); ) {
-                    final SpongeBlockSnapshot next = firsts.next();
-                    if (next.equals(backingSnapshot)) {
-                        firsts.remove();
-                        // And if it's been found, remove the position from the used blocks as well.
-                        this.usedBlocks.remove(blockPos);
-                        break;
-                    }
-                }
-                if (this.snapshots.isEmpty()) {
-                    this.multimap = null;
-                }
-            }
+    /**
+     * Removes the most recent change captured for the position, which was
+     * captured through {@link #put(WorldServer, BlockPos, IBlockState, IBlockState,
+     * SpongeBlockChangeFlag, BlockChange, UUID, UUID)} but didn't apply.
+     *
+     * @param pos The position of the change
+     */
+    public final void prune(final BlockPos pos) {
+        if (this.changes == null || this.changes.isEmpty()) {
+            throw new IllegalStateException("Unexpected pruning on an empty capture object for position " + pos);
         }
+        this.changes.removeLast(pos.toLong());
     }
 
-
     private SpongeBlockSnapshot getBackingSnapshot(final BlockSnapshot snapshot) {
         final SpongeBlockSnapshot backingSnapshot;
         if (!(snapshot instanceof SpongeBlockSnapshot)) {
@@ -316,7 +274,7 @@ private SpongeBlockSnapshot getBackingSnapshot(final BlockSnapshot snapshot) {
      */
     @Override
     public final boolean isEmpty() {
-        return (this.snapshots == null || this.snapshots.isEmpty()) && this.head == null;
+        return (this.changes == null || this.changes.isEmpty()) && this.head == null;
     }
 
     /**
@@ -335,18 +293,13 @@ public final boolean isEmpty() {
      *
      * @param consumer The consumer to activate
      */
-    @SuppressWarnings("UnstableApiUsage") // Guava marks Multimaps.asMap as Beta features
     public final void acceptAndClearIfNotEmpty(final BiConsumer<List<? extends BlockSnapshot>, Map<BlockPos, List<BlockSnapshot>>> consumer) {
-        if (this.multimap != null) {
+        if (this.multipleChanges) {
             final List<? extends BlockSnapshot> blockSnapshots = get();
-            // Since multimaps provide a view when asMap is called, we need to recreate the collection
-            // of the map to pass into the consumer
-            final Map<BlockPos, List<SpongeBlockSnapshot>> view = Multimaps.asMap(this.multimap);
-            final Map<BlockPos, List<BlockSnapshot>> map = new LinkedHashMap<>(view.size());
-            for (final Map.Entry<BlockPos, List<SpongeBlockSnapshot>> entryView : view.entrySet()) {
-                map.put(entryView.getKey(), new ArrayList<>(entryView.getValue()));
-            }
-            this.multimap.clear(); // Clean captured lists before they get potentially contaminated by processing.
+            // The lists of the map are only created here, when the consumer actually needs them
+            final Map<BlockPos, List<BlockSnapshot>> map = this.changes.toMap();
+            this.changes.clearIntermediary(); // Clean captured lists before they get potentially contaminated by processing.
+            this.multipleChanges = false;
             consumer.accept(blockSnapshots, map); // Accept the list and map
         }
     }
@@ -545,17 +498,10 @@ public void cancelTransaction(final BlockSnapshot original) {
 
 
     public void clear() {
-        if (this.multimap != null) {
-            this.multimap.clear();
-            this.multimap = null;
-        }
-        if (this.snapshots != null) {
-            this.snapshots.clear();
-            this.snapshots = null;
-        }
-        if (this.usedBlocks != null) {
-            this.usedBlocks.clear();
+        if (this.changes != null) {
+            this.changes.clear();
         }
+        this.multipleChanges = false;
         if (this.scheduledEvents != null) {
             this.scheduledEvents.clear();
         }
@@ -564,8 +510,8 @@ public void clear() {
     }
 
     public void restoreOriginals() {
-        if (this.snapshots != null && !this.snapshots.isEmpty()) {
-            for (final SpongeBlockSnapshot original : Lists.reverse(this.snapshots)) {
+        if (this.changes != null && !this.changes.isEmpty()) {
+            for (final SpongeBlockSnapshot original : Lists.reverse(this.changes.getFirsts())) {
                 original.restore(true, BlockChangeFlags.NONE);
             }
             this.clear();
@@ -588,34 +534,20 @@ public Optional<Transaction<BlockSnapshot>> createTransaction(final SpongeBlockS
         final BlockSnapshot newSnapshot =
             ((WorldServerBridge) worldServer).bridge$createSnapshot(newState, newActualState, blockPos, BlockChangeFlags.NONE);
         // Up until this point, we can create a default Transaction
-        if (this.multimap != null) { // But we need to check if there's any intermediary block changes...
-            // And because multi is true, we can be sure the multimap is populated at least somewhere.
-            final List<SpongeBlockSnapshot> intermediary = this.multimap.get(blockPos);
-            if (!intermediary.isEmpty() && intermediary.size() > 1) {
-                // We need to make a carbon copy of the list since it's technically a key view list
-                // within the multimap, so, if the multimap is cleared, at the very least, the list will
-                // not be cleared. Likewise, we also need to skip over the first element since the snapshots
-                // list will have that element anyways (we don't want to be providing duplicate snapshots
-                // for plugins to witness and come to expect that they are intermediary states, when they're still the original positions
-                final ImmutableList.Builder<SpongeBlockSnapshot> builder = ImmutableList.builder();
-                boolean movedPastFirst = false;
-                for (final Iterator<SpongeBlockSnapshot> iterator = intermediary.iterator(); iterator.hasNext(); ) {
-                    if (!movedPastFirst) {
-                        iterator.next();
-                        movedPastFirst = true;
-                        continue;
-                    }
-                    builder.add(iterator.next());
-
-                }
-                return Optional.of(new Transaction<>(snapshot, newSnapshot, builder.build()));
+        if (this.multipleChanges) { // But we need to check if there's any intermediary block changes...
+            // We skip over the first element since the snapshots list will have that element anyways
+            // (we don't want to be providing duplicate snapshots for plugins to witness and come to
+            // expect that they are intermediary states, when they're still the original positions
+            final ImmutableList<SpongeBlockSnapshot> intermediary = this.changes.getIntermediary(blockPos.toLong());
+            if (!intermediary.isEmpty()) {
+                return Optional.of(new Transaction<>(snapshot, newSnapshot, intermediary));
             }
         }
         return Optional.of(new Transaction<>(snapshot, newSnapshot));
     }
 
     public boolean trackEvent(final BlockPos pos, final BlockEventData blockEventData) {
-        if (this.usedBlocks != null && this.usedBlocks.contains(pos)) {
+        if (this.changes != null && this.changes.contains(pos.toLong())) {
             if (this.scheduledEvents == null) {
                 this.scheduledEvents = LinkedListMultimap.create();
             }
@@ -770,7 +702,7 @@ void getProxyOrCreate(final WorldServerBridge mixinWorldServer) {
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(this.snapshots);
+        return Objects.hashCode(this.get());
     }
 
     @Override
@@ -782,13 +714,13 @@ public boolean equals(@Nullable final Object obj) {
             return false;
         }
         final MultiBlockCaptureSupplier other = (MultiBlockCaptureSupplier) obj;
-        return Objects.equals(this.multimap, other.multimap);
+        return Objects.equals(this.get(), other.get());
     }
 
     @Override
     public String toString() {
         return com.google.common.base.MoreObjects.toStringHelper(this)
-            .add("Captured", this.snapshots == null ? 0 : this.snapshots.size())
+            .add("Captured", this.size())
             .add("Head", this.head == null ? "null" : this.head)
             .toString();
     }
@@ -812,23 +744,18 @@ public boolean hasTransactions() {
     }
 
     public boolean hasBlocksCaptured() {
-        return !(this.snapshots == null || this.snapshots.isEmpty());
+        return this.changes != null && !this.changes.isEmpty();
     }
 
     public void reset() {
-        if (this.multimap != null) {
+        if (this.changes != null) {
             // shouldn't but whatever, it's the end of a phase.
-            this.multimap = null;
+            this.changes = null;
         }
+        this.multipleChanges = false;
         if (this.scheduledEvents != null) {
             this.scheduledEvents = null;
         }
-        if (this.snapshots != null) {
-            this.snapshots = null;
-        }
-        if (this.usedBlocks != null) {
-            this.usedBlocks = null;
-        }
         this.clearProxies();
         this.transactionIndex = -1;
         this.snapshotIndex = -1;
@@ -0,0 +1,389 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.event.tracking.context;
+
+import com.google.common.collect.ImmutableList;
+import it.unimi.dsi.fastutil.longs.Long2IntLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.WorldServer;
+import org.spongepowered.api.block.BlockSnapshot;
+import org.spongepowered.common.block.SpongeBlockSnapshot;
+import org.spongepowered.common.block.SpongeBlockSnapshotBuilder;
+import org.spongepowered.common.util.VecHelper;
+import org.spongepowered.common.world.BlockChange;
+import org.spongepowered.common.world.SpongeBlockChangeFlag;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.Nullable;
+
+/**
+ * The block changes captured by a {@link MultiBlockCaptureSupplier}, stored
+ * in columns of plain arrays: the {@link BlockPos#toLong() packed} position,
+ * the original state, the change flag, the {@link BlockChange} and
+ * the creator and notifier of each change. The changes of a position are
+ * chained together by their index, so a position changed more than once
+ * doesn't need any list objects either.
+ *
+ * <p>States and flags are flyweights, referencing them costs as much as a
+ * state id without losing states that have no metadata. The
+ * {@link SpongeBlockSnapshot}s are only built once the changes are read, and
+ * are then kept so they are built at most once per change. Changes of blocks
+ * with a tile entity are captured with a snapshot built right away, as the
+ * tile entity data has to be taken before the block is changed.</p>
+ *
+ * <p>Positions are kept in the order they were first captured in.</p>
+ */
+final class PackedBlockChangeMultimap {
+
+    private static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] positions = new long[INITIAL_CAPACITY];
+    private IBlockState[] originalStates = new IBlockState[INITIAL_CAPACITY];
+    private SpongeBlockChangeFlag[] flags = new SpongeBlockChangeFlag[INITIAL_CAPACITY];
+    private BlockChange[] blockChanges = new BlockChange[INITIAL_CAPACITY];
+    private WorldServer[] worlds = new WorldServer[INITIAL_CAPACITY];
+    private UUID[] creators = new UUID[INITIAL_CAPACITY];
+    private UUID[] notifiers = new UUID[INITIAL_CAPACITY];
+    private SpongeBlockSnapshot[] snapshots = new SpongeBlockSnapshot[INITIAL_CAPACITY];
+    private int[] next = new int[INITIAL_CAPACITY];
+    private int size;
+
+    private final Long2IntLinkedOpenHashMap heads = new Long2IntLinkedOpenHashMap();
+    private final Long2IntOpenHashMap tails = new Long2IntOpenHashMap();
+
+    PackedBlockChangeMultimap() {
+        this.heads.defaultReturnValue(NONE);
+        this.tails.defaultReturnValue(NONE);
+    }
+
+    /**
+     * Adds a change whose snapshot was already built.
+     *
+     * @param pos The packed position
+     * @param snapshot The snapshot of the original block
+     * @return Whether the position was not captured before
+     */
+    boolean put(final long pos, final SpongeBlockSnapshot snapshot) {
+        final int index = this.add(pos);
+        this.originalStates[index] = (IBlockState) snapshot.getState();
+        this.snapshots[index] = snapshot;
+        return this.link(pos, index);
+    }
+
+    /**
+     * Adds a change whose snapshot is only built when it is read.
+     *
+     * @return Whether the position was not captured before
+     */
+    boolean put(final WorldServer world, final long pos, final IBlockState originalState, final SpongeBlockChangeFlag flag,
+        final BlockChange blockChange, @Nullable final UUID creator, @Nullable final UUID notifier) {
+        final int index = this.add(pos);
+        this.worlds[index] = world;
+        this.originalStates[index] = originalState;
+        this.flags[index] = flag;
+        this.blockChanges[index] = blockChange;
+        this.creators[index] = creator;
+        this.notifiers[index] = notifier;
+        return this.link(pos, index);
+    }
+
+    private int add(final long pos) {
+        if (this.size == this.positions.length) {
+            final int capacity = this.size << 1;
+            this.positions = Arrays.copyOf(this.positions, capacity);
+            this.originalStates = Arrays.copyOf(this.originalStates, capacity);
+            this.flags = Arrays.copyOf(this.flags, capacity);
+            this.blockChanges = Arrays.copyOf(this.blockChanges, capacity);
+            this.worlds = Arrays.copyOf(this.worlds, capacity);
+            this.creators = Arrays.copyOf(this.creators, capacity);
+            this.notifiers = Arrays.copyOf(this.notifiers, capacity);
+            this.snapshots = Arrays.copyOf(this.snapshots, capacity);
+            this.next = Arrays.copyOf(this.next, capacity);
+        }
+        final int index = this.size++;
+        this.positions[index] = pos;
+        this.next[index] = NONE;
+        return index;
+    }
+
+    private boolean link(final long pos, final int index) {
+        final int tail = this.tails.put(pos, index);
+        if (tail == NONE) {
+            this.heads.put(pos, index);
+            return true;
+        }
+        this.next[tail] = index;
+        return false;
+    }
+
+    boolean contains(final long pos) {
+        return this.heads.containsKey(pos);
+    }
+
+    /**
+     * Gets the amount of captured positions.
+     *
+     * @return The amount of positions
+     */
+    int size() {
+        return this.heads.size();
+    }
+
+    boolean isEmpty() {
+        return this.heads.isEmpty();
+    }
+
+    /**
+     * Gets the state the position had before its first captured change.
+     *
+     * @param pos The packed position
+     * @return The original state, or null if none are captured
+     */
+    @Nullable
+    IBlockState getOriginalState(final long pos) {
+        final int head = this.heads.get(pos);
+        return head == NONE ? null : this.originalStates[head];
+    }
+
+    /**
+     * Gets the snapshot of the first change of the position, if it was
+     * already built.
+     *
+     * @param pos The packed position
+     * @return The snapshot, or null if not built yet
+     */
+    @Nullable
+    SpongeBlockSnapshot getBuiltSnapshot(final long pos) {
+        final int head = this.heads.get(pos);
+        return head == NONE ? null : this.snapshots[head];
+    }
+
+    /**
+     * Sets the {@link BlockChange} of the first change of the position.
+     *
+     * @param pos The packed position
+     * @param blockChange The block change
+     */
+    void setBlockChange(final long pos, final BlockChange blockChange) {
+        final int head = this.heads.get(pos);
+        if (head != NONE) {
+            this.blockChanges[head] = blockChange;
+            if (this.snapshots[head] != null) {
+                this.snapshots[head].blockChange = blockChange;
+            }
+        }
+    }
+
+    private SpongeBlockSnapshot getSnapshot(final int index) {
+        SpongeBlockSnapshot snapshot = this.snapshots[index];
+        if (snapshot == null) {
+            final SpongeBlockSnapshotBuilder builder = SpongeBlockSnapshotBuilder.pooled();
+            builder.reset();
+            builder.blockState(this.originalStates[index])
+                .extendedState(this.originalStates[index])
+                .worldId(((org.spongepowered.api.world.World) this.worlds[index]).getUniqueId())
+                .position(VecHelper.toVector3i(BlockPos.fromLong(this.positions[index])));
+            if (this.creators[index] != null) {
+                builder.creator(this.creators[index]);
+            }
+            if (this.notifiers[index] != null) {
+                builder.notifier(this.notifiers[index]);
+            }
+            builder.flag(this.flags[index]);
+            snapshot = builder.build();
+            snapshot.blockChange = this.blockChanges[index];
+            this.snapshots[index] = snapshot;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Builds the snapshots of the first change of every position, in the
+     * order the positions were first captured in.
+     *
+     * @return The original snapshots
+     */
+    List<SpongeBlockSnapshot> getFirsts() {
+        if (this.heads.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<SpongeBlockSnapshot> firsts = new ArrayList<>(this.heads.size());
+        for (final Long2IntMap.Entry entry : this.heads.long2IntEntrySet()) {
+            firsts.add(this.getSnapshot(entry.getIntValue()));
+        }
+        return firsts;
+    }
+
+    /**
+     * Gets the changes captured for the position after the first one.
+     *
+     * @param pos The packed position
+     * @return The intermediary snapshots
+     */
+    ImmutableList<SpongeBlockSnapshot> getIntermediary(final long pos) {
+        final int head = this.heads.get(pos);
+        if (head == NONE || this.next[head] == NONE) {
+            return ImmutableList.of();
+        }
+        final ImmutableList.Builder<SpongeBlockSnapshot> builder = ImmutableList.builder();
+        for (int index = this.next[head]; index != NONE; index = this.next[index]) {
+            builder.add(this.getSnapshot(index));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Removes the first change for the position which has the given original
+     * state.
+     *
+     * @param pos The packed position
+     * @param state The original state
+     * @return Whether the position has no more changes left
+     */
+    boolean removeFirstWithState(final long pos, final IBlockState state) {
+        int previous = NONE;
+        for (int index = this.heads.get(pos); index != NONE; index = this.next[index]) {
+            if (this.originalStates[index] == state) {
+                this.unlink(pos, previous, index);
+                break;
+            }
+            previous = index;
+        }
+        return !this.heads.containsKey(pos);
+    }
+
+    /**
+     * Removes the most recent change captured for the position.
+     *
+     * @param pos The packed position
+     * @return Whether the position has no more changes left
+     */
+    boolean removeLast(final long pos) {
+        final int tail = this.tails.get(pos);
+        if (tail != NONE) {
+            int previous = NONE;
+            for (int index = this.heads.get(pos); index != tail; index = this.next[index]) {
+                previous = index;
+            }
+            this.unlink(pos, previous, tail);
+        }
+        return !this.heads.containsKey(pos);
+    }
+
+    private void unlink(final long pos, final int previous, final int index) {
+        final int next = this.next[index];
+        if (previous == NONE) {
+            if (next == NONE) {
+                this.heads.remove(pos);
+            } else {
+                // Replacing the value keeps the position in its place
+                this.heads.put(pos, next);
+            }
+        } else {
+            this.next[previous] = next;
+        }
+        if (next == NONE) {
+            if (previous == NONE) {
+                this.tails.remove(pos);
+            } else {
+                this.tails.put(pos, previous);
+            }
+        }
+        this.release(index);
+    }
+
+    void removeAll(final long pos) {
+        for (int index = this.heads.remove(pos); index != NONE; index = this.next[index]) {
+            this.release(index);
+        }
+        this.tails.remove(pos);
+    }
+
+    /**
+     * Copies the changes into a map of lists, by position.
+     *
+     * @return The new map
+     */
+    Map<BlockPos, List<BlockSnapshot>> toMap() {
+        final Map<BlockPos, List<BlockSnapshot>> map = new LinkedHashMap<>(this.heads.size());
+        for (final Long2IntMap.Entry entry : this.heads.long2IntEntrySet()) {
+            final List<BlockSnapshot> list = new ArrayList<>();
+            for (int index = entry.getIntValue(); index != NONE; index = this.next[index]) {
+                list.add(this.getSnapshot(index));
+            }
+            map.put(BlockPos.fromLong(entry.getLongKey()), list);
+        }
+        return map;
+    }
+
+    /**
+     * Removes the changes after the first one of every position.
+     */
+    void clearIntermediary() {
+        for (final Long2IntMap.Entry entry : this.heads.long2IntEntrySet()) {
+            final int head = entry.getIntValue();
+            for (int index = this.next[head]; index != NONE; index = this.next[index]) {
+                this.release(index);
+            }
+            this.next[head] = NONE;
+            this.tails.put(entry.getLongKey(), head);
+        }
+    }
+
+    private void release(final int index) {
+        this.originalStates[index] = null;
+        this.flags[index] = null;
+        this.blockChanges[index] = null;
+        this.worlds[index] = null;
+        this.creators[index] = null;
+        this.notifiers[index] = null;
+        this.snapshots[index] = null;
+    }
+
+    void clear() {
+        Arrays.fill(this.originalStates, 0, this.size, null);
+        Arrays.fill(this.flags, 0, this.size, null);
+        Arrays.fill(this.blockChanges, 0, this.size, null);
+        Arrays.fill(this.worlds, 0, this.size, null);
+        Arrays.fill(this.creators, 0, this.size, null);
+        Arrays.fill(this.notifiers, 0, this.size, null);
+        Arrays.fill(this.snapshots, 0, this.size, null);
+        this.size = 0;
+        this.heads.clear();
+        this.tails.clear();
+    }
+
+}
@@ -91,6 +91,7 @@
 import org.spongepowered.common.bridge.world.WorldBridge;
 import org.spongepowered.common.entity.EntityUtil;
 import org.spongepowered.common.entity.living.human.EntityHuman;
+import org.spongepowered.common.event.ShouldFire;
 import org.spongepowered.common.event.SpongeCommonEventFactory;
 import org.spongepowered.common.event.damage.DamageEventHandler;
 import org.spongepowered.common.event.damage.DamageObject;
@@ -904,7 +905,7 @@ private void onGetItemStackFromSlot(final CallbackInfo ci, final int i_unused, f
         }
         final ItemStack after = this.getItemStackFromSlot(entityEquipmentSlot);
         final EntityLivingBase entity = (EntityLivingBase) (LivingEntityBaseBridge) this;
-        if (!ItemStack.areItemStacksEqual(after, before)) {
+        if (!ItemStack.areItemStacksEqual(after, before) && ShouldFire.shouldFire(ChangeEntityEquipmentEvent.class)) {
             final InventoryAdapter slotAdapter;
             if (entity instanceof EntityPlayerMP) {
                 final SlotLens slotLens;
@@ -41,6 +41,7 @@
 import org.spongepowered.asm.mixin.injection.Slice;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.event.ShouldFire;
 import org.spongepowered.common.event.damage.DamageEventHandler;
 import org.spongepowered.common.mixin.core.entity.EntityLivingBaseMixin;
 
@@ -56,6 +57,10 @@ public abstract class EntityArmorStandMixin extends EntityLivingBaseMixin {
      * destroyed.
      */
     private void fireDestroyDamageEvent(final DamageSource source, final CallbackInfoReturnable<Boolean> cir) {
+        if (!ShouldFire.DAMAGE_ENTITY_EVENT) {
+            // Without listeners the final damage is always enough to destroy the armor stand
+            return;
+        }
         try (final CauseStackManager.StackFrame frame = Sponge.getCauseStackManager().pushCauseFrame()) {
             DamageEventHandler.generateCauseFor(source, frame);
             final DamageEntityEvent event = SpongeEventFactory.createDamageEntityEvent(Sponge.getCauseStackManager().getCurrentCause(), new ArrayList<>(),
@@ -88,6 +93,10 @@ private void fireDamageEventExplosion(final DamageSource source, final float amo
 
     @Redirect(method = "attackEntityFrom", at = @At(value = "INVOKE", target = "Lnet/minecraft/entity/item/EntityArmorStand;damageArmorStand(F)V"))
     private void fireDamageEventDamage(final EntityArmorStand self, final float effectiveAmount, final DamageSource source, final float originalAmount) {
+        if (!ShouldFire.DAMAGE_ENTITY_EVENT) {
+            this.damageArmorStand(effectiveAmount);
+            return;
+        }
         try (final CauseStackManager.StackFrame frame = Sponge.getCauseStackManager().pushCauseFrame()) {
             DamageEventHandler.generateCauseFor(source, frame);
             final DamageEntityEvent event = SpongeEventFactory.createDamageEntityEvent(frame.getCurrentCause(), new ArrayList<>(),
@@ -112,6 +121,9 @@ private void fireDamageEventCreativePunch(final DamageSource source, final float
     private void fireDamageEventFirstPunch(final DamageSource source, final float amount, final CallbackInfoReturnable<Boolean> cir) {
         // While this doesn't technically "damage" the armor stand, it feels
         // like damage in other respects, so fire an event.
+        if (!ShouldFire.DAMAGE_ENTITY_EVENT) {
+            return;
+        }
         try (final CauseStackManager.StackFrame frame = Sponge.getCauseStackManager().pushCauseFrame()) {
             DamageEventHandler.generateCauseFor(source, frame);
             final DamageEntityEvent event = SpongeEventFactory.createDamageEntityEvent(frame.getCurrentCause(), new ArrayList<>(),
@@ -243,7 +243,8 @@ public List<AxisAlignedBB> getCollisionBoxes(@Nullable final Entity entityIn, fi
 
         if (entityIn != null) {
             final List<Entity> entities = this.getEntitiesWithinAABBExcludingEntity(entityIn, aabb.grow(0.25D));
-            final Multimap<Entity, AxisAlignedBB> entityCollisions = LinkedHashMultimap.create(); // Sponge
+            // Sponge - Only capture the collisions if something listens to the event
+            final Multimap<Entity, AxisAlignedBB> entityCollisions = ShouldFire.COLLIDE_ENTITY_EVENT ? LinkedHashMultimap.create() : null;
 
             for (int i = 0; i < entities.size(); ++i) {
                 final Entity entity = entities.get(i);
@@ -253,8 +254,11 @@ public List<AxisAlignedBB> getCollisionBoxes(@Nullable final Entity entityIn, fi
 
                     if (axisalignedbb != null && axisalignedbb.intersects(aabb)) {
                         // Sponge start
-                        // list.add(axisalignedbb);
-                        entityCollisions.put(entity, axisalignedbb);
+                        if (entityCollisions != null) {
+                            entityCollisions.put(entity, axisalignedbb);
+                        } else {
+                            list.add(axisalignedbb);
+                        }
                         // Sponge end
                     }
 
@@ -262,15 +266,18 @@ public List<AxisAlignedBB> getCollisionBoxes(@Nullable final Entity entityIn, fi
 
                     if (axisalignedbb != null && axisalignedbb.intersects(aabb)) {
                         // Sponge start
-                        // list.add(axisalignedbb);
-                        entityCollisions.put(entity, axisalignedbb);
+                        if (entityCollisions != null) {
+                            entityCollisions.put(entity, axisalignedbb);
+                        } else {
+                            list.add(axisalignedbb);
+                        }
                         // Sponge end
                     }
                 }
             }
 
             // Sponge start - fire event
-            if (!entityCollisions.isEmpty()) {
+            if (entityCollisions != null && !entityCollisions.isEmpty()) {
                 final List<Entity> collidedEntities = new ArrayList<>(entityCollisions.keySet());
                 final CollideEntityEvent event = SpongeCommonEventFactory.callCollideEntityEvent((World) (Object) this, entityIn, collidedEntities);
                 if (event != null && !event.isCancelled()) {
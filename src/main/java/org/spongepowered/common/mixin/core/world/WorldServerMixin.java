@@ -219,6 +219,7 @@ public abstract class WorldServerMixin extends WorldMixin implements WorldServer
     @Nullable private NextTickListEntry impl$tmpScheduledObj;
     @Nullable private GenericGenerationContext impl$spawnGenerationContext;
     private boolean impl$denyNeighborNotificationsUnloadedChunks = false;
+    private boolean impl$bypassCauseTracking = false;
 
     @Shadow @Final private MinecraftServer server;
     @Shadow @Final private PlayerChunkMap playerChunkMap;
@@ -283,6 +284,7 @@ private void onSetWorld(final WorldProvider worldProvider, final World worldIn)
         this.impl$weatherIceAndSnowEnabled = worldCategory.getWeatherIceAndSnow();
         this.impl$weatherThunderEnabled = worldCategory.getWeatherThunder();
         this.impl$denyNeighborNotificationsUnloadedChunks = worldCategory.getDenyNeighborNotificationUnloadedChunks();
+        this.impl$bypassCauseTracking = worldCategory.getBypassCauseTracking();
         this.updateEntityTick = 0;
         this.setMemoryViewDistance(this.chooseViewDistanceValue(worldCategory.getViewDistance()));
     }
@@ -374,6 +376,7 @@ private void onSetWorld(final WorldProvider worldProvider, final World worldIn)
         this.impl$weatherThunderEnabled = worldCategory.getWeatherThunder();
         this.impl$chunkUnloadDelay = worldCategory.getChunkUnloadDelay() * 1000;
         this.impl$denyNeighborNotificationsUnloadedChunks = worldCategory.getDenyNeighborNotificationUnloadedChunks();
+        this.impl$bypassCauseTracking = worldCategory.getBypassCauseTracking();
         if (this.getChunkProvider() != null) {
             final int maxChunkUnloads = worldCategory.getMaxChunkUnloads();
             ((ChunkProviderBridge) this.getChunkProvider()).bridge$setMaxChunkUnloads(maxChunkUnloads < 1 ? 1 : maxChunkUnloads);
@@ -985,7 +988,7 @@ protected TileEntity getTileEntityForRemoval(final World thisWorld, final BlockP
         final IPhaseState currentState = tracker.getCurrentState();
         final PhaseContext<?> currentContext = tracker.getCurrentContext();
         // More fast checks - bulk block capture is normally faster to be false than checking tile entity changes (certain block ticks don't capture changes)
-        if (!ShouldFire.CHANGE_BLOCK_EVENT || !currentState.doesBulkBlockCapture(currentContext) || !currentState.tracksTileEntityChanges(currentContext)) {
+        if (!this.bridge$tracksCauses(ShouldFire.CHANGE_BLOCK_EVENT) || !currentState.doesBulkBlockCapture(currentContext) || !currentState.tracksTileEntityChanges(currentContext)) {
             return tileEntity;
         }
 
@@ -1063,7 +1066,7 @@ protected boolean onSetTileEntityForCapture(final TileEntity newTile, final Bloc
             return true;
         }
         // More fast checks - bulk block capture is normally faster to be false than checking tile entity changes (certain block ticks don't capture changes)
-        if (!ShouldFire.CHANGE_BLOCK_EVENT || !currentState.doesBulkBlockCapture(currentContext) || !currentState.tracksTileEntityChanges(currentContext)) {
+        if (!this.bridge$tracksCauses(ShouldFire.CHANGE_BLOCK_EVENT) || !currentState.doesBulkBlockCapture(currentContext) || !currentState.tracksTileEntityChanges(currentContext)) {
             return newTile.isInvalid();
         }
         if (!mixinTile.bridge$isCaptured()) {
@@ -2521,6 +2524,11 @@ private void onAccessPreviousRain(final CallbackInfo ci) {
         return this.impl$denyNeighborNotificationsUnloadedChunks;
     }
 
+    @Override
+    public boolean bridge$tracksCauses(final boolean tracksEvent) {
+        return tracksEvent && !this.impl$bypassCauseTracking;
+    }
+
     private void setMemoryViewDistance(final int viewDistance) {
         this.playerChunkMap.setPlayerViewRadius(viewDistance);
     }
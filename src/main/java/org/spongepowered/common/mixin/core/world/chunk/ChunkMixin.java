@@ -41,6 +41,7 @@
 import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.EnumSkyBlock;
 import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
 import net.minecraft.world.biome.Biome;
 import net.minecraft.world.biome.BiomeProvider;
 import net.minecraft.world.chunk.ChunkPrimer;
@@ -81,6 +82,7 @@
 import org.spongepowered.common.bridge.world.chunk.ChunkBridge;
 import org.spongepowered.common.bridge.world.chunk.ChunkProviderBridge;
 import org.spongepowered.common.entity.PlayerTracker;
+import org.spongepowered.common.entity.PlayerTrackerStore;
 import org.spongepowered.common.event.ShouldFire;
 import org.spongepowered.common.event.SpongeCommonEventFactory;
 import org.spongepowered.common.event.tracking.IPhaseState;
@@ -92,12 +94,13 @@
 import org.spongepowered.common.util.Constants;
 import org.spongepowered.common.util.SpongeHooks;
 import org.spongepowered.common.util.VecHelper;
+import org.spongepowered.common.world.BlockChange;
+import org.spongepowered.common.world.SpongeBlockChangeFlag;
 import org.spongepowered.common.world.gen.WorldGenConstants;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -405,9 +408,11 @@ public IBlockState setBlockState(final BlockPos pos, final IBlockState state) {
         final TileEntity existing = this.getTileEntity(pos, net.minecraft.world.chunk.Chunk.EnumCreateEntityType.CHECK);
         final PhaseContext<?> peek = isFake ? null : PhaseTracker.getInstance().getCurrentContext();
         final IPhaseState state = isFake ? null : peek.state;
-        final SpongeBlockSnapshot snapshot = (isFake
-                                              || !ShouldFire.CHANGE_BLOCK_EVENT
-                                              || !state.shouldCaptureBlockChangeOrSkip(peek, pos, currentState, newState, flag))
+        final boolean tracksChanges = !isFake && ((WorldServerBridge) this.world).bridge$tracksCauses(ShouldFire.CHANGE_BLOCK_EVENT);
+        final boolean capturesChange = tracksChanges && state.shouldCaptureBlockChangeOrSkip(peek, pos, currentState, newState, flag);
+        // Bulk captures of blocks without a tile entity only build their snapshot once the captured changes are read
+        final boolean capturesLazily = capturesChange && existing == null && state.capturesBlockChangesLazily(peek);
+        final SpongeBlockSnapshot snapshot = !capturesChange || capturesLazily
                                              ? null
                                              : createSpongeBlockSnapshot(currentState, currentState, pos, flag, existing);
         final BlockTransaction.ChangeBlock transaction;
@@ -424,12 +429,19 @@ public IBlockState setBlockState(final BlockPos pos, final IBlockState state) {
             // Sponge - Redirect phase checks to use bridge$isFake in the event we have mods worlds doing silly things....
             // i.e. fake worlds. Likewise, avoid creating unnecessary snapshots/transactions
             // or triggering unprocessed captures when there are no events being thrown.
-            if (!isFake && ShouldFire.CHANGE_BLOCK_EVENT && snapshot != null) {
+            if (capturesChange) {
 
                 // Mark the tile entity as captured so when it is being removed during the chunk setting, it won't be
                 // re-captured again.
-                snapshot.blockChange = ((IPhaseState) peek.state).associateBlockChangeWithSnapshot(peek, newState, newBlock, currentState, snapshot, currentBlock);
-                transaction = state.captureBlockChange(peek, pos, snapshot, newState, flag, existing);
+                final BlockChange blockChange = ((IPhaseState) peek.state).associateBlockChangeWithSnapshot(peek, newState, newBlock, currentState, snapshot, currentBlock);
+                if (capturesLazily) {
+                    peek.getCapturedBlockSupplier().put((WorldServer) this.world, pos, currentState, newState, (SpongeBlockChangeFlag) flag, blockChange,
+                        bridge$getBlockOwnerUUID(pos).orElse(null), bridge$getBlockNotifierUUID(pos).orElse(null));
+                    transaction = null;
+                } else {
+                    snapshot.blockChange = blockChange;
+                    transaction = state.captureBlockChange(peek, pos, snapshot, newState, flag, existing);
+                }
 
                 if (currentBlock != newBlock) {
                     // We want to queue the break logic later, while the transaction is processed
@@ -486,7 +498,9 @@ public IBlockState setBlockState(final BlockPos pos, final IBlockState state) {
         final IBlockState blockAfterSet = extendedblockstorage.get(xPos, modifiedY, zPos);
         if (blockAfterSet.getBlock() != newBlock) {
             // Sponge Start - prune tracked change
-            if (!isFake && snapshot != null) {
+            if (capturesLazily) {
+                peek.getCapturedBlockSupplier().prune(pos);
+            } else if (!isFake && snapshot != null) {
                 if (state.doesBulkBlockCapture(peek)) {
                     peek.getCapturedBlockSupplier().prune(snapshot);
                 } else {
@@ -525,7 +539,7 @@ public IBlockState setBlockState(final BlockPos pos, final IBlockState state) {
             ((WorldServerBridge) this.world).bridge$getProxyAccess().onChunkChanged(pos, newState);
         }
         if (!isFake && currentBlock != newBlock) {
-            final boolean isBulkCapturing = ShouldFire.CHANGE_BLOCK_EVENT && state.doesBulkBlockCapture(peek);
+            final boolean isBulkCapturing = tracksChanges && state.doesBulkBlockCapture(peek);
 
             // Sponge start - Ignore block activations during block placement captures unless it's
             // a BlockContainer. Prevents blocks such as TNT from activating when cancelled.
@@ -659,11 +673,9 @@ private SpongeBlockSnapshot createSpongeBlockSnapshot(
     @Override
     public void bridge$addTrackedBlockPosition(final Block block, final BlockPos pos, final User user, final PlayerTracker.Type trackerType) { }
 
+    @Nullable
     @Override
-    public Map<Integer, PlayerTracker> bridge$getTrackedIntPlayerPositions() { return Collections.emptyMap(); }
-
-    @Override
-    public Map<Short, PlayerTracker> bridge$getTrackedShortPlayerPositions() { return Collections.emptyMap(); }
+    public PlayerTrackerStore bridge$getTrackedPlayerPositions() { return null; }
 
     @Override
     public Optional<User> bridge$getBlockOwner(final BlockPos pos) { return Optional.empty(); }
@@ -684,10 +696,7 @@ private SpongeBlockSnapshot createSpongeBlockSnapshot(
     public void bridge$setBlockCreator(final BlockPos pos, @Nullable final UUID uuid) { }
 
     @Override
-    public void bridge$setTrackedIntPlayerPositions(final Map<Integer, PlayerTracker> trackedPositions) { }
-
-    @Override
-    public void bridge$setTrackedShortPlayerPositions(final Map<Short, PlayerTracker> trackedPositions) { }
+    public void bridge$setTrackedPlayerPositions(final PlayerTrackerStore trackedPositions) { }
 
     // Continuing the rest of the implementation
 
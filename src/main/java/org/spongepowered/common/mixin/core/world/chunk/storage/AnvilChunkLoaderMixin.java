@@ -25,6 +25,10 @@
 package org.spongepowered.common.mixin.core.world.chunk.storage;
 
 import com.flowpowered.math.vector.Vector3d;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityList;
 import net.minecraft.entity.item.EntityMinecart;
@@ -61,20 +65,29 @@
 import org.spongepowered.common.SpongeImpl;
 import org.spongepowered.common.SpongeImplHooks;
 import org.spongepowered.common.bridge.world.WorldBridge;
+import org.spongepowered.common.bridge.world.WorldInfoBridge;
 import org.spongepowered.common.bridge.world.chunk.ChunkBridge;
 import org.spongepowered.common.bridge.world.chunk.storage.AnvilChunkLoaderBridge;
-import org.spongepowered.common.entity.PlayerTracker;
+import org.spongepowered.common.entity.PlayerTrackerStore;
 import org.spongepowered.common.event.ShouldFire;
 import org.spongepowered.common.registry.type.entity.EntityTypeRegistryModule;
 import org.spongepowered.common.util.Constants;
 import org.spongepowered.common.util.QueuedChunk;
 import org.spongepowered.common.util.VecHelper;
 import org.spongepowered.common.util.WorldChunkPos;
+import org.spongepowered.common.world.storage.ChunkCodec;
+import org.spongepowered.common.world.storage.ChunkCodecs;
+import org.spongepowered.common.world.storage.ChunkSavePipeline;
+import org.spongepowered.common.world.storage.CompressedChunk;
 
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -85,6 +98,7 @@ public abstract class AnvilChunkLoaderMixin implements AnvilChunkLoaderBridge {
 
     private ConcurrentLinkedQueue<QueuedChunk> impl$queue = new ConcurrentLinkedQueue<>();
     private final Object impl$lock = new Object();
+    private ChunkCodec impl$codec = ChunkCodecs.DEFLATE;
 
     @Shadow @Final private static Logger LOGGER;
     @Shadow @Final private Map<ChunkPos, NBTTagCompound> chunksToSave;
@@ -96,36 +110,13 @@ public abstract class AnvilChunkLoaderMixin implements AnvilChunkLoaderBridge {
     @Inject(method = "writeChunkToNBT", at = @At(value = "RETURN"))
     private void impl$writeSpongeOwnerNotifierPosTable(final net.minecraft.world.chunk.Chunk chunkIn, final World worldIn,
         final NBTTagCompound compound, final CallbackInfo ci) {
-        final ChunkBridge chunk = (ChunkBridge) chunkIn;
+        final PlayerTrackerStore trackedPositions = ((ChunkBridge) chunkIn).bridge$getTrackedPlayerPositions();
 
         // Add tracked block positions
-        if (chunk.bridge$getTrackedShortPlayerPositions().size() > 0 || chunk.bridge$getTrackedIntPlayerPositions().size() > 0) {
+        if (trackedPositions != null && !trackedPositions.isEmpty()) {
             final NBTTagCompound trackedNbt = new NBTTagCompound();
-            final NBTTagList positions = new NBTTagList();
-            trackedNbt.setTag(Constants.Sponge.SPONGE_BLOCK_POS_TABLE, positions);
+            trackedPositions.writeTo(trackedNbt);
             compound.setTag(Constants.Sponge.SPONGE_DATA, trackedNbt);
-
-            for (final Map.Entry<Short, PlayerTracker> mapEntry : chunk.bridge$getTrackedShortPlayerPositions().entrySet()) {
-                final Short pos = mapEntry.getKey();
-                final int ownerUniqueIdIndex = mapEntry.getValue().ownerIndex;
-                final int notifierUniqueIdIndex = mapEntry.getValue().notifierIndex;
-                final NBTTagCompound valueNbt = new NBTTagCompound();
-                valueNbt.setInteger("owner", ownerUniqueIdIndex);
-                valueNbt.setInteger("notifier", notifierUniqueIdIndex);
-                valueNbt.setShort("pos", pos);
-                positions.appendTag(valueNbt);
-            }
-
-            for (final Map.Entry<Integer, PlayerTracker> mapEntry : chunk.bridge$getTrackedIntPlayerPositions().entrySet()) {
-                final Integer pos = mapEntry.getKey();
-                final int ownerUniqueIdIndex = mapEntry.getValue().ownerIndex;
-                final int notifierUniqueIdIndex = mapEntry.getValue().notifierIndex;
-                final NBTTagCompound valueNbt = new NBTTagCompound();
-                valueNbt.setInteger("owner", ownerUniqueIdIndex);
-                valueNbt.setInteger("notifier", notifierUniqueIdIndex);
-                valueNbt.setInteger("ipos", pos);
-                positions.appendTag(valueNbt);
-            }
         }
     }
 
@@ -133,33 +124,15 @@ public abstract class AnvilChunkLoaderMixin implements AnvilChunkLoaderBridge {
     private void onReadChunkFromNBT(final World worldIn, final NBTTagCompound compound, final CallbackInfoReturnable<net.minecraft.world.chunk.Chunk> ci, final int chunkX,
       final int chunkZ, final net.minecraft.world.chunk.Chunk chunkIn) {
         if (compound.hasKey(Constants.Sponge.SPONGE_DATA)) {
-            final Map<Integer, PlayerTracker> trackedIntPlayerPositions = new HashMap<>();
-            final Map<Short, PlayerTracker> trackedShortPlayerPositions = new HashMap<>();
-            final NBTTagList positions = compound.getCompoundTag(Constants.Sponge.SPONGE_DATA).getTagList(Constants.Sponge.SPONGE_BLOCK_POS_TABLE, 10);
-            final ChunkBridge chunk = (ChunkBridge) chunkIn;
-            for (int i = 0; i < positions.tagCount(); i++) {
-                final NBTTagCompound valueNbt = positions.getCompoundTagAt(i);
-                final boolean isShortPos = valueNbt.hasKey("pos");
-                final PlayerTracker tracker = new PlayerTracker();
-                if (valueNbt.hasKey("owner")) {
-                    tracker.ownerIndex = valueNbt.getInteger("owner");
-                } else if (valueNbt.hasKey("uuid")) { // Migrate old data, remove in future
-                    tracker.ownerIndex = valueNbt.getInteger("uuid");
-                }
-                if (valueNbt.hasKey("notifier")) {
-                    tracker.notifierIndex = valueNbt.getInteger("notifier");
-                }
-
-                if (tracker.notifierIndex != -1 || tracker.ownerIndex != -1) {
-                    if (isShortPos) {
-                        trackedShortPlayerPositions.put(valueNbt.getShort("pos"), tracker);
-                    } else {
-                        trackedIntPlayerPositions.put(valueNbt.getInteger("ipos"), tracker);
-                    }
-                }
+            final NBTTagCompound trackedNbt = compound.getCompoundTag(Constants.Sponge.SPONGE_DATA);
+            final PlayerTrackerStore trackedPositions = new PlayerTrackerStore();
+            if (trackedNbt.hasKey(Constants.Sponge.SPONGE_BLOCK_POS_TABLE, Constants.NBT.TAG_LIST)) {
+                // Migrate chunks saved before the positions were stored as int arrays
+                trackedPositions.readLegacy(trackedNbt.getTagList(Constants.Sponge.SPONGE_BLOCK_POS_TABLE, Constants.NBT.TAG_COMPOUND));
+            } else {
+                trackedPositions.readFrom(trackedNbt);
             }
-            chunk.bridge$setTrackedIntPlayerPositions(trackedIntPlayerPositions);
-            chunk.bridge$setTrackedShortPlayerPositions(trackedShortPlayerPositions);
+            ((ChunkBridge) chunkIn).bridge$setTrackedPlayerPositions(trackedPositions);
         }
     }
 
@@ -239,6 +212,7 @@ protected void addChunkToPending(final ChunkPos pos, final NBTTagCompound compou
             this.chunksToSave.put(pos, compound);
         }
         this.impl$queue.add(new QueuedChunk(pos, compound));
+        ChunkSavePipeline.onChunkQueued();
 
         ThreadedFileIOBase.getThreadedIOInstance().queueIO((AnvilChunkLoader) (Object) this);
     }
@@ -250,6 +224,9 @@ protected void addChunkToPending(final ChunkPos pos, final NBTTagCompound compou
      */
     @Overwrite
     public boolean writeNextIO() {
+        if (SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations().useBatchedChunkSaving()) {
+            return this.impl$writeNextBatch();
+        }
         final QueuedChunk chunk = this.impl$queue.poll();
         if (chunk == null) {
             if (this.flushing) {
@@ -258,6 +235,7 @@ public boolean writeNextIO() {
 
             return false;
         } else {
+            ChunkSavePipeline.onChunkDequeued();
             final ChunkPos chunkpos = chunk.coords;
             boolean lvt_3_1_;
 
@@ -286,6 +264,8 @@ public boolean writeNextIO() {
                     }
                     if (laste != null) {
                         laste.printStackTrace();
+                    } else {
+                        ChunkSavePipeline.onChunkSaved();
                     }
                 }
 
@@ -305,6 +285,97 @@ public boolean writeNextIO() {
         }
     }
 
+    /**
+     * Writes the next batch of queued chunks. Stale saves of chunks which
+     * have been queued again are skipped, the remaining chunks are compressed
+     * in parallel and written grouped by region file.
+     *
+     * @return Whether there were chunks to write
+     */
+    private boolean impl$writeNextBatch() {
+        final int batchSize = Math.max(1, SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations().getChunkSaveCategory().getBatchSize());
+        final Map<ChunkPos, QueuedChunk> batch = new LinkedHashMap<>();
+        QueuedChunk queued;
+        while (batch.size() < batchSize && (queued = this.impl$queue.poll()) != null) {
+            ChunkSavePipeline.onChunkDequeued();
+            final boolean stale;
+            synchronized (this.impl$lock) {
+                stale = this.chunksToSave.get(queued.coords) != queued.compound;
+            }
+            // A newer save of this chunk is queued behind this one, or was
+            // already added to this batch
+            if (stale || batch.put(queued.coords, queued) != null) {
+                ChunkSavePipeline.onChunkCoalesced();
+            }
+        }
+        if (batch.isEmpty()) {
+            if (this.flushing) {
+                LOGGER.info("ThreadedAnvilChunkStorage ({}): All chunks are saved", this.chunkSaveLocation.getName());
+            }
+            return false;
+        }
+
+        final List<QueuedChunk> chunks = new ArrayList<>(batch.values());
+        final Long2ObjectMap<List<CompressedChunk>> regions = new Long2ObjectLinkedOpenHashMap<>();
+        boolean allCompressed = true;
+        try {
+            for (final CompressedChunk compressedChunk : ChunkSavePipeline.compress(chunks, this.impl$codec, this.chunkSaveLocation)) {
+                regions.computeIfAbsent(compressedChunk.getRegionKey(), key -> new ArrayList<>()).add(compressedChunk);
+            }
+        } catch (final Exception e) {
+            LOGGER.error("Failed to compress chunks", e);
+            // Fall back to saving the chunks one by one
+            regions.clear();
+            allCompressed = false;
+        }
+
+        // Chunks of regions that could not be written are saved one by one as well
+        final LongSet failed = new LongOpenHashSet();
+        for (final List<CompressedChunk> region : regions.values()) {
+            int attempts = 0;
+            Exception laste = null;
+            while (attempts++ < 5) {
+                try {
+                    ChunkSavePipeline.write(this.chunkSaveLocation, region);
+                    laste = null;
+                    break;
+                } catch (final Exception exception) {
+                    laste = exception;
+                }
+                try {
+                    Thread.sleep(10);
+                } catch (final InterruptedException e) {
+                    e.printStackTrace();
+                }
+            }
+            if (laste != null) {
+                laste.printStackTrace();
+                for (final CompressedChunk compressedChunk : region) {
+                    failed.add(ChunkPos.asLong(compressedChunk.getChunkX(), compressedChunk.getChunkZ()));
+                }
+            }
+        }
+
+        for (final QueuedChunk chunk : chunks) {
+            if (!allCompressed || failed.contains(ChunkPos.asLong(chunk.coords.x, chunk.coords.z))) {
+                try {
+                    this.writeChunkData(chunk.coords, chunk.compound);
+                } catch (final Exception e) {
+                    LOGGER.error("Failed to save chunk", e);
+                }
+            } else {
+                this.impl$postSaveChunkEvent(chunk.coords);
+            }
+            ChunkSavePipeline.onChunkSaved();
+            synchronized (this.impl$lock) {
+                if (this.chunksToSave.get(chunk.coords) == chunk.compound) {
+                    this.chunksToSave.remove(chunk.coords);
+                }
+            }
+        }
+        return true;
+    }
+
     @Override
     public Path bridge$getWorldDir() {
         return this.chunkSaveLocation.toPath();
@@ -314,11 +385,28 @@ public boolean writeNextIO() {
             + "(Lnet/minecraft/util/math/ChunkPos;Lnet/minecraft/nbt/NBTTagCompound;)V"))
     private void impl$useWorldChunkPosWhenQueuing(final AnvilChunkLoader anvilChunkLoader, final ChunkPos pos, final NBTTagCompound compound,
             final World worldIn, final Chunk chunkIn) {
+        final String codecId = ((WorldInfoBridge) worldIn.getWorldInfo()).bridge$getConfigAdapter().getConfig().getWorld().getChunkCompression();
+        if (!codecId.equals(this.impl$codec.getId())) {
+            this.impl$codec = ChunkCodecs.getOrDefault(codecId);
+        }
         this.addChunkToPending(new WorldChunkPos(((org.spongepowered.api.world.World) worldIn).getUniqueId(), pos.x, pos.z), compound);
     }
 
+    @Redirect(method = "writeChunkData", at = @At(value = "INVOKE", target = "Lnet/minecraft/world/chunk/storage/RegionFileCache;"
+            + "getChunkOutputStream(Ljava/io/File;II)Ljava/io/DataOutputStream;"))
+    private DataOutputStream impl$getCodecChunkOutputStream(final File worldDir, final int chunkX, final int chunkZ) throws IOException {
+        if (this.impl$codec == ChunkCodecs.DEFLATE) {
+            return RegionFileCache.getChunkOutputStream(worldDir, chunkX, chunkZ);
+        }
+        return ChunkCodecs.getChunkOutputStream(worldDir, chunkX, chunkZ, this.impl$codec);
+    }
+
     @Inject(method = "writeChunkData", at = @At("RETURN"))
     private void impl$callSaveChunkEventPost(final ChunkPos pos, final NBTTagCompound compound, final CallbackInfo ci) {
+        this.impl$postSaveChunkEvent(pos);
+    }
+
+    private void impl$postSaveChunkEvent(final ChunkPos pos) {
         if (ShouldFire.SAVE_CHUNK_EVENT_POST) {
             final Cause cause = Cause.of(EventContext.empty(), Collections.singleton(SpongeImpl.getServer()));
             final Optional<UUID> worldUUID;
@@ -30,10 +30,16 @@
 import org.spongepowered.asm.mixin.Overwrite;
 import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.injection.At;
-import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.world.storage.SpongeRegionFileCache;
 
 import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.IOException;
 
 @Mixin(RegionFileCache.class)
 public abstract class RegionFileCacheMixin {
@@ -49,6 +55,14 @@ public abstract class RegionFileCacheMixin {
     @Overwrite
     public static DataInputStream getChunkInputStream(File worldDir, int chunkX, int chunkZ) {
         // Sponge start
+        if (impl$useNioRegionFiles()) {
+            try {
+                return SpongeRegionFileCache.getChunkInputStream(worldDir.toPath(), chunkX, chunkZ);
+            } catch (IOException e) {
+                // Vanilla also treats unreadable chunks as missing
+                return null;
+            }
+        }
         // Use getRegionFileIfExists instead of createOrLoadRegionFile
         RegionFile regionfile = getRegionFileIfExists(worldDir, chunkX, chunkZ);
         if (regionfile == null) {
@@ -59,4 +73,33 @@ public static DataInputStream getChunkInputStream(File worldDir, int chunkX, int
         // Sponge end
         return regionfile.getChunkDataInputStream(chunkX & 31, chunkZ & 31);
     }
+
+    private static boolean impl$useNioRegionFiles() {
+        return SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations().useNioRegionFiles();
+    }
+
+    @Inject(method = "getChunkOutputStream", at = @At("HEAD"), cancellable = true)
+    private static void impl$getNioChunkOutputStream(final File worldDir, final int chunkX, final int chunkZ,
+        final CallbackInfoReturnable<DataOutputStream> cir) {
+        if (impl$useNioRegionFiles()) {
+            cir.setReturnValue(SpongeRegionFileCache.getChunkOutputStream(worldDir.toPath(), chunkX, chunkZ));
+        }
+    }
+
+    @Inject(method = "chunkExists", at = @At("HEAD"), cancellable = true)
+    private static void impl$nioChunkExists(final File worldDir, final int chunkX, final int chunkZ, final CallbackInfoReturnable<Boolean> cir) {
+        if (impl$useNioRegionFiles()) {
+            try {
+                cir.setReturnValue(SpongeRegionFileCache.chunkExists(worldDir.toPath(), chunkX, chunkZ));
+            } catch (IOException e) {
+                cir.setReturnValue(false);
+            }
+        }
+    }
+
+    @Inject(method = "clearRegionFileReferences", at = @At("HEAD"))
+    private static void impl$clearNioRegionFiles(final CallbackInfo ci) {
+        // Always clear, the option may have been toggled by a config reload
+        SpongeRegionFileCache.clear();
+    }
 }
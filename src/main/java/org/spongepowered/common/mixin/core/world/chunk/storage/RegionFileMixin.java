@@ -0,0 +1,107 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.mixin.core.world.chunk.storage;
+
+import net.minecraft.world.chunk.storage.RegionFile;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Overwrite;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.common.bridge.world.chunk.storage.RegionFileBridge;
+import org.spongepowered.common.world.storage.ChunkCodecs;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+@Mixin(RegionFile.class)
+public abstract class RegionFileMixin implements RegionFileBridge {
+
+    @Shadow @Final private File fileName;
+    @Shadow private RandomAccessFile dataFile;
+    @Shadow private List<Boolean> sectorFree;
+
+    @Shadow protected abstract boolean outOfBounds(int x, int z);
+    @Shadow protected abstract int getOffset(int x, int z);
+    @Shadow protected abstract void write(int x, int z, byte[] data, int length);
+
+    private byte impl$writeVersion = ChunkCodecs.DEFLATE.getVersion();
+
+    /**
+     * @author Sponge - October 18th, 2026 (1.12.2)
+     * @reason Decompress chunks with the codec matching their version,
+     * instead of only knowing the vanilla GZip and deflate versions.
+     */
+    @Nullable
+    @Overwrite
+    public synchronized DataInputStream getChunkDataInputStream(final int x, final int z) {
+        if (this.outOfBounds(x, z)) {
+            return null;
+        }
+        try {
+            final int offset = this.getOffset(x, z);
+            if (offset == 0) {
+                return null;
+            }
+            final int sectorStart = offset >> 8;
+            final int sectors = offset & 255;
+            if (sectorStart + sectors > this.sectorFree.size()) {
+                return null;
+            }
+            this.dataFile.seek((long) sectorStart * 4096);
+            final int length = this.dataFile.readInt();
+            if (length > 4096 * sectors || length <= 0) {
+                return null;
+            }
+            final byte version = this.dataFile.readByte();
+            final byte[] data = new byte[length - 1];
+            this.dataFile.readFully(data);
+            return ChunkCodecs.decompress(this.fileName.toPath().toAbsolutePath().getParent(), version, data);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized void bridge$write(final int x, final int z, final byte[] data, final int length, final byte version) {
+        this.impl$writeVersion = version;
+        try {
+            this.write(x, z, data, length);
+        } finally {
+            this.impl$writeVersion = ChunkCodecs.DEFLATE.getVersion();
+        }
+    }
+
+    @Redirect(method = "write(I[BI)V", at = @At(value = "INVOKE", target = "Ljava/io/RandomAccessFile;writeByte(I)V"))
+    private void impl$writeCodecVersion(final RandomAccessFile file, final int version) throws IOException {
+        file.writeByte(this.impl$writeVersion);
+    }
+}
@@ -40,10 +40,7 @@
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.common.bridge.world.WorldBridge;
-import org.spongepowered.common.bridge.world.WorldServerBridge;
-import org.spongepowered.common.event.tracking.PhaseContext;
-import org.spongepowered.common.event.tracking.PhaseTracker;
-import org.spongepowered.common.mixin.plugin.entitycollisions.interfaces.CollisionsCapability;
+import org.spongepowered.common.mixin.plugin.entitycollisions.EntityCollisions;
 
 import java.util.List;
 
@@ -62,7 +59,7 @@ public abstract class ChunkMixin_Collisions {
             return;
         }
 
-        if (!collisionsImpl$allowEntityCollision(listToFill)) {
+        if (!EntityCollisions.allowEntityCollision(this.world, listToFill)) {
             ci.cancel();
         }
     }
@@ -78,37 +75,8 @@ public abstract class ChunkMixin_Collisions {
             return;
         }
 
-        if (!collisionsImpl$allowEntityCollision(listToFill)) {
+        if (!EntityCollisions.allowEntityCollision(this.world, listToFill)) {
             ci.cancel();
         }
     }
-
-    private <T extends Entity> boolean collisionsImpl$allowEntityCollision(final List<T> listToFill) {
-        if (this.world instanceof WorldServerBridge) {
-            if (!PhaseTracker.getInstance().getCurrentState().isCollision()) {
-                return true;
-            }
-
-            final PhaseContext<?> phaseContext = PhaseTracker.getInstance().getCurrentContext();
-            final Object source = phaseContext.getSource();
-            if (!(source instanceof CollisionsCapability)) {
-                return true;
-            }
-
-            if (listToFill.size() < this.world.getGameRules().getInt("maxEntityCramming")) {
-                return true;
-            }
-
-            final CollisionsCapability capability = (CollisionsCapability) source;
-            if (capability.collision$requiresCollisionsCacheRefresh()) {
-                capability.collision$initializeCollisionState(this.world);
-                capability.collision$requiresCollisionsCacheRefresh(false);
-            }
-
-            return capability.collision$getMaxCollisions() < 0
-                    || listToFill.size() < capability.collision$getMaxCollisions();
-        }
-
-        return true;
-    }
 }
@@ -26,6 +26,7 @@
 
 import net.minecraft.entity.item.EntityItem;
 import net.minecraft.item.ItemStack;
+import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.world.World;
 import org.spongepowered.api.entity.Entity;
 import org.spongepowered.api.entity.EntityType;
@@ -44,8 +45,11 @@
 import org.spongepowered.common.config.type.GlobalConfig;
 import org.spongepowered.common.config.type.WorldConfig;
 import org.spongepowered.common.entity.SpongeEntityType;
+import org.spongepowered.common.mixin.plugin.entitycollisions.EntitySpatialHash;
 import org.spongepowered.common.mixin.plugin.entitycollisions.interfaces.CollisionsCapability;
 
+import javax.annotation.Nullable;
+
 @Mixin(value = net.minecraft.entity.Entity.class, priority = 1002)
 public class EntityMixin_Collisions implements CollisionsCapability {
 
@@ -54,6 +58,8 @@ public class EntityMixin_Collisions implements CollisionsCapability {
     private boolean collision$refreshCache = false;
     private String collision$entityName = "unknown";
     private String collision$entityModId = "unknown";
+    @Nullable private EntitySpatialHash collision$spatialHash;
+    @Nullable private int[] collision$spatialCells;
 
     @SuppressWarnings("ConstantConditions")
     @Inject(method = "<init>", at = @At("RETURN"))
@@ -82,6 +88,13 @@ public class EntityMixin_Collisions implements CollisionsCapability {
         }
     }
 
+    @Inject(method = "setEntityBoundingBox", at = @At("RETURN"))
+    private void collision$updateSpatialHash(final AxisAlignedBB bb, final CallbackInfo ci) {
+        if (this.collision$spatialHash != null) {
+            this.collision$spatialHash.update((net.minecraft.entity.Entity) (Object) this);
+        }
+    }
+
     @Override
     public int collision$getMaxCollisions() {
         return this.collision$maxCollisions;
@@ -181,4 +194,26 @@ public class EntityMixin_Collisions implements CollisionsCapability {
         return this.collision$refreshCache;
     }
 
+    @Nullable
+    @Override
+    public EntitySpatialHash collision$getSpatialHash() {
+        return this.collision$spatialHash;
+    }
+
+    @Override
+    public void collision$setSpatialHash(@Nullable final EntitySpatialHash spatialHash) {
+        this.collision$spatialHash = spatialHash;
+    }
+
+    @Nullable
+    @Override
+    public int[] collision$getSpatialCells() {
+        return this.collision$spatialCells;
+    }
+
+    @Override
+    public void collision$setSpatialCells(final int[] cells) {
+        this.collision$spatialCells = cells;
+    }
+
 }
@@ -0,0 +1,147 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.mixin.entitycollisions;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.Lists;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.item.EntityItem;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.world.World;
+import net.minecraft.world.storage.WorldInfo;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+import org.spongepowered.common.bridge.world.WorldBridge;
+import org.spongepowered.common.bridge.world.WorldInfoBridge;
+import org.spongepowered.common.mixin.plugin.entitycollisions.EntityCollisions;
+import org.spongepowered.common.mixin.plugin.entitycollisions.EntitySpatialHash;
+import org.spongepowered.common.mixin.plugin.entitycollisions.interfaces.CollisionsCapability;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+@Mixin(World.class)
+public abstract class WorldMixin_Collisions {
+
+    @Shadow @Final public boolean isRemote;
+    @Shadow protected WorldInfo worldInfo;
+
+    @Nullable private EntitySpatialHash collisionsImpl$spatialHash;
+    private boolean collisionsImpl$spatialHashInitialized;
+
+    @Inject(method = "onEntityAdded", at = @At("RETURN"))
+    private void collisionsImpl$addToSpatialHash(final Entity entity, final CallbackInfo ci) {
+        if (!this.collisionsImpl$spatialHashInitialized) {
+            // The world config is only available once the world is constructed
+            this.collisionsImpl$spatialHashInitialized = true;
+            if (!this.isRemote && !((WorldBridge) this).bridge$isFake() && ((WorldInfoBridge) this.worldInfo).bridge$isValid()
+                && ((WorldInfoBridge) this.worldInfo).bridge$getConfigAdapter().getConfig().getEntityCollisionCategory().useSpatialHash()) {
+                this.collisionsImpl$spatialHash = new EntitySpatialHash();
+            }
+        }
+        if (this.collisionsImpl$spatialHash != null) {
+            this.collisionsImpl$spatialHash.add(entity);
+        }
+    }
+
+    @Inject(method = "onEntityRemoved", at = @At("RETURN"))
+    private void collisionsImpl$removeFromSpatialHash(final Entity entity, final CallbackInfo ci) {
+        if (this.collisionsImpl$spatialHash != null) {
+            this.collisionsImpl$spatialHash.remove(entity);
+        }
+    }
+
+    @SuppressWarnings("Guava")
+    @Inject(method = "getEntitiesInAABBexcluding", at = @At("HEAD"), cancellable = true)
+    private void collisionsImpl$getEntitiesFromSpatialHash(@Nullable final Entity entityIn, final AxisAlignedBB aabb,
+        @Nullable final Predicate<? super Entity> predicate, final CallbackInfoReturnable<List<Entity>> cir) {
+        final EntitySpatialHash spatialHash = this.collisionsImpl$spatialHash;
+        if (spatialHash == null || !spatialHash.canQuery(aabb)) {
+            return;
+        }
+        // Same exemptions as ChunkMixin_Collisions: players and entities with parts (ex. EnderDragon)
+        final boolean limited = entityIn != null && !(entityIn instanceof EntityPlayer) && entityIn.getParts() == null;
+        final List<Entity> list = Lists.newArrayList();
+        spatialHash.forEachCandidate(aabb, entity -> {
+            if (entity == entityIn || !entity.getEntityBoundingBox().intersects(aabb)) {
+                return true;
+            }
+            if (predicate == null || predicate.apply(entity)) {
+                if (limited && !EntityCollisions.allowEntityCollision((World) (Object) this, list)) {
+                    return false;
+                }
+                list.add(entity);
+            }
+            final Entity[] parts = entity.getParts();
+            if (parts != null) {
+                for (final Entity part : parts) {
+                    if (part != entityIn && part.getEntityBoundingBox().intersects(aabb) && (predicate == null || predicate.apply(part))) {
+                        if (limited && !EntityCollisions.allowEntityCollision((World) (Object) this, list)) {
+                            return false;
+                        }
+                        list.add(part);
+                    }
+                }
+            }
+            return true;
+        });
+        cir.setReturnValue(list);
+    }
+
+    @SuppressWarnings({"Guava", "unchecked"})
+    @Inject(method = "getEntitiesWithinAABB(Ljava/lang/Class;Lnet/minecraft/util/math/AxisAlignedBB;Lcom/google/common/base/Predicate;)Ljava/util/List;",
+        at = @At("HEAD"), cancellable = true)
+    private <T extends Entity> void collisionsImpl$getEntitiesOfTypeFromSpatialHash(final Class<? extends T> entityClass, final AxisAlignedBB aabb,
+        @Nullable final Predicate<? super T> filter, final CallbackInfoReturnable<List<T>> cir) {
+        final EntitySpatialHash spatialHash = this.collisionsImpl$spatialHash;
+        if (spatialHash == null || !spatialHash.canQuery(aabb)) {
+            return;
+        }
+        // Same exemptions as ChunkMixin_Collisions: player checks and item checks (ex. Hoppers)
+        final boolean limited = !EntityPlayer.class.isAssignableFrom(entityClass) && EntityItem.class != entityClass;
+        final List<T> list = Lists.newArrayList();
+        spatialHash.forEachCandidate(aabb, entity -> {
+            if (!entityClass.isInstance(entity) || !entity.getEntityBoundingBox().intersects(aabb)) {
+                return true;
+            }
+            final T candidate = (T) entity;
+            if (filter == null || filter.apply(candidate)) {
+                if (limited && !EntityCollisions.allowEntityCollision((World) (Object) this, list)) {
+                    return false;
+                }
+                list.add(candidate);
+            }
+            return true;
+        });
+        cir.setReturnValue(list);
+    }
+}
@@ -24,16 +24,59 @@
  */
 package org.spongepowered.common.mixin.optimization.tileentity;
 
+import net.minecraft.block.BlockHopper;
+import net.minecraft.entity.item.EntityItem;
 import net.minecraft.inventory.IInventory;
 import net.minecraft.item.ItemStack;
+import net.minecraft.tileentity.IHopper;
+import net.minecraft.tileentity.TileEntity;
 import net.minecraft.tileentity.TileEntityHopper;
+import net.minecraft.world.World;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.Redirect;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 import org.spongepowered.common.bridge.optimization.HopperOptimizationBridge;
+import org.spongepowered.common.bridge.optimization.HopperTransferBridge;
+import org.spongepowered.common.bridge.world.WorldServerBridge_HopperOptimization;
+import org.spongepowered.common.event.ShouldFire;
+import org.spongepowered.common.world.hopper.HopperTransferEngine;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
 
 @Mixin(value = TileEntityHopper.class, priority = 1300)
-public class TileEntityHopperMixin_HopperOptimization extends TileEntityMixin_HopperOptimization {
+public abstract class TileEntityHopperMixin_HopperOptimization extends TileEntityMixin_HopperOptimization implements HopperTransferBridge {
+
+    @Shadow public static IInventory getSourceInventory(final IHopper hopper) {
+        throw new AbstractMethodError("Shadow");
+    }
+
+    @Shadow public static List<EntityItem> getCaptureItems(final World worldIn, final double x, final double y, final double z) {
+        throw new AbstractMethodError("Shadow");
+    }
+
+    @Shadow protected abstract IInventory getInventoryForHopperTransfer();
+    @Shadow protected abstract boolean isOnTransferCooldown();
+    @Shadow protected abstract boolean isInventoryEmpty();
+    @Shadow protected abstract boolean isFull();
+
+    private final HopperTransferEngine.CachedInventory hopper$source = new HopperTransferEngine.CachedInventory();
+    private final HopperTransferEngine.CachedInventory hopper$target = new HopperTransferEngine.CachedInventory();
+    private int hopper$lastLayoutVersion;
+    private boolean hopper$resolvedSource;
+    private boolean hopper$resolvedTarget;
+
+    private boolean hopper$asleep;
+    private long hopper$wakeTime;
+    private int hopper$sleepCount;
+    @Nullable private IInventory hopper$sleepSource;
+    private int hopper$sleepSourceCount;
+    @Nullable private IInventory hopper$sleepTarget;
+    private int hopper$sleepTargetCount;
 
     @Redirect(method = "insertStack",
         at = @At(value = "INVOKE", target = "Lnet/minecraft/inventory/IInventory;setInventorySlotContents(ILnet/minecraft/item/ItemStack;)V"))
@@ -47,4 +90,107 @@ public class TileEntityHopperMixin_HopperOptimization extends TileEntityMixin_Ho
         }
     }
 
+    @Override
+    @Nullable
+    public IInventory hopperBridge$getSourceInventory() {
+        final World world = ((TileEntity) (Object) this).getWorld();
+        if (!this.hopper$source.isValid(world)) {
+            this.hopper$source.update(getSourceInventory((IHopper) this));
+        }
+        this.hopper$resolvedSource = true;
+        return this.hopper$source.get();
+    }
+
+    @Inject(method = "updateHopper", at = @At("HEAD"), cancellable = true)
+    private void hopper$skipWhileAsleep(final CallbackInfoReturnable<Boolean> cir) {
+        this.hopper$resolvedSource = false;
+        this.hopper$resolvedTarget = false;
+        final int layoutVersion = this.hopperBridge$getLayoutVersion();
+        if (layoutVersion != this.hopper$lastLayoutVersion) {
+            // The hopper itself was changed, it may be facing somewhere else now
+            this.hopper$lastLayoutVersion = layoutVersion;
+            this.hopper$source.clear();
+            this.hopper$target.clear();
+        }
+        if (!this.hopper$asleep) {
+            return;
+        }
+        final World world = ((TileEntity) (Object) this).getWorld();
+        if (world != null
+            && world.getTotalWorldTime() < this.hopper$wakeTime
+            && !ShouldFire.CHANGE_INVENTORY_EVENT_TRANSFER_PRE
+            && this.hopperBridge$getModificationCount() == this.hopper$sleepCount
+            && HopperTransferEngine.getModificationCount(this.hopper$sleepSource) == this.hopper$sleepSourceCount
+            && HopperTransferEngine.getModificationCount(this.hopper$sleepTarget) == this.hopper$sleepTargetCount) {
+            cir.setReturnValue(false);
+            return;
+        }
+        this.hopper$asleep = false;
+        this.hopper$sleepSource = null;
+        this.hopper$sleepTarget = null;
+    }
+
+    @Inject(method = "updateHopper", at = @At("RETURN"))
+    private void hopper$sleepIfIdle(final CallbackInfoReturnable<Boolean> cir) {
+        final World world = ((TileEntity) (Object) this).getWorld();
+        if (cir.getReturnValueZ() || this.hopper$asleep || world == null || world.isRemote
+            || ShouldFire.CHANGE_INVENTORY_EVENT_TRANSFER_PRE
+            || this.isOnTransferCooldown() || !BlockHopper.isEnabled(((TileEntity) (Object) this).getBlockMetadata())) {
+            return;
+        }
+        // Only sleep when every inventory vanilla looked at can be tracked. Anything
+        // that skipped our lookups (such as a modded transfer hook) keeps the hopper awake.
+        final boolean needsTarget = !this.isInventoryEmpty();
+        final boolean needsSource = !this.isFull();
+        if (needsTarget != this.hopper$resolvedTarget || needsSource != this.hopper$resolvedSource) {
+            return;
+        }
+        final IInventory target = needsTarget ? this.hopper$target.get() : null;
+        final IInventory source = needsSource ? this.hopper$source.get() : null;
+        final int targetCount = HopperTransferEngine.getModificationCount(target);
+        final int sourceCount = HopperTransferEngine.getModificationCount(source);
+        if (needsTarget && targetCount == -1 || needsSource && sourceCount == -1) {
+            return;
+        }
+        this.hopper$asleep = true;
+        this.hopper$wakeTime = world.getTotalWorldTime() + HopperTransferEngine.MAX_SLEEP_TICKS;
+        this.hopper$sleepCount = this.hopperBridge$getModificationCount();
+        this.hopper$sleepSource = source;
+        this.hopper$sleepSourceCount = sourceCount;
+        this.hopper$sleepTarget = target;
+        this.hopper$sleepTargetCount = targetCount;
+    }
+
+    @Redirect(method = "transferItemsOut",
+        at = @At(value = "INVOKE", target = "Lnet/minecraft/tileentity/TileEntityHopper;getInventoryForHopperTransfer()Lnet/minecraft/inventory/IInventory;"))
+    @Nullable
+    private IInventory hopper$getCachedTarget(final TileEntityHopper self) {
+        if (!this.hopper$target.isValid(((TileEntity) (Object) this).getWorld())) {
+            this.hopper$target.update(this.getInventoryForHopperTransfer());
+        }
+        this.hopper$resolvedTarget = true;
+        return this.hopper$target.get();
+    }
+
+    @Redirect(method = "pullItems",
+        at = @At(value = "INVOKE", target = "Lnet/minecraft/tileentity/TileEntityHopper;getSourceInventory(Lnet/minecraft/tileentity/IHopper;)Lnet/minecraft/inventory/IInventory;"))
+    @Nullable
+    private static IInventory hopper$getCachedSource(final IHopper hopper) {
+        if (hopper instanceof HopperTransferBridge) {
+            return ((HopperTransferBridge) hopper).hopperBridge$getSourceInventory();
+        }
+        return getSourceInventory(hopper);
+    }
+
+    @Redirect(method = "pullItems",
+        at = @At(value = "INVOKE", target = "Lnet/minecraft/tileentity/TileEntityHopper;getCaptureItems(Lnet/minecraft/world/World;DDD)Ljava/util/List;"))
+    private static List<EntityItem> hopper$getCaptureItemsForTick(final World world, final double x, final double y, final double z,
+        final IHopper hopper) {
+        // Hopper minecarts tick alongside the items they collect, so only block hoppers share the per tick lookup
+        if (hopper instanceof TileEntityHopper && world instanceof WorldServerBridge_HopperOptimization) {
+            return ((WorldServerBridge_HopperOptimization) world).hopperBridge$getTransferEngine().getCaptureItems(x, y, z);
+        }
+        return getCaptureItems(world, x, y, z);
+    }
+
 }
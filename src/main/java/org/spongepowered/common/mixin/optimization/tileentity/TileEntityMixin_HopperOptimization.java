@@ -35,16 +35,36 @@
 public class TileEntityMixin_HopperOptimization implements HopperOptimizationBridge {
 
     private boolean hopper$shouldCancelDirtyUpdate = false;
+    private int hopper$modificationCount;
+    private int hopper$layoutVersion;
 
     @Override
     public void hopperBridge$setCancelDirtyUpdate(final boolean canMarkDirty) {
         this.hopper$shouldCancelDirtyUpdate = canMarkDirty;
     }
 
+    @Override
+    public int hopperBridge$getModificationCount() {
+        return this.hopper$modificationCount;
+    }
+
+    @Override
+    public int hopperBridge$getLayoutVersion() {
+        return this.hopper$layoutVersion;
+    }
+
     @Inject(method = "markDirty", at = @At("HEAD"), cancellable = true)
     private void hopper$DoNotUpdateIfMarked(final CallbackInfo ci) {
+        // The contents changed even if the update itself is skipped
+        this.hopper$modificationCount = (this.hopper$modificationCount + 1) & Integer.MAX_VALUE;
         if (this.hopper$shouldCancelDirtyUpdate) {
             ci.cancel();
         }
     }
+
+    @Inject(method = {"updateContainingBlockInfo", "invalidate"}, at = @At("HEAD"))
+    private void hopper$onLayoutChange(final CallbackInfo ci) {
+        this.hopper$modificationCount = (this.hopper$modificationCount + 1) & Integer.MAX_VALUE;
+        this.hopper$layoutVersion++;
+    }
 }
@@ -33,6 +33,9 @@
 import net.minecraft.world.WorldServer;
 import net.minecraft.world.chunk.Chunk;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.common.SpongeImpl;
 import org.spongepowered.common.SpongeImplHooks;
 import org.spongepowered.common.bridge.world.WorldServerBridge_AsyncLighting;
@@ -42,6 +45,7 @@
 import org.spongepowered.common.bridge.util.math.BlockPosBridge;
 import org.spongepowered.common.mixin.core.world.WorldMixin;
 import org.spongepowered.common.util.Constants;
+import org.spongepowered.common.world.lighting.AsyncLightingEngine;
 
 import java.util.List;
 import java.util.concurrent.ExecutorService;
@@ -54,6 +58,22 @@ public abstract class WorldServerMixin_Async_Lighting extends WorldMixin impleme
 
     private ExecutorService asyncLightingImpl$lightExecutorService =
                 Executors.newFixedThreadPool(SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations().getAsyncLightingCategory().getNumThreads(), new ThreadFactoryBuilder().setNameFormat("Sponge - Async Light Thread").build());
+    @Nullable private AsyncLightingEngine asyncLightingImpl$lightingEngine;
+
+    @Inject(method = "<init>", at = @At("RETURN"))
+    private void asyncLightingImpl$createLightingEngine(final CallbackInfo ci) {
+        if (SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations().getAsyncLightingCategory().useBatchedUpdates()) {
+            this.asyncLightingImpl$lightingEngine = new AsyncLightingEngine((WorldServer) (Object) this, this.asyncLightingImpl$lightExecutorService,
+                this::asyncLightingImpl$checkLightAsync);
+        }
+    }
+
+    @Inject(method = "tick", at = @At("RETURN"))
+    private void asyncLightingImpl$tickLightingEngine(final CallbackInfo ci) {
+        if (this.asyncLightingImpl$lightingEngine != null) {
+            this.asyncLightingImpl$lightingEngine.tick();
+        }
+    }
 
     @Override
     public boolean checkLightFor(final EnumSkyBlock lightType, final BlockPos pos) {
@@ -63,6 +83,11 @@ public boolean checkLightFor(final EnumSkyBlock lightType, final BlockPos pos) {
     @Override
     public boolean asyncLightingBridge$checkLightAsync(
         final EnumSkyBlock lightType, final BlockPos pos, final net.minecraft.world.chunk.Chunk currentChunk, final List<Chunk> neighbors) {
+        return this.asyncLightingImpl$checkLightAsync(lightType, pos, currentChunk, neighbors, this.lightUpdateBlockList);
+    }
+
+    private boolean asyncLightingImpl$checkLightAsync(final EnumSkyBlock lightType, final BlockPos pos, final net.minecraft.world.chunk.Chunk currentChunk,
+        final List<Chunk> neighbors, final int[] lightUpdateBlockList) { // Sponge - use the buffer of the current thread
         // Sponge - This check is not needed as neighbors are checked in bridge$updateLightAsync
         if (false && !this.isAreaLoaded(pos, 17, false)) {
             return false;
@@ -78,12 +103,12 @@ public boolean checkLightFor(final EnumSkyBlock lightType, final BlockPos pos) {
             final int k1 = pos.getZ();
 
             if (l > k) {
-                this.lightUpdateBlockList[j++] = 133152;
+                lightUpdateBlockList[j++] = 133152;
             } else if (l < k) {
-                this.lightUpdateBlockList[j++] = 133152 | k << 18;
+                lightUpdateBlockList[j++] = 133152 | k << 18;
 
                 while (i < j) {
-                    final int l1 = this.lightUpdateBlockList[i++];
+                    final int l1 = lightUpdateBlockList[i++];
                     final int i2 = (l1 & 63) - 32 + i1;
                     final int j2 = (l1 >> 6 & 63) - 32 + j1;
                     final int k2 = (l1 >> 12 & 63) - 32 + k1;
@@ -116,8 +141,8 @@ public boolean checkLightFor(final EnumSkyBlock lightType, final BlockPos pos) {
                                     i3 = this.asyncLightingImpl$getLightForAsync(lightType, blockpos$pooledmutableblockpos, currentChunk, neighbors);
                                     // Sponge end
 
-                                    if (i3 == l2 - l4 && j < this.lightUpdateBlockList.length) {
-                                        this.lightUpdateBlockList[j++] = i4 - i1 + 32 | j4 - j1 + 32 << 6 | k4 - k1 + 32 << 12 | l2 - l4 << 18;
+                                    if (i3 == l2 - l4 && j < lightUpdateBlockList.length) {
+                                        lightUpdateBlockList[j++] = i4 - i1 + 32 | j4 - j1 + 32 << 6 | k4 - k1 + 32 << 12 | l2 - l4 << 18;
                                     }
                                 }
 
@@ -134,7 +159,7 @@ public boolean checkLightFor(final EnumSkyBlock lightType, final BlockPos pos) {
             //this.theProfiler.startSection("checkedPosition < toCheckCount"); // Sponge - don't use profiler off of main thread
 
             while (i < j) {
-                final int i5 = this.lightUpdateBlockList[i++];
+                final int i5 = lightUpdateBlockList[i++];
                 final int j5 = (i5 & 63) - 32 + i1;
                 final int k5 = (i5 >> 6 & 63) - 32 + j1;
                 final int l5 = (i5 >> 12 & 63) - 32 + k1;
@@ -149,32 +174,32 @@ public boolean checkLightFor(final EnumSkyBlock lightType, final BlockPos pos) {
                         final int k6 = Math.abs(j5 - i1);
                         final int l6 = Math.abs(k5 - j1);
                         final int i7 = Math.abs(l5 - k1);
-                        final boolean flag = j < this.lightUpdateBlockList.length - 6;
+                        final boolean flag = j < lightUpdateBlockList.length - 6;
 
                         if (k6 + l6 + i7 < 17 && flag) {
                             // Sponge start - use thread safe method asyncLightingImpl$getLightForAsync
                             if (this.asyncLightingImpl$getLightForAsync(lightType, blockpos1.west(), currentChunk, neighbors) < j6) {
-                                this.lightUpdateBlockList[j++] = j5 - 1 - i1 + 32 + (k5 - j1 + 32 << 6) + (l5 - k1 + 32 << 12);
+                                lightUpdateBlockList[j++] = j5 - 1 - i1 + 32 + (k5 - j1 + 32 << 6) + (l5 - k1 + 32 << 12);
                             }
 
                             if (this.asyncLightingImpl$getLightForAsync(lightType, blockpos1.east(), currentChunk, neighbors) < j6) {
-                                this.lightUpdateBlockList[j++] = j5 + 1 - i1 + 32 + (k5 - j1 + 32 << 6) + (l5 - k1 + 32 << 12);
+                                lightUpdateBlockList[j++] = j5 + 1 - i1 + 32 + (k5 - j1 + 32 << 6) + (l5 - k1 + 32 << 12);
                             }
 
                             if (this.asyncLightingImpl$getLightForAsync(lightType, blockpos1.down(), currentChunk, neighbors) < j6) {
-                                this.lightUpdateBlockList[j++] = j5 - i1 + 32 + (k5 - 1 - j1 + 32 << 6) + (l5 - k1 + 32 << 12);
+                                lightUpdateBlockList[j++] = j5 - i1 + 32 + (k5 - 1 - j1 + 32 << 6) + (l5 - k1 + 32 << 12);
                             }
 
                             if (this.asyncLightingImpl$getLightForAsync(lightType, blockpos1.up(), currentChunk, neighbors) < j6) {
-                                this.lightUpdateBlockList[j++] = j5 - i1 + 32 + (k5 + 1 - j1 + 32 << 6) + (l5 - k1 + 32 << 12);
+                                lightUpdateBlockList[j++] = j5 - i1 + 32 + (k5 + 1 - j1 + 32 << 6) + (l5 - k1 + 32 << 12);
                             }
 
                             if (this.asyncLightingImpl$getLightForAsync(lightType, blockpos1.north(), currentChunk, neighbors) < j6) {
-                                this.lightUpdateBlockList[j++] = j5 - i1 + 32 + (k5 - j1 + 32 << 6) + (l5 - 1 - k1 + 32 << 12);
+                                lightUpdateBlockList[j++] = j5 - i1 + 32 + (k5 - j1 + 32 << 6) + (l5 - 1 - k1 + 32 << 12);
                             }
 
                             if (this.asyncLightingImpl$getLightForAsync(lightType, blockpos1.south(), currentChunk, neighbors) < j6) {
-                                this.lightUpdateBlockList[j++] = j5 - i1 + 32 + (k5 - j1 + 32 << 6) + (l5 + 1 - k1 + 32 << 12);
+                                lightUpdateBlockList[j++] = j5 - i1 + 32 + (k5 - j1 + 32 << 6) + (l5 + 1 - k1 + 32 << 12);
                             }
                             // Sponge end
                         }
@@ -221,6 +246,21 @@ public boolean checkLightFor(final EnumSkyBlock lightType, final BlockPos pos) {
         spongeChunk.asyncLightingBridge$getPendingLightUpdates().incrementAndGet();
         spongeChunk.asyncLightingBridge$setLightUpdateTime(chunk.getWorld().getTotalWorldTime());
 
+        final boolean isMainThread = SpongeImpl.getServer().isCallingFromMinecraftThread();
+        if (isMainThread && this.asyncLightingImpl$lightingEngine != null) {
+            // Updates of a chunk within the same batch share the neighbors, they can't unload while updates are pending
+            final List<Chunk> queuedNeighbors = this.asyncLightingImpl$lightingEngine.getQueuedNeighbors(chunk);
+            if (queuedNeighbors != null) {
+                for (final net.minecraft.world.chunk.Chunk neighborChunk : queuedNeighbors) {
+                    final ChunkBridge_AsyncLighting neighbor = (ChunkBridge_AsyncLighting) neighborChunk;
+                    neighbor.asyncLightingBridge$getPendingLightUpdates().incrementAndGet();
+                    neighbor.asyncLightingBridge$setLightUpdateTime(chunk.getWorld().getTotalWorldTime());
+                }
+                this.asyncLightingImpl$lightingEngine.enqueue(lightType, shortPos, chunk, queuedNeighbors);
+                return true;
+            }
+        }
+
         final List<Chunk> neighbors = spongeChunk.bridge$getNeighbors();
 
         // add diagonal chunks
@@ -254,7 +294,9 @@ public boolean checkLightFor(final EnumSkyBlock lightType, final BlockPos pos) {
         }
 
         //System.out.println("size = " + ((ThreadPoolExecutor) this.asyncLightingImpl$lightExecutorService).getQueue().size());
-        if (SpongeImpl.getServer().isCallingFromMinecraftThread()) {
+        if (isMainThread && this.asyncLightingImpl$lightingEngine != null) {
+            this.asyncLightingImpl$lightingEngine.enqueue(lightType, shortPos, chunk, neighbors);
+        } else if (isMainThread) {
             this.asyncLightingImpl$lightExecutorService.execute(() -> {
                 this.asyncLightingBridge$checkLightAsync(lightType, pos, chunk, neighbors);
             });
@@ -270,6 +312,12 @@ public boolean checkLightFor(final EnumSkyBlock lightType, final BlockPos pos) {
         return this.asyncLightingImpl$lightExecutorService;
     }
 
+    @Nullable
+    @Override
+    public AsyncLightingEngine asyncLightingBridge$getLightingEngine() {
+        return this.asyncLightingImpl$lightingEngine;
+    }
+
     // Thread safe methods to retrieve a chunk during async light updates
     // Each method avoids calling getLoadedChunk and instead accesses the passed neighbor chunk list to avoid concurrency issues
     private Chunk asyncLightingImpl$getLightChunk(final BlockPos pos, final Chunk currentChunk, final List<Chunk> neighbors) {
@@ -362,7 +410,10 @@ public boolean checkLightFor(final EnumSkyBlock lightType, final BlockPos pos) {
             final Chunk chunk = this.asyncLightingImpl$getLightChunk(pos, currentChunk, neighbors);
             if (chunk != null && !chunk.unloadQueued) {
                 chunk.setLightFor(type, pos, lightValue);
-                this.notifyLightSet(pos);
+                // Batched updates resend the changed sections instead
+                if (!AsyncLightingEngine.markSectionChanged(pos)) {
+                    this.notifyLightSet(pos);
+                }
             }
         }
     }
@@ -47,6 +47,7 @@
 import org.spongepowered.common.bridge.world.chunk.ChunkBridge_AsyncLighting;
 import org.spongepowered.common.bridge.world.chunk.ChunkProviderBridge;
 import org.spongepowered.common.util.Constants;
+import org.spongepowered.common.world.lighting.AsyncLightingEngine;
 
 import java.util.Collections;
 import java.util.List;
@@ -118,6 +119,16 @@ public abstract class ChunkMixin_Async_Lighting implements ChunkBridge_AsyncLigh
         this.asyncLighting$lightUpdateTime = time;
     }
 
+    @Inject(method = "onLoad", at = @At("RETURN"))
+    private void asyncLighting$addToQueuedNeighbors(final CallbackInfo ci) {
+        if (this.asyncLighting$isServerChunk) {
+            final AsyncLightingEngine lightingEngine = ((WorldServerBridge_AsyncLighting) this.world).asyncLightingBridge$getLightingEngine();
+            if (lightingEngine != null) {
+                lightingEngine.onChunkLoad((Chunk) (Object) this);
+            }
+        }
+    }
+
     @Inject(method = "onTick", at = @At("HEAD"), cancellable = true)
     private void asyncLighting$onTickHead(final boolean skipRecheckGaps, final CallbackInfo ci)
     {
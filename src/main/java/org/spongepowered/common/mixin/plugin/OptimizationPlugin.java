@@ -133,6 +133,8 @@ public void postApply(String targetClassName, ClassNode targetClass, String mixi
                     OptimizationCategory::isOptimizeHoppers)
             .put("org.spongepowered.common.mixin.optimization.tileentity.TileEntityHopperMixin_HopperOptimization",
                     OptimizationCategory::isOptimizeHoppers)
+            .put("org.spongepowered.common.mixin.optimization.world.WorldServerMixin_HopperOptimization",
+                    OptimizationCategory::isOptimizeHoppers)
             .put("org.spongepowered.common.mixin.optimization.entity.EntityMixin_UseActiveChunkForCollisions",
                     OptimizationCategory::isUseActiveChunkForCollisions)
             .put("org.spongepowered.common.mixin.optimization.world.WorldMixin_RayTraceChunkLoadOptimizations",
@@ -0,0 +1,162 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.mixin.plugin.entityactivation;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A grid of the bounding boxes of the players of a world, used to test each
+ * entity once per tick against all players near it, instead of testing it
+ * once for every player which has its chunk in range.
+ *
+ * <p>The grid also keeps the amount of entities checked and activated during
+ * the last tick, by activation type.</p>
+ */
+public final class EntityActivationGrid {
+
+    // 32 blocks per cell, close to the default activation ranges
+    private static final int CELL_SHIFT = 5;
+    private static final int VERTICAL_RANGE = 256;
+    private static final int TYPE_COUNT = 6;
+
+    private final List<AxisAlignedBB> players = new ArrayList<>();
+    private final Long2ObjectMap<IntArrayList> cells = new Long2ObjectOpenHashMap<>();
+    private final List<IntArrayList> unusedCells = new ArrayList<>();
+    final LongOpenHashSet visitedChunks = new LongOpenHashSet();
+
+    private final int[] checked = new int[TYPE_COUNT];
+    private final int[] activated = new int[TYPE_COUNT];
+    private final int[] lastChecked = new int[TYPE_COUNT];
+    private final int[] lastActivated = new int[TYPE_COUNT];
+
+    void reset() {
+        this.players.clear();
+        for (final IntArrayList cell : this.cells.values()) {
+            cell.clear();
+            this.unusedCells.add(cell);
+        }
+        this.cells.clear();
+        this.visitedChunks.clear();
+        System.arraycopy(this.checked, 0, this.lastChecked, 0, TYPE_COUNT);
+        System.arraycopy(this.activated, 0, this.lastActivated, 0, TYPE_COUNT);
+        Arrays.fill(this.checked, 0);
+        Arrays.fill(this.activated, 0);
+    }
+
+    void addPlayer(final AxisAlignedBB bb) {
+        final int index = this.players.size();
+        this.players.add(bb);
+        for (int cellX = cell(bb.minX); cellX <= cell(bb.maxX); cellX++) {
+            for (int cellZ = cell(bb.minZ); cellZ <= cell(bb.maxZ); cellZ++) {
+                final long key = ChunkPos.asLong(cellX, cellZ);
+                IntArrayList cell = this.cells.get(key);
+                if (cell == null) {
+                    cell = this.unusedCells.isEmpty() ? new IntArrayList(4) : this.unusedCells.remove(this.unusedCells.size() - 1);
+                    this.cells.put(key, cell);
+                }
+                cell.add(index);
+            }
+        }
+    }
+
+    /**
+     * Gets whether the given bounding box is within the range of any player,
+     * the same as growing the bounding box of every player by the range and
+     * testing it for intersection.
+     *
+     * @param bb The bounding box of the entity
+     * @param range The activation range of the entity
+     * @return Whether any player is in range
+     */
+    boolean isInRange(final AxisAlignedBB bb, final int range) {
+        final double minX = bb.minX - range;
+        final double maxX = bb.maxX + range;
+        final double minY = bb.minY - VERTICAL_RANGE;
+        final double maxY = bb.maxY + VERTICAL_RANGE;
+        final double minZ = bb.minZ - range;
+        final double maxZ = bb.maxZ + range;
+        for (int cellX = cell(minX); cellX <= cell(maxX); cellX++) {
+            for (int cellZ = cell(minZ); cellZ <= cell(maxZ); cellZ++) {
+                final IntArrayList cell = this.cells.get(ChunkPos.asLong(cellX, cellZ));
+                if (cell == null) {
+                    continue;
+                }
+                for (int i = 0; i < cell.size(); i++) {
+                    final AxisAlignedBB player = this.players.get(cell.getInt(i));
+                    if (player.minX < maxX && player.maxX > minX && player.minY < maxY && player.maxY > minY
+                            && player.minZ < maxZ && player.maxZ > minZ) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    void recordCheck(final byte activationType, final boolean activated) {
+        final int type = activationType < 0 || activationType >= TYPE_COUNT ? 5 : activationType;
+        this.checked[type]++;
+        if (activated) {
+            this.activated[type]++;
+        }
+    }
+
+    /**
+     * Gets the amount of entities of the activation type which were checked
+     * against the players during the last tick.
+     *
+     * @param activationType The activation type
+     * @return The amount of checked entities
+     */
+    public int getCheckedCount(final byte activationType) {
+        return this.lastChecked[activationType];
+    }
+
+    /**
+     * Gets the amount of entities of the activation type which were activated
+     * by being in range of a player during the last tick.
+     *
+     * @param activationType The activation type
+     * @return The amount of activated entities
+     */
+    public int getActivatedCount(final byte activationType) {
+        return this.lastActivated[activationType];
+    }
+
+    private static int cell(final double coordinate) {
+        return MathHelper.floor(coordinate) >> CELL_SHIFT;
+    }
+
+}
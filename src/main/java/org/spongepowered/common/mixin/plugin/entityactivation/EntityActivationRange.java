@@ -51,6 +51,7 @@
 import net.minecraft.entity.projectile.EntityFireball;
 import net.minecraft.entity.projectile.EntityThrowable;
 import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.MathHelper;
 import net.minecraft.world.World;
 import net.minecraft.world.WorldServer;
@@ -79,6 +80,9 @@
 import org.spongepowered.common.mixin.plugin.entityactivation.interfaces.ActivationCapability;
 
 import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.annotation.Nullable;
 
 public class EntityActivationRange {
 
@@ -90,14 +94,10 @@ public class EntityActivationRange {
             .put((byte) 5, "misc")
             .build();
 
-    static AxisAlignedBB maxBB = new AxisAlignedBB(0, 0, 0, 0, 0, 0);
-    static AxisAlignedBB miscBB = new AxisAlignedBB(0, 0, 0, 0, 0, 0);
-    static AxisAlignedBB creatureBB = new AxisAlignedBB(0, 0, 0, 0, 0, 0);
-    static AxisAlignedBB monsterBB = new AxisAlignedBB(0, 0, 0, 0, 0, 0);
-    static AxisAlignedBB aquaticBB = new AxisAlignedBB(0, 0, 0, 0, 0, 0);
-    static AxisAlignedBB ambientBB = new AxisAlignedBB(0, 0, 0, 0, 0, 0);
     static AxisAlignedBB tileEntityBB = new AxisAlignedBB(0, 0, 0, 0, 0, 0);
     static Map<Byte, Integer> maxActivationRanges = Maps.newHashMap();
+    // Only accessed from the server thread
+    private static final Map<World, EntityActivationGrid> activationGrids = new WeakHashMap<>();
 
     /**
      * Initializes an entities type on construction to specify what group this
@@ -218,6 +218,10 @@ public static void growBb(final AxisAlignedBB target, final AxisAlignedBB source
      * Find what entities are in range of the players in the world and set
      * active if in range.
      *
+     * <p>The players are first put into a grid, after which every entity in
+     * range of any player is checked exactly once against the players near
+     * it.</p>
+     *
      * @param world The world to perform activation checks in
      */
     public static void activateEntities(final World world) {
@@ -225,49 +229,84 @@ public static void activateEntities(final World world) {
             return;
         }
 
-        for (final EntityPlayer player : world.playerEntities) {
+        final long currentTick = SpongeImpl.getServer().getTickCounter();
+        final EntityActivationRangeCategory config =
+            ((WorldInfoBridge) world.getWorldInfo()).bridge$getConfigAdapter().getConfig().getEntityActivationRange();
+        TickBudget.ENTITIES.start(world, config.getTickBudget(), config.getTickBuckets(), currentTick);
 
-            int maxRange = 0;
-            for (final Integer range : maxActivationRanges.values()) {
-                if (range > maxRange) {
-                    maxRange = range;
-                }
+        final EntityActivationGrid grid = activationGrids.computeIfAbsent(world, w -> new EntityActivationGrid());
+        grid.reset();
+        if (world.playerEntities.isEmpty()) {
+            return;
+        }
+
+        int maxRange = 0;
+        for (final Integer range : maxActivationRanges.values()) {
+            if (range > maxRange) {
+                maxRange = range;
             }
+        }
+        maxRange = Math.min((((org.spongepowered.api.world.World) world).getViewDistance() << 4) - 8, maxRange);
 
-            maxRange = Math.min((((org.spongepowered.api.world.World) world).getViewDistance() << 4) - 8, maxRange);
-            ((ActivationCapability) player).activation$setActivatedTick(SpongeImpl.getServer().getTickCounter());
-            growBb(maxBB, player.getEntityBoundingBox(), maxRange, 256, maxRange);
+        for (final EntityPlayer player : world.playerEntities) {
+            ((ActivationCapability) player).activation$setActivatedTick(currentTick);
+            grid.addPlayer(player.getEntityBoundingBox());
+        }
 
-            final int i = MathHelper.floor(maxBB.minX / 16.0D);
-            final int j = MathHelper.floor(maxBB.maxX / 16.0D);
-            final int k = MathHelper.floor(maxBB.minZ / 16.0D);
-            final int l = MathHelper.floor(maxBB.maxZ / 16.0D);
+        final ChunkProviderBridge chunkProvider = (ChunkProviderBridge) ((WorldServer) world).getChunkProvider();
+        for (final EntityPlayer player : world.playerEntities) {
+            final AxisAlignedBB bb = player.getEntityBoundingBox();
+            final int i = MathHelper.floor((bb.minX - maxRange) / 16.0D);
+            final int j = MathHelper.floor((bb.maxX + maxRange) / 16.0D);
+            final int k = MathHelper.floor((bb.minZ - maxRange) / 16.0D);
+            final int l = MathHelper.floor((bb.maxZ + maxRange) / 16.0D);
 
             for (int i1 = i; i1 <= j; ++i1) {
                 for (int j1 = k; j1 <= l; ++j1) {
-                    final WorldServer worldserver = (WorldServer) world;
-                    final Chunk chunk = ((ChunkProviderBridge) worldserver.getChunkProvider()).bridge$getLoadedChunkWithoutMarkingActive(i1, j1);
+                    // Chunks in range of multiple players only need to be checked once
+                    if (!grid.visitedChunks.add(ChunkPos.asLong(i1, j1))) {
+                        continue;
+                    }
+                    final Chunk chunk = chunkProvider.bridge$getLoadedChunkWithoutMarkingActive(i1, j1);
                     if (chunk != null) {
-                        activateChunkEntities(player, chunk);
+                        activateChunkEntities(grid, chunk, currentTick);
                     }
                 }
             }
         }
     }
 
+    /**
+     * Gets the activation grid of the world, which holds the amount of
+     * entities checked and activated during the last tick.
+     *
+     * @param world The world
+     * @return The activation grid, or null if no activation checks were
+     *     performed in the world yet
+     */
+    @Nullable
+    public static EntityActivationGrid getActivationGrid(final World world) {
+        return activationGrids.get(world);
+    }
+
+    public static ImmutableMap<Byte, String> getActivationTypeMappings() {
+        return activationTypeMappings;
+    }
+
     /**
      * Checks for the activation state of all entities in this chunk.
      *
+     * @param grid The grid of the players in the world
      * @param chunk Chunk to check for activation
+     * @param currentTick The current tick
      */
-    private static void activateChunkEntities(final EntityPlayer player, final Chunk chunk) {
+    private static void activateChunkEntities(final EntityActivationGrid grid, final Chunk chunk, final long currentTick) {
         for (int i = 0; i < chunk.getEntityLists().length; ++i) {
 
             for (final Object o : chunk.getEntityLists()[i]) {
                 final Entity entity = (Entity) o;
                 final EntityType type = ((org.spongepowered.api.entity.Entity) entity).getType();
                 final ActivationCapability spongeEntity = (ActivationCapability) entity;
-                final long currentTick = SpongeImpl.getServer().getTickCounter();
                 if (!((EntityBridge) entity).bridge$shouldTick()) {
                     continue;
                 }
@@ -287,49 +326,12 @@ private static void activateChunkEntities(final EntityPlayer player, final Chunk
                         spongeEntity.activation$setActivatedTick(currentTick);
                         continue;
                     }
-                    // check for entity type overrides
-                    final byte activationType = spongeEntity.activation$getActivationType();
-                    final int bbActivationRange = spongeEntity.activation$getActivationRange();
-
-                    if (activationType == 5) {
-                        growBb(miscBB, player.getEntityBoundingBox(), bbActivationRange, 256, bbActivationRange);
-                    } else if (activationType == 4) {
-                        growBb(ambientBB, player.getEntityBoundingBox(), bbActivationRange, 256, bbActivationRange);
-                    } else if (activationType == 3) {
-                        growBb(aquaticBB, player.getEntityBoundingBox(), bbActivationRange, 256, bbActivationRange);
-                    } else if (activationType == 2) {
-                        growBb(creatureBB, player.getEntityBoundingBox(), bbActivationRange, 256, bbActivationRange);
-                    } else {
-                        growBb(monsterBB, player.getEntityBoundingBox(), bbActivationRange, 256, bbActivationRange);
-                    }
 
-                    switch (spongeEntity.activation$getActivationType()) {
-                        case 1:
-                            if (monsterBB.intersects(entity.getEntityBoundingBox())) {
-                                spongeEntity.activation$setActivatedTick(currentTick);
-                            }
-                            break;
-                        case 2:
-                            if (creatureBB.intersects(entity.getEntityBoundingBox())) {
-                                spongeEntity.activation$setActivatedTick(currentTick);
-                            }
-                            break;
-                        case 3:
-                            if (aquaticBB.intersects(entity.getEntityBoundingBox())) {
-                                spongeEntity.activation$setActivatedTick(currentTick);
-                            }
-                            break;
-                        case 4:
-                            if (ambientBB.intersects(entity.getEntityBoundingBox())) {
-                                spongeEntity.activation$setActivatedTick(currentTick);
-                            }
-                            break;
-                        case 5:
-                        default:
-                            if (miscBB.intersects(entity.getEntityBoundingBox())) {
-                                spongeEntity.activation$setActivatedTick(currentTick);
-                            }
+                    final boolean inRange = grid.isInRange(entity.getEntityBoundingBox(), spongeEntity.activation$getActivationRange());
+                    if (inRange) {
+                        spongeEntity.activation$setActivatedTick(currentTick);
                     }
+                    grid.recordCheck(spongeEntity.activation$getActivationType(), inRange);
                 }
             }
         }
@@ -414,7 +416,11 @@ public static boolean checkIfActive(final Entity entity) {
 
         // Should this entity tick?
         if (!isActive) {
-            if ((currentTick - spongeEntity.activation$getActivatedTick() - 1) % 20 == 0) {
+            // With a tick budget, spread the immunity checks of entities which left the range together
+            final long sinceActivated = TickBudget.ENTITIES.isEnabled(entity.world)
+                    ? currentTick + entity.getEntityId()
+                    : currentTick - spongeEntity.activation$getActivatedTick() - 1;
+            if (sinceActivated % 20 == 0) {
                 // Check immunities every 20 ticks.
                 if (checkEntityImmunities(entity)) {
                     // Triggered some sort of immunity, give 20 full ticks before we check again.
@@ -431,6 +437,12 @@ public static boolean checkIfActive(final Entity entity) {
             isActive = false;
         }
 
+        // Defer entities only in range of a player once the tick budget is exhausted
+        if (isActive && !spongeEntity.activation$getDefaultActivationState() && spongeEntity.activation$getActivatedTick() == currentTick
+                && TickBudget.ENTITIES.shouldDefer(entity.world, entity.getEntityId())) {
+            isActive = false;
+        }
+
         return isActive;
     }
 
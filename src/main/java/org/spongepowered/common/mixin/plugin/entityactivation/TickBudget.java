@@ -0,0 +1,118 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.mixin.plugin.entityactivation;
+
+import net.minecraft.world.World;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+/**
+ * Bounds the time spent ticking entities or tile entities of a world during
+ * a tick. Once the budget of the current phase is exhausted, things which are
+ * only active because a player is in range are deferred, except for those in
+ * the bucket of the current tick. Every deferrable thing is in one of the
+ * buckets, so it still ticks at least once every bucket count ticks.
+ *
+ * <p>Only accessed from the server thread.</p>
+ */
+public final class TickBudget {
+
+    public static final TickBudget ENTITIES = new TickBudget();
+    public static final TickBudget TILE_ENTITIES = new TickBudget();
+
+    @Nullable private World world;
+    private long budgetNanos;
+    private int buckets;
+    private long deadline;
+    private long bucket;
+    private long tick = -1;
+    private int deferred;
+    private int lastDeferred;
+
+    private TickBudget() {
+    }
+
+    /**
+     * Starts the budget for the phase of the world which is about to tick.
+     *
+     * @param world The world
+     * @param budgetMillis The budget in milliseconds, or 0 to not bound the
+     *     phase
+     * @param buckets The amount of buckets
+     * @param currentTick The current tick
+     */
+    public void start(final World world, final int budgetMillis, final int buckets, final long currentTick) {
+        this.world = world;
+        this.budgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, budgetMillis));
+        this.buckets = Math.max(1, buckets);
+        this.deadline = System.nanoTime() + this.budgetNanos;
+        this.bucket = currentTick % this.buckets;
+        if (this.tick != currentTick) {
+            this.tick = currentTick;
+            this.lastDeferred = this.deferred;
+            this.deferred = 0;
+        }
+    }
+
+    /**
+     * Gets whether the budget is enabled for the world, in which case low
+     * priority things are also spread across ticks.
+     *
+     * @param world The world
+     * @return Whether the budget is enabled
+     */
+    public boolean isEnabled(final World world) {
+        return this.world == world && this.budgetNanos > 0;
+    }
+
+    /**
+     * Gets whether something with the given id should be deferred to a later
+     * tick, and counts it if so.
+     *
+     * @param world The world ticking
+     * @param id The id used to distribute things across the buckets
+     * @return Whether to defer
+     */
+    public boolean shouldDefer(final World world, final int id) {
+        if (!isEnabled(world) || Math.floorMod(id, this.buckets) == this.bucket || System.nanoTime() < this.deadline) {
+            return false;
+        }
+        this.deferred++;
+        return true;
+    }
+
+    /**
+     * Gets how many things were deferred in all worlds during the last
+     * completed tick.
+     *
+     * @return The amount of deferred things
+     */
+    public int getLastDeferred() {
+        return this.lastDeferred;
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.mixin.plugin.entitycollisions;
+
+import net.minecraft.world.World;
+import org.spongepowered.common.bridge.world.WorldServerBridge;
+import org.spongepowered.common.event.tracking.PhaseContext;
+import org.spongepowered.common.event.tracking.PhaseTracker;
+import org.spongepowered.common.mixin.plugin.entitycollisions.interfaces.CollisionsCapability;
+
+import java.util.List;
+
+public final class EntityCollisions {
+
+    /**
+     * Gets whether another entity may be added to the list of collided
+     * entities, according to the collision limits of the entity currently
+     * being processed.
+     *
+     * @param world The world
+     * @param listToFill The entities collected so far
+     * @return True if another entity may be added
+     */
+    public static boolean allowEntityCollision(final World world, final List<?> listToFill) {
+        if (world instanceof WorldServerBridge) {
+            if (!PhaseTracker.getInstance().getCurrentState().isCollision()) {
+                return true;
+            }
+
+            final PhaseContext<?> phaseContext = PhaseTracker.getInstance().getCurrentContext();
+            final Object source = phaseContext.getSource();
+            if (!(source instanceof CollisionsCapability)) {
+                return true;
+            }
+
+            if (listToFill.size() < world.getGameRules().getInt("maxEntityCramming")) {
+                return true;
+            }
+
+            final CollisionsCapability capability = (CollisionsCapability) source;
+            if (capability.collision$requiresCollisionsCacheRefresh()) {
+                capability.collision$initializeCollisionState(world);
+                capability.collision$requiresCollisionsCacheRefresh(false);
+            }
+
+            return capability.collision$getMaxCollisions() < 0
+                    || listToFill.size() < capability.collision$getMaxCollisions();
+        }
+
+        return true;
+    }
+
+    private EntityCollisions() {
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.mixin.plugin.entitycollisions;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import net.minecraft.entity.Entity;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.MathHelper;
+import org.spongepowered.common.mixin.plugin.entitycollisions.interfaces.CollisionsCapability;
+
+import java.util.function.Predicate;
+
+/**
+ * A uniform grid of 4x4x4 block cells containing the entities of a world by
+ * their bounding box. Entities are moved between cells as their bounding box
+ * changes, so lookups only have to visit the entities of the cells
+ * overlapping the searched box instead of the entities of whole chunk
+ * sections.
+ */
+public final class EntitySpatialHash {
+
+    private static final int CELL_SHIFT = 2;
+    // Entities spanning more cells are kept in a separate list which is checked by every query
+    private static final int MAX_ENTITY_CELLS = 64;
+    // Larger queries are cheaper to answer by the chunk sections
+    private static final int MAX_QUERY_CELLS = 512;
+    private static final int LARGE = 6;
+
+    private final Long2ObjectOpenHashMap<ObjectArrayList<Entity>> cells = new Long2ObjectOpenHashMap<>();
+    private final ObjectArrayList<Entity> largeEntities = new ObjectArrayList<>();
+
+    private static long cellKey(final int x, final int y, final int z) {
+        return (long) (x & 0x3FFFFFF) << 38 | (long) (z & 0x3FFFFFF) << 12 | y & 0xFFF;
+    }
+
+    private static int toCell(final double coordinate) {
+        return MathHelper.floor(coordinate) >> CELL_SHIFT;
+    }
+
+    private static boolean setCells(final int[] cells, final AxisAlignedBB bb) {
+        final int minX = toCell(bb.minX);
+        final int minY = toCell(bb.minY);
+        final int minZ = toCell(bb.minZ);
+        final int maxX = toCell(bb.maxX);
+        final int maxY = toCell(bb.maxY);
+        final int maxZ = toCell(bb.maxZ);
+        if (cells[0] == minX && cells[1] == minY && cells[2] == minZ && cells[3] == maxX && cells[4] == maxY && cells[5] == maxZ) {
+            return false;
+        }
+        cells[0] = minX;
+        cells[1] = minY;
+        cells[2] = minZ;
+        cells[3] = maxX;
+        cells[4] = maxY;
+        cells[5] = maxZ;
+        final long count = (long) (maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1);
+        cells[LARGE] = count > MAX_ENTITY_CELLS ? 1 : 0;
+        return true;
+    }
+
+    public void add(final Entity entity) {
+        final CollisionsCapability capability = (CollisionsCapability) entity;
+        final EntitySpatialHash previous = capability.collision$getSpatialHash();
+        if (previous == this) {
+            return;
+        }
+        if (previous != null) {
+            // Still registered with the world the entity came from
+            previous.remove(entity);
+        }
+        int[] cells = capability.collision$getSpatialCells();
+        if (cells == null) {
+            cells = new int[LARGE + 1];
+            capability.collision$setSpatialCells(cells);
+        }
+        setCells(cells, entity.getEntityBoundingBox());
+        capability.collision$setSpatialHash(this);
+        this.insert(entity, cells);
+    }
+
+    /**
+     * Moves the entity to the cells of its current bounding box.
+     *
+     * @param entity The entity
+     */
+    public void update(final Entity entity) {
+        final int[] cells = ((CollisionsCapability) entity).collision$getSpatialCells();
+        final int minX = cells[0];
+        final int minY = cells[1];
+        final int minZ = cells[2];
+        final int maxX = cells[3];
+        final int maxY = cells[4];
+        final int maxZ = cells[5];
+        final boolean large = cells[LARGE] != 0;
+        if (!setCells(cells, entity.getEntityBoundingBox())) {
+            return;
+        }
+        this.delete(entity, minX, minY, minZ, maxX, maxY, maxZ, large);
+        this.insert(entity, cells);
+    }
+
+    public void remove(final Entity entity) {
+        final CollisionsCapability capability = (CollisionsCapability) entity;
+        if (capability.collision$getSpatialHash() != this) {
+            return;
+        }
+        final int[] cells = capability.collision$getSpatialCells();
+        this.delete(entity, cells[0], cells[1], cells[2], cells[3], cells[4], cells[5], cells[LARGE] != 0);
+        capability.collision$setSpatialHash(null);
+    }
+
+    private void insert(final Entity entity, final int[] cells) {
+        if (cells[LARGE] != 0) {
+            this.largeEntities.add(entity);
+            return;
+        }
+        for (int x = cells[0]; x <= cells[3]; x++) {
+            for (int z = cells[2]; z <= cells[5]; z++) {
+                for (int y = cells[1]; y <= cells[4]; y++) {
+                    this.cells.computeIfAbsent(cellKey(x, y, z), key -> new ObjectArrayList<>()).add(entity);
+                }
+            }
+        }
+    }
+
+    private void delete(final Entity entity, final int minX, final int minY, final int minZ, final int maxX, final int maxY, final int maxZ,
+        final boolean large) {
+        if (large) {
+            this.largeEntities.remove(entity);
+            return;
+        }
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int y = minY; y <= maxY; y++) {
+                    final long key = cellKey(x, y, z);
+                    final ObjectArrayList<Entity> entities = this.cells.get(key);
+                    if (entities != null && entities.remove(entity) && entities.isEmpty()) {
+                        this.cells.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets whether the given box is small enough to be looked up in this
+     * hash.
+     *
+     * @param bb The box
+     * @return True if the box can be looked up
+     */
+    public boolean canQuery(final AxisAlignedBB bb) {
+        final long count = (long) (toCell(bb.maxX) - toCell(bb.minX) + 1) * (toCell(bb.maxY) - toCell(bb.minY) + 1)
+            * (toCell(bb.maxZ) - toCell(bb.minZ) + 1);
+        return count <= MAX_QUERY_CELLS;
+    }
+
+    /**
+     * Visits every entity whose cells overlap the cells of the given box
+     * exactly once. The entities are not checked against the box itself.
+     *
+     * @param bb The box to look up
+     * @param visitor The visitor, returning false stops the lookup
+     */
+    public void forEachCandidate(final AxisAlignedBB bb, final Predicate<Entity> visitor) {
+        final int minX = toCell(bb.minX);
+        final int minY = toCell(bb.minY);
+        final int minZ = toCell(bb.minZ);
+        final int maxX = toCell(bb.maxX);
+        final int maxY = toCell(bb.maxY);
+        final int maxZ = toCell(bb.maxZ);
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int y = minY; y <= maxY; y++) {
+                    final ObjectArrayList<Entity> entities = this.cells.get(cellKey(x, y, z));
+                    if (entities == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < entities.size(); i++) {
+                        final Entity entity = entities.get(i);
+                        final int[] cells = ((CollisionsCapability) entity).collision$getSpatialCells();
+                        // Only visit an entity spanning multiple cells in the first cell shared with the box
+                        if (x != Math.max(cells[0], minX) || y != Math.max(cells[1], minY) || z != Math.max(cells[2], minZ)) {
+                            continue;
+                        }
+                        if (!visitor.test(entity)) {
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < this.largeEntities.size(); i++) {
+            if (!visitor.test(this.largeEntities.get(i))) {
+                return;
+            }
+        }
+    }
+}
@@ -25,6 +25,9 @@
 package org.spongepowered.common.mixin.plugin.entitycollisions.interfaces;
 
 import net.minecraft.world.World;
+import org.spongepowered.common.mixin.plugin.entitycollisions.EntitySpatialHash;
+
+import javax.annotation.Nullable;
 
 public interface CollisionsCapability {
 
@@ -46,4 +49,12 @@ public interface CollisionsCapability {
 
     void collision$setModDataId(String id);
 
+    @Nullable EntitySpatialHash collision$getSpatialHash();
+
+    void collision$setSpatialHash(@Nullable EntitySpatialHash spatialHash);
+
+    @Nullable int[] collision$getSpatialCells();
+
+    void collision$setSpatialCells(int[] cells);
+
 }
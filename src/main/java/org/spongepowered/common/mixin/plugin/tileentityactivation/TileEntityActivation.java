@@ -49,6 +49,7 @@
 import org.spongepowered.common.data.type.SpongeTileEntityType;
 import org.spongepowered.common.mixin.core.server.management.PlayerChunkMapAccessor;
 import org.spongepowered.common.mixin.core.server.management.PlayerChunkMapEntryAccessor;
+import org.spongepowered.common.mixin.plugin.entityactivation.TickBudget;
 import org.spongepowered.common.mixin.plugin.entityactivation.interfaces.ActivationCapability;
 import org.spongepowered.common.util.VecHelper;
 
@@ -131,6 +132,9 @@ public static void initializeTileEntityActivationState(final TileEntity tileEnti
     * @param world The world to perform activation checks in
     */
     public static void activateTileEntities(final WorldServer world) {
+        final TileEntityActivationCategory config =
+            ((WorldInfoBridge) world.getWorldInfo()).bridge$getConfigAdapter().getConfig().getTileEntityActivationRange();
+        TickBudget.TILE_ENTITIES.start(world, config.getTickBudget(), config.getTickBuckets(), SpongeImpl.getServer().getTickCounter());
         final PlayerChunkMap playerChunkMap = world.getPlayerChunkMap();
         for (final PlayerChunkMapEntry playerChunkMapEntry : ((PlayerChunkMapAccessor) playerChunkMap).accessor$getEntries()) {
             final Chunk chunk = ((PlayerChunkMapEntryAccessor) playerChunkMapEntry).accessor$getChunk();
@@ -223,8 +227,15 @@ public static boolean checkIfActive(final TileEntity tileEntity) {
             }
         }
 
-        // check tick rate
-        if (isActive && world.getWorldInfo().getWorldTotalTime() % spongeTileEntity.activation$getSpongeTickRate() != 0L) {
+        // check tick rate, spreading tileentities with the same tick rate across ticks with a tick budget
+        final long tickOffset = TickBudget.TILE_ENTITIES.isEnabled(world) ? tileEntity.getPos().hashCode() : 0;
+        if (isActive && (world.getWorldInfo().getWorldTotalTime() + tickOffset) % spongeTileEntity.activation$getSpongeTickRate() != 0L) {
+            isActive = false;
+        }
+
+        // Defer tileentities only in range of a player once the tick budget is exhausted
+        if (isActive && !activeChunk.bridge$isPersistedChunk() && !spongeTileEntity.activation$getDefaultActivationState()
+                && TickBudget.TILE_ENTITIES.shouldDefer(world, tileEntity.getPos().hashCode())) {
             isActive = false;
         }
 
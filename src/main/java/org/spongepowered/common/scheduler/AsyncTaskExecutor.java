@@ -0,0 +1,286 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.scheduler;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableMap;
+import org.spongepowered.api.plugin.PluginContainer;
+import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.config.category.AsyncSchedulerCategory;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+/**
+ * Runs the asynchronous tasks of plugins on a bounded work stealing pool.
+ * Every plugin may only run a limited amount of tasks at the same time, the
+ * remaining tasks are queued per plugin until one of its running tasks
+ * completes.
+ *
+ * <p>The pool never adds threads to compensate for tasks blocking on IO, so
+ * the thread count stays at the configured parallelism. A plugin blocking
+ * every one of its tasks occupies at most its quota of threads, tasks mostly
+ * waiting on IO are better run on virtual threads. Sponge's own tasks run on
+ * a separate pool, so plugins occupying every thread can't hold them back.</p>
+ */
+final class AsyncTaskExecutor {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 5;
+
+    private final ExecutorService pool;
+    private final ExecutorService internalPool;
+    private final boolean virtualThreads;
+    private final int maxConcurrentTasksPerPlugin;
+    private final Map<PluginContainer, PluginTasks> tasksByPlugin = new ConcurrentHashMap<>();
+    private final AtomicLong completedTasks = new AtomicLong();
+
+    AsyncTaskExecutor(AsyncSchedulerCategory category) {
+        @Nullable ExecutorService virtualThreadPool = null;
+        if (category.useVirtualThreads()) {
+            virtualThreadPool = createVirtualThreadPool();
+        }
+        if (virtualThreadPool != null) {
+            // Virtual threads are cheap enough to share them with Sponge's tasks
+            this.pool = virtualThreadPool;
+            this.internalPool = virtualThreadPool;
+            this.virtualThreads = true;
+        } else {
+            this.pool = createWorkStealingPool("Sponge Async Scheduler Worker", category.getParallelism());
+            this.internalPool = createPlatformThreadPool("Sponge Async Worker", category.getMaxInternalThreads());
+            this.virtualThreads = false;
+        }
+        this.maxConcurrentTasksPerPlugin = category.getMaxConcurrentTasksPerPlugin();
+    }
+
+    private static ExecutorService createWorkStealingPool(String name, int parallelism) {
+        final AtomicInteger threadId = new AtomicInteger();
+        // Async mode runs the submitted tasks in FIFO order
+        return new ForkJoinPool(parallelism, forkJoinPool -> {
+            final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName(name + " - " + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, (t, throwable) -> SpongeImpl.getLogger().error("An uncaught exception occurred in {}", t.getName(), throwable), true);
+    }
+
+    private static ExecutorService createPlatformThreadPool(String name, int maxThreads) {
+        final AtomicInteger threadId = new AtomicInteger();
+        // Threads are only started while fewer than the maximum exist, idle ones
+        // stop again after a while
+        final ThreadPoolExecutor pool = new ThreadPoolExecutor(maxThreads, maxThreads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    final Thread thread = new Thread(runnable, name + " - " + threadId.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setUncaughtExceptionHandler((t, throwable) ->
+                            SpongeImpl.getLogger().error("An uncaught exception occurred in {}", t.getName(), throwable));
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    @Nullable
+    private static ExecutorService createVirtualThreadPool() {
+        try {
+            // Only available since Java 21, so look it up reflectively
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            SpongeImpl.getLogger().warn("Virtual threads were enabled for the async scheduler, but are not supported by this "
+                    + "Java runtime. Falling back to a platform thread pool.");
+            return null;
+        }
+    }
+
+    /**
+     * Submits the runnable on behalf of the given plugin, it will be queued if
+     * the plugin already reached its concurrent task quota.
+     *
+     * @param plugin The plugin owning the task
+     * @param runnable The runnable to execute
+     */
+    void execute(PluginContainer plugin, Runnable runnable) {
+        checkNotNull(runnable, "runnable");
+        final PluginTasks tasks = this.tasksByPlugin.computeIfAbsent(checkNotNull(plugin, "plugin"), PluginTasks::new);
+        if (tasks.tryStart(runnable)) {
+            this.pool.execute(() -> run(tasks, runnable));
+        }
+    }
+
+    /**
+     * Submits a task of Sponge itself, which is run on the internal pool and
+     * doesn't count towards the quota of any plugin.
+     *
+     * @param runnable The runnable to execute
+     */
+    void executeInternal(Runnable runnable) {
+        checkNotNull(runnable, "runnable");
+        this.internalPool.execute(() -> {
+            try {
+                runnable.run();
+            } catch (Throwable t) {
+                SpongeImpl.getLogger().error("An asynchronous task of Sponge threw an exception", t);
+            }
+            this.completedTasks.incrementAndGet();
+        });
+    }
+
+    private void run(PluginTasks tasks, Runnable runnable) {
+        Runnable next = runnable;
+        // Continue with the queued tasks of the plugin on this thread, which
+        // keeps the amount of running tasks of the plugin constant
+        while (next != null) {
+            try {
+                next.run();
+            } catch (Throwable t) {
+                SpongeImpl.getLogger().error("An asynchronous task owned by {} threw an exception", tasks.plugin.getId(), t);
+            }
+            this.completedTasks.incrementAndGet();
+            next = tasks.completeAndPollNext();
+        }
+    }
+
+    /**
+     * Stops accepting new tasks and waits a few seconds for the running ones
+     * to complete, tasks still queued after that are dropped.
+     */
+    void shutdown() {
+        this.pool.shutdown();
+        this.internalPool.shutdown();
+        try {
+            if (!this.pool.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                this.pool.shutdownNow();
+            }
+            if (!this.internalPool.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                this.internalPool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            this.pool.shutdownNow();
+            this.internalPool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    boolean isShutdown() {
+        return this.pool.isShutdown();
+    }
+
+    boolean usesVirtualThreads() {
+        return this.virtualThreads;
+    }
+
+    /**
+     * Gets the amount of tasks waiting to be run, both in the quota queues of
+     * the plugins and in the pools themselves.
+     *
+     * @return The amount of queued tasks
+     */
+    long getQueueDepth() {
+        long depth = getQueued(this.pool);
+        if (this.internalPool != this.pool) {
+            depth += getQueued(this.internalPool);
+        }
+        for (PluginTasks tasks : this.tasksByPlugin.values()) {
+            depth += tasks.getQueued();
+        }
+        return depth;
+    }
+
+    private static long getQueued(ExecutorService pool) {
+        if (pool instanceof ForkJoinPool) {
+            return ((ForkJoinPool) pool).getQueuedSubmissionCount() + ((ForkJoinPool) pool).getQueuedTaskCount();
+        }
+        return pool instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) pool).getQueue().size() : 0;
+    }
+
+    /**
+     * Gets the amount of tasks held back by the quota of each plugin that
+     * currently has queued tasks.
+     *
+     * @return The amount of queued tasks by plugin
+     */
+    Map<PluginContainer, Integer> getQueuedTasksByPlugin() {
+        final ImmutableMap.Builder<PluginContainer, Integer> builder = ImmutableMap.builder();
+        for (PluginTasks tasks : this.tasksByPlugin.values()) {
+            final int queued = tasks.getQueued();
+            if (queued > 0) {
+                builder.put(tasks.plugin, queued);
+            }
+        }
+        return builder.build();
+    }
+
+    long getCompletedTasks() {
+        return this.completedTasks.get();
+    }
+
+    private final class PluginTasks {
+
+        final PluginContainer plugin;
+        private final Queue<Runnable> queued = new ArrayDeque<>();
+        private int running;
+
+        PluginTasks(PluginContainer plugin) {
+            this.plugin = plugin;
+        }
+
+        synchronized boolean tryStart(Runnable runnable) {
+            if (this.running < AsyncTaskExecutor.this.maxConcurrentTasksPerPlugin) {
+                this.running++;
+                return true;
+            }
+            this.queued.add(runnable);
+            return false;
+        }
+
+        @Nullable
+        synchronized Runnable completeAndPollNext() {
+            final Runnable next = this.queued.poll();
+            if (next == null) {
+                this.running--;
+            }
+            return next;
+        }
+
+        synchronized int getQueued() {
+            return this.queued.size();
+        }
+    }
+
+}
@@ -31,6 +31,7 @@
 
 import org.spongepowered.api.plugin.PluginContainer;
 import org.spongepowered.api.scheduler.Task;
+import org.spongepowered.common.SpongeImpl;
 
 import java.util.UUID;
 import java.util.function.Consumer;
@@ -48,6 +49,9 @@ public class ScheduledTask implements Task {
     private final PluginContainer owner;
     private final Consumer<Task> consumer;
     private long timestamp;
+    // The next execution timestamp at the time the task was queued, used to
+    // order the scheduler queues as it may not change while queued
+    private long queuedTimestamp;
 
     // As this state is going to be read by multiple threads
     // potentially very quickly, marking this a volatile will
@@ -141,6 +145,8 @@ public boolean cancel() {
             success = true;
         }
         this.setState(ScheduledTask.ScheduledTaskState.CANCELED);
+        // Gone from the lookups right away, the queues drop it lazily
+        SpongeImpl.getScheduler().cancelled(this);
         return success;
     }
 
@@ -186,6 +192,14 @@ void setTimestamp(long timestamp) {
         this.timestamp = timestamp;
     }
 
+    long getQueuedTimestamp() {
+        return this.queuedTimestamp;
+    }
+
+    void setQueuedTimestamp(long queuedTimestamp) {
+        this.queuedTimestamp = queuedTimestamp;
+    }
+
     ScheduledTaskState getState() {
         return this.state;
     }
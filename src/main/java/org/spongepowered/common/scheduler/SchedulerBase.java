@@ -35,17 +35,36 @@
 import org.spongepowered.common.event.tracking.PhaseContext;
 import org.spongepowered.common.event.tracking.phase.plugin.PluginPhase;
 
+import java.util.Comparator;
 import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Predicate;
 
 import javax.annotation.Nullable;
 
 abstract class SchedulerBase {
 
-    // The simple queue of all pending (and running) ScheduledTasks
+    // The number of ticks after which cancelled tasks that are not due yet are
+    // purged from the queues, they are removed from the task map on cancel
+    private static final int CANCELLED_PURGE_INTERVAL = 200;
+    private static final Comparator<ScheduledTask> NEXT_EXECUTION_ORDER = Comparator.comparingLong(ScheduledTask::getQueuedTimestamp);
+
+    // All pending (and running) ScheduledTasks, used for lookups
     private final Map<UUID, ScheduledTask> taskMap = Maps.newConcurrentMap();
+    // Tasks which have been added or have completed since the last tick, and
+    // still have to be put into one of the queues by the ticking thread
+    private final Queue<ScheduledTask> pendingTasks = new ConcurrentLinkedQueue<>();
+    // The queues of tasks ordered by their next execution timestamp, only
+    // accessed by the ticking thread. Tasks have to be in the queue matching
+    // the timestamp type returned by getTimestamp.
+    private final PriorityQueue<ScheduledTask> tickQueue = new PriorityQueue<>(NEXT_EXECUTION_ORDER);
+    private final PriorityQueue<ScheduledTask> timeQueue = new PriorityQueue<>(NEXT_EXECUTION_ORDER);
+    private int ticksSinceCancelledPurge;
     private long sequenceNumber = 0L;
     private final String taskNameFmt;
 
@@ -72,6 +91,17 @@ protected long getTimestamp(ScheduledTask task) {
         return System.nanoTime();
     }
 
+    /**
+     * Gets whether the current timestamp of the task, as returned by
+     * {@link #getTimestamp(ScheduledTask)}, is expressed in ticks.
+     *
+     * @param task The task
+     * @return Whether the timestamp is expressed in ticks
+     */
+    protected boolean isTickTimestamp(ScheduledTask task) {
+        return false;
+    }
+
     /**
      * Adds the task to the task map, will attempt to process the task on the
      * next call to {@link #runTick}.
@@ -81,6 +111,7 @@ protected long getTimestamp(ScheduledTask task) {
     protected void addTask(ScheduledTask task) {
         task.setTimestamp(this.getTimestamp(task));
         this.taskMap.put(task.getUniqueId(), task);
+        this.pendingTasks.add(task);
     }
 
     /**
@@ -103,13 +134,33 @@ protected Set<Task> getScheduledTasks() {
     }
 
     /**
-     * Process all tasks in the map.
+     * Gets the amount of nanoseconds until the next real time based task is
+     * due. May only be called by the ticking thread.
+     *
+     * @return The nanoseconds until the next task, or {@link Long#MAX_VALUE} if there is none
+     */
+    protected long getNanosUntilNextTask() {
+        if (!this.pendingTasks.isEmpty()) {
+            return 0L;
+        }
+        final ScheduledTask next = this.timeQueue.peek();
+        if (next == null) {
+            return this.tickQueue.isEmpty() ? Long.MAX_VALUE : SpongeScheduler.TICK_DURATION_NS;
+        }
+        return Math.max(0L, next.getQueuedTimestamp() - System.nanoTime());
+    }
+
+    /**
+     * Process all the tasks that are due.
      */
     protected final void runTick() {
         this.preTick();
         TimingsManager.PLUGIN_SCHEDULER_HANDLER.startTimingIfSync();
         try {
-            this.taskMap.values().forEach(this::processTask);
+            this.enqueuePendingTasks();
+            this.purgeCancelledTasks();
+            this.processDueTasks(this.tickQueue);
+            this.processDueTasks(this.timeQueue);
             this.postTick();
         } finally {
             this.finallyPostTick();
@@ -117,6 +168,53 @@ protected final void runTick() {
         TimingsManager.PLUGIN_SCHEDULER_HANDLER.stopTimingIfSync();
     }
 
+    private void enqueuePendingTasks() {
+        ScheduledTask task;
+        while ((task = this.pendingTasks.poll()) != null) {
+            if (task.getState() == ScheduledTask.ScheduledTaskState.CANCELED) {
+                this.removeTask(task);
+                continue;
+            }
+            task.setQueuedTimestamp(task.nextExecutionTimestamp());
+            (this.isTickTimestamp(task) ? this.tickQueue : this.timeQueue).add(task);
+        }
+    }
+
+    private void purgeCancelledTasks() {
+        if (++this.ticksSinceCancelledPurge < CANCELLED_PURGE_INTERVAL) {
+            return;
+        }
+        this.ticksSinceCancelledPurge = 0;
+        final Predicate<ScheduledTask> cancelled = task -> {
+            if (task.getState() == ScheduledTask.ScheduledTaskState.CANCELED) {
+                this.removeTask(task);
+                return true;
+            }
+            return false;
+        };
+        this.tickQueue.removeIf(cancelled);
+        this.timeQueue.removeIf(cancelled);
+    }
+
+    private void processDueTasks(PriorityQueue<ScheduledTask> queue) {
+        ScheduledTask task;
+        while ((task = queue.peek()) != null) {
+            // If the task is now slated to be cancelled, we just remove it as if it
+            // no longer exists.
+            if (task.getState() == ScheduledTask.ScheduledTaskState.CANCELED) {
+                queue.poll();
+                this.removeTask(task);
+                continue;
+            }
+            // The queue is ordered, so if this task isn't due none of the following are
+            if (task.getQueuedTimestamp() > this.getTimestamp(task)) {
+                return;
+            }
+            queue.poll();
+            this.processTask(task);
+        }
+    }
+
     /**
      * Fired when the scheduler begins to tick, before any tasks are processed.
      */
@@ -137,45 +235,18 @@ protected void finallyPostTick() {
     }
 
     /**
-     * Processes the task.
+     * Processes a task that is due. Repeating tasks are queued again once
+     * they completed.
      *
      * @param task The task to process
      */
     protected void processTask(ScheduledTask task) {
-        // If the task is now slated to be cancelled, we just remove it as if it
-        // no longer exists.
-        if (task.getState() == ScheduledTask.ScheduledTaskState.CANCELED) {
+        task.setState(ScheduledTask.ScheduledTaskState.SWITCHING);
+        task.setTimestamp(this.getTimestamp(task));
+        startTask(task);
+        // If task is one time shot, remove it from the map.
+        if (task.period == 0L) {
             this.removeTask(task);
-            return;
-        }
-        // If the task is already being processed, we wait for the previous
-        // occurrence to terminate.
-        if (task.getState() == ScheduledTask.ScheduledTaskState.EXECUTING) {
-            return;
-        }
-        long threshold = Long.MAX_VALUE;
-        // Figure out if we start a delayed Task after threshold ticks or, start
-        // it after the interval (period) of the repeating task parameter.
-        if (task.getState() == ScheduledTask.ScheduledTaskState.WAITING) {
-            threshold = task.offset;
-        } else if (task.getState() == ScheduledTask.ScheduledTaskState.RUNNING) {
-            threshold = task.period;
-        }
-        // This moment is 'now'
-        long now = this.getTimestamp(task);
-        // So, if the current time minus the timestamp of the task is greater
-        // than the delay to wait before starting the task, then start the task.
-        // Repeating tasks get a reset-timestamp each time they are set RUNNING
-        // If the task has a period of 0 (zero) this task will not repeat, and
-        // is removed after we start it.
-        if (threshold <= (now - task.getTimestamp())) {
-            task.setState(ScheduledTask.ScheduledTaskState.SWITCHING);
-            task.setTimestamp(this.getTimestamp(task));
-            startTask(task);
-            // If task is one time shot, remove it from the map.
-            if (task.period == 0L) {
-                this.removeTask(task);
-            }
         }
     }
 
@@ -201,6 +272,12 @@ protected void startTask(final ScheduledTask task) {
                 }
             } finally {
                 task.setState(ScheduledTask.ScheduledTaskState.RUNNING);
+                if (task.getState() == ScheduledTask.ScheduledTaskState.CANCELED) {
+                    this.removeTask(task);
+                } else if (task.period != 0L) {
+                    // Queued before the completion is signalled, so the scheduler sees it when waking up
+                    this.pendingTasks.add(task);
+                }
                 onTaskCompletion(task);
             }
         });
@@ -43,6 +43,7 @@
 import org.spongepowered.common.bridge.entity.player.InventoryPlayerBridge;
 
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -182,6 +183,10 @@ void submit(ScheduledTask task) {
         getDelegate(task).addTask(task);
     }
 
+    void cancelled(ScheduledTask task) {
+        getDelegate(task).removeTask(task);
+    }
+
     /**
      * Ticks the synchronous scheduler.
      */
@@ -198,6 +203,43 @@ public void tickSyncScheduler() {
         }
     }
 
+    /**
+     * Gets the amount of asynchronous tasks waiting for a thread, including
+     * the tasks held back by the per plugin quotas.
+     *
+     * @return The amount of queued asynchronous tasks
+     */
+    public long getAsyncQueueDepth() {
+        return this.asyncScheduler.getTaskExecutor().getQueueDepth();
+    }
+
+    /**
+     * Gets the amount of asynchronous tasks that completed since the server
+     * started.
+     *
+     * @return The amount of completed asynchronous tasks
+     */
+    public long getCompletedAsyncTasks() {
+        return this.asyncScheduler.getTaskExecutor().getCompletedTasks();
+    }
+
+    /**
+     * Gets the amount of asynchronous tasks held back by the quota of each
+     * plugin that currently has queued tasks.
+     *
+     * @return The amount of queued asynchronous tasks by plugin
+     */
+    public Map<PluginContainer, Integer> getAsyncQueueDepthByPlugin() {
+        return this.asyncScheduler.getTaskExecutor().getQueuedTasksByPlugin();
+    }
+
+    /**
+     * Stops running asynchronous tasks once the game stopped.
+     */
+    public void shutdownAsyncScheduler() {
+        this.asyncScheduler.shutdown();
+    }
+
     public <T> CompletableFuture<T> submitAsyncTask(Callable<T> callable) {
         return Functional.asyncFailableFuture(callable, this.asyncScheduler.getExecutor());
     }
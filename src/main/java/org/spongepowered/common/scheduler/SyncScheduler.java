@@ -65,6 +65,14 @@ protected long getTimestamp(ScheduledTask task) {
         return 0L;
     }
 
+    @Override
+    protected boolean isTickTimestamp(ScheduledTask task) {
+        if (task.getState() == ScheduledTask.ScheduledTaskState.WAITING) {
+            return task.delayIsTicks;
+        }
+        return task.intervalIsTicks;
+    }
+
     @Override
     protected void executeTaskRunnable(ScheduledTask task, Runnable runnable) {
         try (BasicPluginContext context = createContext(task)) {
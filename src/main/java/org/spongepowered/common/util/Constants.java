@@ -159,6 +159,11 @@ public static final class Sponge {
         public static final String SPONGE_ENTITY_CREATOR = "Creator";
         public static final String SPONGE_ENTITY_NOTIFIER = "Notifier";
         public static final String SPONGE_BLOCK_POS_TABLE = "BlockPosTable";
+        public static final String SPONGE_TRACKER_PALETTE = "TrackerPalette";
+        public static final String SPONGE_TRACKER_SECTIONS = "TrackerSections";
+        public static final String SPONGE_TRACKER_SECTION_Y = "Y";
+        public static final String SPONGE_TRACKER_SECTION_INDICES = "Indices";
+        public static final String SPONGE_TRACKER_POSITIONS = "TrackerPositions";
         public static final String SPONGE_PLAYER_UUID_TABLE = "PlayerIdTable";
         public static final String CUSTOM_MANIPULATOR_TAG_LIST = "CustomManipulators";
         public static final DataQuery CUSTOM_MANIPULATOR_LIST = of(CUSTOM_MANIPULATOR_TAG_LIST);
@@ -25,9 +25,9 @@
 package org.spongepowered.common.util.gen;
 
 import com.flowpowered.math.vector.Vector3i;
-import net.minecraft.util.math.MathHelper;
 import org.spongepowered.api.block.BlockState;
 import org.spongepowered.api.block.BlockTypes;
+import org.spongepowered.api.data.persistence.InvalidDataException;
 import org.spongepowered.api.util.DiscreteTransform3;
 import org.spongepowered.api.world.extent.ImmutableBlockVolume;
 import org.spongepowered.api.world.extent.MutableBlockVolume;
@@ -35,16 +35,16 @@
 import org.spongepowered.api.world.extent.UnmodifiableBlockVolume;
 import org.spongepowered.api.world.extent.worker.MutableBlockVolumeWorker;
 import org.spongepowered.api.world.schematic.Palette;
-import org.spongepowered.api.world.schematic.PaletteTypes;
 import org.spongepowered.common.world.extent.MutableBlockViewDownsize;
 import org.spongepowered.common.world.extent.MutableBlockViewTransform;
 import org.spongepowered.common.world.extent.UnmodifiableBlockVolumeWrapper;
 import org.spongepowered.common.world.extent.worker.SpongeMutableBlockVolumeWorker;
-import org.spongepowered.common.world.schematic.BimapPalette;
 import org.spongepowered.common.world.schematic.BlockPaletteWrapper;
 import org.spongepowered.common.world.schematic.GlobalPalette;
+import org.spongepowered.common.world.schematic.LocalBlockPalette;
 
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Objects;
 
 public class ArrayMutableBlockBuffer extends AbstractBlockBuffer implements MutableBlockVolume {
@@ -65,7 +65,7 @@ public class ArrayMutableBlockBuffer extends AbstractBlockBuffer implements Muta
     @SuppressWarnings("deprecation")
     public ArrayMutableBlockBuffer(Vector3i start, Vector3i size) {
         this(size.getX() * size.getY() * size.getZ() > SMALL_AREA_THRESHOLD ?
-             new BlockPaletteWrapper(new BimapPalette<>(PaletteTypes.LOCAL_BLOCKS), org.spongepowered.api.world.schematic.BlockPaletteTypes.LOCAL) : GlobalPalette.getBlockPalette(), start, size);
+             new BlockPaletteWrapper(new LocalBlockPalette(), org.spongepowered.api.world.schematic.BlockPaletteTypes.LOCAL) : GlobalPalette.getBlockPalette(), start, size);
     }
 
     public ArrayMutableBlockBuffer(Palette<BlockState> palette, Vector3i start, Vector3i size) {
@@ -104,6 +104,122 @@ public ArrayMutableBlockBuffer(Palette<BlockState> palette, Vector3i start, Vect
         this.data = blocks;
     }
 
+    /**
+     * Creates a buffer from block data encoded the way schematics store it,
+     * one varint palette id per block ordered by y, then z, then x. The ids
+     * are written straight into the packed storage without resolving the
+     * block states they stand for.
+     *
+     * @param palette The palette the ids belong to
+     * @param start The start block position
+     * @param size The block size
+     * @param blockData The encoded block data
+     * @return The new buffer
+     * @throws InvalidDataException If the data is corrupted or does not match the size
+     */
+    public static ArrayMutableBlockBuffer fromVarIntData(Palette<BlockState> palette, Vector3i start, Vector3i size, byte[] blockData) {
+        final int width = size.getX();
+        final int length = size.getZ();
+        final int yLine = size.getY();
+        final int yzSlice = yLine * length;
+        final int area = width * yzSlice;
+        final int airId = palette.getOrAssign(AIR);
+        final int highestId = palette.getHighestId();
+        final BitSet known = new BitSet(highestId + 1);
+        for (int id = 0; id <= highestId; id++) {
+            if (palette.get(id).isPresent()) {
+                known.set(id);
+            }
+        }
+        final PackedBackingData data = new PackedBackingData(area, highestId);
+        int x = 0;
+        int y = 0;
+        int z = 0;
+        int count = 0;
+        int i = 0;
+        while (i < blockData.length) {
+            int value = 0;
+            int varintLength = 0;
+            while (true) {
+                if (i == blockData.length) {
+                    throw new InvalidDataException("VarInt data ends in the middle of a value");
+                }
+                value |= (blockData[i] & 127) << (varintLength++ * 7);
+                if (varintLength > 5) {
+                    throw new InvalidDataException("VarInt too big (probably corrupted data)");
+                }
+                if ((blockData[i++] & 128) != 128) {
+                    break;
+                }
+            }
+            if (count == area) {
+                throw new InvalidDataException("Block data is longer than the volume of " + size);
+            }
+            // A fifth byte can set the sign bit, which no palette id has
+            if (value < 0 || !known.get(value)) {
+                throw new InvalidDataException("Block data refers to the unknown palette id " + value);
+            }
+            data.set(x * yzSlice + z * yLine + y, value);
+            count++;
+            if (++x == width) {
+                x = 0;
+                if (++z == length) {
+                    z = 0;
+                    y++;
+                }
+            }
+        }
+        if (airId != 0) {
+            // Anything the data did not cover stays air
+            for (; count < area; count++) {
+                data.set(x * yzSlice + z * yLine + y, airId);
+                if (++x == width) {
+                    x = 0;
+                    if (++z == length) {
+                        z = 0;
+                        y++;
+                    }
+                }
+            }
+        }
+        return new ArrayMutableBlockBuffer(palette, data, start, size);
+    }
+
+    /**
+     * Encodes the blocks of this buffer the way schematics store them, using
+     * the ids of {@link #getPalette()}.
+     *
+     * @return The encoded block data
+     */
+    public byte[] toVarIntData() {
+        final int width = this.size.getX();
+        final int height = this.size.getY();
+        final int length = this.size.getZ();
+        final int area = area();
+        // Size the array up front instead of growing a stream and copying it
+        int bytes = 0;
+        for (int index = 0; index < area; index++) {
+            final int id = this.data.get(index);
+            bytes += id < (1 << 7) ? 1 : id < (1 << 14) ? 2 : id < (1 << 21) ? 3 : id < (1 << 28) ? 4 : 5;
+        }
+        final byte[] blockData = new byte[bytes];
+        final int yzSlice = height * length;
+        int i = 0;
+        for (int y = 0; y < height; y++) {
+            for (int z = 0; z < length; z++) {
+                for (int x = 0; x < width; x++) {
+                    int id = this.data.get(x * yzSlice + z * height + y);
+                    while ((id & -128) != 0) {
+                        blockData[i++] = (byte) (id & 127 | 128);
+                        id >>>= 7;
+                    }
+                    blockData[i++] = (byte) id;
+                }
+            }
+        }
+        return blockData;
+    }
+
     @Override
     public Palette<BlockState> getPalette() {
         return this.palette;
@@ -306,11 +422,12 @@ static class PackedBackingData implements BackingData {
         public PackedBackingData(int size, int highestValue) {
             this.arraySize = size;
             int bits;
-            for (bits = 0; 1 << bits <= highestValue; bits++);
+            // At least one bit, an empty long array can not hold the id 0 either
+            for (bits = 1; 1 << bits <= highestValue; bits++);
             this.bits = bits;
 
             this.maxValue = (1 << bits) - 1;
-            this.longArray = new long[MathHelper.roundUp(size * bits, Long.SIZE) / Long.SIZE];
+            this.longArray = new long[(int) (((long) size * bits + Long.SIZE - 1) / Long.SIZE)];
         }
 
         private PackedBackingData(int size, int bits, long[] array) {
@@ -322,9 +439,10 @@ private PackedBackingData(int size, int bits, long[] array) {
 
         @Override
         public void set(int index, int value) {
-            int bitIndex = index * this.bits;
-            int longIndex = bitIndex / Long.SIZE;
-            int bitOffset = bitIndex % Long.SIZE;
+            // Large volumes overflow an int bit index
+            long bitIndex = (long) index * this.bits;
+            int longIndex = (int) (bitIndex / Long.SIZE);
+            int bitOffset = (int) (bitIndex % Long.SIZE);
 
             this.longArray[longIndex] = this.longArray[longIndex] & ~(this.maxValue << bitOffset) | (long) value << bitOffset;
 
@@ -339,10 +457,10 @@ public void set(int index, int value) {
 
         @Override
         public int get(int index) {
-            int bitIndex = index * this.bits;
-            int longIndex = bitIndex / Long.SIZE;
-            int rightLongIndex = (bitIndex + this.bits - 1) / 64;
-            int bitOffset = bitIndex % 64;
+            long bitIndex = (long) index * this.bits;
+            int longIndex = (int) (bitIndex / Long.SIZE);
+            int rightLongIndex = (int) ((bitIndex + this.bits - 1) / Long.SIZE);
+            int bitOffset = (int) (bitIndex % Long.SIZE);
 
             if (bitOffset + this.bits > Long.SIZE) {
                 // The entry is split between two longs
@@ -92,6 +92,10 @@ public ExtentViewDownsize(Extent extent, Vector3i blockMin, Vector3i blockMax) {
         this.realSpaceMax = blockMax.add(Vector3i.ONE);
     }
 
+    public Extent getBackingExtent() {
+        return this.extent;
+    }
+
     @Override
     public UUID getUniqueId() {
         return this.extent.getUniqueId();
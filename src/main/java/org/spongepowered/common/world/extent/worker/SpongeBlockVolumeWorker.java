@@ -40,6 +40,7 @@
 import org.spongepowered.api.world.extent.worker.procedure.BlockVolumeVisitor;
 import org.spongepowered.common.event.tracking.phase.plugin.BasicPluginContext;
 import org.spongepowered.common.event.tracking.phase.plugin.PluginPhase;
+import org.spongepowered.common.util.gen.AbstractBlockBuffer;
 
 import java.util.function.BiFunction;
 
@@ -73,14 +74,21 @@ public void map(BlockVolumeMapper mapper, MutableBlockVolume destination) {
         final int xMax = unmodifiableVolume.getBlockMax().getX();
         final int yMax = unmodifiableVolume.getBlockMax().getY();
         final int zMax = unmodifiableVolume.getBlockMax().getZ();
+        final WorldSectionBlockView view = WorldSectionBlockView.getDecodingView(this.volume);
+        final UnmodifiableBlockVolume source = view == null ? unmodifiableVolume : view;
+        // Decoded sections go stale once blocks are set in the world
+        final boolean decode = view != null && destination instanceof AbstractBlockBuffer;
         // a single go, requiring only one event
         try (BasicPluginContext phaseState = PluginPhase.State.BLOCK_WORKER.createPhaseContext()
             .source(this)) {
             phaseState.buildAndSwitch();
             for (int z = zMin; z <= zMax; z++) {
+                if (decode && (z == zMin || (z & 15) == 0)) {
+                    view.decodeSlab(z >> 4);
+                }
                 for (int y = yMin; y <= yMax; y++) {
                     for (int x = xMin; x <= xMax; x++) {
-                        final BlockState block = mapper.map(unmodifiableVolume, x, y, z);
+                        final BlockState block = mapper.map(source, x, y, z);
 
                         destination.setBlock(x + xOffset, y + yOffset, z + zOffset, block);
                     }
@@ -107,13 +115,20 @@ public void merge(BlockVolume second, BlockVolumeMerger merger, MutableBlockVolu
         final int yMax = firstUnmodifiableVolume.getBlockMax().getY();
         final int zMax = firstUnmodifiableVolume.getBlockMax().getZ();
         final UnmodifiableBlockVolume secondUnmodifiableVolume = second.getUnmodifiableBlockView();
+        final WorldSectionBlockView view = WorldSectionBlockView.getDecodingView(this.volume);
+        final UnmodifiableBlockVolume first = view == null ? firstUnmodifiableVolume : view;
+        // Decoded sections go stale once blocks are set in the world
+        final boolean decode = view != null && destination instanceof AbstractBlockBuffer;
         try (BasicPluginContext context = PluginPhase.State.BLOCK_WORKER.createPhaseContext()
             .source(this)) {
             context.buildAndSwitch();
             for (int z = zMin; z <= zMax; z++) {
+                if (decode && (z == zMin || (z & 15) == 0)) {
+                    view.decodeSlab(z >> 4);
+                }
                 for (int y = yMin; y <= yMax; y++) {
                     for (int x = xMin; x <= xMax; x++) {
-                        final BlockState block = merger.merge(firstUnmodifiableVolume, x, y, z,
+                        final BlockState block = merger.merge(first, x, y, z,
                             secondUnmodifiableVolume, x + xOffsetSecond, y + yOffsetSecond, z + zOffsetSecond);
                         destination.setBlock(x + xOffsetDestination, y + yOffsetDestination, z + zOffsetDestination, block);
                     }
@@ -153,11 +168,19 @@ public <T> T reduce(BlockVolumeReducer<T> reducer, BiFunction<T, T, T> merge, T
         final int xMax = unmodifiableVolume.getBlockMax().getX();
         final int yMax = unmodifiableVolume.getBlockMax().getY();
         final int zMax = unmodifiableVolume.getBlockMax().getZ();
+        // The reduction is done in order on this thread, the section view only
+        // caches the reads, so the identity is used once and the merge function
+        // is never needed
+        final WorldSectionBlockView view = WorldSectionBlockView.getDecodingView(this.volume);
+        final UnmodifiableBlockVolume source = view == null ? unmodifiableVolume : view;
         T reduction = identity;
         for (int z = zMin; z <= zMax; z++) {
+            if (view != null && (z == zMin || (z & 15) == 0)) {
+                view.decodeSlab(z >> 4);
+            }
             for (int y = yMin; y <= yMax; y++) {
                 for (int x = xMin; x <= xMax; x++) {
-                    reduction = reducer.reduce(unmodifiableVolume, x, y, z, reduction);
+                    reduction = reducer.reduce(source, x, y, z, reduction);
                 }
             }
         }
@@ -0,0 +1,321 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.extent.worker;
+
+import com.flowpowered.math.vector.Vector3i;
+import net.minecraft.init.Blocks;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.block.BlockType;
+import org.spongepowered.api.util.DiscreteTransform3;
+import org.spongepowered.api.util.PositionOutOfBoundsException;
+import org.spongepowered.api.world.extent.BlockVolume;
+import org.spongepowered.api.world.extent.Extent;
+import org.spongepowered.api.world.extent.ImmutableBlockVolume;
+import org.spongepowered.api.world.extent.MutableBlockVolume;
+import org.spongepowered.api.world.extent.StorageType;
+import org.spongepowered.api.world.extent.UnmodifiableBlockVolume;
+import org.spongepowered.api.world.extent.worker.BlockVolumeWorker;
+import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.SpongeImplHooks;
+import org.spongepowered.common.util.VecHelper;
+import org.spongepowered.common.util.gen.ArrayImmutableBlockBuffer;
+import org.spongepowered.common.util.gen.ArrayMutableBlockBuffer;
+import org.spongepowered.common.world.extent.AbstractBlockViewDownsize;
+import org.spongepowered.common.world.extent.ExtentBufferUtil;
+import org.spongepowered.common.world.extent.ExtentViewDownsize;
+import org.spongepowered.common.world.extent.UnmodifiableBlockViewTransform;
+import org.spongepowered.common.world.extent.UnmodifiableBlockVolumeWrapper;
+import org.spongepowered.common.world.schematic.GlobalPalette;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import javax.annotation.Nullable;
+
+/**
+ * A read only view of an area of a world that reads block states straight
+ * from the chunk sections, fetched once, instead of looking the chunk up for
+ * every block. Only areas of loaded chunks are covered.
+ *
+ * <p>The view is meant to be read on the main thread, by the procedures of
+ * the block workers. Workers that don't write to the world may also
+ * {@link #decodeSlab(int) decode} the sections of a 16 block slab on the
+ * common pool ahead of reading them, which only reads the section storage of
+ * Minecraft while the main thread waits for it.</p>
+ */
+final class WorldSectionBlockView implements UnmodifiableBlockVolume {
+
+    private static final BlockState AIR = (BlockState) Blocks.AIR.getDefaultState();
+    private static final int MAX_CHUNKS = 1 << 16;
+    private static final int SECTIONS_PER_COLUMN = 16;
+    private static final int BLOCKS_PER_SECTION = 16 * 16 * 16;
+    /**
+     * Volumes smaller than this are not worth decoding on other threads.
+     */
+    private static final int MIN_PARALLEL_BLOCKS = 4 * BLOCKS_PER_SECTION;
+
+    private final ExtendedBlockStorage[][] columns;
+    private final int chunkXMin;
+    private final int chunkZMin;
+    private final int chunkZSize;
+    private final Vector3i min;
+    private final Vector3i max;
+    private final Vector3i size;
+    /**
+     * The decoded blocks of the sections of the current slab, indexed by the
+     * column and the section y.
+     */
+    @Nullable private BlockState[][] slab;
+    private int slabChunkZ;
+
+    private WorldSectionBlockView(final ExtendedBlockStorage[][] columns, final int chunkXMin, final int chunkZMin, final int chunkZSize,
+        final Vector3i min, final Vector3i max) {
+        this.columns = columns;
+        this.chunkXMin = chunkXMin;
+        this.chunkZMin = chunkZMin;
+        this.chunkZSize = chunkZSize;
+        this.min = min;
+        this.max = max;
+        this.size = max.sub(min).add(Vector3i.ONE);
+    }
+
+    /**
+     * Gets a section backed view of the volume of a worker, if section cached
+     * reads are enabled.
+     *
+     * @param volume The volume of the worker
+     * @return The view, or null to work through the volume itself
+     */
+    @Nullable
+    static WorldSectionBlockView getDecodingView(final BlockVolume volume) {
+        if (!SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations().useSectionCachedBlockWorkerReads()) {
+            return null;
+        }
+        // The sections may only be read from other threads while the main thread waits on them
+        if (!SpongeImplHooks.isMainThread()) {
+            return null;
+        }
+        final Vector3i size = volume.getBlockSize();
+        if ((long) size.getX() * size.getY() * size.getZ() < MIN_PARALLEL_BLOCKS) {
+            return null;
+        }
+        return of(volume);
+    }
+
+    /**
+     * Creates a view over the given volume if it is backed directly by a
+     * server world and all the chunks it covers are loaded.
+     *
+     * @param volume The volume
+     * @return The view, or null if the volume is not backed by a world
+     */
+    @Nullable
+    static WorldSectionBlockView of(final BlockVolume volume) {
+        return of(volume, volume.getBlockMin(), volume.getBlockMax());
+    }
+
+    /**
+     * Creates a view over part of the given volume if it is backed directly
+     * by a server world and all the chunks the part covers are loaded. Chunks
+     * are never loaded or generated by this.
+     *
+     * @param volume The volume
+     * @param min The lowest position of the view
+     * @param max The highest position of the view
+     * @return The view, or null if the volume is not backed by a world, the
+     *     area is too large or not loaded
+     */
+    @Nullable
+    static WorldSectionBlockView of(final BlockVolume volume, final Vector3i min, final Vector3i max) {
+        final WorldServer world = getBackingWorld(volume);
+        if (world == null) {
+            return null;
+        }
+        if (min.getY() < 0 || max.getY() >= world.getHeight()) {
+            return null;
+        }
+        final int chunkXMin = min.getX() >> 4;
+        final int chunkZMin = min.getZ() >> 4;
+        final int chunkXSize = (max.getX() >> 4) - chunkXMin + 1;
+        final int chunkZSize = (max.getZ() >> 4) - chunkZMin + 1;
+        if ((long) chunkXSize * chunkZSize > MAX_CHUNKS) {
+            return null;
+        }
+        final ExtendedBlockStorage[][] columns = new ExtendedBlockStorage[chunkXSize * chunkZSize][];
+        for (int x = 0; x < chunkXSize; x++) {
+            for (int z = 0; z < chunkZSize; z++) {
+                final Chunk chunk = world.getChunkProvider().getLoadedChunk(chunkXMin + x, chunkZMin + z);
+                if (chunk == null) {
+                    // Workers fall back to reading through the world itself
+                    return null;
+                }
+                // The live array, sections created while committing batches become visible
+                columns[x * chunkZSize + z] = chunk.getBlockStorageArray();
+            }
+        }
+        return new WorldSectionBlockView(columns, chunkXMin, chunkZMin, chunkZSize, min, max);
+    }
+
+    @Nullable
+    private static WorldServer getBackingWorld(final BlockVolume volume) {
+        if (volume instanceof WorldServer) {
+            return (WorldServer) volume;
+        }
+        if (volume instanceof Chunk) {
+            final net.minecraft.world.World world = ((Chunk) volume).getWorld();
+            return world instanceof WorldServer ? (WorldServer) world : null;
+        }
+        // Only views that keep the coordinates of the world, transforms are left alone
+        if (volume instanceof ExtentViewDownsize) {
+            final Extent extent = ((ExtentViewDownsize) volume).getBackingExtent();
+            return getBackingWorld(extent);
+        }
+        if (volume instanceof AbstractBlockViewDownsize) {
+            return getBackingWorld(((AbstractBlockViewDownsize<?>) volume).getBackingVolume());
+        }
+        if (volume instanceof UnmodifiableBlockVolumeWrapper) {
+            return getBackingWorld(((UnmodifiableBlockVolumeWrapper) volume).getBackingVolume());
+        }
+        return null;
+    }
+
+    /**
+     * Decodes the sections of the given chunk row that this view covers on
+     * the common pool, until another slab is decoded reads within the slab are
+     * served from the decoded blocks. Only call this while nothing writes to
+     * the world between the decoding and the reads.
+     *
+     * @param chunkZ The chunk z coordinate of the slab
+     */
+    void decodeSlab(final int chunkZ) {
+        final int columnZ = chunkZ - this.chunkZMin;
+        final int sectionYMin = this.min.getY() >> 4;
+        final int sectionYMax = this.max.getY() >> 4;
+        final int chunkXSize = this.columns.length / this.chunkZSize;
+        final BlockState[][] slab = new BlockState[chunkXSize * SECTIONS_PER_COLUMN][];
+        IntStream.range(0, slab.length)
+            .filter(index -> (index & 15) >= sectionYMin && (index & 15) <= sectionYMax)
+            .parallel()
+            .forEach(index -> {
+                final ExtendedBlockStorage section = this.columns[(index >> 4) * this.chunkZSize + columnZ][index & 15];
+                final BlockState[] blocks = new BlockState[BLOCKS_PER_SECTION];
+                if (section == Chunk.NULL_BLOCK_STORAGE) {
+                    Arrays.fill(blocks, AIR);
+                } else {
+                    for (int i = 0; i < BLOCKS_PER_SECTION; i++) {
+                        blocks[i] = (BlockState) section.get(i & 15, i >> 8, (i >> 4) & 15);
+                    }
+                }
+                slab[index] = blocks;
+            });
+        this.slab = slab;
+        this.slabChunkZ = chunkZ;
+    }
+
+    private void checkRange(final int x, final int y, final int z) {
+        if (!VecHelper.inBounds(x, y, z, this.min, this.max)) {
+            throw new PositionOutOfBoundsException(new Vector3i(x, y, z), this.min, this.max);
+        }
+    }
+
+    @Override
+    public Vector3i getBlockMin() {
+        return this.min;
+    }
+
+    @Override
+    public Vector3i getBlockMax() {
+        return this.max;
+    }
+
+    @Override
+    public Vector3i getBlockSize() {
+        return this.size;
+    }
+
+    @Override
+    public boolean containsBlock(final int x, final int y, final int z) {
+        return VecHelper.inBounds(x, y, z, this.min, this.max);
+    }
+
+    @Override
+    public BlockType getBlockType(final int x, final int y, final int z) {
+        return getBlock(x, y, z).getType();
+    }
+
+    @Override
+    public BlockState getBlock(final int x, final int y, final int z) {
+        checkRange(x, y, z);
+        final BlockState[][] slab = this.slab;
+        if (slab != null && z >> 4 == this.slabChunkZ) {
+            return slab[((x >> 4) - this.chunkXMin) * SECTIONS_PER_COLUMN + (y >> 4)][(y & 15) << 8 | (z & 15) << 4 | x & 15];
+        }
+        final ExtendedBlockStorage section =
+            this.columns[((x >> 4) - this.chunkXMin) * this.chunkZSize + (z >> 4) - this.chunkZMin][y >> 4];
+        if (section == Chunk.NULL_BLOCK_STORAGE) {
+            return AIR;
+        }
+        return (BlockState) section.get(x & 15, y & 15, z & 15);
+    }
+
+    @Override
+    public UnmodifiableBlockVolume getBlockView(final Vector3i newMin, final Vector3i newMax) {
+        checkRange(newMin.getX(), newMin.getY(), newMin.getZ());
+        checkRange(newMax.getX(), newMax.getY(), newMax.getZ());
+        return new WorldSectionBlockView(this.columns, this.chunkXMin, this.chunkZMin, this.chunkZSize, newMin, newMax);
+    }
+
+    @Override
+    public UnmodifiableBlockVolume getBlockView(final DiscreteTransform3 transform) {
+        return new UnmodifiableBlockViewTransform(this, transform);
+    }
+
+    @Override
+    public BlockVolumeWorker<? extends UnmodifiableBlockVolume> getBlockWorker() {
+        return new SpongeBlockVolumeWorker<>(this);
+    }
+
+    @Override
+    public MutableBlockVolume getBlockCopy(final StorageType type) {
+        switch (type) {
+            case STANDARD:
+                return new ArrayMutableBlockBuffer(GlobalPalette.getBlockPalette(), this.min, this.size,
+                    ExtentBufferUtil.copyToArray(this, this.min, this.max, this.size));
+            case THREAD_SAFE:
+            default:
+                throw new UnsupportedOperationException(type.name());
+        }
+    }
+
+    @Override
+    public ImmutableBlockVolume getImmutableBlockCopy() {
+        final char[] data = ExtentBufferUtil.copyToArray(this, this.min, this.max, this.size);
+        return ArrayImmutableBlockBuffer.newWithoutArrayClone(GlobalPalette.getBlockPalette(), this.min, this.size, data);
+    }
+
+}
@@ -0,0 +1,248 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.hopper;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.entity.item.EntityItem;
+import net.minecraft.inventory.IInventory;
+import net.minecraft.inventory.InventoryLargeChest;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EntitySelectors;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldServer;
+import org.spongepowered.common.bridge.optimization.HopperOptimizationBridge;
+import org.spongepowered.common.mixin.core.inventory.InventoryLargeChestAccessor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * Shares the work of ticking hoppers within a single world.
+ *
+ * <p>Every {@link TileEntity} keeps a modification count that is bumped
+ * whenever it is marked dirty, its containing block changes or it is
+ * invalidated. A hopper that failed to move anything remembers the counts
+ * of itself, its source and its target, and sleeps until one of them
+ * changes. Hoppers pulling dropped items share a single entity query per
+ * chunk per tick, sorted by block column, instead of searching the world
+ * individually.</p>
+ */
+public final class HopperTransferEngine {
+
+    /**
+     * The longest a hopper sleeps without re-checking its inventories, to
+     * recover from inventories that are changed without being marked dirty.
+     */
+    public static final int MAX_SLEEP_TICKS = 20;
+
+    private final WorldServer world;
+    // The living items of the queried chunks by the block columns they overlap, keyed by packed x and z
+    private final Long2ObjectOpenHashMap<List<EntityItem>> itemsByColumn = new Long2ObjectOpenHashMap<>();
+    private final LongOpenHashSet queriedChunks = new LongOpenHashSet();
+    private long itemsTick = Long.MIN_VALUE;
+
+    public HopperTransferEngine(final WorldServer world) {
+        this.world = world;
+    }
+
+    private static long columnKey(final int blockX, final int blockZ) {
+        return (long) blockX << 32 | blockZ & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Gets the living items a hopper at the given position could collect,
+     * mirroring {@code TileEntityHopper#getCaptureItems}.
+     *
+     * @param x The hopper x position
+     * @param y The hopper y position
+     * @param z The hopper z position
+     * @return The items within reach of the hopper
+     */
+    public List<EntityItem> getCaptureItems(final double x, final double y, final double z) {
+        final AxisAlignedBB bb = new AxisAlignedBB(x - 0.5D, y, z - 0.5D, x + 0.5D, y + 1.5D, z + 0.5D);
+        final long tick = this.world.getTotalWorldTime();
+        if (tick != this.itemsTick) {
+            this.itemsByColumn.clear();
+            this.queriedChunks.clear();
+            this.itemsTick = tick;
+        }
+        // Boxes only intersect when they overlap, so a box ending on a block border does not reach into the next column
+        final int minX = MathHelper.floor(bb.minX);
+        final int maxX = MathHelper.ceil(bb.maxX) - 1;
+        final int minZ = MathHelper.floor(bb.minZ);
+        final int maxZ = MathHelper.ceil(bb.maxZ) - 1;
+        List<EntityItem> inReach = null;
+        for (int columnX = minX; columnX <= maxX; columnX++) {
+            for (int columnZ = minZ; columnZ <= maxZ; columnZ++) {
+                this.queryChunk(columnX >> 4, columnZ >> 4);
+                final List<EntityItem> items = this.itemsByColumn.get(columnKey(columnX, columnZ));
+                if (items == null) {
+                    continue;
+                }
+                for (final EntityItem item : items) {
+                    // Items collected earlier in the tick are dead by now
+                    if (item.isEntityAlive() && item.getEntityBoundingBox().intersects(bb)) {
+                        if (inReach == null) {
+                            inReach = new ArrayList<>(4);
+                        } else if (inReach.contains(item)) {
+                            // Already found in another column
+                            continue;
+                        }
+                        inReach.add(item);
+                    }
+                }
+            }
+        }
+        return inReach == null ? Collections.emptyList() : inReach;
+    }
+
+    /**
+     * Looks up the living items of a chunk once per tick and sorts them into
+     * the block columns of the chunk they overlap.
+     */
+    private void queryChunk(final int chunkX, final int chunkZ) {
+        if (!this.queriedChunks.add(ChunkPos.asLong(chunkX, chunkZ))) {
+            return;
+        }
+        final int chunkMinX = chunkX << 4;
+        final int chunkMinZ = chunkZ << 4;
+        final AxisAlignedBB column = new AxisAlignedBB(chunkMinX, -64, chunkMinZ, chunkMinX + 16, this.world.getHeight() + 64, chunkMinZ + 16);
+        for (final EntityItem item : this.world.getEntitiesWithinAABB(EntityItem.class, column, EntitySelectors.IS_ALIVE)) {
+            final AxisAlignedBB itemBox = item.getEntityBoundingBox();
+            // Only the columns of this chunk, the neighbor chunk sorts in the rest of an item on its border
+            final int maxX = Math.min(chunkMinX + 15, MathHelper.ceil(itemBox.maxX) - 1);
+            final int maxZ = Math.min(chunkMinZ + 15, MathHelper.ceil(itemBox.maxZ) - 1);
+            for (int columnX = Math.max(chunkMinX, MathHelper.floor(itemBox.minX)); columnX <= maxX; columnX++) {
+                for (int columnZ = Math.max(chunkMinZ, MathHelper.floor(itemBox.minZ)); columnZ <= maxZ; columnZ++) {
+                    List<EntityItem> items = this.itemsByColumn.get(columnKey(columnX, columnZ));
+                    if (items == null) {
+                        items = new ArrayList<>(2);
+                        this.itemsByColumn.put(columnKey(columnX, columnZ), items);
+                    }
+                    items.add(item);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the modification count of the given inventory, or {@code -1} if
+     * changes to it cannot be tracked.
+     *
+     * @param inventory The inventory
+     * @return The modification count
+     */
+    public static int getModificationCount(@Nullable final IInventory inventory) {
+        if (inventory instanceof TileEntity) {
+            return ((HopperOptimizationBridge) inventory).hopperBridge$getModificationCount();
+        }
+        if (inventory instanceof InventoryLargeChest) {
+            final IInventory upper = ((InventoryLargeChestAccessor) inventory).accessor$getUpperChest();
+            final IInventory lower = ((InventoryLargeChestAccessor) inventory).accessor$getLowerChest();
+            if (upper instanceof TileEntity && lower instanceof TileEntity) {
+                // Both halves only ever count up, so the sum changes whenever either does
+                return (((HopperOptimizationBridge) upper).hopperBridge$getModificationCount()
+                    + ((HopperOptimizationBridge) lower).hopperBridge$getModificationCount()) & Integer.MAX_VALUE;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Remembers the inventory a hopper resolved at a position for as long as
+     * the tile entities backing it remain in place.
+     */
+    public static final class CachedInventory {
+
+        @Nullable private IInventory inventory;
+        @Nullable private TileEntity anchor;
+        private int layoutVersion;
+
+        /**
+         * Gets whether the last resolved inventory can still be used.
+         *
+         * @param world The world of the hopper
+         * @return True if the cached inventory is still valid
+         */
+        public boolean isValid(final World world) {
+            if (this.anchor == null || this.inventory == null) {
+                return false;
+            }
+            if (((HopperOptimizationBridge) this.anchor).hopperBridge$getLayoutVersion() != this.layoutVersion) {
+                return false;
+            }
+            if (this.inventory instanceof InventoryLargeChest) {
+                return isPresent(world, (TileEntity) ((InventoryLargeChestAccessor) this.inventory).accessor$getUpperChest())
+                    && isPresent(world, (TileEntity) ((InventoryLargeChestAccessor) this.inventory).accessor$getLowerChest());
+            }
+            return isPresent(world, this.anchor);
+        }
+
+        @Nullable
+        public IInventory get() {
+            return this.inventory;
+        }
+
+        /**
+         * Replaces the cached inventory with a freshly resolved one. Entity
+         * inventories are returned by {@link #get()} but never reused since
+         * they may move away at any time.
+         *
+         * @param inventory The resolved inventory
+         */
+        public void update(@Nullable final IInventory inventory) {
+            this.inventory = inventory;
+            this.anchor = null;
+            if (inventory instanceof TileEntity) {
+                this.anchor = (TileEntity) inventory;
+            } else if (inventory instanceof InventoryLargeChest) {
+                final IInventory upper = ((InventoryLargeChestAccessor) inventory).accessor$getUpperChest();
+                final IInventory lower = ((InventoryLargeChestAccessor) inventory).accessor$getLowerChest();
+                if (upper instanceof TileEntity && lower instanceof TileEntity) {
+                    this.anchor = (TileEntity) upper;
+                }
+            }
+            if (this.anchor != null) {
+                this.layoutVersion = ((HopperOptimizationBridge) this.anchor).hopperBridge$getLayoutVersion();
+            }
+        }
+
+        public void clear() {
+            this.inventory = null;
+            this.anchor = null;
+        }
+
+        private static boolean isPresent(final World world, final TileEntity tileEntity) {
+            return !tileEntity.isInvalid() && tileEntity.getWorld() == world && world.isBlockLoaded(tileEntity.getPos(), false);
+        }
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.lighting;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.network.play.server.SPacketChunkData;
+import net.minecraft.server.management.PlayerChunkMapEntry;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.EnumSkyBlock;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.bridge.world.chunk.ChunkBridge_AsyncLighting;
+import org.spongepowered.common.mixin.core.server.management.PlayerChunkMapEntryAccessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+
+import javax.annotation.Nullable;
+
+/**
+ * Batches the light updates of a world and processes them in waves on the
+ * lighting executor, instead of submitting a task for every single light
+ * check.
+ *
+ * <p>Updates are queued per chunk section on the main thread, duplicates are
+ * already filtered by the queued positions of the chunk. Once per tick the
+ * queued updates are grouped into regions of 4x4 chunks. A light check reads
+ * and writes at most one chunk away from its origin, so regions whose
+ * coordinates share the same parity never touch the same chunk. Each wave
+ * runs all regions of one parity in parallel, which gives every task
+ * exclusive access to its region without having to lock chunks.</p>
+ *
+ * <p>Sections that had their light changed by a batch are resent to the
+ * players watching them on the main thread, once the batch completed. The
+ * next batch is only started after that, so the section data is never
+ * copied into a packet while a batch is writing to it. This replaces the
+ * per block light notifications for batched updates, clients only receive
+ * the resent sections.</p>
+ */
+public final class AsyncLightingEngine {
+
+    private static final int REGION_SHIFT = 2;
+    private static final int LIGHT_TYPE_SHIFT = 16;
+
+    private static final ThreadLocal<int[]> UPDATE_BUFFERS = ThreadLocal.withInitial(() -> new int[32768]);
+    private static final ThreadLocal<Long2IntMap> CHANGED_SECTIONS = new ThreadLocal<>();
+
+    private final WorldServer world;
+    private final ExecutorService executor;
+    private final Processor processor;
+    private Long2ObjectLinkedOpenHashMap<QueuedChunk> queued = new Long2ObjectLinkedOpenHashMap<>();
+    private int queuedUpdates;
+
+    @Nullable private CompletableFuture<Void> running;
+    private final Long2IntOpenHashMap changedSections = new Long2IntOpenHashMap();
+    private long runningStartNanos;
+    private int runningUpdates;
+    private int lastBatchUpdates;
+    private long lastBatchNanos;
+    private long maxBatchNanos;
+
+    public AsyncLightingEngine(final WorldServer world, final ExecutorService executor, final Processor processor) {
+        this.world = world;
+        this.executor = executor;
+        this.processor = processor;
+    }
+
+    /**
+     * Gets the neighbors the chunk was queued with, if the chunk already has
+     * updates queued for the next batch.
+     *
+     * @param chunk The chunk
+     * @return The neighbors, or null if the chunk is not queued
+     */
+    @Nullable
+    public List<Chunk> getQueuedNeighbors(final Chunk chunk) {
+        final QueuedChunk queuedChunk = this.queued.get(ChunkPos.asLong(chunk.x, chunk.z));
+        return queuedChunk == null ? null : queuedChunk.neighbors;
+    }
+
+    /**
+     * Queues a light update for the next batch, must be called on the main
+     * thread.
+     *
+     * @param lightType The light type to update
+     * @param pos The position within the chunk, as serialized for the queued
+     *     lighting updates of the chunk
+     * @param chunk The chunk
+     * @param neighbors The loaded neighbors of the chunk
+     */
+    public void enqueue(final EnumSkyBlock lightType, final short pos, final Chunk chunk, final List<Chunk> neighbors) {
+        QueuedChunk queuedChunk = this.queued.get(ChunkPos.asLong(chunk.x, chunk.z));
+        if (queuedChunk == null) {
+            queuedChunk = new QueuedChunk(chunk, neighbors);
+            this.queued.put(ChunkPos.asLong(chunk.x, chunk.z), queuedChunk);
+        }
+        // The y coordinate is stored in bits 4 to 11
+        final int section = (pos >> 8) & 15;
+        IntArrayList updates = queuedChunk.sections[section];
+        if (updates == null) {
+            updates = queuedChunk.sections[section] = new IntArrayList();
+        }
+        updates.add(lightType.ordinal() << LIGHT_TYPE_SHIFT | (pos & 0xFFFF));
+        queuedChunk.updates++;
+        this.queuedUpdates++;
+    }
+
+    /**
+     * Adds a newly loaded chunk to the neighbors of the surrounding queued
+     * chunks, must be called on the main thread. The neighbors are captured
+     * when a chunk is first queued, without this the updates of the next
+     * batch would treat the loaded chunk as missing.
+     *
+     * @param chunk The loaded chunk
+     */
+    public void onChunkLoad(final Chunk chunk) {
+        if (this.queued.isEmpty()) {
+            return;
+        }
+        for (int x = chunk.x - 1; x <= chunk.x + 1; x++) {
+            for (int z = chunk.z - 1; z <= chunk.z + 1; z++) {
+                if (x == chunk.x && z == chunk.z) {
+                    continue;
+                }
+                final QueuedChunk queuedChunk = this.queued.get(ChunkPos.asLong(x, z));
+                if (queuedChunk == null || queuedChunk.neighbors.contains(chunk)) {
+                    continue;
+                }
+                queuedChunk.neighbors.add(chunk);
+                // Every queued update of the chunk releases each of its neighbors once it was processed
+                final ChunkBridge_AsyncLighting neighbor = (ChunkBridge_AsyncLighting) chunk;
+                neighbor.asyncLightingBridge$getPendingLightUpdates().addAndGet(queuedChunk.updates);
+                neighbor.asyncLightingBridge$setLightUpdateTime(this.world.getTotalWorldTime());
+            }
+        }
+    }
+
+    /**
+     * Records that the light of a section was changed by the batch which is
+     * processed by the current thread. Does nothing if the current thread
+     * isn't processing a batch.
+     *
+     * @param pos The changed position
+     * @return True if the change was recorded, in which case the section is
+     *     resent to the players once the batch completed
+     */
+    public static boolean markSectionChanged(final BlockPos pos) {
+        final Long2IntMap changed = CHANGED_SECTIONS.get();
+        if (changed == null) {
+            return false;
+        }
+        final long key = ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4);
+        changed.put(key, changed.get(key) | 1 << (pos.getY() >> 4));
+        return true;
+    }
+
+    /**
+     * Completes the running batch if it is done and starts the next one,
+     * called once per tick on the main thread.
+     */
+    public void tick() {
+        if (this.running != null) {
+            if (!this.running.isDone()) {
+                // Keep merging new updates into the queue until the workers caught up
+                return;
+            }
+            this.lastBatchNanos = System.nanoTime() - this.runningStartNanos;
+            this.lastBatchUpdates = this.runningUpdates;
+            this.maxBatchNanos = Math.max(this.maxBatchNanos, this.lastBatchNanos);
+            this.running = null;
+            this.sendChangedSections();
+        }
+        if (this.queued.isEmpty() || this.executor.isShutdown()) {
+            return;
+        }
+
+        final List<List<List<QueuedChunk>>> waves = this.createWaves(this.queued);
+        this.runningUpdates = this.queuedUpdates;
+        this.runningStartNanos = System.nanoTime();
+        this.queued = new Long2ObjectLinkedOpenHashMap<>();
+        this.queuedUpdates = 0;
+
+        CompletableFuture<Void> future = CompletableFuture.completedFuture(null);
+        for (final List<List<QueuedChunk>> wave : waves) {
+            future = future.thenCompose(v -> this.runWave(wave));
+        }
+        this.running = future;
+    }
+
+    private List<List<List<QueuedChunk>>> createWaves(final Long2ObjectLinkedOpenHashMap<QueuedChunk> chunks) {
+        final List<Long2ObjectMap<List<QueuedChunk>>> regionsByParity = new ArrayList<>(4);
+        for (int i = 0; i < 4; i++) {
+            regionsByParity.add(new Long2ObjectOpenHashMap<>());
+        }
+        for (final QueuedChunk queuedChunk : chunks.values()) {
+            final int regionX = queuedChunk.chunk.x >> REGION_SHIFT;
+            final int regionZ = queuedChunk.chunk.z >> REGION_SHIFT;
+            regionsByParity.get((regionX & 1) << 1 | (regionZ & 1))
+                .computeIfAbsent(ChunkPos.asLong(regionX, regionZ), k -> new ArrayList<>())
+                .add(queuedChunk);
+        }
+        final List<List<List<QueuedChunk>>> waves = new ArrayList<>(4);
+        for (final Long2ObjectMap<List<QueuedChunk>> regions : regionsByParity) {
+            if (!regions.isEmpty()) {
+                waves.add(new ArrayList<>(regions.values()));
+            }
+        }
+        return waves;
+    }
+
+    private CompletableFuture<Void> runWave(final List<List<QueuedChunk>> regions) {
+        final CompletableFuture<?>[] tasks = new CompletableFuture<?>[regions.size()];
+        for (int i = 0; i < tasks.length; i++) {
+            final List<QueuedChunk> region = regions.get(i);
+            tasks[i] = CompletableFuture.runAsync(() -> this.processRegion(region), this.executor);
+        }
+        return CompletableFuture.allOf(tasks);
+    }
+
+    private void processRegion(final List<QueuedChunk> region) {
+        final Long2IntOpenHashMap changed = new Long2IntOpenHashMap();
+        CHANGED_SECTIONS.set(changed);
+        final int[] buffer = UPDATE_BUFFERS.get();
+        try {
+            for (final QueuedChunk queuedChunk : region) {
+                final Chunk chunk = queuedChunk.chunk;
+                for (final IntArrayList updates : queuedChunk.sections) {
+                    if (updates == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < updates.size(); i++) {
+                        final int update = updates.getInt(i);
+                        final EnumSkyBlock lightType = EnumSkyBlock.values()[update >>> LIGHT_TYPE_SHIFT];
+                        final BlockPos pos = new BlockPos((chunk.x << 4) | (update & 15), (update >> 4) & 255, (chunk.z << 4) | ((update >> 12) & 15));
+                        try {
+                            this.processor.process(lightType, pos, chunk, queuedChunk.neighbors, buffer);
+                        } catch (final Exception e) {
+                            SpongeImpl.getLogger().error("Failed to update the light at {} in world {}", pos, this.world.getWorldInfo().getWorldName(), e);
+                        }
+                    }
+                }
+            }
+        } finally {
+            CHANGED_SECTIONS.remove();
+            synchronized (this.changedSections) {
+                for (final Long2IntMap.Entry entry : changed.long2IntEntrySet()) {
+                    final long key = entry.getLongKey();
+                    this.changedSections.put(key, this.changedSections.get(key) | entry.getIntValue());
+                }
+            }
+        }
+    }
+
+    private void sendChangedSections() {
+        synchronized (this.changedSections) {
+            for (final Long2IntMap.Entry entry : this.changedSections.long2IntEntrySet()) {
+                final long key = entry.getLongKey();
+                final PlayerChunkMapEntry playerChunk = this.world.getPlayerChunkMap().getEntry((int) key, (int) (key >> 32));
+                if (playerChunk == null || !playerChunk.isSentToPlayers()) {
+                    continue;
+                }
+                final Chunk chunk = ((PlayerChunkMapEntryAccessor) playerChunk).accessor$getChunk();
+                if (chunk == null) {
+                    continue;
+                }
+                final int sections = entry.getIntValue();
+                if (sections == 65535) {
+                    // A mask of all sections is sent as a full chunk, which would reset the chunk on the client
+                    playerChunk.sendPacket(new SPacketChunkData(chunk, 65534));
+                    playerChunk.sendPacket(new SPacketChunkData(chunk, 1));
+                } else {
+                    playerChunk.sendPacket(new SPacketChunkData(chunk, sections));
+                }
+            }
+            this.changedSections.clear();
+        }
+    }
+
+    /**
+     * Gets the amount of light updates waiting for the next batch.
+     *
+     * @return The queued updates
+     */
+    public int getQueuedUpdates() {
+        return this.queuedUpdates;
+    }
+
+    /**
+     * Gets the amount of light updates of the batch which is currently being
+     * processed.
+     *
+     * @return The running updates, or 0 if no batch is running
+     */
+    public int getRunningUpdates() {
+        return this.running == null ? 0 : this.runningUpdates;
+    }
+
+    public int getLastBatchUpdates() {
+        return this.lastBatchUpdates;
+    }
+
+    public double getLastBatchMillis() {
+        return this.lastBatchNanos / 1000000D;
+    }
+
+    public double getMaxBatchMillis() {
+        return this.maxBatchNanos / 1000000D;
+    }
+
+    @FunctionalInterface
+    public interface Processor {
+
+        /**
+         * Checks the light at the given position.
+         *
+         * @param lightType The light type to check
+         * @param pos The position
+         * @param chunk The chunk containing the position
+         * @param neighbors The neighbors of the chunk
+         * @param lightUpdateBlockList The buffer to use for the propagation,
+         *     owned by the current thread
+         */
+        void process(EnumSkyBlock lightType, BlockPos pos, Chunk chunk, List<Chunk> neighbors, int[] lightUpdateBlockList);
+    }
+
+    private static final class QueuedChunk {
+
+        final Chunk chunk;
+        final List<Chunk> neighbors;
+        final IntArrayList[] sections = new IntArrayList[16];
+        int updates;
+
+        QueuedChunk(final Chunk chunk, final List<Chunk> neighbors) {
+            this.chunk = chunk;
+            this.neighbors = neighbors;
+        }
+    }
+}
@@ -0,0 +1,360 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.pregen;
+
+import com.flowpowered.math.vector.Vector3i;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.server.management.PlayerChunkMap;
+import net.minecraft.world.WorldServer;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.gen.ChunkProviderServer;
+import org.spongepowered.api.world.World;
+import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.bridge.world.chunk.ChunkProviderBridge;
+import org.spongepowered.common.world.storage.RegionFileReader;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import javax.annotation.Nullable;
+
+/**
+ * Walks the chunks to pre-generate region file by region file, starting with
+ * the regions closest to the center. Within a region the chunks are walked
+ * row by row, including one extra row and column towards the next regions,
+ * so every chunk of the region is populated by the time the region is done.
+ * Rows which can no longer be populated any further are unloaded right away,
+ * which keeps the amount of chunks loaded by the pre-generation bounded to
+ * about two rows of a region.
+ *
+ * <p>Whether chunks already exist is read from the region file headers, which
+ * are read ahead asynchronously. The index of the next region is written to a
+ * checkpoint file named after the bounds of the area after every region, so
+ * an interrupted pre-generation of the same area resumes from there while
+ * pre-generations of other areas keep their own checkpoints.</p>
+ *
+ * <p>Only the order of the chunks changes, they are still generated and
+ * populated through the chunk provider on the main thread. The terrain
+ * generators share state which is not thread safe, such as the IntCache and
+ * the structure generators, so they can't be run by parallel workers.</p>
+ */
+final class RegionChunkPreGenerator {
+
+    private static final String CHECKPOINT_FILE = "sponge_pregen_%d_%d_%d_%d.dat";
+    private static final int CHECKPOINT_VERSION = 1;
+
+    private final World world;
+    private final ChunkProviderServer chunkProvider;
+    private final PlayerChunkMap playerChunkMap;
+    @Nullable private final Path regionDir;
+    @Nullable private final Path checkpointFile;
+
+    private final int centerX;
+    private final int centerZ;
+    private final int minX;
+    private final int minZ;
+    private final int maxX;
+    private final int maxZ;
+    private final List<Vector3i> regions = new ArrayList<>();
+    private final Long2ObjectMap<CompletableFuture<int[]>> headers = new Long2ObjectOpenHashMap<>();
+
+    // Chunks loaded for the current and previous row, to unload once populated
+    private List<Chunk> previousRow = new ArrayList<>();
+    private List<Chunk> currentRow = new ArrayList<>();
+
+    private int regionIndex;
+    // Bounds of the chunks walked for the current region, inclusive
+    private int regionMinX;
+    private int regionMaxX;
+    private int regionMaxZ;
+    private int regionOwnMaxX;
+    private int regionOwnMaxZ;
+    private int x;
+    private int z;
+
+    RegionChunkPreGenerator(World world, Vector3i center, int chunkRadius) {
+        this.world = world;
+        this.chunkProvider = ((WorldServer) world).getChunkProvider();
+        this.playerChunkMap = ((WorldServer) world).getPlayerChunkMap();
+        this.centerX = center.getX();
+        this.centerZ = center.getZ();
+        this.minX = this.centerX - chunkRadius;
+        this.minZ = this.centerZ - chunkRadius;
+        this.maxX = this.centerX + chunkRadius;
+        this.maxZ = this.centerZ + chunkRadius;
+
+        final Path worldDir = world.getDirectory();
+        final Path regionDir = worldDir.resolve("region");
+        this.regionDir = Files.isDirectory(worldDir) ? regionDir : null;
+        this.checkpointFile = Files.isDirectory(worldDir) ? worldDir.resolve("data")
+                .resolve(String.format(CHECKPOINT_FILE, this.minX, this.minZ, this.maxX, this.maxZ)) : null;
+
+        // Order the regions by their distance to the center region
+        final int centerRegionX = this.centerX >> 5;
+        final int centerRegionZ = this.centerZ >> 5;
+        for (int regionX = this.minX >> 5; regionX <= this.maxX >> 5; regionX++) {
+            for (int regionZ = this.minZ >> 5; regionZ <= this.maxZ >> 5; regionZ++) {
+                this.regions.add(new Vector3i(regionX, 0, regionZ));
+            }
+        }
+        this.regions.sort((a, b) -> Integer.compare(
+                Math.max(Math.abs(a.getX() - centerRegionX), Math.abs(a.getZ() - centerRegionZ)),
+                Math.max(Math.abs(b.getX() - centerRegionX), Math.abs(b.getZ() - centerRegionZ))));
+
+        this.regionIndex = readCheckpoint();
+        if (this.regionIndex < this.regions.size()) {
+            startRegion();
+        }
+    }
+
+    int getTotalChunks() {
+        return (this.maxX - this.minX + 1) * (this.maxZ - this.minZ + 1);
+    }
+
+    /**
+     * Gets the amount of chunks of the regions which were already completed
+     * before resuming from the checkpoint.
+     *
+     * @return The amount of chunks
+     */
+    int getResumedChunks() {
+        int count = 0;
+        for (int i = 0; i < this.regionIndex && i < this.regions.size(); i++) {
+            final Vector3i region = this.regions.get(i);
+            final int width = Math.min(this.maxX, (region.getX() << 5) + 31) - Math.max(this.minX, region.getX() << 5) + 1;
+            final int depth = Math.min(this.maxZ, (region.getZ() << 5) + 31) - Math.max(this.minZ, region.getZ() << 5) + 1;
+            count += width * depth;
+        }
+        return count;
+    }
+
+    boolean hasNext() {
+        return this.regionIndex < this.regions.size();
+    }
+
+    /**
+     * Generates or skips the next chunk.
+     *
+     * @return {@link Step#WAITING} if the region headers needed to continue
+     *     are still being read, otherwise whether a chunk of the area was
+     *     generated or skipped
+     */
+    Step next() {
+        final int[] offsets = getOffsets(this.x, this.z);
+        if (offsets == null || getOffsets(this.x - 1, this.z) == null || getOffsets(this.x, this.z - 1) == null
+                || getOffsets(this.x - 1, this.z - 1) == null) {
+            return Step.WAITING;
+        }
+        final int chunkX = this.x;
+        final int chunkZ = this.z;
+        final boolean own = chunkX <= this.regionOwnMaxX && chunkZ <= this.regionOwnMaxZ;
+
+        final Step step;
+        // Like the spiral walk, a chunk may only be skipped if itself and the
+        // neighbors it is populated with all exist already
+        if (exists(chunkX, chunkZ) && exists(chunkX - 1, chunkZ) && exists(chunkX, chunkZ - 1) && exists(chunkX - 1, chunkZ - 1)) {
+            step = Step.SKIPPED;
+        } else {
+            final boolean wasLoaded = ((ChunkProviderBridge) this.chunkProvider).bridge$getLoadedChunkWithoutMarkingActive(chunkX, chunkZ) != null;
+            final Chunk chunk = (Chunk) this.world.loadChunk(chunkX, 0, chunkZ, true).orElse(null);
+            if (chunk != null && !wasLoaded) {
+                this.currentRow.add(chunk);
+            }
+            step = Step.GENERATED;
+        }
+
+        if (++this.x > this.regionMaxX) {
+            this.x = this.regionMinX;
+            // Loading this row populated the previous one
+            unload(this.previousRow);
+            final List<Chunk> row = this.previousRow;
+            this.previousRow = this.currentRow;
+            this.currentRow = row;
+            if (++this.z > this.regionMaxZ) {
+                unload(this.previousRow);
+                this.headers.remove(regionKey(this.regions.get(this.regionIndex).getX(), this.regions.get(this.regionIndex).getZ()));
+                this.regionIndex++;
+                writeCheckpoint();
+                if (this.regionIndex < this.regions.size()) {
+                    startRegion();
+                }
+            }
+        }
+        return own ? step : Step.OUTSIDE;
+    }
+
+    private void startRegion() {
+        final Vector3i region = this.regions.get(this.regionIndex);
+        this.regionMinX = Math.max(this.minX, region.getX() << 5);
+        final int regionMinZ = Math.max(this.minZ, region.getZ() << 5);
+        this.regionOwnMaxX = Math.min(this.maxX, (region.getX() << 5) + 31);
+        this.regionOwnMaxZ = Math.min(this.maxZ, (region.getZ() << 5) + 31);
+        this.regionMaxX = this.regionOwnMaxX + 1;
+        this.regionMaxZ = this.regionOwnMaxZ + 1;
+        this.x = this.regionMinX;
+        this.z = regionMinZ;
+
+        // Read the headers of this and the next region ahead of time
+        for (int i = this.regionIndex; i < Math.min(this.regionIndex + 2, this.regions.size()); i++) {
+            final Vector3i next = this.regions.get(i);
+            for (int regionX = next.getX() - 1; regionX <= next.getX() + 1; regionX++) {
+                for (int regionZ = next.getZ() - 1; regionZ <= next.getZ() + 1; regionZ++) {
+                    requestHeader(regionX, regionZ);
+                }
+            }
+        }
+    }
+
+    private static long regionKey(int regionX, int regionZ) {
+        return ChunkPos.asLong(regionX, regionZ);
+    }
+
+    private void requestHeader(int regionX, int regionZ) {
+        final long key = regionKey(regionX, regionZ);
+        if (this.headers.containsKey(key)) {
+            return;
+        }
+        if (this.regionDir == null) {
+            this.headers.put(key, CompletableFuture.completedFuture(new int[RegionFileReader.CHUNKS_PER_REGION]));
+            return;
+        }
+        final Path file = this.regionDir.resolve("r." + regionX + "." + regionZ + ".mca");
+        this.headers.put(key, SpongeImpl.getScheduler().submitAsyncTask(() -> {
+            if (!Files.exists(file)) {
+                return new int[RegionFileReader.CHUNKS_PER_REGION];
+            }
+            try {
+                return RegionFileReader.readOffsets(file);
+            } catch (IOException e) {
+                // Load every chunk of the region instead
+                return new int[RegionFileReader.CHUNKS_PER_REGION];
+            }
+        }));
+    }
+
+    @Nullable
+    private int[] getOffsets(int chunkX, int chunkZ) {
+        final long key = regionKey(chunkX >> 5, chunkZ >> 5);
+        CompletableFuture<int[]> header = this.headers.get(key);
+        if (header == null) {
+            requestHeader(chunkX >> 5, chunkZ >> 5);
+            header = this.headers.get(key);
+        }
+        return header.isDone() ? header.join() : null;
+    }
+
+    private boolean exists(int chunkX, int chunkZ) {
+        final int[] offsets = getOffsets(chunkX, chunkZ);
+        // The header may be outdated for chunks generated since, which are
+        // then simply loaded again instead of being skipped
+        return offsets != null && offsets[(chunkX & 31) + (chunkZ & 31) * 32] != 0;
+    }
+
+    private void unload(List<Chunk> chunks) {
+        for (final Chunk chunk : chunks) {
+            // Players may have moved into the area since the chunk was loaded
+            if (this.playerChunkMap.getEntry(chunk.x, chunk.z) == null) {
+                this.chunkProvider.queueUnload(chunk);
+            }
+        }
+        chunks.clear();
+    }
+
+    /**
+     * Unloads every chunk still loaded by the pre-generation.
+     */
+    void finish() {
+        unload(this.previousRow);
+        unload(this.currentRow);
+        if (this.checkpointFile != null && !hasNext()) {
+            try {
+                Files.deleteIfExists(this.checkpointFile);
+            } catch (IOException e) {
+                SpongeImpl.getLogger().warn("Failed to delete the pre-generation checkpoint of world {}", this.world.getName(), e);
+            }
+        }
+    }
+
+    private int readCheckpoint() {
+        if (this.checkpointFile == null || !Files.exists(this.checkpointFile)) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(this.checkpointFile))) {
+            if (in.readInt() != CHECKPOINT_VERSION || in.readInt() != this.minX || in.readInt() != this.minZ
+                    || in.readInt() != this.maxX || in.readInt() != this.maxZ) {
+                // A checkpoint of a different area
+                return 0;
+            }
+            final int regionIndex = in.readInt();
+            SpongeImpl.getLogger().info("Resuming the pre-generation of world {} from region {} of {}", this.world.getName(), regionIndex,
+                    this.regions.size());
+            return regionIndex;
+        } catch (IOException e) {
+            SpongeImpl.getLogger().warn("Failed to read the pre-generation checkpoint of world {}", this.world.getName(), e);
+            return 0;
+        }
+    }
+
+    private void writeCheckpoint() {
+        if (this.checkpointFile == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(this.checkpointFile.getParent());
+            final Path temp = this.checkpointFile.resolveSibling(this.checkpointFile.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temp))) {
+                out.writeInt(CHECKPOINT_VERSION);
+                out.writeInt(this.minX);
+                out.writeInt(this.minZ);
+                out.writeInt(this.maxX);
+                out.writeInt(this.maxZ);
+                out.writeInt(this.regionIndex);
+            }
+            Files.move(temp, this.checkpointFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            SpongeImpl.getLogger().warn("Failed to write the pre-generation checkpoint of world {}", this.world.getName(), e);
+        }
+    }
+
+    enum Step {
+        GENERATED,
+        SKIPPED,
+        /**
+         * A chunk of the next region was loaded to populate the current one.
+         */
+        OUTSIDE,
+        WAITING
+    }
+
+}
@@ -30,6 +30,7 @@
 import com.flowpowered.math.GenericMath;
 import com.flowpowered.math.vector.Vector3d;
 import com.flowpowered.math.vector.Vector3i;
+import net.minecraft.world.WorldServer;
 import org.apache.commons.lang3.time.DurationFormatUtils;
 import org.slf4j.Logger;
 import org.spongepowered.api.Sponge;
@@ -87,6 +88,8 @@ public class SpongeChunkPreGenerateTask implements ChunkPreGenerate, Consumer<Ta
 
     // If null, no listeners have been assigned, so they don't need to be registered or unregistered.
     @Nullable private final EventListener<ChunkPreGenerationEvent> eventListener;
+    // If null, the chunks are generated in a spiral around the center.
+    @Nullable private final RegionChunkPreGenerator regionGenerator;
 
     private Vector3i currentPosition;
     private int currentGenCount;
@@ -142,6 +145,14 @@ private SpongeChunkPreGenerateTask(Object plugin,
 
         this.totalChunksToGenerate = (int) Math.pow(this.chunkRadius * 2 + 1, 2);
 
+        if (world instanceof WorldServer && SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations().useRegionOrderedPreGeneration()) {
+            this.regionGenerator = new RegionChunkPreGenerator(world, this.currentPosition, this.chunkRadius);
+            // The regions completed by a previous run count as skipped
+            this.chunksSkipped = this.regionGenerator.getResumedChunks();
+        } else {
+            this.regionGenerator = null;
+        }
+
         this.spongeTask = this.scheduler
                 .createTaskBuilder()
                 .intervalTicks(tickInterval)
@@ -208,6 +219,7 @@ public void cancel() {
             }
             this.spongeTask.cancel();
             this.isCancelled = true;
+            finishRegionGenerator();
         }
     }
 
@@ -240,28 +252,43 @@ public void accept(Task task) {
         // Count how many chunks are generated during the tick
         int count = 0;
         int skipped = 0;
-        do {
-            final Vector3i position = nextChunkPosition();
-            final Vector3i pos1 = position.sub(Vector3i.UNIT_X);
-            final Vector3i pos2 = position.sub(Vector3i.UNIT_Z);
-            final Vector3i pos3 = pos2.sub(Vector3i.UNIT_X);
-
-            // We can only skip generation if all chunks are loaded.
-            if (!areAllChunksLoaded(position, pos1, pos2, pos3)) {
-
-                // At least one chunk isn't generated, so to populate, we need to load them all.
-                this.world.loadChunk(position, true);
-                this.world.loadChunk(pos1, true);
-                this.world.loadChunk(pos2, true);
-                this.world.loadChunk(pos3, true);
-
-                count += this.currentGenCount;
-            } else {
-
-                // Skipped them, log this.
-                skipped += this.currentGenCount;
-            }
-        } while (hasNextChunkPosition() && checkChunkCount(count) && checkTickTime(System.currentTimeMillis() - stepStartTime));
+        if (this.regionGenerator != null) {
+            do {
+                final RegionChunkPreGenerator.Step step = this.regionGenerator.next();
+                if (step == RegionChunkPreGenerator.Step.WAITING) {
+                    // The region headers are still being read, continue next step
+                    break;
+                }
+                if (step == RegionChunkPreGenerator.Step.GENERATED) {
+                    count++;
+                } else if (step == RegionChunkPreGenerator.Step.SKIPPED) {
+                    skipped++;
+                }
+            } while (hasNextChunkPosition() && checkChunkCount(count) && checkTickTime(System.currentTimeMillis() - stepStartTime));
+        } else {
+            do {
+                final Vector3i position = nextChunkPosition();
+                final Vector3i pos1 = position.sub(Vector3i.UNIT_X);
+                final Vector3i pos2 = position.sub(Vector3i.UNIT_Z);
+                final Vector3i pos3 = pos2.sub(Vector3i.UNIT_X);
+
+                // We can only skip generation if all chunks are loaded.
+                if (!areAllChunksLoaded(position, pos1, pos2, pos3)) {
+
+                    // At least one chunk isn't generated, so to populate, we need to load them all.
+                    this.world.loadChunk(position, true);
+                    this.world.loadChunk(pos1, true);
+                    this.world.loadChunk(pos2, true);
+                    this.world.loadChunk(pos3, true);
+
+                    count += this.currentGenCount;
+                } else {
+
+                    // Skipped them, log this.
+                    skipped += this.currentGenCount;
+                }
+            } while (hasNextChunkPosition() && checkChunkCount(count) && checkTickTime(System.currentTimeMillis() - stepStartTime));
+        }
 
         this.chunksGenerated += count;
         this.chunksSkipped += skipped;
@@ -292,6 +319,7 @@ public void accept(Task task) {
 
             this.isCancelled = true;
             unregisterListener();
+            finishRegionGenerator();
             task.cancel();
         }
     }
@@ -316,9 +344,19 @@ private void cancelTask(Task task) {
 
         this.isCancelled = true;
         unregisterListener();
+        finishRegionGenerator();
+    }
+
+    private void finishRegionGenerator() {
+        if (this.regionGenerator != null) {
+            this.regionGenerator.finish();
+        }
     }
 
     private boolean hasNextChunkPosition() {
+        if (this.regionGenerator != null) {
+            return this.regionGenerator.hasNext();
+        }
         return this.currentLayer <= this.chunkRadius;
     }
 
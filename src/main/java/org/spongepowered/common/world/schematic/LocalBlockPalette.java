@@ -0,0 +1,233 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.schematic;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.block.Block;
+import net.minecraft.block.state.IBlockState;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.world.schematic.Palette;
+import org.spongepowered.api.world.schematic.PaletteType;
+import org.spongepowered.api.world.schematic.PaletteTypes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+import javax.annotation.Nullable;
+
+/**
+ * A local block palette without any boxing. States are stored in an array
+ * indexed by their local id, and local ids are found through an array
+ * indexed by the internal id vanilla assigns to every block state.
+ */
+public class LocalBlockPalette implements Palette<BlockState> {
+
+    private static final int DEFAULT_ALLOCATION_SIZE = 64;
+    private static final int NOT_FOUND = -1;
+
+    private final BitSet allocation;
+    private BlockState[] states;
+    /**
+     * Local ids plus one, indexed by internal state id, so that a zeroed
+     * array means nothing is assigned.
+     */
+    private int[] localIds = new int[0];
+    /**
+     * States sharing an internal id with a state that was assigned first,
+     * or which have no internal id at all.
+     */
+    @Nullable private Reference2IntOpenHashMap<BlockState> collisions;
+    private int maxId = 0;
+
+    public LocalBlockPalette() {
+        this(DEFAULT_ALLOCATION_SIZE);
+    }
+
+    public LocalBlockPalette(final int expectedSize) {
+        this.allocation = new BitSet(expectedSize);
+        this.states = new BlockState[Math.max(1, expectedSize)];
+    }
+
+    @Override
+    public PaletteType<BlockState> getType() {
+        return PaletteTypes.LOCAL_BLOCKS;
+    }
+
+    @Override
+    public int getHighestId() {
+        return this.maxId;
+    }
+
+    @Override
+    public Optional<Integer> get(final BlockState state) {
+        final int id = this.getId(state);
+        return id == NOT_FOUND ? Optional.empty() : Optional.of(id);
+    }
+
+    /**
+     * Gets the local id of the given state without boxing it.
+     *
+     * @param state The state
+     * @return The local id, or -1 if the state is not in this palette
+     */
+    public int getId(final BlockState state) {
+        final int stateId = Block.BLOCK_STATE_IDS.get((IBlockState) state);
+        if (stateId >= 0 && stateId < this.localIds.length) {
+            final int id = this.localIds[stateId] - 1;
+            if (id != NOT_FOUND && this.states[id] == state) {
+                return id;
+            }
+        }
+        return this.collisions == null ? NOT_FOUND : this.collisions.getInt(state);
+    }
+
+    @Override
+    public int getOrAssign(final BlockState state) {
+        final int id = this.getId(state);
+        if (id != NOT_FOUND) {
+            return id;
+        }
+        final int next = this.allocation.nextClearBit(0);
+        this.assign(state, next);
+        return next;
+    }
+
+    @Override
+    public Optional<BlockState> get(final int id) {
+        return Optional.ofNullable(this.getState(id));
+    }
+
+    /**
+     * Gets the state with the given local id without wrapping it.
+     *
+     * @param id The local id
+     * @return The state, or null if the id is not assigned
+     */
+    @Nullable
+    public BlockState getState(final int id) {
+        return id >= 0 && id < this.states.length ? this.states[id] : null;
+    }
+
+    public void assign(final BlockState state, final int id) {
+        if (this.maxId < id) {
+            this.maxId = id;
+        }
+        if (id >= this.states.length) {
+            this.states = Arrays.copyOf(this.states, Math.max(id + 1, this.states.length * 2));
+        }
+        final BlockState previous = this.states[id];
+        if (previous != null) {
+            this.unindex(previous, id);
+        }
+        this.allocation.set(id);
+        this.states[id] = state;
+        if (this.getId(state) != NOT_FOUND) {
+            // Already assigned to another id, lookups keep resolving to that one
+            return;
+        }
+        final int stateId = Block.BLOCK_STATE_IDS.get((IBlockState) state);
+        if (stateId >= 0) {
+            if (stateId >= this.localIds.length) {
+                this.localIds = Arrays.copyOf(this.localIds, Math.max(stateId + 1, this.localIds.length * 2));
+            }
+            if (this.localIds[stateId] == 0) {
+                this.localIds[stateId] = id + 1;
+                return;
+            }
+        }
+        if (this.collisions == null) {
+            this.collisions = new Reference2IntOpenHashMap<>();
+            this.collisions.defaultReturnValue(NOT_FOUND);
+        }
+        this.collisions.put(state, id);
+    }
+
+    private void unindex(final BlockState state, final int id) {
+        final int stateId = Block.BLOCK_STATE_IDS.get((IBlockState) state);
+        if (stateId >= 0 && stateId < this.localIds.length && this.localIds[stateId] == id + 1) {
+            this.localIds[stateId] = 0;
+        } else if (this.collisions != null && this.collisions.getInt(state) == id) {
+            this.collisions.removeInt(state);
+        }
+    }
+
+    @Override
+    public boolean remove(final BlockState state) {
+        final int id = this.getId(state);
+        if (id == NOT_FOUND) {
+            return false;
+        }
+        this.unindex(state, id);
+        this.states[id] = null;
+        this.allocation.clear(id);
+        if (id == this.maxId) {
+            this.maxId = Math.max(0, this.allocation.previousSetBit(this.maxId));
+        }
+        return true;
+    }
+
+    @Override
+    public Collection<BlockState> getEntries() {
+        final List<BlockState> entries = new ArrayList<>(this.allocation.cardinality());
+        for (int id = this.allocation.nextSetBit(0); id >= 0; id = this.allocation.nextSetBit(id + 1)) {
+            entries.add(this.states[id]);
+        }
+        return entries;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final LocalBlockPalette that = (LocalBlockPalette) o;
+        if (this.maxId != that.maxId || !this.allocation.equals(that.allocation)) {
+            return false;
+        }
+        for (int id = this.allocation.nextSetBit(0); id >= 0; id = this.allocation.nextSetBit(id + 1)) {
+            if (this.states[id] != that.states[id]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(this.allocation, this.maxId);
+        for (int id = this.allocation.nextSetBit(0); id >= 0; id = this.allocation.nextSetBit(id + 1)) {
+            result = 31 * result + this.states[id].hashCode();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.schematic;
+
+import net.minecraft.nbt.NBTBase;
+import net.minecraft.nbt.NBTTagByte;
+import net.minecraft.nbt.NBTTagByteArray;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagDouble;
+import net.minecraft.nbt.NBTTagFloat;
+import net.minecraft.nbt.NBTTagInt;
+import net.minecraft.nbt.NBTTagIntArray;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTTagLong;
+import net.minecraft.nbt.NBTTagLongArray;
+import net.minecraft.nbt.NBTTagShort;
+import net.minecraft.nbt.NBTTagString;
+import org.spongepowered.api.data.persistence.InvalidDataException;
+import org.spongepowered.common.util.Constants;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.function.IntConsumer;
+
+/**
+ * A forward only reader over binary NBT that lets the caller decide, tag by
+ * tag, whether a payload is materialized, skipped or consumed in place. Only
+ * the subtrees that are explicitly read are ever held in memory.
+ */
+final class NbtStreamReader {
+
+    private static final int MAX_DEPTH = 512;
+
+    private final DataInput input;
+
+    NbtStreamReader(final DataInput input) {
+        this.input = input;
+    }
+
+    /**
+     * Reads the header of the root tag, which has to be a compound.
+     */
+    void readRoot() throws IOException {
+        if (this.input.readByte() != Constants.NBT.TAG_COMPOUND) {
+            throw new InvalidDataException("The root tag of a schematic has to be a compound");
+        }
+        this.input.readUTF();
+    }
+
+    /**
+     * Reads the type of the next tag in the current compound.
+     *
+     * @return The tag type, {@link Constants.NBT#TAG_END} once the compound is exhausted
+     */
+    byte readType() throws IOException {
+        return this.input.readByte();
+    }
+
+    String readName() throws IOException {
+        return this.input.readUTF();
+    }
+
+    short readShort() throws IOException {
+        return this.input.readShort();
+    }
+
+    int readInt() throws IOException {
+        return this.input.readInt();
+    }
+
+    NBTBase readPayload(final byte type) throws IOException {
+        return this.readPayload(type, 0);
+    }
+
+    NBTTagCompound readCompound() throws IOException {
+        return this.readCompound(0);
+    }
+
+    private NBTTagCompound readCompound(final int depth) throws IOException {
+        if (depth > MAX_DEPTH) {
+            throw new InvalidDataException("Tried to read NBT tag with too high complexity, depth > " + MAX_DEPTH);
+        }
+        final NBTTagCompound compound = new NBTTagCompound();
+        byte type;
+        while ((type = this.input.readByte()) != Constants.NBT.TAG_END) {
+            final String name = this.input.readUTF();
+            compound.setTag(name, this.readPayload(type, depth + 1));
+        }
+        return compound;
+    }
+
+    private NBTBase readPayload(final byte type, final int depth) throws IOException {
+        switch (type) {
+            case Constants.NBT.TAG_BYTE:
+                return new NBTTagByte(this.input.readByte());
+            case Constants.NBT.TAG_SHORT:
+                return new NBTTagShort(this.input.readShort());
+            case Constants.NBT.TAG_INT:
+                return new NBTTagInt(this.input.readInt());
+            case Constants.NBT.TAG_LONG:
+                return new NBTTagLong(this.input.readLong());
+            case Constants.NBT.TAG_FLOAT:
+                return new NBTTagFloat(this.input.readFloat());
+            case Constants.NBT.TAG_DOUBLE:
+                return new NBTTagDouble(this.input.readDouble());
+            case Constants.NBT.TAG_BYTE_ARRAY: {
+                final byte[] bytes = new byte[this.readLength()];
+                this.input.readFully(bytes);
+                return new NBTTagByteArray(bytes);
+            }
+            case Constants.NBT.TAG_STRING:
+                return new NBTTagString(this.input.readUTF());
+            case Constants.NBT.TAG_LIST: {
+                if (depth > MAX_DEPTH) {
+                    throw new InvalidDataException("Tried to read NBT tag with too high complexity, depth > " + MAX_DEPTH);
+                }
+                final byte elementType = this.input.readByte();
+                final int size = this.readLength();
+                final NBTTagList list = new NBTTagList();
+                for (int i = 0; i < size; i++) {
+                    list.appendTag(this.readPayload(elementType, depth + 1));
+                }
+                return list;
+            }
+            case Constants.NBT.TAG_COMPOUND:
+                return this.readCompound(depth);
+            case Constants.NBT.TAG_INT_ARRAY: {
+                final int[] ints = new int[this.readLength()];
+                for (int i = 0; i < ints.length; i++) {
+                    ints[i] = this.input.readInt();
+                }
+                return new NBTTagIntArray(ints);
+            }
+            case Constants.NBT.TAG_LONG_ARRAY: {
+                final long[] longs = new long[this.readLength()];
+                for (int i = 0; i < longs.length; i++) {
+                    longs[i] = this.input.readLong();
+                }
+                return new NBTTagLongArray(longs);
+            }
+            default:
+                throw new InvalidDataException("Unknown NBT tag type " + type);
+        }
+    }
+
+    /**
+     * Skips the payload of a tag of the given type without allocating it.
+     */
+    void skipPayload(final byte type) throws IOException {
+        switch (type) {
+            case Constants.NBT.TAG_BYTE:
+                this.skip(1);
+                break;
+            case Constants.NBT.TAG_SHORT:
+                this.skip(2);
+                break;
+            case Constants.NBT.TAG_INT:
+            case Constants.NBT.TAG_FLOAT:
+                this.skip(4);
+                break;
+            case Constants.NBT.TAG_LONG:
+            case Constants.NBT.TAG_DOUBLE:
+                this.skip(8);
+                break;
+            case Constants.NBT.TAG_BYTE_ARRAY:
+                this.skip(this.readLength());
+                break;
+            case Constants.NBT.TAG_STRING:
+                this.skip(this.input.readUnsignedShort());
+                break;
+            case Constants.NBT.TAG_LIST: {
+                final byte elementType = this.input.readByte();
+                final int size = this.readLength();
+                for (int i = 0; i < size; i++) {
+                    this.skipPayload(elementType);
+                }
+                break;
+            }
+            case Constants.NBT.TAG_COMPOUND: {
+                byte elementType;
+                while ((elementType = this.input.readByte()) != Constants.NBT.TAG_END) {
+                    this.skip(this.input.readUnsignedShort());
+                    this.skipPayload(elementType);
+                }
+                break;
+            }
+            case Constants.NBT.TAG_INT_ARRAY:
+                this.skip(this.readLength() * 4L);
+                break;
+            case Constants.NBT.TAG_LONG_ARRAY:
+                this.skip(this.readLength() * 8L);
+                break;
+            default:
+                throw new InvalidDataException("Unknown NBT tag type " + type);
+        }
+    }
+
+    /**
+     * Reads the element type and size of a list whose elements the caller
+     * consumes one at a time.
+     *
+     * @param expectedType The expected element type
+     * @return The number of elements
+     */
+    int readListHeader(final byte expectedType) throws IOException {
+        final byte elementType = this.input.readByte();
+        final int size = this.readLength();
+        if (size > 0 && elementType != expectedType) {
+            throw new InvalidDataException("Expected a list of tag type " + expectedType + " but found " + elementType);
+        }
+        return size;
+    }
+
+    /**
+     * Decodes a byte array payload of unsigned var ints, handing each value
+     * to the consumer as soon as it is complete instead of buffering the array.
+     *
+     * @param consumer The consumer of the decoded values
+     */
+    void readVarInts(final IntConsumer consumer) throws IOException {
+        final int length = this.readLength();
+        int value = 0;
+        int varIntLength = 0;
+        for (int i = 0; i < length; i++) {
+            final byte b = this.input.readByte();
+            value |= (b & 127) << (varIntLength++ * 7);
+            if (varIntLength > 5) {
+                throw new InvalidDataException("VarInt too big (probably corrupted data)");
+            }
+            if ((b & 128) != 128) {
+                consumer.accept(value);
+                value = 0;
+                varIntLength = 0;
+            }
+        }
+        if (varIntLength != 0) {
+            throw new InvalidDataException("VarInt data ends in the middle of a value");
+        }
+    }
+
+    private int readLength() throws IOException {
+        final int length = this.input.readInt();
+        if (length < 0) {
+            throw new InvalidDataException("Negative NBT payload length " + length);
+        }
+        return length;
+    }
+
+    private void skip(long bytes) throws IOException {
+        while (bytes > 0) {
+            final int skipped = this.input.skipBytes((int) Math.min(bytes, Integer.MAX_VALUE));
+            if (skipped <= 0) {
+                // skipBytes may give up early, reading forces an EOFException at the end of the input
+                this.input.readByte();
+                bytes--;
+            } else {
+                bytes -= skipped;
+            }
+        }
+    }
+}
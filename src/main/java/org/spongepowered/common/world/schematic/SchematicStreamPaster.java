@@ -0,0 +1,599 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.schematic;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.flowpowered.math.vector.Vector3d;
+import com.flowpowered.math.vector.Vector3i;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagIntArray;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.util.datafix.DataFixer;
+import net.minecraft.util.datafix.FixTypes;
+import org.spongepowered.api.Sponge;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.block.BlockTypes;
+import org.spongepowered.api.block.tileentity.TileEntityType;
+import org.spongepowered.api.data.Queries;
+import org.spongepowered.api.data.persistence.InvalidDataException;
+import org.spongepowered.api.entity.EntityType;
+import org.spongepowered.api.entity.living.player.Player;
+import org.spongepowered.api.event.CauseStackManager;
+import org.spongepowered.api.event.cause.EventContextKeys;
+import org.spongepowered.api.event.cause.entity.spawn.SpawnTypes;
+import org.spongepowered.api.world.BlockChangeFlag;
+import org.spongepowered.api.world.Location;
+import org.spongepowered.api.world.World;
+import org.spongepowered.api.world.biome.BiomeType;
+import org.spongepowered.api.world.schematic.Palette;
+import org.spongepowered.api.world.schematic.PaletteTypes;
+import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.block.SpongeTileEntityArchetypeBuilder;
+import org.spongepowered.common.data.persistence.NbtTranslator;
+import org.spongepowered.common.entity.SpongeEntityArchetype;
+import org.spongepowered.common.entity.SpongeEntityArchetypeBuilder;
+import org.spongepowered.common.event.tracking.phase.plugin.BasicPluginContext;
+import org.spongepowered.common.event.tracking.phase.plugin.PluginPhase;
+import org.spongepowered.common.mixin.core.server.MinecraftServerAccessor;
+import org.spongepowered.common.registry.type.block.TileEntityTypeRegistryModule;
+import org.spongepowered.common.registry.type.entity.EntityTypeRegistryModule;
+import org.spongepowered.common.util.Constants;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.zip.GZIPInputStream;
+
+import javax.annotation.Nullable;
+
+/**
+ * Pastes a Sponge schematic into a world straight from its NBT input without
+ * ever building the {@link org.spongepowered.api.world.schematic.Schematic}
+ * for it.
+ *
+ * <p>NBT compounds carry no order, so the input is read in up to three
+ * forward passes: the header and palettes, then the block and biome data and
+ * last the block entities and entities. Only the palettes and one block
+ * entity or entity at a time are ever held in memory. Blocks are placed in
+ * slices of {@link #SLICE_SIZE} blocks, each slice within its own cause frame
+ * and block worker phase, which captures the slice and throws its events in
+ * one go.</p>
+ */
+@SuppressWarnings("deprecation")
+public final class SchematicStreamPaster {
+
+    /**
+     * The number of blocks placed within one cause frame, the volume of a
+     * chunk.
+     */
+    public static final int SLICE_SIZE = 16 * 16 * 256;
+
+    private static final ConcurrentSkipListSet<String> MISSING_MOD_IDS = new ConcurrentSkipListSet<>();
+
+    private static final String VERSION = Constants.Sponge.Schematic.VERSION.asString('.');
+    private static final String DATA_VERSION = Constants.Sponge.Schematic.DATA_VERSION.asString('.');
+    private static final String NAME = Constants.Sponge.Schematic.NAME.asString('.');
+    private static final String REQUIRED_MODS = Constants.Sponge.Schematic.REQUIRED_MODS.asString('.');
+    private static final String METADATA = Constants.Sponge.Schematic.METADATA.asString('.');
+    private static final String WIDTH = Constants.Sponge.Schematic.WIDTH.asString('.');
+    private static final String HEIGHT = Constants.Sponge.Schematic.HEIGHT.asString('.');
+    private static final String LENGTH = Constants.Sponge.Schematic.LENGTH.asString('.');
+    private static final String OFFSET = Constants.Sponge.Schematic.OFFSET.asString('.');
+    private static final String PALETTE = Constants.Sponge.Schematic.PALETTE.asString('.');
+    private static final String PALETTE_MAX = Constants.Sponge.Schematic.PALETTE_MAX.asString('.');
+    private static final String BLOCK_DATA = Constants.Sponge.Schematic.BLOCK_DATA.asString('.');
+    private static final String BIOME_PALETTE = Constants.Sponge.Schematic.BIOME_PALETTE.asString('.');
+    private static final String BIOME_PALETTE_MAX = Constants.Sponge.Schematic.BIOME_PALETTE_MAX.asString('.');
+    private static final String BIOME_DATA = Constants.Sponge.Schematic.BIOME_DATA.asString('.');
+    private static final String BLOCKENTITY_DATA = Constants.Sponge.Schematic.BLOCKENTITY_DATA.asString('.');
+    private static final String BLOCKENTITY_ID = Constants.Sponge.Schematic.BLOCKENTITY_ID.asString('.');
+    private static final String BLOCKENTITY_POS = Constants.Sponge.Schematic.BLOCKENTITY_POS.asString('.');
+    private static final String ENTITIES = Constants.Sponge.Schematic.ENTITIES.asString('.');
+    private static final String ENTITIES_ID = Constants.Sponge.Schematic.ENTITIES_ID.asString('.');
+    private static final String ENTITIES_POS = Constants.Sponge.Schematic.ENTITIES_POS.asString('.');
+    private static final String V1_TILE_ENTITY_DATA = Constants.Sponge.Schematic.Versions.V1_TILE_ENTITY_DATA.asString('.');
+    private static final String V1_TILE_ENTITY_ID = Constants.Sponge.Schematic.Versions.V1_TILE_ENTITY_ID.asString('.');
+    private static final String CONTENT_VERSION = Queries.CONTENT_VERSION.asString('.');
+
+    /**
+     * Opens a fresh stream over the uncompressed NBT of a schematic, once per
+     * pass.
+     */
+    @FunctionalInterface
+    public interface Source {
+
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Receives the blocks and biomes of a schematic at their world positions.
+     */
+    interface VolumeTarget {
+
+        /**
+         * Called before the first block of every slice.
+         */
+        void beginSlice();
+
+        /**
+         * Called after the last block of every slice, even if the slice could
+         * not be completed.
+         */
+        void endSlice();
+
+        void setBlock(int x, int y, int z, BlockState state);
+
+        void setBiome(int x, int z, BiomeType biome);
+    }
+
+    /**
+     * Pastes the gzip compressed schematic file at the given path.
+     *
+     * @param path The schematic file
+     * @param location The location the schematic origin is pasted at
+     * @param changeFlag The flag to set the blocks with
+     * @throws IOException If the file could not be read
+     * @throws InvalidDataException If the file is not a valid schematic
+     */
+    public static void paste(final Path path, final Location<World> location, final BlockChangeFlag changeFlag) throws IOException {
+        checkNotNull(path, "path");
+        paste(() -> new GZIPInputStream(Files.newInputStream(path)), location, changeFlag);
+    }
+
+    /**
+     * Pastes the schematic read from the given source.
+     *
+     * @param source The source of the uncompressed schematic NBT
+     * @param location The location the schematic origin is pasted at
+     * @param changeFlag The flag to set the blocks with
+     * @throws IOException If the source could not be read
+     * @throws InvalidDataException If the source is not a valid schematic
+     */
+    public static void paste(final Source source, final Location<World> location, final BlockChangeFlag changeFlag) throws IOException {
+        checkNotNull(source, "source");
+        checkNotNull(location, "location");
+        checkNotNull(changeFlag, "changeFlag");
+        new SchematicStreamPaster(source, location.getBlockPosition(), location, new WorldTarget(location.getExtent(), changeFlag),
+            key -> Sponge.getRegistry().getType(BlockState.class, key), key -> Sponge.getRegistry().getType(BiomeType.class, key))
+            .paste();
+    }
+
+    /**
+     * Pastes only the blocks and biomes of the schematic read from the given
+     * source into the target, leaving out its block entities and entities.
+     *
+     * @param source The source of the uncompressed schematic NBT
+     * @param origin The position the schematic origin is pasted at
+     * @param target The target of the blocks and biomes
+     * @param blocks Looks up the block states of the palette
+     * @param biomes Looks up the biomes of the biome palette
+     * @throws IOException If the source could not be read
+     * @throws InvalidDataException If the source is not a valid schematic
+     */
+    static void pasteVolume(final Source source, final Vector3i origin, final VolumeTarget target,
+        final Function<String, Optional<BlockState>> blocks, final Function<String, Optional<BiomeType>> biomes) throws IOException {
+        new SchematicStreamPaster(source, origin, null, target, blocks, biomes).paste();
+    }
+
+    private final Source source;
+    private final Vector3i origin;
+    @Nullable private final Location<World> location;
+    private final VolumeTarget target;
+    private final Function<String, Optional<BlockState>> blocks;
+    private final Function<String, Optional<BiomeType>> biomes;
+
+    private int version = -1;
+    private int dataVersion = -1;
+    private int width = -1;
+    private int height = -1;
+    private int length = -1;
+    private int[] offset = new int[3];
+    private int paletteMax = -1;
+    @Nullable private NBTTagCompound paletteData;
+    private int biomePaletteMax = -1;
+    @Nullable private NBTTagCompound biomePaletteData;
+    private boolean hasVolumeData;
+    private boolean hasArchetypes;
+
+    @Nullable private Palette<BlockState> palette;
+    @Nullable private LocalBlockPalette localPalette;
+    @Nullable private Palette<BiomeType> biomePalette;
+    @Nullable private DataFixer fixer;
+
+    private SchematicStreamPaster(final Source source, final Vector3i origin, @Nullable final Location<World> location,
+        final VolumeTarget target, final Function<String, Optional<BlockState>> blocks, final Function<String, Optional<BiomeType>> biomes) {
+        this.source = source;
+        this.origin = origin;
+        this.location = location;
+        this.target = target;
+        this.blocks = blocks;
+        this.biomes = biomes;
+    }
+
+    private void paste() throws IOException {
+        this.pass(this::readHeader);
+        this.prepare();
+        if (this.hasVolumeData) {
+            this.pass(this::pasteVolumeData);
+        }
+        if (this.hasArchetypes && this.location != null) {
+            // Pasting needs a loaded world, so the server and its DataFixer are always there when the data version is outdated.
+            if (this.dataVersion < Constants.MINECRAFT_DATA_VERSION) {
+                this.fixer = ((MinecraftServerAccessor) SpongeImpl.getServer()).accessor$getDataFixer();
+            }
+            try (CauseStackManager.StackFrame frame = Sponge.getCauseStackManager().pushCauseFrame()) {
+                frame.addContext(EventContextKeys.SPAWN_TYPE, SpawnTypes.PLUGIN);
+                this.pass(this::pasteArchetypes);
+            }
+        }
+    }
+
+    private void pass(final TagHandler handler) throws IOException {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(this.source.open()))) {
+            final NbtStreamReader reader = new NbtStreamReader(input);
+            reader.readRoot();
+            byte type;
+            while ((type = reader.readType()) != Constants.NBT.TAG_END) {
+                final String name = reader.readName();
+                if (!handler.handle(reader, type, name)) {
+                    reader.skipPayload(type);
+                }
+            }
+        }
+    }
+
+    private boolean readHeader(final NbtStreamReader reader, final byte type, final String name) throws IOException {
+        if (type == Constants.NBT.TAG_INT) {
+            if (VERSION.equals(name)) {
+                this.version = reader.readInt();
+            } else if (DATA_VERSION.equals(name)) {
+                this.dataVersion = reader.readInt();
+            } else if (PALETTE_MAX.equals(name)) {
+                this.paletteMax = reader.readInt();
+            } else if (BIOME_PALETTE_MAX.equals(name)) {
+                this.biomePaletteMax = reader.readInt();
+            } else {
+                return false;
+            }
+        } else if (type == Constants.NBT.TAG_SHORT) {
+            if (WIDTH.equals(name)) {
+                this.width = reader.readShort() & 0xFFFF;
+            } else if (HEIGHT.equals(name)) {
+                this.height = reader.readShort() & 0xFFFF;
+            } else if (LENGTH.equals(name)) {
+                this.length = reader.readShort() & 0xFFFF;
+            } else {
+                return false;
+            }
+        } else if (type == Constants.NBT.TAG_INT_ARRAY && OFFSET.equals(name)) {
+            this.offset = ((NBTTagIntArray) reader.readPayload(type)).getIntArray();
+        } else if (type == Constants.NBT.TAG_COMPOUND) {
+            if (PALETTE.equals(name)) {
+                this.paletteData = reader.readCompound();
+            } else if (BIOME_PALETTE.equals(name)) {
+                this.biomePaletteData = reader.readCompound();
+            } else if (METADATA.equals(name)) {
+                checkRequiredMods(reader.readCompound());
+            } else {
+                return false;
+            }
+        } else {
+            if (BLOCK_DATA.equals(name) || BIOME_DATA.equals(name)) {
+                this.hasVolumeData = true;
+            } else if (BLOCKENTITY_DATA.equals(name) || V1_TILE_ENTITY_DATA.equals(name) || ENTITIES.equals(name)) {
+                this.hasArchetypes = true;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private static void checkRequiredMods(final NBTTagCompound metadata) {
+        final NBTTagCompound dotData = metadata.getCompoundTag(".");
+        final String schematicName = metadata.hasKey(NAME, Constants.NBT.TAG_STRING) ? metadata.getString(NAME) :
+            dotData.hasKey(NAME, Constants.NBT.TAG_STRING) ? dotData.getString(NAME) : "unknown";
+        final NBTTagList mods = metadata.hasKey(REQUIRED_MODS, Constants.NBT.TAG_LIST) ? metadata.getTagList(REQUIRED_MODS, Constants.NBT.TAG_STRING)
+            : dotData.getTagList(REQUIRED_MODS, Constants.NBT.TAG_STRING);
+        for (int i = 0; i < mods.tagCount(); i++) {
+            final String modId = mods.getStringTagAt(i);
+            if (!Sponge.getPluginManager().getPlugin(modId).isPresent() && MISSING_MOD_IDS.add(modId)) {
+                SpongeImpl.getLogger().warn("When attempting to load the Schematic: " + schematicName + " there is a missing modid: " + modId
+                    + " some blocks/tiles/entities may not load correctly.");
+            }
+        }
+    }
+
+    private void prepare() {
+        if (this.version == -1) {
+            throw new InvalidDataException("Missing Version for Schematic");
+        }
+        if (this.version > Constants.Sponge.Schematic.CURRENT_VERSION) {
+            throw new InvalidDataException(String.format("Unknown schematic version %d (current version is %d)", this.version,
+                Constants.Sponge.Schematic.CURRENT_VERSION));
+        }
+        if (this.version == 1) {
+            // Version 1 had no data version, the updater assumes the current one
+            this.dataVersion = Constants.MINECRAFT_DATA_VERSION;
+        } else if (this.dataVersion == -1) {
+            throw new InvalidDataException("Missing DataVersion for Schematic");
+        }
+        if (this.width == -1 || this.height == -1 || this.length == -1) {
+            throw new InvalidDataException("Missing Width, Height or Length for Schematic");
+        }
+        if (this.offset.length != 3) {
+            throw new InvalidDataException("Schematic offset was not of length 3");
+        }
+        if (this.paletteData != null) {
+            final LocalBlockPalette localPalette = new LocalBlockPalette(this.paletteMax != -1 ? this.paletteMax + 1 : 64);
+            for (final String key : this.paletteData.getKeySet()) {
+                final BlockState state = this.blocks.apply(key).orElseGet(() -> BlockTypes.BEDROCK.getDefaultState());
+                localPalette.assign(state, this.paletteData.getInteger(key));
+            }
+            this.localPalette = localPalette;
+            this.palette = localPalette;
+            this.paletteData = null;
+        } else {
+            this.palette = GlobalPalette.getBlockPalette();
+        }
+        if (this.biomePaletteData != null) {
+            final BimapPalette<BiomeType> bimap = new BimapPalette<>(PaletteTypes.LOCAL_BIOMES, this.biomePaletteMax != -1 ? this.biomePaletteMax + 1 : 64);
+            for (final String key : this.biomePaletteData.getKeySet()) {
+                this.biomes.apply(key).ifPresent(biome -> bimap.assign(biome, this.biomePaletteData.getInteger(key)));
+            }
+            this.biomePalette = bimap;
+            this.biomePaletteData = null;
+        } else {
+            this.biomePalette = GlobalPalette.getBiomePalette();
+        }
+    }
+
+    private boolean pasteVolumeData(final NbtStreamReader reader, final byte type, final String name) throws IOException {
+        if (type != Constants.NBT.TAG_BYTE_ARRAY) {
+            return false;
+        }
+        if (BLOCK_DATA.equals(name)) {
+            final BlockSlicer slicer = new BlockSlicer();
+            try {
+                reader.readVarInts(slicer);
+            } finally {
+                slicer.close();
+            }
+            return true;
+        }
+        if (BIOME_DATA.equals(name)) {
+            reader.readVarInts(new IntConsumer() {
+                private int index;
+
+                @Override
+                public void accept(final int id) {
+                    final BiomeType biome = SchematicStreamPaster.this.biomePalette.get(id).orElse(null);
+                    final int x = this.index % SchematicStreamPaster.this.width;
+                    final int z = this.index / SchematicStreamPaster.this.width;
+                    this.index++;
+                    if (biome != null) {
+                        SchematicStreamPaster.this.target.setBiome(SchematicStreamPaster.this.toWorldX(x), SchematicStreamPaster.this.toWorldZ(z),
+                            biome);
+                    }
+                }
+            });
+            return true;
+        }
+        return false;
+    }
+
+    private boolean pasteArchetypes(final NbtStreamReader reader, final byte type, final String name) throws IOException {
+        if (type != Constants.NBT.TAG_LIST) {
+            return false;
+        }
+        if (BLOCKENTITY_DATA.equals(name) || V1_TILE_ENTITY_DATA.equals(name)) {
+            final int size = reader.readListHeader(Constants.NBT.TAG_COMPOUND);
+            for (int i = 0; i < size; i++) {
+                this.pasteTileEntity(reader.readCompound());
+            }
+            return true;
+        }
+        if (ENTITIES.equals(name)) {
+            final int size = reader.readListHeader(Constants.NBT.TAG_COMPOUND);
+            for (int i = 0; i < size; i++) {
+                this.pasteEntity(reader.readCompound());
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private void pasteTileEntity(NBTTagCompound tile) {
+        final int[] pos = tile.getIntArray(BLOCKENTITY_POS);
+        if (pos.length != 3) {
+            return;
+        }
+        if (this.version == 1 && tile.hasKey(V1_TILE_ENTITY_ID, Constants.NBT.TAG_STRING)) {
+            tile.setString(BLOCKENTITY_ID, tile.getString(V1_TILE_ENTITY_ID));
+            tile.removeTag(V1_TILE_ENTITY_ID);
+            tile.removeTag(CONTENT_VERSION);
+        }
+        final Optional<TileEntityType> type = TileEntityTypeRegistryModule.getInstance().getById(tile.getString(BLOCKENTITY_ID));
+        if (!type.isPresent()) {
+            return;
+        }
+        if (this.fixer != null) {
+            tile = this.fixer.process(FixTypes.BLOCK_ENTITY, tile, this.dataVersion);
+        }
+        final Location<World> target = new Location<>(this.location.getExtent(), this.toWorldX(pos[0]), this.toWorldY(pos[1]),
+            this.toWorldZ(pos[2]));
+        new SpongeTileEntityArchetypeBuilder()
+            .state(target.getBlock())
+            .tileData(NbtTranslator.getInstance().wrap(tile))
+            .tile(type.get())
+            .build()
+            .apply(target);
+    }
+
+    private void pasteEntity(NBTTagCompound entity) {
+        if (!entity.hasKey(ENTITIES_POS) || !entity.hasKey(ENTITIES_ID)) {
+            return;
+        }
+        final Optional<EntityType> type = EntityTypeRegistryModule.getInstance().getById(entity.getString(ENTITIES_ID));
+        if (!type.isPresent() || Player.class.isAssignableFrom(type.get().getEntityClass())) {
+            return;
+        }
+        if (this.fixer != null) {
+            entity = this.fixer.process(FixTypes.ENTITY, entity, this.dataVersion);
+        }
+        final SpongeEntityArchetype archetype = (SpongeEntityArchetype) new SpongeEntityArchetypeBuilder()
+            .type(type.get())
+            .entityData(NbtTranslator.getInstance().wrap(entity))
+            .build();
+        final Optional<Vector3d> position = archetype.getPosition();
+        if (position.isPresent()) {
+            archetype.apply(this.location.add(position.get()));
+        }
+    }
+
+    private int toWorldX(final int x) {
+        return this.origin.getX() + x - this.offset[0];
+    }
+
+    private int toWorldY(final int y) {
+        return this.origin.getY() + y - this.offset[1];
+    }
+
+    private int toWorldZ(final int z) {
+        return this.origin.getZ() + z - this.offset[2];
+    }
+
+    @FunctionalInterface
+    private interface TagHandler {
+
+        /**
+         * Handles the payload of a root level tag.
+         *
+         * @return False if the payload was left untouched and has to be skipped
+         */
+        boolean handle(NbtStreamReader reader, byte type, String name) throws IOException;
+    }
+
+    /**
+     * Places the blocks in a world, every slice within a new cause frame and
+     * block worker phase so the captured changes never outgrow a single slice.
+     */
+    private static final class WorldTarget implements VolumeTarget {
+
+        private final World world;
+        private final BlockChangeFlag changeFlag;
+        @Nullable private CauseStackManager.StackFrame frame;
+        @Nullable private BasicPluginContext context;
+
+        WorldTarget(final World world, final BlockChangeFlag changeFlag) {
+            this.world = world;
+            this.changeFlag = changeFlag;
+        }
+
+        @Override
+        public void beginSlice() {
+            this.frame = Sponge.getCauseStackManager().pushCauseFrame();
+            this.context = PluginPhase.State.BLOCK_WORKER.createPhaseContext()
+                .source(this);
+            this.context.buildAndSwitch();
+        }
+
+        @Override
+        public void endSlice() {
+            if (this.context != null) {
+                this.context.close();
+                this.context = null;
+            }
+            if (this.frame != null) {
+                this.frame.close();
+                this.frame = null;
+            }
+        }
+
+        @Override
+        public void setBlock(final int x, final int y, final int z, final BlockState state) {
+            this.world.setBlock(x, y, z, state, this.changeFlag);
+        }
+
+        @Override
+        public void setBiome(final int x, final int z, final BiomeType biome) {
+            this.world.setBiome(x, 0, z, biome);
+        }
+    }
+
+    /**
+     * Places the decoded palette ids as they arrive, starting a new slice
+     * every {@link #SLICE_SIZE} blocks.
+     */
+    private final class BlockSlicer implements IntConsumer {
+
+        private final int area = SchematicStreamPaster.this.width * SchematicStreamPaster.this.height * SchematicStreamPaster.this.length;
+        private int x;
+        private int y;
+        private int z;
+        private int count;
+        private boolean inSlice;
+
+        @Override
+        public void accept(final int id) {
+            if (this.count == this.area) {
+                throw new InvalidDataException("Block data is longer than the volume of the schematic");
+            }
+            final BlockState state = SchematicStreamPaster.this.localPalette != null ? SchematicStreamPaster.this.localPalette.getState(id)
+                : SchematicStreamPaster.this.palette.get(id).orElse(null);
+            if (state == null) {
+                throw new InvalidDataException("Block data refers to the unknown palette id " + id);
+            }
+            if (this.count++ % SLICE_SIZE == 0) {
+                this.close();
+                SchematicStreamPaster.this.target.beginSlice();
+                this.inSlice = true;
+            }
+            SchematicStreamPaster.this.target.setBlock(SchematicStreamPaster.this.toWorldX(this.x), SchematicStreamPaster.this.toWorldY(this.y),
+                SchematicStreamPaster.this.toWorldZ(this.z), state);
+            if (++this.x == SchematicStreamPaster.this.width) {
+                this.x = 0;
+                if (++this.z == SchematicStreamPaster.this.length) {
+                    this.z = 0;
+                    this.y++;
+                }
+            }
+        }
+
+        void close() {
+            if (this.inSlice) {
+                this.inSlice = false;
+                SchematicStreamPaster.this.target.endSlice();
+            }
+        }
+    }
+}
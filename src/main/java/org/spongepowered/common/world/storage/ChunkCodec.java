@@ -0,0 +1,79 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+/**
+ * A compression codec for the chunk data stored in region file sectors. The
+ * codec of every chunk is identified by the version byte preceding its data,
+ * so chunks of different codecs can be mixed within one region file.
+ *
+ * @see ChunkCodecs
+ */
+public interface ChunkCodec {
+
+    /**
+     * Gets the id used to select this codec in the world configs.
+     *
+     * @return The id
+     */
+    String getId();
+
+    /**
+     * Gets the version byte stored in front of chunks compressed with this
+     * codec.
+     *
+     * @return The version
+     */
+    byte getVersion();
+
+    /**
+     * Wraps the stream of compressed chunk data.
+     *
+     * @param in The compressed data
+     * @param regionDir The directory of the region file, for codecs with per
+     *     world state
+     * @return The decompressing stream
+     * @throws IOException If the stream could not be created
+     */
+    InputStream decompress(InputStream in, Path regionDir) throws IOException;
+
+    /**
+     * Wraps the stream the compressed chunk data should be written to.
+     * Closing the returned stream closes the given stream.
+     *
+     * @param out The stream to write the compressed data to
+     * @param regionDir The directory of the region file, for codecs with per
+     *     world state
+     * @return The compressing stream
+     * @throws IOException If the stream could not be created
+     */
+    OutputStream compress(OutputStream out, Path regionDir) throws IOException;
+
+}
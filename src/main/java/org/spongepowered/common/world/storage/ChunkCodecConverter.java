@@ -0,0 +1,144 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import com.google.common.io.ByteStreams;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts the chunks of region files to another {@link ChunkCodec}. This
+ * must only be used on worlds which aren't loaded, every region file is
+ * rewritten to a temporary file which then replaces the original.
+ *
+ * @see SpongeChunkDataStream#convert(ChunkCodec, java.util.concurrent.Executor)
+ */
+public final class ChunkCodecConverter {
+
+    private static final int DICTIONARY_SAMPLES = 2048;
+
+    private ChunkCodecConverter() {
+    }
+
+    /**
+     * Trains a new dictionary for the {@link ChunkCodecs#DEFLATE_DICTIONARY}
+     * codec from the chunks of the given region files.
+     *
+     * @param regionDir The region directory to store the dictionary in
+     * @param files The region files to sample
+     * @throws IOException If the chunks could not be read
+     */
+    static void trainDictionary(Path regionDir, Iterable<Path> files) throws IOException {
+        final List<byte[]> samples = new ArrayList<>();
+        for (final Path file : files) {
+            try (final RegionFileReader reader = new RegionFileReader(file)) {
+                final int[] offsets = reader.getOffsets();
+                for (int index = 0; index < offsets.length && samples.size() < DICTIONARY_SAMPLES; index++) {
+                    if (offsets[index] == 0) {
+                        continue;
+                    }
+                    try (final DataInputStream stream = reader.getChunkDataInputStream(index)) {
+                        if (stream != null) {
+                            samples.add(ByteStreams.toByteArray(stream));
+                        }
+                    }
+                }
+            }
+            if (samples.size() >= DICTIONARY_SAMPLES) {
+                break;
+            }
+        }
+        if (!samples.isEmpty()) {
+            DictionaryChunkCodec.setDictionary(regionDir, DictionaryChunkCodec.train(samples));
+        }
+    }
+
+    /**
+     * Rewrites the given region file with every chunk compressed by the given
+     * codec.
+     *
+     * @param file The region file
+     * @param codec The codec to convert to
+     * @return The amount of converted chunks
+     * @throws IOException If the region file could not be converted
+     */
+    static int convertRegionFile(Path file, ChunkCodec codec) throws IOException {
+        final List<CompressedChunk> chunks = new ArrayList<>();
+        int converted = 0;
+        final Path regionDir;
+        try (final RegionFileReader reader = new RegionFileReader(file)) {
+            regionDir = reader.getRegionDir();
+            final int[] offsets = reader.getOffsets();
+            for (int index = 0; index < offsets.length; index++) {
+                if (offsets[index] == 0) {
+                    continue;
+                }
+                final CompressedChunk chunk = reader.getCompressedChunk(index);
+                if (chunk == null) {
+                    continue;
+                }
+                if (chunk.getVersion() == codec.getVersion() && codec != ChunkCodecs.DEFLATE_DICTIONARY) {
+                    // Already in the right format, dictionary chunks are
+                    // recompressed in case the dictionary was retrained
+                    chunks.add(chunk);
+                    continue;
+                }
+                final byte[] data;
+                try (final DataInputStream stream = ChunkCodecs.decompress(regionDir, chunk.getVersion(), chunk.getData())) {
+                    if (stream == null) {
+                        throw new IOException("Unknown chunk compression version " + chunk.getVersion() + " in " + file);
+                    }
+                    data = ByteStreams.toByteArray(stream);
+                }
+                final ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 4);
+                try (final OutputStream out = codec.compress(buffer, regionDir)) {
+                    out.write(data);
+                }
+                chunks.add(new CompressedChunk(chunk.getChunkX(), chunk.getChunkZ(), buffer.toByteArray(), buffer.size(), codec.getVersion()));
+                converted++;
+            }
+        }
+        if (converted == 0) {
+            return 0;
+        }
+
+        final Path temp = file.resolveSibling(file.getFileName() + ".convert");
+        Files.deleteIfExists(temp);
+        try (final SpongeRegionFile regionFile = new SpongeRegionFile(temp)) {
+            regionFile.writeAll(chunks);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return converted;
+    }
+
+}
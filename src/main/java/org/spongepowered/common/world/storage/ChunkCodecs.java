@@ -0,0 +1,203 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import org.spongepowered.common.SpongeImpl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.annotation.Nullable;
+
+/**
+ * The registry of {@link ChunkCodec}s. Chunks are always read with the codec
+ * matching their version byte, the codec configured for a world only decides
+ * how chunks are written, so a world can switch codecs at any time.
+ */
+public final class ChunkCodecs {
+
+    private static final Map<String, ChunkCodec> BY_ID = new ConcurrentHashMap<>();
+    private static final ChunkCodec[] BY_VERSION = new ChunkCodec[256];
+
+    /**
+     * The vanilla GZip codec, which vanilla itself never writes.
+     */
+    public static final ChunkCodec GZIP = register(new ChunkCodec() {
+
+        @Override
+        public String getId() {
+            return "gzip";
+        }
+
+        @Override
+        public byte getVersion() {
+            return 1;
+        }
+
+        @Override
+        public InputStream decompress(InputStream in, Path regionDir) throws IOException {
+            return new GZIPInputStream(in);
+        }
+
+        @Override
+        public OutputStream compress(OutputStream out, Path regionDir) throws IOException {
+            return new GZIPOutputStream(out);
+        }
+    });
+
+    /**
+     * The vanilla deflate codec, this is the only codec chunks may be written
+     * with if the world has to stay readable by vanilla.
+     */
+    public static final ChunkCodec DEFLATE = register(new ChunkCodec() {
+
+        @Override
+        public String getId() {
+            return "deflate";
+        }
+
+        @Override
+        public byte getVersion() {
+            return 2;
+        }
+
+        @Override
+        public InputStream decompress(InputStream in, Path regionDir) {
+            return new InflaterInputStream(in);
+        }
+
+        @Override
+        public OutputStream compress(OutputStream out, Path regionDir) {
+            return new DeflaterOutputStream(out);
+        }
+    });
+
+    public static final ChunkCodec LZ4 = register(new Lz4ChunkCodec());
+    public static final ChunkCodec DEFLATE_DICTIONARY = register(new DictionaryChunkCodec());
+
+    private ChunkCodecs() {
+    }
+
+    /**
+     * Registers a codec, its id and version may not be used by another codec.
+     *
+     * @param codec The codec to register
+     * @param <T> The codec type
+     * @return The codec
+     */
+    public static synchronized <T extends ChunkCodec> T register(T codec) {
+        final int version = codec.getVersion() & 0xFF;
+        if (BY_VERSION[version] != null || BY_ID.containsKey(codec.getId())) {
+            throw new IllegalArgumentException("A chunk codec with the id " + codec.getId() + " or version " + version + " is already registered");
+        }
+        BY_VERSION[version] = codec;
+        BY_ID.put(codec.getId(), codec);
+        return codec;
+    }
+
+    @Nullable
+    public static ChunkCodec get(String id) {
+        return BY_ID.get(id);
+    }
+
+    @Nullable
+    public static ChunkCodec get(byte version) {
+        return BY_VERSION[version & 0xFF];
+    }
+
+    /**
+     * Gets the codec with the given id, falling back to {@link #DEFLATE} if
+     * there is none.
+     *
+     * @param id The codec id from the config
+     * @return The codec
+     */
+    public static ChunkCodec getOrDefault(String id) {
+        final ChunkCodec codec = BY_ID.get(id);
+        if (codec == null) {
+            SpongeImpl.getLogger().warn("Unknown chunk compression '{}', falling back to '{}'", id, DEFLATE.getId());
+            return DEFLATE;
+        }
+        return codec;
+    }
+
+    /**
+     * Decompresses the data of a chunk read from a region file.
+     *
+     * @param regionDir The directory of the region file
+     * @param version The version byte of the chunk
+     * @param data The compressed data
+     * @return The chunk data stream, or null if the version is unknown
+     * @throws IOException If the decompressing stream could not be created
+     */
+    @Nullable
+    public static DataInputStream decompress(Path regionDir, byte version, byte[] data) throws IOException {
+        final ChunkCodec codec = get(version);
+        if (codec == null) {
+            return null;
+        }
+        return new DataInputStream(new BufferedInputStream(codec.decompress(new ByteArrayInputStream(data), regionDir)));
+    }
+
+    /**
+     * Gets a stream to write a chunk with the given codec, the chunk is
+     * written to its region file once the stream is closed.
+     *
+     * @param worldDir The world directory
+     * @param chunkX The chunk x coordinate
+     * @param chunkZ The chunk z coordinate
+     * @param codec The codec to compress the chunk with
+     * @return The chunk data stream
+     * @throws IOException If the compressing stream could not be created
+     */
+    public static DataOutputStream getChunkOutputStream(File worldDir, int chunkX, int chunkZ, ChunkCodec codec) throws IOException {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8096) {
+
+            @Override
+            public void close() throws IOException {
+                ChunkSavePipeline.writeChunks(worldDir, Collections.singletonList(
+                        new CompressedChunk(chunkX, chunkZ, this.buf, this.count, codec.getVersion())));
+            }
+        };
+        return new DataOutputStream(new BufferedOutputStream(codec.compress(buffer, worldDir.toPath().resolve("region"))));
+    }
+
+}
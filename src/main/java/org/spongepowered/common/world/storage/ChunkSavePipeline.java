@@ -0,0 +1,251 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.world.chunk.storage.RegionFile;
+import net.minecraft.world.chunk.storage.RegionFileCache;
+import org.spongepowered.common.SpongeImpl;
+import org.spongepowered.common.bridge.world.chunk.storage.RegionFileBridge;
+import org.spongepowered.common.config.category.ChunkSaveCategory;
+import org.spongepowered.common.util.QueuedChunk;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import javax.annotation.Nullable;
+
+/**
+ * Compresses and writes batches of queued chunk saves, see
+ * {@link ChunkSaveCategory}. The chunks are compressed on a shared pool of
+ * compression threads, while the writes itself stay on the file IO thread.
+ */
+public final class ChunkSavePipeline {
+
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(Deflater::new);
+
+    private static final AtomicInteger BACKLOG = new AtomicInteger();
+    private static final AtomicLong SAVED_CHUNKS = new AtomicLong();
+    private static final AtomicLong COALESCED_CHUNKS = new AtomicLong();
+    private static final AtomicLong WRITTEN_BYTES = new AtomicLong();
+    private static final AtomicLong WRITTEN_BATCHES = new AtomicLong();
+    private static final AtomicLong WRITE_NANOS = new AtomicLong();
+
+    @Nullable private static volatile ExecutorService compressionExecutor;
+
+    private ChunkSavePipeline() {
+    }
+
+    @Nullable
+    private static ExecutorService getCompressionExecutor() {
+        final int threads = SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations().getChunkSaveCategory().getCompressionThreads();
+        if (threads <= 1) {
+            return null;
+        }
+        ExecutorService executor = compressionExecutor;
+        if (executor == null) {
+            synchronized (ChunkSavePipeline.class) {
+                executor = compressionExecutor;
+                if (executor == null) {
+                    executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder()
+                            .setNameFormat("Sponge - Chunk Compression Thread - %d")
+                            .setDaemon(true)
+                            .build());
+                    compressionExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Compresses the given chunks, in parallel when compression threads are
+     * configured.
+     *
+     * @param chunks The chunks to compress
+     * @param codec The codec to compress the chunks with
+     * @param worldDir The world directory
+     * @return The compressed chunks, in the same order
+     * @throws IOException If a chunk could not be serialized
+     */
+    public static List<CompressedChunk> compress(List<QueuedChunk> chunks, ChunkCodec codec, File worldDir) throws IOException {
+        final Path regionDir = worldDir.toPath().resolve("region");
+        final List<CompressedChunk> compressed = new ArrayList<>(chunks.size());
+        final ExecutorService executor = chunks.size() > 1 ? getCompressionExecutor() : null;
+        if (executor == null) {
+            for (final QueuedChunk chunk : chunks) {
+                compressed.add(compress(chunk, codec, regionDir));
+            }
+            return compressed;
+        }
+        final List<CompletableFuture<CompressedChunk>> futures = new ArrayList<>(chunks.size());
+        for (final QueuedChunk chunk : chunks) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return compress(chunk, codec, regionDir);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, executor));
+        }
+        try {
+            for (final CompletableFuture<CompressedChunk> future : futures) {
+                compressed.add(future.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+        return compressed;
+    }
+
+    private static CompressedChunk compress(QueuedChunk chunk, ChunkCodec codec, Path regionDir) throws IOException {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream(8096);
+        final OutputStream compressed;
+        if (codec == ChunkCodecs.DEFLATE) {
+            // Reuse the deflater of this thread instead of allocating native memory per chunk
+            final Deflater deflater = DEFLATER.get();
+            deflater.reset();
+            compressed = new DeflaterOutputStream(buffer, deflater);
+        } else {
+            compressed = codec.compress(buffer, regionDir);
+        }
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(compressed))) {
+            CompressedStreamTools.write(chunk.compound, out);
+        }
+        final byte[] data = buffer.toByteArray();
+        return new CompressedChunk(chunk.coords.x, chunk.coords.z, data, data.length, codec.getVersion());
+    }
+
+    /**
+     * Writes compressed chunks which all belong to the same region file.
+     *
+     * @param worldDir The world directory
+     * @param chunks The chunks of one region
+     * @throws IOException If the chunks could not be written
+     */
+    public static void write(File worldDir, List<CompressedChunk> chunks) throws IOException {
+        final long start = System.nanoTime();
+        writeChunks(worldDir, chunks);
+        long bytes = 0;
+        for (final CompressedChunk chunk : chunks) {
+            bytes += chunk.getLength();
+        }
+        WRITE_NANOS.addAndGet(System.nanoTime() - start);
+        WRITTEN_BYTES.addAndGet(bytes);
+        WRITTEN_BATCHES.incrementAndGet();
+    }
+
+    static void writeChunks(File worldDir, List<CompressedChunk> chunks) throws IOException {
+        if (SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations().useNioRegionFiles()) {
+            SpongeRegionFileCache.writeAll(worldDir.toPath(), chunks);
+        } else {
+            final CompressedChunk first = chunks.get(0);
+            final RegionFile regionFile = RegionFileCache.createOrLoadRegionFile(worldDir, first.getChunkX(), first.getChunkZ());
+            // Hold the monitor of the region file for the whole batch, the writes
+            // itself are synchronized on it as well
+            synchronized (regionFile) {
+                for (final CompressedChunk chunk : chunks) {
+                    ((RegionFileBridge) regionFile).bridge$write(chunk.getChunkX() & 31, chunk.getChunkZ() & 31, chunk.getData(),
+                            chunk.getLength(), chunk.getVersion());
+                }
+            }
+        }
+    }
+
+    public static void onChunkQueued() {
+        BACKLOG.incrementAndGet();
+    }
+
+    public static void onChunkDequeued() {
+        BACKLOG.decrementAndGet();
+    }
+
+    public static void onChunkSaved() {
+        SAVED_CHUNKS.incrementAndGet();
+    }
+
+    public static void onChunkCoalesced() {
+        COALESCED_CHUNKS.incrementAndGet();
+    }
+
+    /**
+     * Gets the amount of chunk saves that are queued but not yet written,
+     * over all worlds.
+     *
+     * @return The backlog
+     */
+    public static int getBacklog() {
+        return BACKLOG.get();
+    }
+
+    public static long getSavedChunks() {
+        return SAVED_CHUNKS.get();
+    }
+
+    public static long getCoalescedChunks() {
+        return COALESCED_CHUNKS.get();
+    }
+
+    public static long getWrittenBytes() {
+        return WRITTEN_BYTES.get();
+    }
+
+    public static long getWrittenBatches() {
+        return WRITTEN_BATCHES.get();
+    }
+
+    /**
+     * Gets the average throughput of the batched writes, in bytes per second
+     * spent writing.
+     *
+     * @return The write throughput
+     */
+    public static double getWriteThroughput() {
+        final long nanos = WRITE_NANOS.get();
+        return nanos == 0 ? 0 : WRITTEN_BYTES.get() * 1.0e9d / nanos;
+    }
+
+}
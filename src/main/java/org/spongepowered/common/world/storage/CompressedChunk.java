@@ -0,0 +1,75 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+/**
+ * The compressed data of a chunk, ready to be written to a region file.
+ */
+public final class CompressedChunk {
+
+    private final int chunkX;
+    private final int chunkZ;
+    private final byte[] data;
+    private final int length;
+    private final byte version;
+
+    public CompressedChunk(int chunkX, int chunkZ, byte[] data, int length, byte version) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.data = data;
+        this.length = length;
+        this.version = version;
+    }
+
+    public int getChunkX() {
+        return this.chunkX;
+    }
+
+    public int getChunkZ() {
+        return this.chunkZ;
+    }
+
+    public byte[] getData() {
+        return this.data;
+    }
+
+    public int getLength() {
+        return this.length;
+    }
+
+    public byte getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Gets the key of the region file this chunk is stored in.
+     *
+     * @return The region key
+     */
+    public long getRegionKey() {
+        return (long) (this.chunkX >> 5) << 32 | (this.chunkZ >> 5) & 0xFFFFFFFFL;
+    }
+
+}
@@ -0,0 +1,292 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import org.spongepowered.common.util.Constants;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Adler32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import javax.annotation.Nullable;
+
+/**
+ * A deflate codec using a preset dictionary, which mostly helps the many
+ * small chunks whose data is dominated by repeated NBT structure.
+ *
+ * <p>The dictionary of a world is read from the {@link #DICTIONARY_FILE} in
+ * its region directory, which is trained from existing chunks by the
+ * {@link ChunkCodecConverter}. Worlds without one use a built in dictionary
+ * of the vanilla chunk structure. The zlib header of every chunk contains the
+ * checksum of the dictionary it was compressed with, so chunks remain
+ * readable after the dictionary of their world was retrained.</p>
+ */
+final class DictionaryChunkCodec implements ChunkCodec {
+
+    static final String DICTIONARY_FILE = "chunks.dict";
+    static final int MAX_DICTIONARY_SIZE = 32 * 1024;
+
+    private static final int SEGMENT_LENGTH = 32;
+    private static final int SEGMENT_STRIDE = 16;
+
+    private static final Map<Integer, byte[]> DICTIONARIES_BY_ID = new ConcurrentHashMap<>();
+    private static final Map<Path, byte[]> DICTIONARIES_BY_DIR = new ConcurrentHashMap<>();
+
+    @Nullable private static volatile byte[] defaultDictionary;
+
+    @Override
+    public String getId() {
+        return "deflate-dictionary";
+    }
+
+    @Override
+    public byte getVersion() {
+        return 65;
+    }
+
+    @Override
+    public InputStream decompress(InputStream in, Path regionDir) {
+        final Inflater inflater = new Inflater();
+        return new InflaterInputStream(in, inflater) {
+
+            private boolean closed;
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                final int read = super.read(b, off, len);
+                if (read == -1 && this.inf.needsDictionary()) {
+                    this.inf.setDictionary(getDictionary(regionDir, this.inf.getAdler()));
+                    return super.read(b, off, len);
+                }
+                return read;
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (!this.closed) {
+                    this.closed = true;
+                    this.inf.end();
+                    super.close();
+                }
+            }
+        };
+    }
+
+    @Override
+    public OutputStream compress(OutputStream out, Path regionDir) throws IOException {
+        final Deflater deflater = new Deflater();
+        deflater.setDictionary(getDictionary(regionDir));
+        return new DeflaterOutputStream(out, deflater) {
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    this.def.end();
+                }
+            }
+        };
+    }
+
+    /**
+     * Gets the dictionary chunks of the given region directory are compressed
+     * with.
+     *
+     * @param regionDir The region directory
+     * @return The dictionary
+     * @throws IOException If the dictionary file could not be read
+     */
+    static byte[] getDictionary(Path regionDir) throws IOException {
+        regionDir = regionDir.toAbsolutePath().normalize();
+        byte[] dictionary = DICTIONARIES_BY_DIR.get(regionDir);
+        if (dictionary == null) {
+            final Path file = regionDir.resolve(DICTIONARY_FILE);
+            dictionary = Files.exists(file) ? Files.readAllBytes(file) : getDefaultDictionary();
+            DICTIONARIES_BY_ID.put(getId(dictionary), dictionary);
+            DICTIONARIES_BY_DIR.put(regionDir, dictionary);
+        }
+        return dictionary;
+    }
+
+    private static byte[] getDictionary(Path regionDir, int id) throws IOException {
+        byte[] dictionary = DICTIONARIES_BY_ID.get(id);
+        if (dictionary == null) {
+            dictionary = getDictionary(regionDir);
+            if (getId(dictionary) != id) {
+                // Compressed with a previous dictionary of the world
+                final Path previous = regionDir.resolve(DICTIONARY_FILE + "." + Integer.toHexString(id));
+                if (!Files.exists(previous)) {
+                    throw new IOException("Unknown chunk compression dictionary " + Integer.toHexString(id));
+                }
+                dictionary = Files.readAllBytes(previous);
+                DICTIONARIES_BY_ID.put(id, dictionary);
+            }
+        }
+        return dictionary;
+    }
+
+    /**
+     * Replaces the dictionary of the given region directory. The previous
+     * dictionary is kept next to it, so chunks which weren't converted yet
+     * stay readable.
+     *
+     * @param regionDir The region directory
+     * @param dictionary The new dictionary
+     * @throws IOException If the dictionary file could not be written
+     */
+    static void setDictionary(Path regionDir, byte[] dictionary) throws IOException {
+        regionDir = regionDir.toAbsolutePath().normalize();
+        final Path file = regionDir.resolve(DICTIONARY_FILE);
+        if (Files.exists(file)) {
+            final byte[] previous = Files.readAllBytes(file);
+            Files.write(regionDir.resolve(DICTIONARY_FILE + "." + Integer.toHexString(getId(previous))), previous);
+        }
+        Files.write(file, dictionary);
+        DICTIONARIES_BY_ID.put(getId(dictionary), dictionary);
+        DICTIONARIES_BY_DIR.put(regionDir, dictionary);
+    }
+
+    private static int getId(byte[] dictionary) {
+        final Adler32 adler = new Adler32();
+        adler.update(dictionary);
+        return (int) adler.getValue();
+    }
+
+    private static byte[] getDefaultDictionary() throws IOException {
+        byte[] dictionary = defaultDictionary;
+        if (dictionary == null) {
+            // The structure of an empty chunk, with the common entity and tile
+            // entity keys. Arrays are left empty, deflate deals with them fine.
+            final NBTTagCompound entity = new NBTTagCompound();
+            entity.setString(Constants.Entity.ENTITY_TYPE_ID, "minecraft:");
+            entity.setTag(Constants.Entity.ENTITY_POSITION, new NBTTagList());
+            entity.setTag("Motion", new NBTTagList());
+            entity.setTag(Constants.Entity.ENTITY_ROTATION, new NBTTagList());
+            entity.setFloat("FallDistance", 0);
+            entity.setShort("Fire", (short) -20);
+            entity.setShort("Air", (short) 300);
+            entity.setBoolean("OnGround", true);
+            entity.setInteger("Dimension", 0);
+            entity.setBoolean("Invulnerable", false);
+            entity.setInteger("PortalCooldown", 0);
+            entity.setLong("UUIDMost", 0);
+            entity.setLong("UUIDLeast", 0);
+            entity.setFloat("Health", 0);
+            final NBTTagCompound tileEntity = new NBTTagCompound();
+            tileEntity.setString("id", "minecraft:");
+            tileEntity.setInteger("x", 0);
+            tileEntity.setInteger("y", 0);
+            tileEntity.setInteger("z", 0);
+            tileEntity.setTag("Items", new NBTTagList());
+            final NBTTagCompound section = new NBTTagCompound();
+            section.setByte("Y", (byte) 0);
+            section.setByteArray("Blocks", new byte[0]);
+            section.setByteArray("Data", new byte[0]);
+            section.setByteArray("BlockLight", new byte[0]);
+            section.setByteArray("SkyLight", new byte[0]);
+            final NBTTagList sections = new NBTTagList();
+            sections.appendTag(section);
+            final NBTTagList entities = new NBTTagList();
+            entities.appendTag(entity);
+            final NBTTagList tileEntities = new NBTTagList();
+            tileEntities.appendTag(tileEntity);
+            final NBTTagCompound level = new NBTTagCompound();
+            level.setInteger("xPos", 0);
+            level.setInteger("zPos", 0);
+            level.setLong("LastUpdate", 0);
+            level.setBoolean("LightPopulated", true);
+            level.setBoolean("TerrainPopulated", true);
+            level.setByte("V", (byte) 1);
+            level.setLong("InhabitedTime", 0);
+            level.setByteArray("Biomes", new byte[0]);
+            level.setIntArray("HeightMap", new int[0]);
+            level.setTag(Constants.Chunk.CHUNK_DATA_SECTIONS, sections);
+            level.setTag("Entities", entities);
+            level.setTag("TileEntities", tileEntities);
+            final NBTTagCompound chunk = new NBTTagCompound();
+            chunk.setInteger("DataVersion", 0);
+            chunk.setTag(Constants.Chunk.CHUNK_DATA_LEVEL, level);
+
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            CompressedStreamTools.write(chunk, new DataOutputStream(out));
+            dictionary = out.toByteArray();
+            defaultDictionary = dictionary;
+        }
+        return dictionary;
+    }
+
+    /**
+     * Trains a dictionary from uncompressed chunk samples, by collecting the
+     * segments repeated most often over all samples. The most frequent
+     * segments are placed at the end of the dictionary, where deflate can
+     * reference them with the shortest distances.
+     *
+     * @param samples The uncompressed chunk data
+     * @return The dictionary
+     */
+    static byte[] train(List<byte[]> samples) {
+        final Map<ByteBuffer, int[]> counts = new HashMap<>();
+        for (final byte[] sample : samples) {
+            for (int i = 0; i + SEGMENT_LENGTH <= sample.length; i += SEGMENT_STRIDE) {
+                final ByteBuffer segment = ByteBuffer.wrap(sample, i, SEGMENT_LENGTH).slice();
+                counts.computeIfAbsent(segment, key -> new int[1])[0]++;
+            }
+        }
+        final List<Map.Entry<ByteBuffer, int[]>> segments = new ArrayList<>();
+        for (final Map.Entry<ByteBuffer, int[]> entry : counts.entrySet()) {
+            if (entry.getValue()[0] > 1) {
+                segments.add(entry);
+            }
+        }
+        segments.sort((a, b) -> Integer.compare(b.getValue()[0], a.getValue()[0]));
+        final int count = Math.min(segments.size(), MAX_DICTIONARY_SIZE / SEGMENT_LENGTH);
+        final byte[] dictionary = new byte[count * SEGMENT_LENGTH];
+        for (int i = 0; i < count; i++) {
+            // Most frequent last
+            segments.get(i).getKey().duplicate().get(dictionary, (count - 1 - i) * SEGMENT_LENGTH, SEGMENT_LENGTH);
+        }
+        return dictionary;
+    }
+
+}
@@ -0,0 +1,393 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A chunk codec using the LZ4 block format, which compresses slightly worse
+ * than deflate but is several times faster at both compressing and
+ * decompressing.
+ *
+ * <p>The data is split into blocks of at most {@link #BLOCK_SIZE} bytes,
+ * every block is stored as its uncompressed length, its compressed length and
+ * the LZ4 compressed data. Blocks which don't compress are stored as is, with
+ * both lengths being equal. A block with an uncompressed length of zero ends
+ * the stream.</p>
+ */
+final class Lz4ChunkCodec implements ChunkCodec {
+
+    static final int BLOCK_SIZE = 1 << 16;
+
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    private static final int MATCH_FIND_LIMIT = 12;
+    private static final int MAX_DISTANCE = 0xFFFF;
+    private static final int HASH_LOG = 12;
+
+    private static final ThreadLocal<int[]> HASH_TABLE = ThreadLocal.withInitial(() -> new int[1 << HASH_LOG]);
+
+    @Override
+    public String getId() {
+        return "lz4";
+    }
+
+    @Override
+    public byte getVersion() {
+        return 64;
+    }
+
+    @Override
+    public InputStream decompress(InputStream in, Path regionDir) {
+        return new BlockInputStream(in);
+    }
+
+    @Override
+    public OutputStream compress(OutputStream out, Path regionDir) {
+        return new BlockOutputStream(out);
+    }
+
+    static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    private static int readInt(byte[] buf, int index) {
+        return (buf[index] & 0xFF) | (buf[index + 1] & 0xFF) << 8 | (buf[index + 2] & 0xFF) << 16 | (buf[index + 3] & 0xFF) << 24;
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_LOG);
+    }
+
+    private static int writeLength(byte[] dst, int op, int length) {
+        while (length >= 255) {
+            dst[op++] = (byte) 255;
+            length -= 255;
+        }
+        dst[op++] = (byte) length;
+        return op;
+    }
+
+    private static int writeLiterals(byte[] dst, int op, byte[] src, int literalStart, int literalLength, int token) {
+        if (literalLength >= 15) {
+            dst[op++] = (byte) (0xF0 | token);
+            op = writeLength(dst, op, literalLength - 15);
+        } else {
+            dst[op++] = (byte) (literalLength << 4 | token);
+        }
+        System.arraycopy(src, literalStart, dst, op, literalLength);
+        return op + literalLength;
+    }
+
+    /**
+     * Compresses the given data into an LZ4 block.
+     *
+     * @param src The source buffer
+     * @param srcOff The offset of the data
+     * @param srcLen The length of the data
+     * @param dst The destination, at least {@link #maxCompressedLength(int)}
+     *     long from its offset
+     * @param dstOff The offset to write the block at
+     * @return The length of the block
+     */
+    static int compress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff) {
+        final int srcEnd = srcOff + srcLen;
+        final int matchFindLimit = srcEnd - MATCH_FIND_LIMIT;
+        final int matchLimit = srcEnd - LAST_LITERALS;
+        int anchor = srcOff;
+        int ip = srcOff;
+        int op = dstOff;
+
+        if (srcLen > MATCH_FIND_LIMIT) {
+            final int[] table = HASH_TABLE.get();
+            Arrays.fill(table, -1);
+            while (ip < matchFindLimit) {
+                final int sequence = readInt(src, ip);
+                final int h = hash(sequence);
+                int ref = table[h];
+                table[h] = ip;
+                if (ref < srcOff || ip - ref > MAX_DISTANCE || readInt(src, ref) != sequence) {
+                    ip++;
+                    continue;
+                }
+                // Extend the match backwards over the pending literals
+                while (ip > anchor && ref > srcOff && src[ip - 1] == src[ref - 1]) {
+                    ip--;
+                    ref--;
+                }
+                int matchLength = MIN_MATCH;
+                while (ip + matchLength < matchLimit && src[ip + matchLength] == src[ref + matchLength]) {
+                    matchLength++;
+                }
+
+                final int encodedMatchLength = matchLength - MIN_MATCH;
+                op = writeLiterals(dst, op, src, anchor, ip - anchor, Math.min(encodedMatchLength, 15));
+                final int distance = ip - ref;
+                dst[op++] = (byte) distance;
+                dst[op++] = (byte) (distance >>> 8);
+                if (encodedMatchLength >= 15) {
+                    op = writeLength(dst, op, encodedMatchLength - 15);
+                }
+                ip += matchLength;
+                anchor = ip;
+            }
+        }
+
+        return writeLiterals(dst, op, src, anchor, srcEnd - anchor, 0) - dstOff;
+    }
+
+    /**
+     * Decompresses an LZ4 block.
+     *
+     * @param src The source buffer
+     * @param srcOff The offset of the block
+     * @param srcLen The length of the block
+     * @param dst The destination buffer
+     * @param dstOff The offset to write the data at
+     * @param dstLen The exact length of the decompressed data
+     * @throws IOException If the block is malformed
+     */
+    static void decompress(byte[] src, int srcOff, int srcLen, byte[] dst, int dstOff, int dstLen) throws IOException {
+        final int srcEnd = srcOff + srcLen;
+        final int dstEnd = dstOff + dstLen;
+        int ip = srcOff;
+        int op = dstOff;
+        try {
+            while (true) {
+                final int token = src[ip++] & 0xFF;
+                int literalLength = token >>> 4;
+                if (literalLength == 15) {
+                    int b;
+                    do {
+                        b = src[ip++] & 0xFF;
+                        literalLength += b;
+                    } while (b == 255);
+                }
+                if (ip + literalLength > srcEnd || op + literalLength > dstEnd) {
+                    throw new IOException("Malformed LZ4 block");
+                }
+                System.arraycopy(src, ip, dst, op, literalLength);
+                ip += literalLength;
+                op += literalLength;
+                if (ip == srcEnd) {
+                    break;
+                }
+
+                final int distance = (src[ip] & 0xFF) | (src[ip + 1] & 0xFF) << 8;
+                ip += 2;
+                int matchLength = token & 0xF;
+                if (matchLength == 15) {
+                    int b;
+                    do {
+                        b = src[ip++] & 0xFF;
+                        matchLength += b;
+                    } while (b == 255);
+                }
+                matchLength += MIN_MATCH;
+                int ref = op - distance;
+                if (distance == 0 || ref < dstOff || op + matchLength > dstEnd) {
+                    throw new IOException("Malformed LZ4 block");
+                }
+                if (distance >= matchLength) {
+                    System.arraycopy(dst, ref, dst, op, matchLength);
+                    op += matchLength;
+                } else {
+                    // Overlapping match, repeats the last bytes
+                    final int end = op + matchLength;
+                    while (op < end) {
+                        dst[op++] = dst[ref++];
+                    }
+                }
+            }
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Malformed LZ4 block", e);
+        }
+        if (op != dstEnd) {
+            throw new IOException("Malformed LZ4 block");
+        }
+    }
+
+    static final class BlockOutputStream extends FilterOutputStream {
+
+        private final byte[] buffer = new byte[BLOCK_SIZE];
+        private byte[] compressed = new byte[0];
+        private int count;
+        private boolean closed;
+
+        BlockOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (this.count == BLOCK_SIZE) {
+                flushBlock();
+            }
+            this.buffer[this.count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (this.count == BLOCK_SIZE) {
+                    flushBlock();
+                }
+                final int length = Math.min(len, BLOCK_SIZE - this.count);
+                System.arraycopy(b, off, this.buffer, this.count, length);
+                this.count += length;
+                off += length;
+                len -= length;
+            }
+        }
+
+        private void flushBlock() throws IOException {
+            if (this.count == 0) {
+                return;
+            }
+            final int maxLength = maxCompressedLength(this.count);
+            if (this.compressed.length < maxLength) {
+                this.compressed = new byte[maxLength];
+            }
+            final int length = compress(this.buffer, 0, this.count, this.compressed, 0);
+            writeInt(this.count);
+            if (length < this.count) {
+                writeInt(length);
+                this.out.write(this.compressed, 0, length);
+            } else {
+                writeInt(this.count);
+                this.out.write(this.buffer, 0, this.count);
+            }
+            this.count = 0;
+        }
+
+        private void writeInt(int value) throws IOException {
+            this.out.write(value >>> 24);
+            this.out.write(value >>> 16);
+            this.out.write(value >>> 8);
+            this.out.write(value);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.closed) {
+                return;
+            }
+            this.closed = true;
+            try {
+                flushBlock();
+                writeInt(0);
+            } finally {
+                this.out.close();
+            }
+        }
+    }
+
+    static final class BlockInputStream extends InputStream {
+
+        private final DataInputStream in;
+        private final byte[] buffer = new byte[BLOCK_SIZE];
+        private byte[] compressed = new byte[0];
+        private int position;
+        private int count;
+        private boolean finished;
+
+        BlockInputStream(InputStream in) {
+            this.in = new DataInputStream(in);
+        }
+
+        private boolean fill() throws IOException {
+            if (this.finished) {
+                return false;
+            }
+            final int length;
+            final int compressedLength;
+            try {
+                length = this.in.readInt();
+                if (length == 0) {
+                    this.finished = true;
+                    return false;
+                }
+                compressedLength = this.in.readInt();
+            } catch (EOFException e) {
+                throw new IOException("Truncated LZ4 stream", e);
+            }
+            if (length < 0 || length > BLOCK_SIZE || compressedLength <= 0 || compressedLength > length) {
+                throw new IOException("Malformed LZ4 stream");
+            }
+            if (compressedLength == length) {
+                this.in.readFully(this.buffer, 0, length);
+            } else {
+                if (this.compressed.length < compressedLength) {
+                    this.compressed = new byte[maxCompressedLength(BLOCK_SIZE)];
+                }
+                this.in.readFully(this.compressed, 0, compressedLength);
+                Lz4ChunkCodec.decompress(this.compressed, 0, compressedLength, this.buffer, 0, length);
+            }
+            this.position = 0;
+            this.count = length;
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (this.position == this.count && !fill()) {
+                return -1;
+            }
+            return this.buffer[this.position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (this.position == this.count && !fill()) {
+                return -1;
+            }
+            final int length = Math.min(len, this.count - this.position);
+            System.arraycopy(this.buffer, this.position, b, off, length);
+            this.position += length;
+            return length;
+        }
+
+        @Override
+        public int available() {
+            return this.count - this.position;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.in.close();
+        }
+    }
+
+}
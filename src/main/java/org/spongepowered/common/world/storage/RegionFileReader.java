@@ -0,0 +1,198 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import javax.annotation.Nullable;
+
+/**
+ * A read only view of a region file which reads the chunk sectors with
+ * positional {@link FileChannel} reads. Unlike the vanilla region file it
+ * holds no lock, so several chunks of the same file may be read concurrently.
+ */
+public final class RegionFileReader implements Closeable {
+
+    public static final int SECTOR_BYTES = 4096;
+    public static final int CHUNKS_PER_REGION = 1024;
+
+    private final FileChannel channel;
+    private final Path regionDir;
+    private final int[] offsets;
+    private final long size;
+
+    public RegionFileReader(Path file) throws IOException {
+        this.regionDir = file.toAbsolutePath().getParent();
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            this.size = this.channel.size();
+            this.offsets = readOffsets(this.channel);
+        } catch (IOException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the chunk offset table of the given region file, without reading
+     * any of the chunk sectors.
+     *
+     * @param file The region file
+     * @return The offsets of all the chunks, indexed by {@code x + z * 32}
+     * @throws IOException If the header could not be read
+     */
+    public static int[] readOffsets(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return readOffsets(channel);
+        }
+    }
+
+    private static int[] readOffsets(FileChannel channel) throws IOException {
+        final int[] offsets = new int[CHUNKS_PER_REGION];
+        if (channel.size() < SECTOR_BYTES) {
+            // Empty or truncated file, vanilla treats it as having no chunks
+            return offsets;
+        }
+        // A heap buffer rather than a mapping, which would keep the file from
+        // being replaced on Windows until it is garbage collected
+        final ByteBuffer header = ByteBuffer.allocate(SECTOR_BYTES);
+        readFully(channel, header, 0);
+        header.flip();
+        header.asIntBuffer().get(offsets);
+        return offsets;
+    }
+
+    /**
+     * Counts the chunks present in the given region file from its header.
+     *
+     * @param file The region file
+     * @return The amount of chunks in the file
+     */
+    public static int countChunks(Path file) {
+        try {
+            return countChunks(readOffsets(file), 0);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    static int countChunks(int[] offsets, int fromIndex) {
+        int count = 0;
+        for (int i = Math.max(0, fromIndex); i < offsets.length; i++) {
+            if (offsets[i] != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int[] getOffsets() {
+        return this.offsets;
+    }
+
+    /**
+     * Reads and decompresses the data of the chunk at the given index, this
+     * may be called concurrently.
+     *
+     * @param index The chunk index, {@code x + z * 32}
+     * @return The chunk data stream, or null if the chunk is absent or corrupted
+     * @throws IOException If the file could not be read
+     */
+    @Nullable
+    public DataInputStream getChunkDataInputStream(int index) throws IOException {
+        final CompressedChunk chunk = getCompressedChunk(index);
+        if (chunk == null) {
+            return null;
+        }
+        return ChunkCodecs.decompress(this.regionDir, chunk.getVersion(), chunk.getData());
+    }
+
+    /**
+     * Reads the still compressed data of the chunk at the given index, this
+     * may be called concurrently.
+     *
+     * @param index The chunk index, {@code x + z * 32}
+     * @return The compressed chunk, or null if the chunk is absent or corrupted
+     * @throws IOException If the file could not be read
+     */
+    @Nullable
+    public CompressedChunk getCompressedChunk(int index) throws IOException {
+        final int offset = this.offsets[index];
+        if (offset == 0) {
+            return null;
+        }
+        final long sectorStart = (long) (offset >>> 8) * SECTOR_BYTES;
+        final int sectorCount = offset & 0xFF;
+        if (sectorCount == 0 || sectorStart + (long) sectorCount * SECTOR_BYTES > this.size) {
+            // Like vanilla, a chunk pointing past the end of the file is absent
+            return null;
+        }
+
+        final ByteBuffer header = ByteBuffer.allocate(5);
+        readFully(this.channel, header, sectorStart);
+        header.flip();
+        final int length = header.getInt();
+        final byte version = header.get();
+        if (length <= 1 || length > sectorCount * SECTOR_BYTES) {
+            return null;
+        }
+        final byte[] data = new byte[length - 1];
+        readFully(this.channel, ByteBuffer.wrap(data), sectorStart + 5);
+        return new CompressedChunk(index & 31, index >>> 5, data, data.length, version);
+    }
+
+    public Path getRegionDir() {
+        return this.regionDir;
+    }
+
+    static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        final int start = buffer.position();
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, position + buffer.position() - start);
+            if (read < 0) {
+                throw new IOException("Unexpected end of region file");
+            }
+        }
+    }
+
+    static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        final int start = buffer.position();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position() - start);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+}
@@ -25,31 +25,41 @@
 package org.spongepowered.common.world.storage;
 
 import com.google.common.collect.Sets;
-import net.minecraft.world.chunk.storage.RegionFile;
 import org.spongepowered.api.data.DataContainer;
 import org.spongepowered.api.world.storage.ChunkDataStream;
-import org.spongepowered.common.bridge.world.chunk.storage.RegionFileAccessor;
+import org.spongepowered.common.SpongeImpl;
 
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 public class SpongeChunkDataStream implements ChunkDataStream {
 
     private static class RegionFileItr {
 
-        private final RegionFile file;
+        private final int[] offsets;
+        private final int chunkX;
+        private final int chunkZ;
         public int index;
 
-        public RegionFileItr(final RegionFile regionFile) {
-            this.file = regionFile;
+        public RegionFileItr(final int[] offsets, final int[] chunkCoords) {
+            this.offsets = offsets;
+            this.chunkX = chunkCoords[0];
+            this.chunkZ = chunkCoords[1];
         }
 
         public int getNext() {
             int index = this.index;
-            final int[] offsets = ((RegionFileAccessor) this.file).accessor$getOffsets();
+            final int[] offsets = this.offsets;
             while (index != -1 && index < offsets.length && offsets[index] == 0) {
                 index++;
             }
@@ -59,10 +69,10 @@ public int getNext() {
             return index;
         }
 
-        public DataInputStream getStreamAt(final int index) {
-            final int x = index & 31;
-            final int z = index >>> 5;
-            return this.file.getChunkDataInputStream(x, z);
+        public DataInputStream getStreamAt(final Path worldDir, final int index) throws IOException {
+            // Chunks are read through the region file cache, the offsets are only
+            // used to skip the absent chunks
+            return WorldStorageUtil.getChunkInputStream(worldDir, this.chunkX + (index & 31), this.chunkZ + (index >>> 5));
         }
 
     }
@@ -81,9 +91,17 @@ private boolean itrAvailable() {
         }
         final Iterable<Path> files = WorldStorageUtil.listRegionFiles(this.worldDir);
         for (final Path file : files) {
-            if (!this.openedFiles.contains(file)) {
-                this.regionFileItr = new RegionFileItr(WorldStorageUtil.getRegionFile(file));
-                this.openedFiles.add(file);
+            if (this.openedFiles.add(file)) {
+                final int[] chunkCoords = WorldStorageUtil.getRegionChunkCoords(file);
+                if (chunkCoords == null) {
+                    continue;
+                }
+                try {
+                    this.regionFileItr = new RegionFileItr(RegionFileReader.readOffsets(file), chunkCoords);
+                } catch (IOException e) {
+                    // Unreadable region files are skipped like vanilla does
+                    continue;
+                }
                 return true;
             }
         }
@@ -109,8 +127,8 @@ public DataContainer next() {
             throw new NoSuchElementException();
         }
         this.regionFileItr.index = next + 1;
-        final DataInputStream stream = this.regionFileItr.getStreamAt(next);
         try {
+            final DataInputStream stream = this.regionFileItr.getStreamAt(this.worldDir, next);
             return WorldStorageUtil.readDataFromRegion(stream);
         } catch (IOException e) {
             throw new RuntimeException(e);
@@ -124,23 +142,123 @@ public boolean hasNext() {
 
     @Override
     public int available() {
-        // Advance to the end of the stream, counting along the way. Store
-        // previous state and reset to it afterwards.
-        final RegionFileItr currentItr = this.regionFileItr;
-        final Set<Path> currentOpenedFiles = Sets.newHashSet(this.openedFiles);
+        // Count the remaining chunks from the region file headers alone,
+        // without reading any chunk or opening the vanilla region files.
         int count = 0;
-        int index = getNextIndex();
-        while (index != -1) {
-            count++;
-            this.regionFileItr.index = index + 1;
-            index = getNextIndex();
+        if (this.regionFileItr != null) {
+            count += RegionFileReader.countChunks(this.regionFileItr.offsets, this.regionFileItr.index);
+        }
+        for (final Path file : WorldStorageUtil.listRegionFiles(this.worldDir)) {
+            if (!this.openedFiles.contains(file)) {
+                count += RegionFileReader.countChunks(file);
+            }
         }
-        this.regionFileItr = currentItr;
-        this.openedFiles.clear();
-        this.openedFiles.addAll(currentOpenedFiles);
         return count;
     }
 
+    /**
+     * Reads every chunk of the world in parallel, independently of the
+     * position of this stream. Every region file is read by a single task
+     * submitted to the given executor, chunks are read with positional reads
+     * so they don't contend with the vanilla region file monitors.
+     *
+     * <p>The action is called concurrently from the executor threads.</p>
+     *
+     * @param action The action to perform on every chunk
+     * @param executor The executor to read the region files with
+     * @return A future completed once every chunk was read
+     */
+    public CompletableFuture<Void> forEachParallel(final Consumer<? super DataContainer> action, final Executor executor) {
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (final Path file : WorldStorageUtil.listRegionFiles(this.worldDir)) {
+            futures.add(CompletableFuture.runAsync(() -> readRegionFile(file, action), executor));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Reads every chunk of the world in parallel on a dedicated pool with the
+     * given parallelism, blocking until all chunks were read.
+     *
+     * @param action The action to perform on every chunk
+     * @param parallelism The amount of threads reading region files
+     * @see #forEachParallel(Consumer, Executor)
+     */
+    public void forEachParallel(final Consumer<? super DataContainer> action, final int parallelism) {
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            forEachParallel(action, pool).join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Converts every chunk of the world to the given codec, in parallel over
+     * the region files. The world may not be loaded while converting.
+     *
+     * <p>Converting to {@link ChunkCodecs#DEFLATE_DICTIONARY} first trains a
+     * new dictionary from the existing chunks of the world.</p>
+     *
+     * @param codec The codec to convert to
+     * @param executor The executor to convert the region files with
+     * @return A future completed with the amount of converted chunks
+     */
+    public CompletableFuture<Integer> convert(final ChunkCodec codec, final Executor executor) {
+        final Path regionDir = this.worldDir.resolve("region");
+        final Iterable<Path> files = WorldStorageUtil.listRegionFiles(this.worldDir);
+        final CompletableFuture<Void> prepare;
+        if (codec == ChunkCodecs.DEFLATE_DICTIONARY) {
+            prepare = CompletableFuture.runAsync(() -> {
+                try {
+                    ChunkCodecConverter.trainDictionary(regionDir, files);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        } else {
+            prepare = CompletableFuture.completedFuture(null);
+        }
+        return prepare.thenCompose(v -> {
+            final List<CompletableFuture<Integer>> futures = new ArrayList<>();
+            for (final Path file : files) {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return ChunkCodecConverter.convertRegionFile(file, codec);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor));
+            }
+            return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                    .thenApply(ignored -> futures.stream().mapToInt(CompletableFuture::join).sum());
+        });
+    }
+
+    private static void readRegionFile(final Path file, final Consumer<? super DataContainer> action) {
+        try (final RegionFileReader reader = new RegionFileReader(file)) {
+            final int[] offsets = reader.getOffsets();
+            for (int index = 0; index < offsets.length; index++) {
+                if (offsets[index] == 0) {
+                    continue;
+                }
+                final DataContainer data;
+                try (final DataInputStream stream = reader.getChunkDataInputStream(index)) {
+                    data = WorldStorageUtil.readDataFromRegion(stream);
+                } catch (IOException e) {
+                    // One unreadable chunk should not hide the rest of the region
+                    SpongeImpl.getLogger().warn("Skipping unreadable chunk {} of region file {}", index, file, e);
+                    continue;
+                }
+                if (data != null) {
+                    action.accept(data);
+                }
+            }
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+
     @Override
     public void reset() {
         this.regionFileItr = null;
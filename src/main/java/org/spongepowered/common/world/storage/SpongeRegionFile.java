@@ -0,0 +1,291 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.annotation.Nullable;
+
+/**
+ * A region file in the vanilla anvil format, accessed through positional
+ * {@link FileChannel} calls instead of seeking a shared
+ * {@link java.io.RandomAccessFile}. Every region file has its own read write
+ * lock, so chunks of a region can be read concurrently and only writes to the
+ * same region exclude each other.
+ */
+public final class SpongeRegionFile implements Closeable {
+
+    private static final int SECTOR_BYTES = RegionFileReader.SECTOR_BYTES;
+    private static final int HEADER_BYTES = SECTOR_BYTES * 2;
+    private static final int MAX_SECTORS_PER_CHUNK = 256;
+
+    private final FileChannel channel;
+    private final Path regionDir;
+    private final int[] offsets = new int[RegionFileReader.CHUNKS_PER_REGION];
+    private final BitSet usedSectors = new BitSet();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int sectorCount;
+    private boolean closed;
+
+    public SpongeRegionFile(Path file) throws IOException {
+        this.regionDir = file.toAbsolutePath().getParent();
+        this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE);
+        try {
+            long size = this.channel.size();
+            if (size < HEADER_BYTES) {
+                // New or truncated file, write an empty header like vanilla does
+                RegionFileReader.writeFully(this.channel, ByteBuffer.allocate((int) (HEADER_BYTES - size)), size);
+                size = HEADER_BYTES;
+            }
+            if ((size & (SECTOR_BYTES - 1)) != 0) {
+                // Pad the file to a whole sector
+                final int padding = (int) (SECTOR_BYTES - (size & (SECTOR_BYTES - 1)));
+                RegionFileReader.writeFully(this.channel, ByteBuffer.allocate(padding), size);
+                size += padding;
+            }
+            this.sectorCount = (int) (size / SECTOR_BYTES);
+            this.usedSectors.set(0, 2);
+
+            final IntBuffer header = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, SECTOR_BYTES).asIntBuffer();
+            header.get(this.offsets);
+            for (final int offset : this.offsets) {
+                final int sectorStart = offset >>> 8;
+                final int sectors = offset & 0xFF;
+                if (offset != 0 && sectorStart + sectors <= this.sectorCount) {
+                    this.usedSectors.set(sectorStart, sectorStart + sectors);
+                }
+            }
+        } catch (IOException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    private static int index(int chunkX, int chunkZ) {
+        return (chunkX & 31) + (chunkZ & 31) * 32;
+    }
+
+    public boolean hasChunk(int chunkX, int chunkZ) throws IOException {
+        this.lock.readLock().lock();
+        try {
+            ensureOpen();
+            return this.offsets[index(chunkX, chunkZ)] != 0;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the data of the given chunk.
+     *
+     * @param chunkX The chunk x coordinate
+     * @param chunkZ The chunk z coordinate
+     * @return The decompressed chunk data, or null if the chunk is absent
+     * @throws ClosedChannelException If this file was closed by the cache
+     * @throws IOException If the chunk could not be read
+     */
+    @Nullable
+    public DataInputStream read(int chunkX, int chunkZ) throws IOException {
+        final byte version;
+        final byte[] data;
+        this.lock.readLock().lock();
+        try {
+            ensureOpen();
+            final int offset = this.offsets[index(chunkX, chunkZ)];
+            if (offset == 0) {
+                return null;
+            }
+            final int sectorStart = offset >>> 8;
+            final int sectors = offset & 0xFF;
+            if (sectorStart + sectors > this.sectorCount) {
+                return null;
+            }
+            final ByteBuffer header = ByteBuffer.allocate(5);
+            RegionFileReader.readFully(this.channel, header, (long) sectorStart * SECTOR_BYTES);
+            header.flip();
+            final int length = header.getInt();
+            version = header.get();
+            if (length <= 1 || length > sectors * SECTOR_BYTES) {
+                return null;
+            }
+            data = new byte[length - 1];
+            RegionFileReader.readFully(this.channel, ByteBuffer.wrap(data), (long) sectorStart * SECTOR_BYTES + 5);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+        // Decompression happens outside of the lock
+        return ChunkCodecs.decompress(this.regionDir, version, data);
+    }
+
+    /**
+     * Writes the already compressed data of the given chunk, reusing its
+     * current sectors when the data still fits in them.
+     *
+     * @param chunkX The chunk x coordinate
+     * @param chunkZ The chunk z coordinate
+     * @param data The compressed data
+     * @param length The length of the data
+     * @param version The compression version of the data
+     * @throws ClosedChannelException If this file was closed by the cache
+     * @throws IOException If the chunk could not be written
+     */
+    public void write(int chunkX, int chunkZ, byte[] data, int length, byte version) throws IOException {
+        this.lock.writeLock().lock();
+        try {
+            ensureOpen();
+            writeLocked(chunkX, chunkZ, data, length, version);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the already compressed data of multiple chunks of this region
+     * while holding the write lock once.
+     *
+     * @param chunks The compressed chunks
+     * @throws ClosedChannelException If this file was closed by the cache
+     * @throws IOException If a chunk could not be written
+     */
+    public void writeAll(Iterable<CompressedChunk> chunks) throws IOException {
+        this.lock.writeLock().lock();
+        try {
+            ensureOpen();
+            for (final CompressedChunk chunk : chunks) {
+                writeLocked(chunk.getChunkX(), chunk.getChunkZ(), chunk.getData(), chunk.getLength(), chunk.getVersion());
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    private void writeLocked(int chunkX, int chunkZ, byte[] data, int length, byte version) throws IOException {
+        final int index = index(chunkX, chunkZ);
+        final int sectorsNeeded = (length + 5) / SECTOR_BYTES + 1;
+        if (sectorsNeeded >= MAX_SECTORS_PER_CHUNK) {
+            // Same as vanilla, chunks of 1 MiB or more can't be stored
+            return;
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(length + 5);
+        buffer.putInt(length + 1).put(version).put(data, 0, length).flip();
+
+        final int offset = this.offsets[index];
+        int sectorStart = offset >>> 8;
+        final int currentSectors = offset & 0xFF;
+        if (offset == 0 || currentSectors != sectorsNeeded) {
+            if (offset != 0) {
+                this.usedSectors.clear(sectorStart, sectorStart + currentSectors);
+            }
+            sectorStart = allocate(sectorsNeeded);
+        }
+        RegionFileReader.writeFully(this.channel, buffer, (long) sectorStart * SECTOR_BYTES);
+
+        final int newOffset = sectorStart << 8 | sectorsNeeded;
+        this.offsets[index] = newOffset;
+        final ByteBuffer entry = ByteBuffer.allocate(4);
+        entry.putInt(newOffset).flip();
+        RegionFileReader.writeFully(this.channel, entry, index * 4L);
+        entry.clear();
+        entry.putInt((int) (System.currentTimeMillis() / 1000L)).flip();
+        RegionFileReader.writeFully(this.channel, entry, SECTOR_BYTES + index * 4L);
+    }
+
+    private int allocate(int sectors) {
+        int start = this.usedSectors.nextClearBit(2);
+        while (start < this.sectorCount) {
+            final int end = this.usedSectors.nextSetBit(start);
+            if (end == -1 || end >= this.sectorCount) {
+                break;
+            }
+            if (end - start >= sectors) {
+                this.usedSectors.set(start, start + sectors);
+                return start;
+            }
+            start = this.usedSectors.nextClearBit(end);
+        }
+        // Either append at the end of the file or grow the trailing free run
+        if (start > this.sectorCount) {
+            start = this.sectorCount;
+        }
+        this.usedSectors.set(start, start + sectors);
+        this.sectorCount = Math.max(this.sectorCount, start + sectors);
+        return start;
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (this.closed) {
+            throw new ClosedChannelException();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.lock.writeLock().lock();
+        try {
+            if (!this.closed) {
+                this.closed = true;
+                this.channel.close();
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Buffers the compressed data of a chunk and writes it to the region file
+     * when closed, like the vanilla chunk buffer.
+     */
+    static final class ChunkBuffer extends ByteArrayOutputStream {
+
+        private final Path worldDir;
+        private final int chunkX;
+        private final int chunkZ;
+
+        ChunkBuffer(Path worldDir, int chunkX, int chunkZ) {
+            super(8096);
+            this.worldDir = worldDir;
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+        }
+
+        @Override
+        public void close() throws IOException {
+            SpongeRegionFileCache.write(this.worldDir, this.chunkX, this.chunkZ, this.buf, this.count, ChunkCodecs.DEFLATE.getVersion());
+        }
+    }
+
+}
@@ -0,0 +1,325 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import org.spongepowered.common.SpongeImpl;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import javax.annotation.Nullable;
+
+/**
+ * A replacement for {@link net.minecraft.world.chunk.storage.RegionFileCache}
+ * backed by {@link SpongeRegionFile}s. Open region files are kept in a bounded
+ * LRU, the cache lock is only held to look up, insert or evict an entry. Region
+ * files are opened and closed outside of it, a file that is still being closed
+ * is only opened again once the evicted instance was closed, so there is at
+ * most one open instance per file. All chunk IO happens under the lock of the
+ * region file itself.
+ */
+public final class SpongeRegionFileCache {
+
+    private static final Map<Path, CompletableFuture<SpongeRegionFile>> REGIONS_BY_FILE = new LinkedHashMap<>(16, 0.75f, true);
+    private static final Map<Path, CompletableFuture<Void>> CLOSING = new HashMap<>();
+
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+    private static final AtomicLong EVICTIONS = new AtomicLong();
+
+    private SpongeRegionFileCache() {
+    }
+
+    private static Path getRegionDir(Path worldDir) {
+        // One key per file no matter how the world directory is spelled
+        return worldDir.toAbsolutePath().normalize().resolve("region");
+    }
+
+    private static Path getRegionPath(Path worldDir, int chunkX, int chunkZ) {
+        return getRegionDir(worldDir).resolve("r." + (chunkX >> 5) + "." + (chunkZ >> 5) + ".mca");
+    }
+
+    @Nullable
+    private static SpongeRegionFile getRegionFile(Path worldDir, int chunkX, int chunkZ, boolean create) throws IOException {
+        final Path file = getRegionPath(worldDir, chunkX, chunkZ);
+        while (true) {
+            final List<Evicted> evicted = new ArrayList<>();
+            final CompletableFuture<SpongeRegionFile> future;
+            final CompletableFuture<Void> closing;
+            boolean open = false;
+            synchronized (REGIONS_BY_FILE) {
+                final CompletableFuture<SpongeRegionFile> cached = REGIONS_BY_FILE.get(file);
+                closing = cached == null ? CLOSING.get(file) : null;
+                if (cached != null || closing != null || !create) {
+                    future = cached;
+                } else {
+                    MISSES.incrementAndGet();
+                    future = new CompletableFuture<>();
+                    REGIONS_BY_FILE.put(file, future);
+                    open = true;
+
+                    final int maxOpenFiles = Math.max(1, SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations()
+                            .getRegionFileCategory().getMaxOpenFiles());
+                    final Iterator<Map.Entry<Path, CompletableFuture<SpongeRegionFile>>> iterator = REGIONS_BY_FILE.entrySet().iterator();
+                    while (REGIONS_BY_FILE.size() > maxOpenFiles && iterator.hasNext()) {
+                        evicted.add(evict(iterator.next()));
+                        iterator.remove();
+                        EVICTIONS.incrementAndGet();
+                    }
+                }
+            }
+            if (closing != null) {
+                // The previous instance of this file is still being closed
+                closing.join();
+                continue;
+            }
+            if (future == null) {
+                // Only files that exist are opened when not creating them, the
+                // check is done outside of the cache lock
+                if (!Files.exists(file)) {
+                    return null;
+                }
+                create = true;
+                continue;
+            }
+            if (open) {
+                try {
+                    Files.createDirectories(file.getParent());
+                    future.complete(new SpongeRegionFile(file));
+                } catch (IOException | RuntimeException e) {
+                    synchronized (REGIONS_BY_FILE) {
+                        REGIONS_BY_FILE.remove(file, future);
+                    }
+                    future.completeExceptionally(e);
+                }
+            } else {
+                HITS.incrementAndGet();
+            }
+            // Closing waits for the IO in progress on the evicted files, so don't
+            // block other lookups while doing so
+            closeAll(evicted);
+            return await(future);
+        }
+    }
+
+    private static SpongeRegionFile await(CompletableFuture<SpongeRegionFile> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Marks the file of the given entry as closing, must be called while
+     * holding the cache lock.
+     */
+    private static Evicted evict(Map.Entry<Path, CompletableFuture<SpongeRegionFile>> entry) {
+        final Evicted evicted = new Evicted(entry.getKey(), entry.getValue());
+        CLOSING.put(evicted.file, evicted.closed);
+        return evicted;
+    }
+
+    private static void closeAll(List<Evicted> evicted) {
+        for (final Evicted file : evicted) {
+            try {
+                final SpongeRegionFile regionFile = file.regionFile.join();
+                try {
+                    regionFile.close();
+                } catch (IOException e) {
+                    SpongeImpl.getLogger().error("Failed to close region file", e);
+                }
+            } catch (CompletionException e) {
+                // The file failed to open, there is nothing to close
+            } finally {
+                synchronized (REGIONS_BY_FILE) {
+                    CLOSING.remove(file.file, file.closed);
+                }
+                file.closed.complete(null);
+            }
+        }
+    }
+
+    @Nullable
+    public static DataInputStream getChunkInputStream(Path worldDir, int chunkX, int chunkZ) throws IOException {
+        while (true) {
+            final SpongeRegionFile regionFile = getRegionFile(worldDir, chunkX, chunkZ, false);
+            if (regionFile == null) {
+                return null;
+            }
+            try {
+                return regionFile.read(chunkX, chunkZ);
+            } catch (ClosedChannelException e) {
+                // Evicted while reading, reopen it
+            }
+        }
+    }
+
+    public static DataOutputStream getChunkOutputStream(Path worldDir, int chunkX, int chunkZ) {
+        return new DataOutputStream(new DeflaterOutputStream(new SpongeRegionFile.ChunkBuffer(worldDir, chunkX, chunkZ),
+                new Deflater(), 512, false) {
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    this.def.end();
+                }
+            }
+        });
+    }
+
+    static void write(Path worldDir, int chunkX, int chunkZ, byte[] data, int length, byte version) throws IOException {
+        while (true) {
+            final SpongeRegionFile regionFile = getRegionFile(worldDir, chunkX, chunkZ, true);
+            try {
+                regionFile.write(chunkX, chunkZ, data, length, version);
+                return;
+            } catch (ClosedChannelException e) {
+                // Evicted while writing, reopen it
+            }
+        }
+    }
+
+    /**
+     * Writes compressed chunks which all belong to the same region file.
+     *
+     * @param worldDir The world directory
+     * @param chunks The chunks of one region
+     * @throws IOException If the chunks could not be written
+     */
+    public static void writeAll(Path worldDir, List<CompressedChunk> chunks) throws IOException {
+        if (chunks.isEmpty()) {
+            return;
+        }
+        final CompressedChunk first = chunks.get(0);
+        while (true) {
+            final SpongeRegionFile regionFile = getRegionFile(worldDir, first.getChunkX(), first.getChunkZ(), true);
+            try {
+                regionFile.writeAll(chunks);
+                return;
+            } catch (ClosedChannelException e) {
+                // Evicted while writing, reopen it
+            }
+        }
+    }
+
+    public static boolean chunkExists(Path worldDir, int chunkX, int chunkZ) throws IOException {
+        while (true) {
+            final SpongeRegionFile regionFile = getRegionFile(worldDir, chunkX, chunkZ, false);
+            if (regionFile == null) {
+                return false;
+            }
+            try {
+                return regionFile.hasChunk(chunkX, chunkZ);
+            } catch (ClosedChannelException e) {
+                // Evicted while checking, reopen it
+            }
+        }
+    }
+
+    public static void clear() {
+        final List<Evicted> files = new ArrayList<>();
+        synchronized (REGIONS_BY_FILE) {
+            for (final Map.Entry<Path, CompletableFuture<SpongeRegionFile>> entry : REGIONS_BY_FILE.entrySet()) {
+                files.add(evict(entry));
+            }
+            REGIONS_BY_FILE.clear();
+        }
+        closeAll(files);
+    }
+
+    /**
+     * Closes the open region files of the given world.
+     *
+     * @param worldDir The world directory
+     */
+    public static void clear(Path worldDir) {
+        final Path regionDir = getRegionDir(worldDir);
+        final List<Evicted> files = new ArrayList<>();
+        synchronized (REGIONS_BY_FILE) {
+            final Iterator<Map.Entry<Path, CompletableFuture<SpongeRegionFile>>> iterator = REGIONS_BY_FILE.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry<Path, CompletableFuture<SpongeRegionFile>> entry = iterator.next();
+                if (entry.getKey().startsWith(regionDir)) {
+                    files.add(evict(entry));
+                    iterator.remove();
+                }
+            }
+        }
+        closeAll(files);
+    }
+
+    public static int getOpenFiles() {
+        synchronized (REGIONS_BY_FILE) {
+            return REGIONS_BY_FILE.size();
+        }
+    }
+
+    public static long getHits() {
+        return HITS.get();
+    }
+
+    public static long getMisses() {
+        return MISSES.get();
+    }
+
+    public static long getEvictions() {
+        return EVICTIONS.get();
+    }
+
+    private static final class Evicted {
+
+        final Path file;
+        final CompletableFuture<SpongeRegionFile> regionFile;
+        final CompletableFuture<Void> closed = new CompletableFuture<>();
+
+        Evicted(Path file, CompletableFuture<SpongeRegionFile> regionFile) {
+            this.file = file;
+            this.regionFile = regionFile;
+        }
+    }
+
+}
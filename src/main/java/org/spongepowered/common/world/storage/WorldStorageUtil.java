@@ -47,11 +47,15 @@
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
+import javax.annotation.Nullable;
+
 public class WorldStorageUtil {
 
     public static CompletableFuture<Boolean> doesChunkExist(WorldServer world, IChunkLoader chunkLoader, Vector3i chunkCoords) {
@@ -79,13 +83,31 @@ public static CompletableFuture<Optional<DataContainer>> getChunkData(WorldServe
         if (!(chunkLoader instanceof AnvilChunkLoaderBridge) || !SpongeChunkLayout.instance.isValidChunk(x, y, z)) {
             return CompletableFuture.completedFuture(Optional.empty());
         }
-        File worldDir = ((AnvilChunkLoaderBridge) chunkLoader).bridge$getWorldDir().toFile();
+        Path worldDir = ((AnvilChunkLoaderBridge) chunkLoader).bridge$getWorldDir();
         return SpongeImpl.getScheduler().submitAsyncTask(() -> {
-            DataInputStream stream = RegionFileCache.getChunkInputStream(worldDir, x, z);
+            DataInputStream stream = getChunkInputStream(worldDir, x, z);
             return Optional.ofNullable(readDataFromRegion(stream));
         });
     }
 
+    /**
+     * Reads the data of a chunk through the region file cache that is also
+     * used to save chunks, so no second instance of the region file is opened.
+     *
+     * @param worldDir The world directory
+     * @param chunkX The chunk x coordinate
+     * @param chunkZ The chunk z coordinate
+     * @return The chunk data, or null if the chunk doesn't exist
+     * @throws IOException If the chunk could not be read
+     */
+    @Nullable
+    public static DataInputStream getChunkInputStream(Path worldDir, int chunkX, int chunkZ) throws IOException {
+        if (SpongeImpl.getGlobalConfigAdapter().getConfig().getOptimizations().useNioRegionFiles()) {
+            return SpongeRegionFileCache.getChunkInputStream(worldDir, chunkX, chunkZ);
+        }
+        return RegionFileCache.getChunkInputStream(worldDir.toFile(), chunkX, chunkZ);
+    }
+
     public static DataContainer readDataFromRegion(DataInputStream stream) throws IOException {
         if (stream == null) {
             return null;
@@ -112,20 +134,49 @@ public static Iterable<Path> listRegionFiles(Path worldDir) {
         }
     }
 
-    // Similar to RegionFileCache#createOrLoadRegionFile except this uses direct
-    // file name instead of x,z
-    public static RegionFile getRegionFile(Path regionFilePath) {
-        File file = regionFilePath.toFile();
-        RegionFile regionFile = RegionFileCacheAccessor.accessor$getRegionsByFileMap().get(file);
-        if (regionFile != null) {
-            return regionFile;
+    /**
+     * Gets the coordinates of the first chunk of the given region file from its
+     * {@code r.<x>.<z>.mca} name.
+     *
+     * @param regionFilePath The region file
+     * @return The chunk x and z coordinates, or null if the name isn't valid
+     */
+    @Nullable
+    public static int[] getRegionChunkCoords(Path regionFilePath) {
+        final String[] parts = regionFilePath.getFileName().toString().split("\\.");
+        if (parts.length != 4 || !parts[0].equals("r")) {
+            return null;
         }
-        if (RegionFileCacheAccessor.accessor$getRegionsByFileMap().size() >= 256) {
-            RegionFileCache.clearRegionFileReferences();
+        try {
+            return new int[] {Integer.parseInt(parts[1]) << 5, Integer.parseInt(parts[2]) << 5};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Closes the cached region files of the given world, so they are reopened
+     * from disk the next time they are used.
+     *
+     * @param worldDir The world directory
+     */
+    public static void closeRegionFiles(Path worldDir) {
+        final Path regionDir = worldDir.resolve("region").toAbsolutePath().normalize();
+        synchronized (RegionFileCache.class) {
+            final Iterator<Map.Entry<File, RegionFile>> iterator = RegionFileCacheAccessor.accessor$getRegionsByFileMap().entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry<File, RegionFile> entry = iterator.next();
+                if (entry.getKey().toPath().toAbsolutePath().normalize().startsWith(regionDir)) {
+                    try {
+                        entry.getValue().close();
+                    } catch (IOException e) {
+                        SpongeImpl.getLogger().error("Failed to close region file " + entry.getKey(), e);
+                    }
+                    iterator.remove();
+                }
+            }
         }
-        regionFile = new RegionFile(file);
-        RegionFileCacheAccessor.accessor$getRegionsByFileMap().put(file, regionFile);
-        return regionFile;
+        SpongeRegionFileCache.clear(worldDir);
     }
 
 }
@@ -0,0 +1,82 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class ImmutableDataInternTableTest {
+
+    private static String lookup(final ImmutableDataInternTable<String> table, final Object... args) {
+        final int hash = ImmutableDataInternTable.hash(args);
+        final String cached = table.get(args, hash);
+        return cached != null ? cached : table.put(args.clone(), hash, String.valueOf(args[0]));
+    }
+
+    @Test
+    public void testArgumentsMatchByValueAndClass() {
+        final ImmutableDataInternTable<String> table = new ImmutableDataInternTable<>(Object.class, 16);
+        final String first = lookup(table, 1000, true);
+        assertSame(first, lookup(table, 1000, true));
+        assertNull(table.get(new Object[] {1000L, true}, ImmutableDataInternTable.hash(new Object[] {1000L, true})));
+        assertSame(first, table.get((Object) 1000, true, ImmutableDataInternTable.hash(1000, true)));
+    }
+
+    @Test
+    public void testRecentlyUsedEntriesSurviveTurnover() {
+        final ImmutableDataInternTable<String> table = new ImmutableDataInternTable<>(Object.class, 4);
+        final String kept = lookup(table, "kept");
+        for (int i = 0; i < 3; i++) {
+            lookup(table, i);
+        }
+        // Turns the generation over, then moves the entry back into the young one
+        lookup(table, 3);
+        assertSame(kept, lookup(table, "kept"));
+        for (int i = 4; i < 8; i++) {
+            lookup(table, i);
+        }
+        assertSame(kept, table.get(new Object[] {"kept"}, ImmutableDataInternTable.hash(new Object[] {"kept"})));
+        assertNull(table.get(new Object[] {0}, ImmutableDataInternTable.hash(new Object[] {0})));
+    }
+
+    @Test
+    public void testStats() {
+        final ImmutableDataInternTable<String> table = new ImmutableDataInternTable<>(Object.class, 2);
+        lookup(table, 1);
+        lookup(table, 1);
+        lookup(table, 2);
+        lookup(table, 3);
+        lookup(table, 4);
+        lookup(table, 5);
+        final ImmutableDataCachingUtil.TypeStats stats = table.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(5, stats.getMisses());
+        assertEquals(2, stats.getEvictions());
+        assertEquals(3, stats.getSize());
+    }
+}
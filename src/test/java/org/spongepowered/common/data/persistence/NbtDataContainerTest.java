@@ -0,0 +1,103 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.data.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import org.junit.Test;
+import org.spongepowered.api.data.DataContainer;
+import org.spongepowered.api.data.DataQuery;
+import org.spongepowered.api.data.DataView;
+
+public class NbtDataContainerTest {
+
+    private static NBTTagCompound createCompound() {
+        final NBTTagCompound compound = new NBTTagCompound();
+        compound.setInteger("Count", 3);
+        compound.setBoolean("Unbreakable" + NbtTranslator.BOOLEAN_IDENTIFIER, true);
+        final NBTTagCompound display = new NBTTagCompound();
+        display.setString("Name", "test");
+        compound.setTag("display", display);
+        final NBTTagList list = new NBTTagList();
+        final NBTTagCompound element = new NBTTagCompound();
+        element.setShort("lvl", (short) 2);
+        list.appendTag(element);
+        compound.setTag("ench", list);
+        return compound;
+    }
+
+    @Test
+    public void testWrappedMatchesTranslated() {
+        final NBTTagCompound compound = createCompound();
+        final DataContainer wrapped = NbtTranslator.getInstance().wrap(compound);
+        assertEquals(NbtTranslator.getInstance().translateFrom(compound), wrapped);
+        assertEquals(true, wrapped.getBoolean(DataQuery.of("Unbreakable")).get());
+        assertEquals("test", wrapped.getString(DataQuery.of("display", "Name")).get());
+        assertEquals(compound, NbtTranslator.getInstance().translate(wrapped));
+    }
+
+    @Test
+    public void testUntouchedViewTranslatesToCopy() {
+        final NBTTagCompound compound = createCompound();
+        final DataContainer wrapped = NbtTranslator.getInstance().wrap(compound);
+        wrapped.getView(DataQuery.of("display")).get();
+        final NBTTagCompound translated = NbtTranslator.getInstance().translate(wrapped);
+        assertEquals(compound, translated);
+        assertNotSame(compound, translated);
+    }
+
+    @Test
+    public void testWritesAreCopiedNotWrittenThrough() {
+        final NBTTagCompound compound = createCompound();
+        final DataContainer wrapped = NbtTranslator.getInstance().wrap(compound);
+        final DataView display = wrapped.getView(DataQuery.of("display")).get();
+        display.set(DataQuery.of("Name"), "changed");
+        wrapped.remove(DataQuery.of("Count"));
+
+        assertEquals("test", compound.getCompoundTag("display").getString("Name"));
+        assertTrue(compound.hasKey("Count"));
+        final NBTTagCompound translated = NbtTranslator.getInstance().translate(wrapped);
+        assertEquals("changed", translated.getCompoundTag("display").getString("Name"));
+        assertFalse(translated.hasKey("Count"));
+    }
+
+    @Test
+    public void testSetSharesUntouchedView() {
+        final NBTTagCompound compound = createCompound();
+        final DataContainer container = DataContainer.createNew();
+        container.set(DataQuery.of("UnsafeData"), NbtTranslator.getInstance().wrap(compound));
+        final DataView shared = container.getView(DataQuery.of("UnsafeData")).get();
+        assertEquals(DataQuery.of("UnsafeData"), shared.getCurrentPath());
+        assertEquals(compound, NbtTranslator.getInstance().translate(shared));
+
+        shared.set(DataQuery.of("Count"), 5);
+        assertEquals(3, compound.getInteger("Count"));
+    }
+}
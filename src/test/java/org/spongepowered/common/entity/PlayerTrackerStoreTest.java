@@ -0,0 +1,96 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.entity;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.util.math.BlockPos;
+import org.junit.Test;
+import org.spongepowered.common.util.Constants;
+
+public class PlayerTrackerStoreTest {
+
+    @Test
+    public void testSetAndRemove() {
+        final PlayerTrackerStore store = new PlayerTrackerStore();
+        final BlockPos pos = new BlockPos(17, 70, -3);
+        assertTrue(store.isEmpty());
+        assertEquals(PlayerTrackerStore.NONE, store.get(pos));
+
+        store.set(pos, 3, -1);
+        assertFalse(store.isEmpty());
+        assertEquals(3, PlayerTrackerStore.getOwnerIndex(store.get(pos)));
+        assertEquals(-1, PlayerTrackerStore.getNotifierIndex(store.get(pos)));
+        assertEquals(PlayerTrackerStore.NONE, store.get(pos.up()));
+
+        store.remove(pos);
+        assertTrue(store.isEmpty());
+        assertEquals(PlayerTrackerStore.NONE, store.get(pos));
+    }
+
+    @Test
+    public void testRoundTrip() {
+        final PlayerTrackerStore store = new PlayerTrackerStore();
+        for (int i = 0; i < 256; i++) {
+            store.set(new BlockPos(i & 15, i, i >> 4), i % 7, i % 5);
+        }
+        store.set(new BlockPos(1, 300, 2), 4, 2);
+        // Unused palette entries are dropped when writing
+        store.set(new BlockPos(0, 0, 0), 100, 100);
+        store.set(new BlockPos(0, 0, 0), 0, 0);
+
+        final NBTTagCompound compound = new NBTTagCompound();
+        store.writeTo(compound);
+        assertEquals(35 * 2, compound.getIntArray(Constants.Sponge.SPONGE_TRACKER_PALETTE).length);
+
+        final PlayerTrackerStore read = new PlayerTrackerStore();
+        read.readFrom(compound);
+        for (int i = 0; i < 256; i++) {
+            final long tracked = read.get(new BlockPos(i & 15, i, i >> 4));
+            assertEquals(i % 7, PlayerTrackerStore.getOwnerIndex(tracked));
+            assertEquals(i % 5, PlayerTrackerStore.getNotifierIndex(tracked));
+        }
+        assertEquals(PlayerTrackerStore.pack(4, 2), read.get(new BlockPos(1, 300, 2)));
+    }
+
+    @Test
+    public void testReadLegacy() {
+        final BlockPos pos = new BlockPos(5, 130, 9);
+        final NBTTagCompound valueNbt = new NBTTagCompound();
+        valueNbt.setInteger("owner", 2);
+        valueNbt.setInteger("notifier", 6);
+        valueNbt.setShort("pos", Constants.Sponge.blockPosToShort(pos));
+        final NBTTagList positions = new NBTTagList();
+        positions.appendTag(valueNbt);
+
+        final PlayerTrackerStore store = new PlayerTrackerStore();
+        store.readLegacy(positions);
+        assertEquals(PlayerTrackerStore.pack(2, 6), store.get(pos));
+    }
+}
@@ -119,6 +119,34 @@ public void testMultipleListeners() {
         Assert.assertFalse("SPAWN_ENTITY_EVENT_CHUNK_LOAD is not false!", ShouldFire.SPAWN_ENTITY_EVENT_CHUNK_LOAD);
     }
 
+    @Test
+    public void testDynamicFlags() {
+        SubListener listener = new SubListener();
+
+        Assert.assertFalse("SpawnEntityEvent is not false!", ShouldFire.shouldFire(SpawnEntityEvent.class));
+        Assert.assertFalse("SpawnEntityEvent.Custom is not false!", ShouldFire.shouldFire(SpawnEntityEvent.Custom.class));
+
+        this.eventManager.registerListeners(this.plugin, listener);
+        Assert.assertTrue("SpawnEntityEvent is not true!", ShouldFire.shouldFire(SpawnEntityEvent.class));
+        Assert.assertTrue("SpawnEntityEvent.Custom is not true!", ShouldFire.shouldFire(SpawnEntityEvent.Custom.class));
+        Assert.assertFalse("SpawnEntityEvent.ChunkLoad is not false!", ShouldFire.shouldFire(SpawnEntityEvent.ChunkLoad.class));
+        Assert.assertFalse("DropItemEvent.Dispense is not false!", ShouldFire.shouldFire(DropItemEvent.Dispense.class));
+
+        this.eventManager.unregisterListeners(listener);
+        Assert.assertFalse("SpawnEntityEvent is not false!", ShouldFire.shouldFire(SpawnEntityEvent.class));
+        Assert.assertFalse("SpawnEntityEvent.Custom is not false!", ShouldFire.shouldFire(SpawnEntityEvent.Custom.class));
+    }
+
+    @Test
+    public void testDynamicFlagsDoNotLeakIntoNewManager() {
+        this.eventManager.registerListeners(this.plugin, new SubListener());
+        Assert.assertTrue("SpawnEntityEvent.Custom is not true!", ShouldFire.shouldFire(SpawnEntityEvent.Custom.class));
+
+        // A new manager starts without any of the listeners of the previous one
+        new SpongeEventManager(this.logger, Mockito.mock(PluginManager.class));
+        Assert.assertFalse("SpawnEntityEvent.Custom is not false!", ShouldFire.shouldFire(SpawnEntityEvent.Custom.class));
+    }
+
     private static class SpawnListener {
 
         @Listener
@@ -0,0 +1,154 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.util.gen;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.flowpowered.math.vector.Vector3i;
+import net.minecraft.init.Blocks;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.data.persistence.InvalidDataException;
+import org.spongepowered.common.world.schematic.LocalBlockPalette;
+import org.spongepowered.lwts.runner.LaunchWrapperTestRunner;
+
+@RunWith(LaunchWrapperTestRunner.class)
+public class ArrayMutableBlockBufferTest {
+
+    private static final Vector3i START = new Vector3i(10, 0, -3);
+    private static final Vector3i SIZE = new Vector3i(5, 3, 4);
+
+    private static BlockState state(final net.minecraft.block.Block block) {
+        return (BlockState) block.getDefaultState();
+    }
+
+    /**
+     * Stone at 0, then air, with dirt at an id that takes two bytes and
+     * glass at one that takes three.
+     */
+    private static LocalBlockPalette palette() {
+        final LocalBlockPalette palette = new LocalBlockPalette();
+        palette.assign(state(Blocks.STONE), 0);
+        palette.assign(state(Blocks.AIR), 1);
+        palette.assign(state(Blocks.DIRT), 300);
+        palette.assign(state(Blocks.GLASS), 20000);
+        return palette;
+    }
+
+    private static BlockState expected(final int x, final int y, final int z) {
+        switch ((x + 2 * y + 3 * z) % 4) {
+            case 0:
+                return state(Blocks.STONE);
+            case 1:
+                return state(Blocks.DIRT);
+            case 2:
+                return state(Blocks.GLASS);
+            default:
+                return state(Blocks.AIR);
+        }
+    }
+
+    @Test
+    public void testRoundTrip() {
+        final ArrayMutableBlockBuffer buffer = new ArrayMutableBlockBuffer(palette(), START, SIZE);
+        for (int y = 0; y < SIZE.getY(); y++) {
+            for (int z = 0; z < SIZE.getZ(); z++) {
+                for (int x = 0; x < SIZE.getX(); x++) {
+                    buffer.setBlock(START.add(x, y, z), expected(x, y, z));
+                }
+            }
+        }
+        final byte[] data = buffer.toVarIntData();
+        final ArrayMutableBlockBuffer decoded = ArrayMutableBlockBuffer.fromVarIntData(buffer.getPalette(), START, SIZE, data);
+        for (int y = 0; y < SIZE.getY(); y++) {
+            for (int z = 0; z < SIZE.getZ(); z++) {
+                for (int x = 0; x < SIZE.getX(); x++) {
+                    assertSame(expected(x, y, z), decoded.getBlock(START.add(x, y, z)));
+                }
+            }
+        }
+        assertArrayEquals(data, decoded.toVarIntData());
+    }
+
+    @Test
+    public void testMultiByteVarInts() {
+        final Vector3i size = new Vector3i(3, 1, 1);
+        final ArrayMutableBlockBuffer buffer = new ArrayMutableBlockBuffer(palette(), Vector3i.ZERO, size);
+        buffer.setBlock(0, 0, 0, state(Blocks.DIRT));
+        buffer.setBlock(1, 0, 0, state(Blocks.STONE));
+        buffer.setBlock(2, 0, 0, state(Blocks.GLASS));
+        // 300 = 0b10_0101100, 20000 = 0b1_0011100_0100000
+        final byte[] data = {(byte) 0xAC, 0x02, 0x00, (byte) 0xA0, (byte) 0x9C, 0x01};
+        assertArrayEquals(data, buffer.toVarIntData());
+        final ArrayMutableBlockBuffer decoded = ArrayMutableBlockBuffer.fromVarIntData(palette(), Vector3i.ZERO, size, data);
+        assertSame(state(Blocks.DIRT), decoded.getBlock(0, 0, 0));
+        assertSame(state(Blocks.STONE), decoded.getBlock(1, 0, 0));
+        assertSame(state(Blocks.GLASS), decoded.getBlock(2, 0, 0));
+    }
+
+    @Test
+    public void testShortDataIsPaddedWithAir() {
+        final byte[] data = new byte[7];
+        final ArrayMutableBlockBuffer decoded = ArrayMutableBlockBuffer.fromVarIntData(palette(), START, SIZE, data);
+        int index = 0;
+        for (int y = 0; y < SIZE.getY(); y++) {
+            for (int z = 0; z < SIZE.getZ(); z++) {
+                for (int x = 0; x < SIZE.getX(); x++) {
+                    assertSame(index++ < data.length ? state(Blocks.STONE) : state(Blocks.AIR), decoded.getBlock(START.add(x, y, z)));
+                }
+            }
+        }
+        assertEquals(SIZE.getX() * SIZE.getY() * SIZE.getZ(), index);
+    }
+
+    @Test(expected = InvalidDataException.class)
+    public void testUnknownIdIsRejected() {
+        // 2 is below the highest id 20000 but never assigned
+        ArrayMutableBlockBuffer.fromVarIntData(palette(), START, SIZE, new byte[] {0, 2});
+    }
+
+    @Test(expected = InvalidDataException.class)
+    public void testIdAbovePaletteIsRejected() {
+        ArrayMutableBlockBuffer.fromVarIntData(palette(), START, SIZE, new byte[] {(byte) 0xA1, (byte) 0x9C, 0x01});
+    }
+
+    @Test(expected = InvalidDataException.class)
+    public void testNegativeIdIsRejected() {
+        ArrayMutableBlockBuffer.fromVarIntData(palette(), START, SIZE, new byte[] {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F});
+    }
+
+    @Test(expected = InvalidDataException.class)
+    public void testTruncatedVarIntIsRejected() {
+        ArrayMutableBlockBuffer.fromVarIntData(palette(), START, SIZE, new byte[] {0, (byte) 0xAC});
+    }
+
+    @Test(expected = InvalidDataException.class)
+    public void testOverlongDataIsRejected() {
+        ArrayMutableBlockBuffer.fromVarIntData(palette(), START, SIZE, new byte[SIZE.getX() * SIZE.getY() * SIZE.getZ() + 1]);
+    }
+}
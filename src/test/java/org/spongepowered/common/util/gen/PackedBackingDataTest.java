@@ -0,0 +1,62 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.util.gen;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.spongepowered.common.util.gen.ArrayMutableBlockBuffer.PackedBackingData;
+
+public class PackedBackingDataTest {
+
+    @Test
+    public void testValuesSplitAcrossLongs() {
+        final PackedBackingData data = new PackedBackingData(100, 1000);
+        for (int i = 0; i < 100; i++) {
+            data.set(i, (i * 37) % 1001);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals((i * 37) % 1001, data.get(i));
+        }
+    }
+
+    @Test
+    public void testOnlyZeroFits() {
+        final PackedBackingData data = new PackedBackingData(10, 0);
+        assertEquals(0, data.get(9));
+        assertEquals(1, data.getMax());
+    }
+
+    @Test
+    public void testNeighboursAreNotOverwritten() {
+        final PackedBackingData data = new PackedBackingData(64, 7);
+        data.set(20, 7);
+        data.set(21, 5);
+        data.set(20, 0);
+        assertEquals(0, data.get(20));
+        assertEquals(5, data.get(21));
+        assertEquals(0, data.get(22));
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.schematic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import net.minecraft.init.Blocks;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.lwts.runner.LaunchWrapperTestRunner;
+
+@RunWith(LaunchWrapperTestRunner.class)
+public class LocalBlockPaletteTest {
+
+    private static final BlockState STONE = (BlockState) Blocks.STONE.getDefaultState();
+    private static final BlockState DIRT = (BlockState) Blocks.DIRT.getDefaultState();
+    private static final BlockState GLASS = (BlockState) Blocks.GLASS.getDefaultState();
+
+    @Test
+    public void testAssignedIdsRoundTrip() {
+        final LocalBlockPalette palette = new LocalBlockPalette(1);
+        palette.assign(STONE, 0);
+        palette.assign(DIRT, 300);
+        assertEquals(300, palette.getHighestId());
+        assertEquals(0, palette.getId(STONE));
+        assertEquals(300, palette.getId(DIRT));
+        assertSame(DIRT, palette.getState(300));
+        assertEquals(1, palette.getOrAssign(GLASS));
+        assertNull(palette.getState(2));
+        assertNull(palette.getState(-1));
+        assertNull(palette.getState(301));
+    }
+
+    @Test
+    public void testReassignedIdDropsOldState() {
+        final LocalBlockPalette palette = new LocalBlockPalette();
+        palette.assign(STONE, 5);
+        palette.assign(DIRT, 5);
+        assertEquals(-1, palette.getId(STONE));
+        assertEquals(5, palette.getId(DIRT));
+    }
+
+    @Test
+    public void testRemoveLowersHighestId() {
+        final LocalBlockPalette palette = new LocalBlockPalette();
+        palette.assign(STONE, 0);
+        palette.assign(DIRT, 7);
+        assertTrue(palette.remove(DIRT));
+        assertFalse(palette.remove(DIRT));
+        assertEquals(0, palette.getHighestId());
+        assertEquals(-1, palette.getId(DIRT));
+        assertEquals(1, palette.getOrAssign(DIRT));
+    }
+}
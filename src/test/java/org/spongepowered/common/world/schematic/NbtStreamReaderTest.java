@@ -0,0 +1,107 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.schematic;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTTagLongArray;
+import org.junit.Test;
+import org.spongepowered.common.util.Constants;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+public class NbtStreamReaderTest {
+
+    private static NbtStreamReader reader(final NBTTagCompound root) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CompressedStreamTools.write(root, new DataOutputStream(bytes));
+        final NbtStreamReader reader = new NbtStreamReader(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        reader.readRoot();
+        return reader;
+    }
+
+    @Test
+    public void testSkippedTagsAreFullyConsumed() throws IOException {
+        final NBTTagCompound root = new NBTTagCompound();
+        final NBTTagCompound nested = new NBTTagCompound();
+        nested.setString("Name", "test");
+        nested.setTag("Longs", new NBTTagLongArray(new long[] {1, 2, 3}));
+        final NBTTagList list = new NBTTagList();
+        list.appendTag(nested);
+        root.setTag("Skipped", list);
+        root.setIntArray("Ints", new int[] {4, 5});
+        root.setInteger("Kept", 42);
+
+        final NbtStreamReader reader = reader(root);
+        int kept = -1;
+        byte type;
+        while ((type = reader.readType()) != Constants.NBT.TAG_END) {
+            if ("Kept".equals(reader.readName())) {
+                kept = reader.readInt();
+            } else {
+                reader.skipPayload(type);
+            }
+        }
+        assertEquals(42, kept);
+    }
+
+    @Test
+    public void testReadCompound() throws IOException {
+        final NBTTagCompound root = new NBTTagCompound();
+        final NBTTagCompound palette = new NBTTagCompound();
+        palette.setInteger("minecraft:air", 0);
+        palette.setInteger("minecraft:stone", 1);
+        root.setTag("Palette", palette);
+
+        final NbtStreamReader reader = reader(root);
+        assertEquals(Constants.NBT.TAG_COMPOUND, reader.readType());
+        assertEquals("Palette", reader.readName());
+        assertEquals(palette, reader.readCompound());
+        assertEquals(Constants.NBT.TAG_END, reader.readType());
+    }
+
+    @Test
+    public void testVarIntsAreDecodedInPlace() throws IOException {
+        final NBTTagCompound root = new NBTTagCompound();
+        // 0, 1, 300 and 70000 as unsigned var ints
+        root.setByteArray("BlockData", new byte[] {0, 1, (byte) 0xAC, 0x02, (byte) 0xF0, (byte) 0xA2, 0x04});
+
+        final NbtStreamReader reader = reader(root);
+        assertEquals(Constants.NBT.TAG_BYTE_ARRAY, reader.readType());
+        assertEquals("BlockData", reader.readName());
+        final IntArrayList values = new IntArrayList();
+        reader.readVarInts(values::add);
+        assertArrayEquals(new int[] {0, 1, 300, 70000}, values.toIntArray());
+    }
+}
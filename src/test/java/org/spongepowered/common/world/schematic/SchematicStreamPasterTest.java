@@ -0,0 +1,192 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.schematic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import com.flowpowered.math.vector.Vector3i;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.spongepowered.api.block.BlockState;
+import org.spongepowered.api.world.biome.BiomeType;
+import org.spongepowered.common.util.Constants;
+import org.spongepowered.lwts.runner.LaunchWrapperTestRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RunWith(LaunchWrapperTestRunner.class)
+public class SchematicStreamPasterTest {
+
+    private static final int WIDTH = 64;
+    private static final int HEIGHT = 17;
+    private static final int LENGTH = 64;
+    // An id that takes two bytes as a var int
+    private static final int DIRT_ID = 200;
+
+    private final BlockState stone = Mockito.mock(BlockState.class, Mockito.withSettings().extraInterfaces(IBlockState.class));
+    private final BlockState dirt = Mockito.mock(BlockState.class, Mockito.withSettings().extraInterfaces(IBlockState.class));
+    private final BiomeType plains = Mockito.mock(BiomeType.class);
+    private final BiomeType desert = Mockito.mock(BiomeType.class);
+
+    private static boolean isDirt(final int x, final int y, final int z) {
+        return (x + y + z) % 3 == 0;
+    }
+
+    private static void writeVarInt(final ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static byte[] schematic() throws IOException {
+        final NBTTagCompound root = new NBTTagCompound();
+        root.setInteger("Version", Constants.Sponge.Schematic.CURRENT_VERSION);
+        root.setInteger("DataVersion", Constants.MINECRAFT_DATA_VERSION);
+        root.setShort("Width", (short) WIDTH);
+        root.setShort("Height", (short) HEIGHT);
+        root.setShort("Length", (short) LENGTH);
+        root.setIntArray("Offset", new int[] {1, 2, 3});
+
+        // The data comes before the palettes, which are read in an earlier pass
+        final ByteArrayOutputStream blocks = new ByteArrayOutputStream();
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int z = 0; z < LENGTH; z++) {
+                for (int x = 0; x < WIDTH; x++) {
+                    writeVarInt(blocks, isDirt(x, y, z) ? DIRT_ID : 0);
+                }
+            }
+        }
+        root.setByteArray("BlockData", blocks.toByteArray());
+        final ByteArrayOutputStream biomes = new ByteArrayOutputStream();
+        for (int z = 0; z < LENGTH; z++) {
+            for (int x = 0; x < WIDTH; x++) {
+                writeVarInt(biomes, x < z ? 1 : 0);
+            }
+        }
+        root.setByteArray("BiomeData", biomes.toByteArray());
+
+        root.setInteger("PaletteMax", DIRT_ID);
+        final NBTTagCompound palette = new NBTTagCompound();
+        palette.setInteger("minecraft:stone", 0);
+        palette.setInteger("minecraft:dirt", DIRT_ID);
+        root.setTag("Palette", palette);
+        root.setInteger("BiomePaletteMax", 1);
+        final NBTTagCompound biomePalette = new NBTTagCompound();
+        biomePalette.setInteger("minecraft:plains", 0);
+        biomePalette.setInteger("minecraft:desert", 1);
+        root.setTag("BiomePalette", biomePalette);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CompressedStreamTools.write(root, new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void testPasteAcrossSlices() throws IOException {
+        final byte[] data = schematic();
+        final Vector3i origin = new Vector3i(100, 64, -50);
+        final RecordingTarget target = new RecordingTarget();
+        final Map<String, BlockState> states = new HashMap<>();
+        states.put("minecraft:stone", this.stone);
+        states.put("minecraft:dirt", this.dirt);
+        final Map<String, BiomeType> biomeTypes = new HashMap<>();
+        biomeTypes.put("minecraft:plains", this.plains);
+        biomeTypes.put("minecraft:desert", this.desert);
+
+        SchematicStreamPaster.pasteVolume(() -> new ByteArrayInputStream(data), origin, target,
+            key -> Optional.ofNullable(states.get(key)), key -> Optional.ofNullable(biomeTypes.get(key)));
+
+        // 69632 blocks are two slices, the second one starting with the 17th layer
+        final int volume = WIDTH * HEIGHT * LENGTH;
+        assertEquals(volume, target.blocks.size());
+        assertEquals(2, target.sliceStarts.size());
+        assertEquals(0, target.sliceStarts.getInt(0));
+        assertEquals(SchematicStreamPaster.SLICE_SIZE, target.sliceStarts.getInt(1));
+        assertEquals(2, target.sliceEnds.size());
+        assertEquals(SchematicStreamPaster.SLICE_SIZE, target.sliceEnds.getInt(0));
+        assertEquals(volume, target.sliceEnds.getInt(1));
+        assertEquals(new Vector3i(99, 78, -53), target.positions.get(SchematicStreamPaster.SLICE_SIZE));
+
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int z = 0; z < LENGTH; z++) {
+                for (int x = 0; x < WIDTH; x++) {
+                    // The position in the schematic minus its offset, relative to the origin
+                    final Vector3i position = new Vector3i(99 + x, 62 + y, -53 + z);
+                    assertSame(position.toString(), isDirt(x, y, z) ? this.dirt : this.stone, target.blocks.get(position));
+                }
+            }
+        }
+        assertEquals(WIDTH * LENGTH, target.biomes.size());
+        assertSame(this.desert, target.biomes.get(new Vector3i(99, 0, -52)));
+        assertSame(this.plains, target.biomes.get(new Vector3i(100, 0, -52)));
+    }
+
+    private static final class RecordingTarget implements SchematicStreamPaster.VolumeTarget {
+
+        final Map<Vector3i, BlockState> blocks = new HashMap<>();
+        final List<Vector3i> positions = new ArrayList<>();
+        final Map<Vector3i, BiomeType> biomes = new HashMap<>();
+        final IntArrayList sliceStarts = new IntArrayList();
+        final IntArrayList sliceEnds = new IntArrayList();
+
+        @Override
+        public void beginSlice() {
+            this.sliceStarts.add(this.positions.size());
+        }
+
+        @Override
+        public void endSlice() {
+            this.sliceEnds.add(this.positions.size());
+        }
+
+        @Override
+        public void setBlock(final int x, final int y, final int z, final BlockState state) {
+            final Vector3i position = new Vector3i(x, y, z);
+            this.positions.add(position);
+            this.blocks.put(position, state);
+        }
+
+        @Override
+        public void setBiome(final int x, final int z, final BiomeType biome) {
+            this.biomes.put(new Vector3i(x, 0, z), biome);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of Sponge, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) SpongePowered <https://www.spongepowered.org>
+ * Copyright (c) contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.spongepowered.common.world.storage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.io.ByteStreams;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+
+public class Lz4ChunkCodecTest {
+
+    private static byte[] roundTrip(byte[] data) throws IOException {
+        final Lz4ChunkCodec codec = new Lz4ChunkCodec();
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (final OutputStream out = codec.compress(buffer, null)) {
+            out.write(data);
+        }
+        return ByteStreams.toByteArray(codec.decompress(new ByteArrayInputStream(buffer.toByteArray()), null));
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        assertArrayEquals(new byte[0], roundTrip(new byte[0]));
+    }
+
+    @Test
+    public void testRandomData() throws IOException {
+        final Random random = new Random(0);
+        for (int length : new int[] {1, 12, 13, 100, Lz4ChunkCodec.BLOCK_SIZE, Lz4ChunkCodec.BLOCK_SIZE * 3 + 7}) {
+            final byte[] data = new byte[length];
+            random.nextBytes(data);
+            assertArrayEquals(data, roundTrip(data));
+        }
+    }
+
+    @Test
+    public void testRepetitiveData() throws IOException {
+        final Random random = new Random(0);
+        final byte[] data = new byte[200000];
+        for (int i = 0; i < data.length; i++) {
+            // Long runs of the same value, like the arrays of a chunk
+            data[i] = i > 0 && random.nextInt(32) != 0 ? data[i - 1] : (byte) random.nextInt(256);
+        }
+        assertArrayEquals(data, roundTrip(data));
+
+        final byte[] compressed = new byte[Lz4ChunkCodec.maxCompressedLength(data.length)];
+        assertTrue(Lz4ChunkCodec.compress(data, 0, data.length, compressed, 0) < data.length / 2);
+    }
+
+    @Test(expected = IOException.class)
+    public void testMalformedBlock() throws IOException {
+        final byte[] block = {(byte) 0x1F, 1, 0x10, 0};
+        Lz4ChunkCodec.decompress(block, 0, block.length, new byte[32], 0, 32);
+    }
+
+}